@@ -8,6 +8,8 @@ import org.springframework.beans.factory.annotation.Value;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
@@ -43,4 +45,14 @@ public class AsyncConfig implements AsyncConfigurer {
                 corePoolSize, maxPoolSize);
         return executor;
     }
+
+    /**
+     * Executor for fanning blocking I/O (SSH commands, Docker API calls) out across
+     * many hosts or containers. Uses virtual threads so hundreds of concurrent remote
+     * calls do not tie up platform threads; callers bound concurrency themselves.
+     */
+    @Bean(name = "fanOutExecutorService", destroyMethod = "shutdownNow")
+    public ExecutorService fanOutExecutorService() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("mcp-fanout-", 0).factory());
+    }
 }
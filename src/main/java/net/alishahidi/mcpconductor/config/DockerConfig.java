@@ -1,19 +1,19 @@
 package net.alishahidi.mcpconductor.config;
 
-import com.github.dockerjava.api.DockerClient;
-import com.github.dockerjava.core.DefaultDockerClientConfig;
-import com.github.dockerjava.core.DockerClientBuilder;
-import com.github.dockerjava.core.DockerClientConfig;
-import com.github.dockerjava.httpclient5.ApacheDockerHttpClient;
-import com.github.dockerjava.transport.DockerHttpClient;
+import net.alishahidi.mcpconductor.util.DockerClientRegistry;
+import net.alishahidi.mcpconductor.util.SSHConnectionPool;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import lombok.extern.slf4j.Slf4j;
 
 import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Configuration
+@EnableConfigurationProperties(DockerProperties.class)
 @Slf4j
 public class DockerConfig {
 
@@ -38,31 +38,49 @@ public class DockerConfig {
     @Value("${docker.cert.path:}")
     private String certPath;
 
-    @Bean
-    public DockerClient dockerClient() {
-        DockerClientConfig config = DefaultDockerClientConfig.createDefaultConfigBuilder()
-                .withDockerHost(dockerHost)
-                .withDockerTlsVerify(tlsVerify)
-                .withDockerCertPath(certPath)
-                .withApiVersion(apiVersion)
-                .withRegistryUrl(registryUrl)
-                .withRegistryUsername(registryUsername)
-                .withRegistryPassword(registryPassword)
-                .build();
-
-        DockerHttpClient httpClient = new ApacheDockerHttpClient.Builder()
-                .dockerHost(config.getDockerHost())
-                .sslConfig(config.getSSLConfig())
-                .maxConnections(100)
-                .connectionTimeout(Duration.ofSeconds(30))
-                .responseTimeout(Duration.ofSeconds(45))
-                .build();
-
-        DockerClient client = DockerClientBuilder.getInstance(config)
-                .withDockerHttpClient(httpClient)
-                .build();
-
-        log.info("Docker client initialized for host: {}", dockerHost);
-        return client;
+    @Value("${docker.events.enabled:true}")
+    private boolean eventsEnabled;
+
+    @Value("${docker.events.resync-interval-seconds:300}")
+    private long resyncIntervalSeconds;
+
+    @Value("${docker.events.reconnect-delay-seconds:5}")
+    private long reconnectDelaySeconds;
+
+    @Bean(destroyMethod = "close")
+    public DockerClientRegistry dockerClientRegistry(DockerProperties properties,
+                                                     SSHConnectionPool sshConnectionPool) {
+        DockerProperties.HostConfig local = new DockerProperties.HostConfig();
+        local.setHost(dockerHost);
+        local.setApiVersion(apiVersion);
+        local.setTlsVerify(tlsVerify);
+        local.setCertPath(certPath);
+        local.setMaxConnections(100);
+
+        Map<String, DockerProperties.HostConfig> hosts = new LinkedHashMap<>();
+        hosts.put(DockerClientRegistry.DEFAULT_SERVER, local);
+        hosts.putAll(properties.getHosts());
+
+        DockerClientRegistry registry = new DockerClientRegistry(
+                hosts,
+                sshConnectionPool,
+                registryUrl,
+                registryUsername,
+                registryPassword,
+                eventsEnabled,
+                Duration.ofSeconds(resyncIntervalSeconds),
+                Duration.ofSeconds(reconnectDelaySeconds)
+        );
+
+        // The local daemon is warmed eagerly so its event subscription starts at boot;
+        // remote hosts connect on first use
+        try {
+            registry.warmUp(DockerClientRegistry.DEFAULT_SERVER);
+        } catch (Exception e) {
+            log.warn("Local Docker endpoint unavailable at startup: {}", e.getMessage());
+        }
+
+        log.info("Docker hosts configured: {}", registry.getServerNames());
+        return registry;
     }
 }
@@ -0,0 +1,33 @@
+package net.alishahidi.mcpconductor.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Additional Docker endpoints keyed by server name. The endpoint described by the
+ * flat {@code docker.host}/{@code docker.tls.verify}/... settings is always
+ * available as {@code local}.
+ */
+@Data
+@ConfigurationProperties(prefix = "docker")
+public class DockerProperties {
+    private Map<String, HostConfig> hosts = new HashMap<>();
+
+    @Data
+    public static class HostConfig {
+        private String host;
+        private String apiVersion;
+        private boolean tlsVerify;
+        private String certPath;
+        // Name of an ssh.servers entry; when set, the remote socket is tunnelled over that session
+        private String sshServer;
+        private String remoteSocket = "/var/run/docker.sock";
+        private int maxConnections = 20;
+        private int connectionTimeoutSeconds = 30;
+        // Applies to request/response calls only; event, log, stats and exec streams run without it
+        private int responseTimeoutSeconds = 45;
+        private boolean eventsEnabled = true;
+    }
+}
@@ -2,8 +2,13 @@ package net.alishahidi.mcpconductor.config;
 
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Data
 @ConfigurationProperties(prefix = "ssh")
@@ -19,6 +24,28 @@ public class SSHProperties {
     private int maxPoolSize = 10;
     private Map<String, ServerConfig> servers = new HashMap<>();
 
+    /**
+     * Names of the configured servers carrying any of the comma-separated tags,
+     * sorted. A blank selector, "all" or "*" selects every server.
+     */
+    public List<String> selectServers(String tagSelector) {
+        boolean all = tagSelector == null || tagSelector.isBlank()
+                || "all".equalsIgnoreCase(tagSelector.trim()) || "*".equals(tagSelector.trim());
+        Set<String> tags = all ? Set.of() : Arrays.stream(tagSelector.split(","))
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .collect(Collectors.toSet());
+
+        List<String> selected = new ArrayList<>();
+        servers.forEach((name, config) -> {
+            if (all || config.getTags().stream().anyMatch(tags::contains)) {
+                selected.add(name);
+            }
+        });
+        selected.sort(null);
+        return selected;
+    }
+
     @Data
     public static class ServerConfig {
         private String host;
@@ -27,5 +54,6 @@ public class SSHProperties {
         private String password;
         private String privateKeyPath;
         private String sudoPassword;
+        private List<String> tags = new ArrayList<>();
     }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveTransfer {
+    private String operation; // download, upload or copy
+    private String source;
+    private String target;
+    private String compression;
+    private long bytes;
+    private long elapsedMs;
+    private String warnings; // tar messages about files it skipped or that changed while read
+}
@@ -0,0 +1,23 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkActionResult {
+    private String action;
+    private int requested;
+    private int done;
+    private int unchanged;
+    private int notFound;
+    private int failed;
+    private long durationMs;
+    private List<ContainerActionResult> results;
+}
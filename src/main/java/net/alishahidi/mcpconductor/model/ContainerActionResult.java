@@ -0,0 +1,18 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContainerActionResult {
+    private String containerId;
+    // done, unchanged, not_found or failed
+    private String status;
+    private String message;
+    private long durationMs;
+}
@@ -0,0 +1,23 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContainerLogs {
+    private String containerId;
+    private String stdout;
+    private String stderr;
+    private long stdoutBytes;
+    private long stderrBytes;
+    private long linesScanned;
+    private long linesMatched;
+    private boolean truncated;
+    private boolean followed;
+    private long durationMs;
+}
@@ -0,0 +1,25 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ContainerStatsSummary {
+    private String containerId;
+    private int samples;
+    private int windowSeconds;
+    private Long memoryLimitBytes;
+    private MetricSummary cpuPercent;
+    private MetricSummary memoryBytes;
+    private MetricSummary memoryPercent;
+    private MetricSummary netRxBytesPerSec;
+    private MetricSummary netTxBytesPerSec;
+    private MetricSummary blockReadBytesPerSec;
+    private MetricSummary blockWriteBytesPerSec;
+    private String error;
+}
@@ -0,0 +1,20 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiskUsage {
+    private String filesystem;
+    private String type;
+    private long sizeBytes;
+    private long usedBytes;
+    private long availableBytes;
+    private int usedPercent;
+    private String mountPoint;
+}
@@ -0,0 +1,25 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiskUsageNode {
+    private String path;
+    // Apparent size of everything below, including the directory itself
+    private long sizeBytes;
+    private long files;
+    private long directories;
+    private String modified;
+    // Largest children first
+    private List<DiskUsageNode> children;
+    private int omittedChildren;
+    private long omittedBytes;
+}
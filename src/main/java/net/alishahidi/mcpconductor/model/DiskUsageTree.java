@@ -0,0 +1,16 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiskUsageTree {
+    private FileIndexInfo index;
+    private long queryMs;
+    private DiskUsageNode tree;
+}
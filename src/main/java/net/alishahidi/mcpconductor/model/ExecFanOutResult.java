@@ -0,0 +1,23 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecFanOutResult {
+    private String command;
+    private int containers;
+    private int succeeded;
+    private int failed;
+    private int timedOut;
+    private long durationMs;
+    // Containers with byte-identical output and the same exit code share one group
+    private List<ExecOutputGroup> groups;
+}
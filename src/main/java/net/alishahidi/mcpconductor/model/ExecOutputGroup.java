@@ -0,0 +1,23 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecOutputGroup {
+    private List<String> containerIds;
+    private Long exitCode;
+    private String stdout;
+    private String stderr;
+    private boolean truncated;
+    private boolean timedOut;
+    private boolean killed;
+    private String error;
+}
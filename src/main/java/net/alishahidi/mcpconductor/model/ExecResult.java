@@ -0,0 +1,26 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecResult {
+    private String containerId;
+    // Null when the process had not exited (deadline hit) or the exec could not start
+    private Long exitCode;
+    private String stdout;
+    private String stderr;
+    private long stdoutBytes;
+    private long stderrBytes;
+    private boolean truncated;
+    private boolean timedOut;
+    // Still running at its deadline or output cap and then killed inside the container
+    private boolean killed;
+    private String error;
+    private long durationMs;
+}
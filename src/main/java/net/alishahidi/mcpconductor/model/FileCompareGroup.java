@@ -0,0 +1,23 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileCompareGroup {
+    private String sha256; // null for servers where the file is missing
+    private long size;
+    private List<String> servers;
+    private boolean reference;
+    private int differingChunks;
+    private Long firstDifferenceOffset;
+    private String diff; // unified diff against the reference group, from the first differing line
+    private boolean diffTruncated;
+}
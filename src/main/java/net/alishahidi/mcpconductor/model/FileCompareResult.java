@@ -0,0 +1,24 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileCompareResult {
+    private String path;
+    private List<String> servers;
+    private boolean identical;
+    private int chunkSize;
+    private List<FileCompareGroup> groups;
+    private int cacheHits;
+    private Map<String, String> errors;
+    private long elapsedMs;
+}
@@ -0,0 +1,31 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileEntry {
+
+    public enum FileType {
+        FILE, DIRECTORY, SYMLINK, FIFO, SOCKET, CHAR_DEVICE, BLOCK_DEVICE, UNKNOWN
+    }
+
+    // Relative to the listed directory, so entries of a recursive listing include their subdirectory
+    private String name;
+    private FileType type;
+    // Mode string as ls prints it, e.g. -rwxr-xr-x
+    private String permissions;
+    // Permission bits in octal, e.g. 0755
+    private String mode;
+    private int links;
+    private String owner;
+    private String group;
+    private long sizeBytes;
+    private long modifiedEpochSeconds;
+    private String linkTarget;
+}
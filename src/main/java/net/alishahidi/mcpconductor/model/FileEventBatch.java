@@ -0,0 +1,18 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileEventBatch {
+    private List<FileWatchEvent> events;
+    private boolean more;
+    private List<FileWatchInfo> watches;
+}
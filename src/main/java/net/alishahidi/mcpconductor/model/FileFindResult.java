@@ -0,0 +1,20 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileFindResult {
+    private FileIndexInfo index;
+    private long queryMs;
+    private int matched;
+    private boolean truncated;
+    private List<FileMatch> entries;
+}
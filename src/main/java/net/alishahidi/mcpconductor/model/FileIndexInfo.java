@@ -0,0 +1,27 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileIndexInfo {
+    private String server;
+    private String root;
+    private int entries;
+    private long memoryBytes;
+    private String builtAt;
+    private String refreshedAt;
+    // full or incremental
+    private String lastScan;
+    private long lastScanMs;
+    private int rescannedDirectories;
+    // Subtrees that could not be scanned
+    private List<String> errors;
+}
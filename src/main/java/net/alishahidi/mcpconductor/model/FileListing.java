@@ -0,0 +1,19 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileListing {
+    private String path;
+    private List<FileEntry> entries;
+    // Pass back as cursor for the next page; null when the listing is complete
+    private String nextCursor;
+}
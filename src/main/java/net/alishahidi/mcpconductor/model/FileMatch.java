@@ -0,0 +1,18 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileMatch {
+    private String path;
+    private String type;
+    private long sizeBytes;
+    private String modified;
+    private String owner;
+}
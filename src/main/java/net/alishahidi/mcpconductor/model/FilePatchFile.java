@@ -0,0 +1,21 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FilePatchFile {
+    private String path;
+    private String status; // applied, verified (dry run), failed or skipped
+    private int hunks;
+    private int linesAdded;
+    private int linesRemoved;
+    private String oldSha256;
+    private String newSha256;
+    private String error;
+}
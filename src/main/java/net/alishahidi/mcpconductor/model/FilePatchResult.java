@@ -0,0 +1,21 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FilePatchResult {
+    private String server;
+    private boolean dryRun;
+    private boolean applied;
+    private List<FilePatchFile> files;
+    private String error;
+    private long elapsedMs;
+}
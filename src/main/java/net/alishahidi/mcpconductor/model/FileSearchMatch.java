@@ -0,0 +1,21 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileSearchMatch {
+    private String server;
+    private String path;
+    private int line;
+    private String text;
+    private List<String> before;
+    private List<String> after;
+}
@@ -0,0 +1,26 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileSearchResult {
+    private String pattern;
+    private String path;
+    private List<String> servers;
+    private List<FileSearchMatch> matches;
+    private Map<String, Integer> matchesPerServer;
+    private int files;
+    private long bytes;
+    private boolean truncated;
+    private Map<String, String> errors;
+    private long elapsedMs;
+}
@@ -0,0 +1,22 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileWatchEvent {
+    private long sequence;
+    private String watchId;
+    private String server;
+    private String path;
+    private String type;
+    private boolean directory;
+    private int rawEvents;
+    private String firstAt;
+    private String lastAt;
+}
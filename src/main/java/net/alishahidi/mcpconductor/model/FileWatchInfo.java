@@ -0,0 +1,27 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileWatchInfo {
+    private String id;
+    private String server;
+    private List<String> paths;
+    private boolean recursive;
+    private String mode;
+    private long debounceMs;
+    private boolean active;
+    private String startedAt;
+    private long eventsDelivered;
+    private int eventsBuffered;
+    private long eventsDropped;
+    private String error;
+}
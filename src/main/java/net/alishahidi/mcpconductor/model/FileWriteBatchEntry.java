@@ -0,0 +1,17 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileWriteBatchEntry {
+    private String path;
+    private long bytes;
+    private String sha256;
+    private boolean created;
+}
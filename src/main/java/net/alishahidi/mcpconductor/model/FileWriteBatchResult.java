@@ -0,0 +1,19 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileWriteBatchResult {
+    private String server;
+    private List<FileWriteBatchEntry> files;
+    private long totalBytes;
+    private long elapsedMs;
+}
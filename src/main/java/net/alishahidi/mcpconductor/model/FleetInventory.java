@@ -0,0 +1,33 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetInventory {
+    private int requested;
+    private int succeeded;
+    private int failed;
+    // Hosts answered from the inventory cache instead of a fresh probe
+    private int cached;
+    private long durationMs;
+    // Column name -> one value per reporting host, all columns in the same host order
+    private Map<String, List<Object>> hosts;
+    // Value -> number of hosts, most common first
+    private Map<String, Integer> operatingSystems;
+    private Map<String, Integer> kernels;
+    private MetricSummary memUsedPercent;
+    private MetricSummary diskUsedPercent;
+    private MetricSummary loadPerCore;
+    private List<FleetOutlier> outliers;
+    // Server -> error for hosts that could not be probed
+    private Map<String, String> errors;
+}
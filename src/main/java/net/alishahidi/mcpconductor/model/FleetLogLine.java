@@ -0,0 +1,18 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetLogLine {
+    private String server;
+    // ISO-8601 UTC; null when no timestamp could be parsed
+    private String timestamp;
+    // One log entry; continuation lines such as stack frames are joined with newlines
+    private String text;
+}
@@ -0,0 +1,27 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetLogTail {
+    private String source;
+    private List<String> servers;
+    // Oldest first across all servers
+    private List<FleetLogLine> lines;
+    private Map<String, Integer> linesPerServer;
+    private long bytes;
+    // Byte budget reached; older lines were left out
+    private boolean truncated;
+    // Server -> reason for servers that could not be read
+    private Map<String, String> errors;
+    private long elapsedMs;
+}
@@ -0,0 +1,18 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetOutlier {
+    private String server;
+    // memUsedPercent, diskUsedPercent or loadPerCore
+    private String metric;
+    private double value;
+    private double threshold;
+}
@@ -0,0 +1,23 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GitBranch {
+    // Short name, e.g. main or origin/main
+    private String name;
+    private boolean current;
+    private boolean remote;
+    private String commit;
+    private String upstream;
+    private int ahead;
+    private int behind;
+    // Upstream configured but deleted on the remote
+    private boolean upstreamGone;
+}
@@ -0,0 +1,19 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageLoadResult {
+    // Target already had the image; nothing was sent
+    private boolean alreadyPresent;
+    private int layersSent;
+    private int layersSkipped;
+    private long bytesSent;
+    private String imageId;
+}
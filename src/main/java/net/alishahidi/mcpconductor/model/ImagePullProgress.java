@@ -0,0 +1,19 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImagePullProgress {
+    private int layers;
+    private int layersDone;
+    private int layersReused;
+    private long currentBytes;
+    private long totalBytes;
+    private String status;
+}
@@ -0,0 +1,26 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImagePullResult {
+    private String image;
+    private String imageId;
+    private String digest;
+    // Image was already present and no pull was made
+    private boolean alreadyPresent;
+    // A pull ran and the local image id changed
+    private boolean updated;
+    // This caller joined a pull already in flight for the same image
+    private boolean shared;
+    private int layers;
+    private int layersReused;
+    private long bytesDownloaded;
+    private long durationMs;
+}
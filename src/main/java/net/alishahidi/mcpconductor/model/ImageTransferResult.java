@@ -0,0 +1,23 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageTransferResult {
+    private String image;
+    private String imageId;
+    private String sourceServer;
+    private boolean compressed;
+    // Bytes read from docker save on the source, 0 when no target needed the image
+    private long sourceBytes;
+    private List<TaskOutcome<ImageLoadResult>> targets;
+    private long durationMs;
+}
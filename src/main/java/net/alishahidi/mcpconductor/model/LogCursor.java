@@ -0,0 +1,24 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Position reached by log_follow in one log source of one server.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogCursor {
+    private String server;
+    private String source;
+    // File sources: inode and offset of the next unread byte
+    private long inode;
+    private long offset;
+    // Journal sources: cursor of the last returned entry
+    private String journalCursor;
+    private String updatedAt;
+}
@@ -0,0 +1,25 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogFollowResult {
+    private String server;
+    private String source;
+    private String content;
+    private int bytes;
+    private int lines;
+    // More was already waiting beyond the byte cap; call again to continue
+    private boolean more;
+    // File replaced or truncated since the last call
+    private boolean rotated;
+    // No usable cursor existed, so this is the recent tail rather than a delta
+    private boolean fromTail;
+    private LogCursor cursor;
+}
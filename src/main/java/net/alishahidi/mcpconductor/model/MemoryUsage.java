@@ -0,0 +1,23 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemoryUsage {
+    private long totalBytes;
+    private long usedBytes;
+    private long freeBytes;
+    private long sharedBytes;
+    private long buffCacheBytes;
+    private long availableBytes;
+    private double usedPercent;
+    private long swapTotalBytes;
+    private long swapUsedBytes;
+    private long swapFreeBytes;
+}
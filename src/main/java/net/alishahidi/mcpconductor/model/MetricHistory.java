@@ -0,0 +1,36 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricHistory {
+    private String server;
+    private String metric;
+    // Width of one point; larger than the sampling interval when read from a downsampled tier
+    private long resolutionSeconds;
+    private String from;
+    private String to;
+    private int count;
+    private Double min;
+    private Double avg;
+    private Double p50;
+    private Double p90;
+    private Double p99;
+    // Highest single sample, including spikes averaged away in downsampled points
+    private Double max;
+    private Double first;
+    private Double last;
+    // Least-squares slope over the window
+    private Double ratePerMinute;
+    // Epoch milliseconds and values, only when points were requested
+    private List<Long> timestamps;
+    private List<Double> values;
+}
@@ -0,0 +1,19 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricSummary {
+    private int count;
+    private double min;
+    private double avg;
+    private double p95;
+    private double max;
+    private double last;
+}
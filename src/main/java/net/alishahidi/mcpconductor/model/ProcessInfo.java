@@ -0,0 +1,28 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessInfo {
+    private int pid;
+    private int ppid;
+    private String state;
+    // Only known when read from ps
+    private String user;
+    // Kernel comm name (at most 15 characters) from /proc, full command line from ps
+    private String command;
+    private int threads;
+    // CPU time over the process lifetime, like ps %CPU
+    private double cpuPercent;
+    private long cpuSeconds;
+    private long rssBytes;
+    private double memPercent;
+    private long vsizeBytes;
+    private long elapsedSeconds;
+}
@@ -0,0 +1,21 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessTable {
+    private String sortBy;
+    private int totalProcesses;
+    private long totalThreads;
+    private int running;
+    private long memTotalBytes;
+    private List<ProcessInfo> processes;
+}
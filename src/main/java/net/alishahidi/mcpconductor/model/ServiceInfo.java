@@ -18,6 +18,10 @@ public class ServiceInfo {
     private String memory;
     private String cpuTime;
     private String startTime;
+    // Raw unit states as reported by systemctl list-units
+    private String loadState;
+    private String activeState;
+    private String subState;
 
     public enum ServiceStatus {
         RUNNING, STOPPED, FAILED, UNKNOWN, STARTING, STOPPING
@@ -0,0 +1,23 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StackDeployResult {
+    private String stack;
+    private String network;
+    // True when every service was already up to date
+    private boolean unchanged;
+    private boolean success;
+    private List<TaskOutcome<ImagePullResult>> pulls;
+    private List<StackServiceResult> services;
+    private long durationMs;
+}
@@ -0,0 +1,21 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StackServiceResult {
+    private String service;
+    // created, recreated, started, unchanged, removed, skipped or failed
+    private String action;
+    private String containerId;
+    private String image;
+    private boolean healthy;
+    private String message;
+    private long durationMs;
+}
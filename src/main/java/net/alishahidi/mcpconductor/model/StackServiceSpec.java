@@ -0,0 +1,40 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StackServiceSpec {
+    private String image;
+    private List<String> command;
+    private Map<String, String> environment;
+    // containerPort -> hostPort, same as docker_run_container
+    private Map<String, String> ports;
+    // "/host/path:/container/path[:ro]" binds or "/container/path" anonymous volumes
+    private List<String> volumes;
+    private Map<String, String> labels;
+    private List<String> dependsOn;
+    private String restart;
+    private Healthcheck healthcheck;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Healthcheck {
+        // Shell command run by the daemon, e.g. "pg_isready -U postgres"
+        private String command;
+        private Integer intervalSeconds;
+        private Integer timeoutSeconds;
+        private Integer retries;
+        private Integer startPeriodSeconds;
+    }
+}
@@ -22,6 +22,22 @@ public class SystemInfo {
     private String diskUsage;
     private String loadAverage;
     private Integer cpuCores;
+    private String cpuModel;
+    // Busy share of all CPU time since boot, from /proc/stat
+    private Double cpuUsagePercent;
+    private Long uptimeSeconds;
+    private Double load1;
+    private Double load5;
+    private Double load15;
+    private Long memTotalBytes;
+    private Long memAvailableBytes;
+    private Double memUsedPercent;
+    private Long swapTotalBytes;
+    private Long swapFreeBytes;
+    // Root filesystem
+    private Long diskTotalBytes;
+    private Long diskAvailableBytes;
+    private Double diskUsedPercent;
     
     public Map<String, Object> toMap() {
         Map<String, Object> map = new HashMap<>();
@@ -34,6 +50,20 @@ public class SystemInfo {
         map.put("diskUsage", diskUsage);
         map.put("loadAverage", loadAverage);
         map.put("cpuCores", cpuCores);
+        map.put("cpuModel", cpuModel);
+        map.put("cpuUsagePercent", cpuUsagePercent);
+        map.put("uptimeSeconds", uptimeSeconds);
+        map.put("load1", load1);
+        map.put("load5", load5);
+        map.put("load15", load15);
+        map.put("memTotalBytes", memTotalBytes);
+        map.put("memAvailableBytes", memAvailableBytes);
+        map.put("memUsedPercent", memUsedPercent);
+        map.put("swapTotalBytes", swapTotalBytes);
+        map.put("swapFreeBytes", swapFreeBytes);
+        map.put("diskTotalBytes", diskTotalBytes);
+        map.put("diskAvailableBytes", diskAvailableBytes);
+        map.put("diskUsedPercent", diskUsedPercent);
         return map;
     }
 
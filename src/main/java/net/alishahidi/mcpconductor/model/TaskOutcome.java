@@ -0,0 +1,19 @@
+package net.alishahidi.mcpconductor.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskOutcome<T> {
+    private String target;
+    private boolean success;
+    private T result;
+    private String error;
+    private boolean timedOut;
+    private long durationMs;
+}
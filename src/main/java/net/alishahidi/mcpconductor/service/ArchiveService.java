@@ -0,0 +1,308 @@
+package net.alishahidi.mcpconductor.service;
+
+import net.alishahidi.mcpconductor.exception.CommandExecutionException;
+import net.alishahidi.mcpconductor.exception.ResourceNotFoundException;
+import net.alishahidi.mcpconductor.exception.ValidationException;
+import net.alishahidi.mcpconductor.model.ArchiveTransfer;
+import net.alishahidi.mcpconductor.util.CommandSanitizer;
+import net.alishahidi.mcpconductor.util.RemoteCommandStream;
+import net.alishahidi.mcpconductor.util.TarCommands;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves whole directories as tar streams: from a server into a local archive,
+ * from a local archive onto a server, or from one server to another through
+ * the conductor. Bytes are copied channel to channel through one small direct
+ * buffer, so archives of any size never sit in the heap. Compression, when
+ * asked for, runs on the hosts ({@link TarCommands}); the conductor only
+ * counts bytes against the size budget.
+ *
+ * Local archives live under {@code files.archive.local-dir}; paths outside it
+ * are rejected.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ArchiveService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CREATE = "tar -c";
+    private static final String EXTRACT = "tar -x";
+
+    private final SSHService sshService;
+    private final CommandSanitizer commandSanitizer;
+
+    @Value("${files.archive.local-dir:${user.home}/.mcp-conductor/archives}")
+    private String localDir;
+
+    @Value("${files.archive.max-bytes:1073741824}")
+    private long defaultMaxBytes;
+
+    /**
+     * Streams {@code remoteDir} as an archive into {@code localPath}, written
+     * to a {@code .part} file first and moved into place when complete.
+     *
+     * @param localPath relative to the local archive directory; blank for {@code <server>-<dir>.tar[.gz|.zst]}
+     */
+    public ArchiveTransfer download(String serverName, String remoteDir, String localPath, String include,
+                                    String exclude, String compression, Long maxBytes) {
+        TarCommands.Compression codec = codec(compression);
+        Path remote = remoteDirectory(remoteDir);
+        long budget = budget(maxBytes);
+        Path target = localArchive(localPath != null && !localPath.isBlank() ? localPath
+                : serverName + "-" + remote.getFileName() + codec.extension());
+        String command = TarCommands.create(quote(remote.getParent().toString()), quote(remote.getFileName().toString()),
+                quoteAll(include), quoteAll(exclude), codec);
+
+        long startTime = System.currentTimeMillis();
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+        long bytes;
+        String warnings;
+        try {
+            Files.createDirectories(target.getParent());
+            try (RemoteCommandStream stream = sshService.openCommandStream(serverName, command);
+                 FileChannel out = FileChannel.open(part, StandardOpenOption.CREATE,
+                         StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                bytes = copy(Channels.newChannel(stream.getStdout()), out, budget);
+                warnings = finish(stream, serverName, remote.toString(), CREATE);
+                out.force(false);
+            }
+            Files.move(part, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            deleteQuietly(part);
+            throw new UncheckedIOException("Failed to download " + remote + " from " + serverName, e);
+        } catch (RuntimeException e) {
+            deleteQuietly(part);
+            throw e;
+        }
+        log.info("Downloaded {} from {} to {} ({} bytes)", remote, serverName, target, bytes);
+
+        return ArchiveTransfer.builder()
+                .operation("download")
+                .source(serverName + ":" + remote)
+                .target(target.toString())
+                .compression(codec.name().toLowerCase())
+                .bytes(bytes)
+                .elapsedMs(System.currentTimeMillis() - startTime)
+                .warnings(warnings)
+                .build();
+    }
+
+    /**
+     * Unpacks a local archive into {@code remoteDir}, creating it if needed.
+     * Existing files in the directory are overwritten by archive members of
+     * the same name and otherwise left alone.
+     */
+    public ArchiveTransfer upload(String serverName, String localPath, String remoteDir, String include,
+                                  String exclude, String compression) {
+        Path source = localArchive(localPath);
+        if (!Files.isRegularFile(source)) {
+            throw new ResourceNotFoundException("Archive", localPath);
+        }
+        TarCommands.Compression codec = compression != null && !compression.isBlank() ? codec(compression)
+                : detect(source);
+        Path remote = remoteDirectory(remoteDir);
+        String command = TarCommands.extract(quote(remote.toString()), quoteAll(include), quoteAll(exclude), codec);
+
+        long startTime = System.currentTimeMillis();
+        long bytes;
+        String warnings;
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             RemoteCommandStream stream = sshService.openCommandStream(serverName, command)) {
+            try (OutputStream stdin = stream.getStdin()) {
+                bytes = copy(in, Channels.newChannel(stdin), Long.MAX_VALUE);
+            }
+            warnings = finish(stream, serverName, remote.toString(), EXTRACT);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to upload " + source + " to " + serverName, e);
+        }
+        log.info("Uploaded {} to {}:{} ({} bytes)", source, serverName, remote, bytes);
+
+        return ArchiveTransfer.builder()
+                .operation("upload")
+                .source(source.toString())
+                .target(serverName + ":" + remote)
+                .compression(codec.name().toLowerCase())
+                .bytes(bytes)
+                .elapsedMs(System.currentTimeMillis() - startTime)
+                .warnings(warnings)
+                .build();
+    }
+
+    /**
+     * Pipes {@code sourceDir} on one server into {@code targetDir} on another.
+     * The directory itself is recreated inside {@code targetDir}. If the size
+     * budget runs out, both commands are stopped and the target may hold a
+     * partial copy.
+     */
+    public ArchiveTransfer copy(String sourceServer, String sourceDir, String targetServer, String targetDir,
+                                String include, String exclude, String compression, Long maxBytes) {
+        TarCommands.Compression codec = codec(compression);
+        Path source = remoteDirectory(sourceDir);
+        Path target = remoteDirectory(targetDir);
+        long budget = budget(maxBytes);
+        String create = TarCommands.create(quote(source.getParent().toString()), quote(source.getFileName().toString()),
+                quoteAll(include), quoteAll(exclude), codec);
+        String extract = TarCommands.extract(quote(target.toString()), List.of(), List.of(), codec);
+
+        long startTime = System.currentTimeMillis();
+        long bytes;
+        List<String> warnings = new ArrayList<>();
+        try (RemoteCommandStream from = sshService.openCommandStream(sourceServer, create);
+             RemoteCommandStream to = sshService.openCommandStream(targetServer, extract)) {
+            try (OutputStream stdin = to.getStdin()) {
+                bytes = copy(Channels.newChannel(from.getStdout()), Channels.newChannel(stdin), budget);
+            }
+            addWarning(warnings, finish(from, sourceServer, source.toString(), CREATE));
+            addWarning(warnings, finish(to, targetServer, target.toString(), EXTRACT));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to copy " + source + " from " + sourceServer + " to " + targetServer, e);
+        }
+        log.info("Copied {}:{} to {}:{} ({} bytes)", sourceServer, source, targetServer, target, bytes);
+
+        return ArchiveTransfer.builder()
+                .operation("copy")
+                .source(sourceServer + ":" + source)
+                .target(targetServer + ":" + target)
+                .compression(codec.name().toLowerCase())
+                .bytes(bytes)
+                .elapsedMs(System.currentTimeMillis() - startTime)
+                .warnings(warnings.isEmpty() ? null : String.join("\n", warnings))
+                .build();
+    }
+
+    // Copies until end of stream; more than maxBytes is an error
+    private static long copy(ReadableByteChannel in, WritableByteChannel out, long maxBytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        long total = 0;
+        while (in.read(buffer) >= 0) {
+            buffer.flip();
+            total += buffer.remaining();
+            if (total > maxBytes) {
+                throw new ValidationException("maxBytes", maxBytes, "Archive exceeds the size budget of " + maxBytes + " bytes");
+            }
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            buffer.clear();
+        }
+        return total;
+    }
+
+    // Waits for the command and maps its exit code; returns tar's warnings, if any
+    private String finish(RemoteCommandStream stream, String serverName, String dir, String what) {
+        int exitCode;
+        try {
+            exitCode = stream.waitFor(60_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CommandExecutionException("Interrupted while waiting for " + what, what, serverName, -1);
+        }
+        String stderr = stream.getStderr().trim();
+        if (exitCode == 3) {
+            throw new ResourceNotFoundException("Directory", dir);
+        }
+        // tar -c exits 1 or 2 when it skipped unreadable or changing files but still wrote the archive
+        boolean partial = what.equals(CREATE) && (exitCode == 1 || exitCode == 2) && !stderr.isEmpty();
+        if (exitCode != 0 && !partial) {
+            throw new CommandExecutionException(what + " failed" + (stderr.isEmpty() ? "" : ": " + stderr),
+                    what, serverName, exitCode);
+        }
+        return stderr.isEmpty() ? null : stderr;
+    }
+
+    private Path localArchive(String localPath) {
+        if (localPath == null || localPath.isBlank()) {
+            throw new ValidationException("localPath", localPath, "Local archive path is required");
+        }
+        Path base = Path.of(localDir).toAbsolutePath().normalize();
+        Path resolved = base.resolve(localPath).normalize();
+        if (!resolved.startsWith(base) || resolved.equals(base)) {
+            throw new ValidationException("localPath", localPath, "Local archives must be inside " + base);
+        }
+        return resolved;
+    }
+
+    private static Path remoteDirectory(String dir) {
+        if (dir == null || !dir.startsWith("/")) {
+            throw new ValidationException("path", dir, "Path must be absolute");
+        }
+        Path path = Path.of(dir).normalize();
+        if (path.getFileName() == null) {
+            throw new ValidationException("path", dir, "The root directory cannot be archived");
+        }
+        return path;
+    }
+
+    private static TarCommands.Compression codec(String compression) {
+        try {
+            return TarCommands.Compression.of(compression);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("compression", compression, "Compression must be none, gzip or zstd");
+        }
+    }
+
+    private static TarCommands.Compression detect(Path archive) {
+        String name = archive.getFileName().toString();
+        if (name.endsWith(".gz") || name.endsWith(".tgz")) {
+            return TarCommands.Compression.GZIP;
+        }
+        return name.endsWith(".zst") ? TarCommands.Compression.ZSTD : TarCommands.Compression.NONE;
+    }
+
+    private long budget(Long maxBytes) {
+        long budget = maxBytes != null ? maxBytes : defaultMaxBytes;
+        if (budget < 1) {
+            throw new ValidationException("maxBytes", maxBytes, "maxBytes must be positive");
+        }
+        return budget;
+    }
+
+    private String quote(String value) {
+        return commandSanitizer.escapeShellArgument(value);
+    }
+
+    private List<String> quoteAll(String globs) {
+        List<String> quoted = new ArrayList<>();
+        if (globs != null) {
+            for (String glob : globs.split(",")) {
+                if (!glob.isBlank()) {
+                    quoted.add(quote(glob.trim()));
+                }
+            }
+        }
+        return quoted;
+    }
+
+    private static void addWarning(List<String> warnings, String warning) {
+        if (warning != null) {
+            warnings.add(warning);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.debug("Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package net.alishahidi.mcpconductor.service;
+
+import net.alishahidi.mcpconductor.exception.ResourceNotFoundException;
+import net.alishahidi.mcpconductor.exception.ValidationException;
+import net.alishahidi.mcpconductor.model.ImageLoadResult;
+import net.alishahidi.mcpconductor.model.ImageTransferResult;
+import net.alishahidi.mcpconductor.model.TaskOutcome;
+import net.alishahidi.mcpconductor.util.DockerClientRegistry;
+import net.alishahidi.mcpconductor.util.FanOutExecutor;
+import net.alishahidi.mcpconductor.util.ImageTarFanOut;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.InspectImageResponse;
+import com.github.dockerjava.api.command.SaveImageCmd;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.model.Image;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Moves images between Docker hosts without a registry.
+ *
+ * {@code docker save} on the source is read once and piped through
+ * {@link ImageTarFanOut} into a concurrent {@code docker load} per target, so
+ * memory use is bounded by the pipe buffers regardless of image size. Targets
+ * that already hold the image are not sent anything. For the rest, the leading
+ * layers they already have in the same order are left out of their copy.
+ * {@code docker load} looks layers up by chain id, so only a shared prefix can
+ * be skipped safely.
+ */
+@Service
+@Slf4j
+public class DockerImageTransferService {
+
+    private static final int PIPE_BUFFER_SIZE = 1024 * 1024;
+    private static final String CONTAINERD_SNAPSHOTTER = "io.containerd.snapshotter";
+
+    private final DockerClientRegistry dockerClientRegistry;
+    private final FanOutExecutor fanOutExecutor;
+    private final ExecutorService executor;
+
+    @Value("${docker.transfer.timeout-seconds:1800}")
+    private int transferTimeoutSeconds;
+
+    public DockerImageTransferService(DockerClientRegistry dockerClientRegistry,
+                                      FanOutExecutor fanOutExecutor,
+                                      @Qualifier("fanOutExecutorService") ExecutorService executor) {
+        this.dockerClientRegistry = dockerClientRegistry;
+        this.fanOutExecutor = fanOutExecutor;
+        this.executor = executor;
+    }
+
+    public ImageTransferResult transferImage(String sourceServer,
+                                             String imageName,
+                                             String targetServers,
+                                             boolean compress,
+                                             boolean skipExistingLayers) {
+        if (imageName == null || imageName.isBlank()) {
+            throw new ValidationException("imageName", imageName, "Image name cannot be empty");
+        }
+        if (targetServers == null || targetServers.isBlank()) {
+            throw new ValidationException("targetServers", targetServers, "At least one target host is required");
+        }
+
+        String image = imageName.trim();
+        List<String> targets = dockerClientRegistry.resolveServers(targetServers);
+        DockerClient source = dockerClientRegistry.getClient(sourceServer);
+        long startTime = System.currentTimeMillis();
+
+        InspectImageResponse sourceImage;
+        try {
+            sourceImage = source.inspectImageCmd(image).exec();
+        } catch (NotFoundException e) {
+            throw new ResourceNotFoundException("Docker image", image);
+        }
+        List<String> diffIds = sourceImage.getRootFS() != null && sourceImage.getRootFS().getLayers() != null
+                ? sourceImage.getRootFS().getLayers()
+                : List.of();
+
+        List<TaskOutcome<TransferPlan>> plans = fanOutExecutor.runAll(targets, 0, null,
+                target -> plan(target, sourceImage.getId(), diffIds, skipExistingLayers));
+
+        Map<String, TaskOutcome<ImageLoadResult>> outcomes = new LinkedHashMap<>();
+        List<TransferPlan> needed = new ArrayList<>();
+        for (TaskOutcome<TransferPlan> plan : plans) {
+            if (!plan.isSuccess()) {
+                outcomes.put(plan.getTarget(), TaskOutcome.<ImageLoadResult>builder()
+                        .target(plan.getTarget())
+                        .error(plan.getError())
+                        .durationMs(plan.getDurationMs())
+                        .build());
+            } else if (plan.getResult().alreadyPresent()) {
+                outcomes.put(plan.getTarget(), TaskOutcome.<ImageLoadResult>builder()
+                        .target(plan.getTarget())
+                        .success(true)
+                        .result(ImageLoadResult.builder().alreadyPresent(true).imageId(sourceImage.getId()).build())
+                        .durationMs(plan.getDurationMs())
+                        .build());
+            } else {
+                outcomes.put(plan.getTarget(), null);
+                needed.add(plan.getResult());
+            }
+        }
+
+        long sourceBytes = 0;
+        if (!needed.isEmpty()) {
+            log.info("Streaming image {} from {} to {} (compress={})",
+                    image, sourceServer, needed.stream().map(TransferPlan::target).toList(), compress);
+            sourceBytes = stream(source, image, sourceImage.getId(), diffIds.size(), needed, compress, outcomes);
+        }
+
+        return ImageTransferResult.builder()
+                .image(image)
+                .imageId(sourceImage.getId())
+                .sourceServer(sourceServer)
+                .compressed(compress)
+                .sourceBytes(sourceBytes)
+                .targets(new ArrayList<>(outcomes.values()))
+                .durationMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    private long stream(DockerClient source,
+                        String image,
+                        String imageId,
+                        int layerCount,
+                        List<TransferPlan> needed,
+                        boolean compress,
+                        Map<String, TaskOutcome<ImageLoadResult>> outcomes) {
+        ImageTarFanOut fanOut = new ImageTarFanOut();
+        Map<String, PipedInputStream> pipes = new LinkedHashMap<>();
+        Map<String, ImageTarFanOut.Sink> sinks = new LinkedHashMap<>();
+
+        try {
+            for (TransferPlan plan : needed) {
+                PipedOutputStream out = new PipedOutputStream();
+                pipes.put(plan.target(), new PipedInputStream(out, PIPE_BUFFER_SIZE));
+                sinks.put(plan.target(), fanOut.addSink(plan.target(), out, compress, plan.skipDigests()));
+            }
+        } catch (IOException e) {
+            throw new net.alishahidi.mcpconductor.exception.DockerException(
+                    "Failed to set up transfer pipes: " + e.getMessage(), e, "TRANSFER");
+        }
+
+        Future<Long> pump = executor.submit(() -> {
+            try (InputStream saved = saveCmd(source, image).exec()) {
+                return fanOut.pump(saved);
+            }
+        });
+
+        List<TaskOutcome<ImageLoadResult>> loads = fanOutExecutor.runAll(new ArrayList<>(sinks.keySet()), 0,
+                Duration.ofSeconds(transferTimeoutSeconds),
+                target -> load(target, imageId, layerCount, pipes.get(target), sinks.get(target)));
+        loads.forEach(load -> outcomes.put(load.getTarget(), load));
+
+        try {
+            return pump.get(transferTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pump.cancel(true);
+            return 0;
+        } catch (ExecutionException | TimeoutException e) {
+            pump.cancel(true);
+            log.warn("Reading image {} from source failed: {}", image,
+                    e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            return 0;
+        }
+    }
+
+    private ImageLoadResult load(String target, String imageId, int layerCount,
+                                 PipedInputStream pipe, ImageTarFanOut.Sink sink) {
+        DockerClient client = dockerClientRegistry.getClient(target);
+        try {
+            client.loadImageCmd(pipe).exec();
+        } catch (RuntimeException e) {
+            sink.fail("load failed: " + e.getMessage());
+            throw e;
+        } finally {
+            try {
+                pipe.close();
+            } catch (IOException e) {
+                log.debug("Error closing transfer pipe for {}", target, e);
+            }
+        }
+
+        if (sink.failed()) {
+            throw new net.alishahidi.mcpconductor.exception.DockerException(
+                    "Transfer to " + target + " failed: " + sink.getError(), "TRANSFER");
+        }
+        try {
+            client.inspectImageCmd(imageId).exec();
+        } catch (NotFoundException e) {
+            throw new net.alishahidi.mcpconductor.exception.DockerException(
+                    "Image " + imageId + " not present on " + target + " after load", "TRANSFER");
+        }
+
+        return ImageLoadResult.builder()
+                .imageId(imageId)
+                .layersSkipped(sink.getBlobsSkipped())
+                .layersSent(layerCount - sink.getBlobsSkipped())
+                .bytesSent(sink.getBytesSent())
+                .build();
+    }
+
+    private TransferPlan plan(String target, String imageId, List<String> diffIds, boolean skipExistingLayers) {
+        DockerClient client = dockerClientRegistry.getClient(target);
+        try {
+            client.inspectImageCmd(imageId).exec();
+            return new TransferPlan(target, true, Set.of());
+        } catch (NotFoundException e) {
+            // needs the image
+        }
+
+        if (!skipExistingLayers || diffIds.isEmpty() || usesContainerdStore(client)) {
+            return new TransferPlan(target, false, Set.of());
+        }
+
+        int prefix = 0;
+        for (Image candidate : client.listImagesCmd().exec()) {
+            try {
+                InspectImageResponse inspected = client.inspectImageCmd(candidate.getId()).exec();
+                if (inspected.getRootFS() != null && inspected.getRootFS().getLayers() != null) {
+                    prefix = Math.max(prefix, commonPrefix(diffIds, inspected.getRootFS().getLayers()));
+                }
+            } catch (NotFoundException e) {
+                // removed while we were looking
+            }
+            if (prefix == diffIds.size()) {
+                break;
+            }
+        }
+
+        // A blob can back several positions; keep it if any position past the prefix needs it
+        Set<String> skip = new HashSet<>(stripAlgorithm(diffIds.subList(0, prefix)));
+        skip.removeAll(stripAlgorithm(diffIds.subList(prefix, diffIds.size())));
+        log.debug("Target {} already has {} of {} layers", target, prefix, diffIds.size());
+        return new TransferPlan(target, false, skip);
+    }
+
+    // The containerd image store imports every blob in the archive, so nothing may be left out
+    private boolean usesContainerdStore(DockerClient client) {
+        List<List<String>> statuses = client.infoCmd().exec().getDriverStatuses();
+        return statuses != null && statuses.stream()
+                .flatMap(List::stream)
+                .anyMatch(value -> value != null && value.startsWith(CONTAINERD_SNAPSHOTTER));
+    }
+
+    private static SaveImageCmd saveCmd(DockerClient client, String image) {
+        if (image.contains("@")) {
+            return client.saveImageCmd(image);
+        }
+        int slash = image.lastIndexOf('/');
+        int colon = image.indexOf(':', slash + 1);
+        return colon < 0
+                ? client.saveImageCmd(image)
+                : client.saveImageCmd(image.substring(0, colon)).withTag(image.substring(colon + 1));
+    }
+
+    private static int commonPrefix(List<String> a, List<String> b) {
+        int n = Math.min(a.size(), b.size());
+        int i = 0;
+        while (i < n && a.get(i).equals(b.get(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static Set<String> stripAlgorithm(List<String> digests) {
+        Set<String> hex = new HashSet<>();
+        for (String digest : digests) {
+            hex.add(digest.startsWith("sha256:") ? digest.substring(7) : digest);
+        }
+        return hex;
+    }
+
+    private record TransferPlan(String target, boolean alreadyPresent, Set<String> skipDigests) {
+    }
+}
@@ -1,23 +1,47 @@
 package net.alishahidi.mcpconductor.service;
 
 import net.alishahidi.mcpconductor.exception.*;
+import net.alishahidi.mcpconductor.model.BulkActionResult;
+import net.alishahidi.mcpconductor.model.ContainerActionResult;
+import net.alishahidi.mcpconductor.model.ContainerLogs;
 import net.alishahidi.mcpconductor.model.DockerContainer;
+import net.alishahidi.mcpconductor.model.ExecFanOutResult;
+import net.alishahidi.mcpconductor.model.ExecOutputGroup;
+import net.alishahidi.mcpconductor.model.ExecResult;
+import net.alishahidi.mcpconductor.model.ImagePullProgress;
+import net.alishahidi.mcpconductor.model.ImagePullResult;
+import net.alishahidi.mcpconductor.model.TaskOutcome;
+import net.alishahidi.mcpconductor.util.DockerClientRegistry;
+import net.alishahidi.mcpconductor.util.DockerContainerStateCache;
+import net.alishahidi.mcpconductor.util.DockerExecCollector;
+import net.alishahidi.mcpconductor.util.DockerLogCollector;
+import net.alishahidi.mcpconductor.util.FanOutExecutor;
+import net.alishahidi.mcpconductor.util.ImagePullTracker;
 import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.command.*;
 import com.github.dockerjava.api.exception.DockerException;
 import com.github.dockerjava.api.exception.NotFoundException;
 import com.github.dockerjava.api.exception.ConflictException;
+import com.github.dockerjava.api.exception.NotModifiedException;
 import com.github.dockerjava.api.model.*;
-import com.github.dockerjava.core.command.LogContainerResultCallback;
-import com.github.dockerjava.core.command.PullImageResultCallback;
-import com.github.dockerjava.core.command.ExecStartResultCallback;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.cache.annotation.Cacheable;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 import java.util.concurrent.TimeUnit;
 
@@ -26,14 +50,60 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 public class DockerService {
 
-    private final DockerClient dockerClient;
+    private static final Pattern RELATIVE_TIME_PATTERN = Pattern.compile("(\\d+)([smhd])");
 
-    @Cacheable(value = "docker-containers", unless = "#result.isEmpty()")
-    public List<DockerContainer> listContainers(boolean showAll) {
+    // Set on every exec so a timed-out one can be found and killed with all its children
+    private static final String EXEC_MARKER_ENV = "MCP_CONDUCTOR_EXEC";
+
+    // Docker has no API to stop an exec; kill every process of the container carrying the marker ($1)
+    private static final String KILL_MARKED_SCRIPT = "for p in /proc/[0-9]*; do "
+            + "tr '\\0' '\\n' 2>/dev/null < \"$p/environ\" | grep -qxF \"$1\" && kill -KILL \"${p#/proc/}\" 2>/dev/null; "
+            + "done; exit 0";
+
+    private final DockerClientRegistry dockerClientRegistry;
+    private final FanOutExecutor fanOutExecutor;
+
+    // One in-flight pull per "server|image:tag"; concurrent callers wait on the same future
+    private final Map<String, PendingPull> inflightPulls = new ConcurrentHashMap<>();
+
+    @Value("${docker.pull.timeout-seconds:300}")
+    private int pullTimeoutSeconds;
+
+    @Value("${docker.bulk.max-concurrency:16}")
+    private int maxBulkConcurrency;
+
+    @Value("${docker.bulk.max-containers:500}")
+    private int maxBulkContainers;
+
+    @Value("${docker.exec.timeout-seconds:60}")
+    private int defaultExecTimeoutSeconds;
+
+    @Value("${docker.exec.max-timeout-seconds:600}")
+    private int maxExecTimeoutSeconds;
+
+    @Value("${docker.exec.max-bytes:262144}")
+    private long maxExecBytes;
+
+    @Value("${docker.logs.max-bytes:1048576}")
+    private long maxLogBytes;
+
+    @Value("${docker.logs.max-follow-seconds:300}")
+    private int maxFollowSeconds;
+
+    @Value("${docker.logs.timeout-seconds:60}")
+    private int logTimeoutSeconds;
+
+    public List<DockerContainer> listContainers(String serverName, boolean showAll) {
         try {
-            List<Container> containers = dockerClient.listContainersCmd()
-                    .withShowAll(showAll)
-                    .exec();
+            DockerClient dockerClient = dockerClientRegistry.getClient(serverName);
+            DockerContainerStateCache containerStateCache = dockerClientRegistry.getStateCache(serverName);
+
+            // Served from the event-driven cache; only hit the daemon while it is (re)syncing
+            List<Container> containers = containerStateCache.isSynced()
+                    ? containerStateCache.getContainers(showAll)
+                    : dockerClient.listContainersCmd()
+                            .withShowAll(showAll)
+                            .exec();
 
             return containers.stream()
                     .map(this::mapToDockerContainer)
@@ -48,29 +118,140 @@ public class DockerService {
         }
     }
 
-    public void pullImage(String imageName, String tag) {
-        String fullImageName = imageName + ":" + (tag != null ? tag : "latest");
+    /**
+     * Pulls an image on one host, at most once at a time per host and reference:
+     * concurrent callers for the same image join the pull already in flight and
+     * share its result. Pinned references (a digest or a tag other than
+     * {@code latest}) that are already present are detected with an inspect and
+     * not pulled again unless {@code force} is set. Aggregated layer progress is
+     * reported to {@code progressListener}, if given, while the pull runs.
+     */
+    public ImagePullResult pullImage(String serverName,
+                                     String imageName,
+                                     String tag,
+                                     boolean force,
+                                     Consumer<ImagePullProgress> progressListener) {
+        if (imageName == null || imageName.isBlank()) {
+            throw new ValidationException("imageName", imageName, "Image name cannot be empty");
+        }
+
+        String server = serverName != null && !serverName.isBlank() ? serverName.trim() : DockerClientRegistry.DEFAULT_SERVER;
+        DockerClient dockerClient = dockerClientRegistry.getClient(server);
+        String fullImageName = imageReference(imageName.trim(), tag);
+        long startTime = System.currentTimeMillis();
+
+        InspectImageResponse existing = inspectImageOrNull(dockerClient, fullImageName);
+        if (existing != null && !force && !isFloatingReference(fullImageName)) {
+            log.info("Image {} already present on {}, skipping pull", fullImageName, server);
+            return ImagePullResult.builder()
+                    .image(fullImageName)
+                    .imageId(existing.getId())
+                    .digest(firstDigest(existing))
+                    .alreadyPresent(true)
+                    .durationMs(System.currentTimeMillis() - startTime)
+                    .build();
+        }
+
+        String key = server + "|" + fullImageName;
+        PendingPull created = new PendingPull();
+        PendingPull pending = inflightPulls.putIfAbsent(key, created);
+        boolean leader = pending == null;
+        if (leader) {
+            pending = created;
+        } else {
+            log.info("Joining in-flight pull of {} on {}", fullImageName, server);
+        }
+
+        pending.tracker.addListener(progressListener);
+        try {
+            if (leader) {
+                try {
+                    pending.result.complete(executePull(dockerClient, fullImageName, existing, pending.tracker, startTime));
+                } catch (RuntimeException e) {
+                    pending.result.completeExceptionally(e);
+                } finally {
+                    inflightPulls.remove(key, pending);
+                }
+            }
+
+            ImagePullResult result = pending.result.get(pullTimeoutSeconds, TimeUnit.SECONDS);
+            return leader ? result : result.toBuilder()
+                    .shared(true)
+                    .durationMs(System.currentTimeMillis() - startTime)
+                    .build();
+
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new net.alishahidi.mcpconductor.exception.DockerException(
+                    "Failed to pull image: " + e.getMessage(), e, "PULL");
+        } catch (TimeoutException e) {
+            throw new net.alishahidi.mcpconductor.exception.DockerException(
+                    "Timed out waiting for image pull after " + pullTimeoutSeconds + "s",
+                    fullImageName,
+                    "PULL",
+                    net.alishahidi.mcpconductor.exception.DockerException.ErrorCode.PULL_FAILED
+            );
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new net.alishahidi.mcpconductor.exception.DockerException(
+                    "Image pull was interrupted",
+                    fullImageName,
+                    "PULL",
+                    net.alishahidi.mcpconductor.exception.DockerException.ErrorCode.PULL_FAILED
+            );
+        } finally {
+            pending.tracker.removeListener(progressListener);
+        }
+    }
 
+    private ImagePullResult executePull(DockerClient dockerClient,
+                                        String fullImageName,
+                                        InspectImageResponse before,
+                                        ImagePullTracker tracker,
+                                        long startTime) {
         try {
             log.info("Pulling Docker image: {}", fullImageName);
 
-            dockerClient.pullImageCmd(fullImageName)
-                    .exec(new PullImageResultCallback() {
-                        @Override
-                        public void onError(Throwable throwable) {
-                            log.error("Error pulling image: {}", fullImageName, throwable);
-                            throw new net.alishahidi.mcpconductor.exception.DockerException(
-                                    "Failed to pull image: " + throwable.getMessage(),
-                                    fullImageName,
-                                    "PULL",
-                                    net.alishahidi.mcpconductor.exception.DockerException.ErrorCode.PULL_FAILED
-                            );
-                        }
-                    })
-                    .awaitCompletion(5, TimeUnit.MINUTES);
-
-            log.info("Image pulled successfully: {}", fullImageName);
+            dockerClient.pullImageCmd(fullImageName).exec(tracker);
+            if (!tracker.awaitCompletion(pullTimeoutSeconds, TimeUnit.SECONDS)) {
+                tracker.close();
+                throw new net.alishahidi.mcpconductor.exception.DockerException(
+                        "Image pull timed out after " + pullTimeoutSeconds + "s",
+                        fullImageName,
+                        "PULL",
+                        net.alishahidi.mcpconductor.exception.DockerException.ErrorCode.PULL_FAILED
+                );
+            }
+            String failure = tracker.failure();
+            if (failure != null) {
+                throw new net.alishahidi.mcpconductor.exception.DockerException(
+                        "Failed to pull image: " + failure,
+                        fullImageName,
+                        "PULL",
+                        net.alishahidi.mcpconductor.exception.DockerException.ErrorCode.PULL_FAILED
+                );
+            }
+
+            InspectImageResponse after = inspectImageOrNull(dockerClient, fullImageName);
+            ImagePullProgress progress = tracker.snapshot();
+            log.info("Image pulled successfully: {} ({} of {} layers reused)",
+                    fullImageName, progress.getLayersReused(), progress.getLayers());
+
+            return ImagePullResult.builder()
+                    .image(fullImageName)
+                    .imageId(after != null ? after.getId() : null)
+                    .digest(after != null ? firstDigest(after) : null)
+                    .updated(after != null && (before == null || !Objects.equals(before.getId(), after.getId())))
+                    .layers(progress.getLayers())
+                    .layersReused(progress.getLayersReused())
+                    .bytesDownloaded(progress.getCurrentBytes())
+                    .durationMs(System.currentTimeMillis() - startTime)
+                    .build();
 
+        } catch (NotFoundException e) {
+            throw new ResourceNotFoundException("Docker image", fullImageName);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new net.alishahidi.mcpconductor.exception.DockerException(
@@ -79,24 +260,32 @@ public class DockerService {
                     "PULL",
                     net.alishahidi.mcpconductor.exception.DockerException.ErrorCode.PULL_FAILED
             );
+        } catch (net.alishahidi.mcpconductor.exception.DockerException | ResourceNotFoundException e) {
+            throw e;
         } catch (Exception e) {
-            if (e instanceof net.alishahidi.mcpconductor.exception.DockerException) {
-                throw e;
-            }
-            log.error("Failed to pull image: {}", imageName, e);
+            log.error("Failed to pull image: {}", fullImageName, e);
             throw new net.alishahidi.mcpconductor.exception.DockerException(
                     "Failed to pull image: " + e.getMessage(),
-                    e,
-                    "PULL"
+                    fullImageName,
+                    "PULL",
+                    net.alishahidi.mcpconductor.exception.DockerException.ErrorCode.PULL_FAILED
             );
+        } finally {
+            try {
+                tracker.close();
+            } catch (Exception e) {
+                log.debug("Error closing pull stream for {}", fullImageName, e);
+            }
         }
     }
 
-    public String runContainer(String imageName,
+    public String runContainer(String serverName,
+                               String imageName,
                                String containerName,
                                Map<String, String> environment,
                                Map<String, String> ports,
                                List<String> volumes) {
+        DockerClient dockerClient = dockerClientRegistry.getClient(serverName);
 
         // Validate container name doesn't already exist
         if (containerName != null) {
@@ -187,22 +376,18 @@ public class DockerService {
         }
     }
 
-    public void stopContainer(String containerId) {
+    public void stopContainer(String serverName, String containerId) {
+        DockerClient dockerClient = dockerClientRegistry.getClient(serverName);
         try {
-            // First check if container exists
-            InspectContainerResponse containerInfo = dockerClient.inspectContainerCmd(containerId).exec();
-
-            if (!containerInfo.getState().getRunning()) {
-                log.info("Container {} is not running", containerId);
-                return;
-            }
-
+            // The daemon answers 304 for a container that is not running, no inspect needed
             dockerClient.stopContainerCmd(containerId)
                     .withTimeout(30)
                     .exec();
 
             log.info("Container stopped: {}", containerId);
 
+        } catch (NotModifiedException e) {
+            log.info("Container {} is not running", containerId);
         } catch (NotFoundException e) {
             throw new ResourceNotFoundException("Container", containerId);
         } catch (Exception e) {
@@ -216,7 +401,8 @@ public class DockerService {
         }
     }
 
-    public void removeContainer(String containerId, boolean force) {
+    public void removeContainer(String serverName, String containerId, boolean force) {
+        DockerClient dockerClient = dockerClientRegistry.getClient(serverName);
         try {
             dockerClient.removeContainerCmd(containerId)
                     .withForce(force)
@@ -244,25 +430,276 @@ public class DockerService {
         }
     }
 
-    public String getContainerLogs(String containerId, int tailLines) {
+    /**
+     * Applies {@code start}, {@code stop}, {@code restart} or {@code remove} to many
+     * containers in parallel, at most {@code concurrency} at a time. Targets are the
+     * given ids plus every container matching {@code labelSelector}. Each container
+     * costs exactly one API call: "already running/stopped" (304) and "no such
+     * container" (404) are reported per row instead of being checked up front.
+     */
+    public BulkActionResult bulkContainerAction(String serverName,
+                                                String action,
+                                                List<String> containerIds,
+                                                String labelSelector,
+                                                int concurrency,
+                                                int stopTimeoutSeconds,
+                                                boolean force) {
+        String normalized = action != null ? action.trim().toLowerCase() : "";
+        if (!List.of("start", "stop", "restart", "remove").contains(normalized)) {
+            throw new ValidationException("action", action, "Must be one of: start, stop, restart, remove");
+        }
+
+        List<String> targets = resolveContainerTargets(serverName, containerIds, labelSelector, true);
+        if (targets.size() > maxBulkContainers) {
+            throw new ValidationException("containerIds", targets.size(),
+                    "At most " + maxBulkContainers + " containers can be changed in one call");
+        }
+
+        DockerClient dockerClient = dockerClientRegistry.getClient(serverName);
+        int limit = concurrency > 0 ? Math.min(concurrency, maxBulkConcurrency) : maxBulkConcurrency;
+        Integer stopTimeout = stopTimeoutSeconds > 0 ? stopTimeoutSeconds : null;
+        long startTime = System.currentTimeMillis();
+
+        log.info("Bulk {} of {} containers with concurrency {}", normalized, targets.size(), limit);
+        List<TaskOutcome<ContainerActionResult>> outcomes = fanOutExecutor.runAll(targets, limit, null,
+                id -> applyContainerAction(dockerClient, normalized, id, stopTimeout, force));
+
+        List<ContainerActionResult> results = new ArrayList<>(outcomes.size());
+        for (TaskOutcome<ContainerActionResult> outcome : outcomes) {
+            results.add(outcome.isSuccess() ? outcome.getResult() : ContainerActionResult.builder()
+                    .containerId(outcome.getTarget())
+                    .status("failed")
+                    .message(outcome.getError())
+                    .durationMs(outcome.getDurationMs())
+                    .build());
+        }
+
+        Map<String, Long> counts = results.stream()
+                .collect(Collectors.groupingBy(ContainerActionResult::getStatus, Collectors.counting()));
+        return BulkActionResult.builder()
+                .action(normalized)
+                .requested(targets.size())
+                .done(counts.getOrDefault("done", 0L).intValue())
+                .unchanged(counts.getOrDefault("unchanged", 0L).intValue())
+                .notFound(counts.getOrDefault("not_found", 0L).intValue())
+                .failed(counts.getOrDefault("failed", 0L).intValue())
+                .durationMs(System.currentTimeMillis() - startTime)
+                .results(results)
+                .build();
+    }
+
+    private List<String> resolveContainerTargets(String serverName, List<String> containerIds,
+                                                 String labelSelector, boolean includeStopped) {
+        LinkedHashSet<String> targets = new LinkedHashSet<>();
+        if (containerIds != null) {
+            containerIds.stream()
+                    .filter(id -> id != null && !id.isBlank())
+                    .map(String::trim)
+                    .forEach(targets::add);
+        }
+
+        if (labelSelector != null && !labelSelector.isBlank()) {
+            Map<String, String> selector = parseLabelSelector(labelSelector);
+            listContainers(serverName, includeStopped).stream()
+                    .filter(container -> matchesLabels(container.getLabels(), selector))
+                    .map(DockerContainer::getId)
+                    .forEach(targets::add);
+        }
+
+        if (targets.isEmpty() && (containerIds == null || containerIds.isEmpty())
+                && (labelSelector == null || labelSelector.isBlank())) {
+            throw new ValidationException("containerIds", containerIds,
+                    "Provide container ids, a label selector, or both");
+        }
+        return new ArrayList<>(targets);
+    }
+
+    private ContainerActionResult applyContainerAction(DockerClient dockerClient,
+                                                       String action,
+                                                       String containerId,
+                                                       Integer stopTimeout,
+                                                       boolean force) {
+        long startTime = System.currentTimeMillis();
+        String status = "done";
+        String message;
+
         try {
-            // Validate container exists
-            dockerClient.inspectContainerCmd(containerId).exec();
+            switch (action) {
+                case "start" -> {
+                    dockerClient.startContainerCmd(containerId).exec();
+                    message = "started";
+                }
+                case "stop" -> {
+                    StopContainerCmd cmd = dockerClient.stopContainerCmd(containerId);
+                    if (stopTimeout != null) {
+                        cmd.withTimeout(stopTimeout);
+                    }
+                    cmd.exec();
+                    message = "stopped";
+                }
+                case "restart" -> {
+                    RestartContainerCmd cmd = dockerClient.restartContainerCmd(containerId);
+                    if (stopTimeout != null) {
+                        cmd.withTimeout(stopTimeout);
+                    }
+                    cmd.exec();
+                    message = "restarted";
+                }
+                default -> {
+                    dockerClient.removeContainerCmd(containerId).withForce(force).exec();
+                    message = "removed";
+                }
+            }
+        } catch (NotModifiedException e) {
+            status = "unchanged";
+            message = action.equals("start") ? "already running" : "already stopped";
+        } catch (NotFoundException e) {
+            status = "not_found";
+            message = "no such container";
+        } catch (ConflictException e) {
+            status = "failed";
+            message = action.equals("remove") && !force
+                    ? "container is running, use force=true to remove it"
+                    : e.getMessage();
+        }
+
+        return ContainerActionResult.builder()
+                .containerId(containerId)
+                .status(status)
+                .message(message)
+                .durationMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    /**
+     * Parses {@code key=value} and bare {@code key} terms separated by commas;
+     * a bare key matches any value. Shared by all label-selector based tools.
+     */
+    public static Map<String, String> parseLabelSelector(String selector) {
+        Map<String, String> labels = new LinkedHashMap<>();
+        for (String term : selector.split(",")) {
+            String trimmed = term.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int eq = trimmed.indexOf('=');
+            if (eq == 0) {
+                throw new ValidationException("labelSelector", selector, "Label key cannot be empty");
+            }
+            if (eq > 0) {
+                labels.put(trimmed.substring(0, eq).trim(), trimmed.substring(eq + 1).trim());
+            } else {
+                labels.put(trimmed, null);
+            }
+        }
+        return labels;
+    }
+
+    public static boolean matchesLabels(Map<String, String> labels, Map<String, String> selector) {
+        for (Map.Entry<String, String> term : selector.entrySet()) {
+            if (labels == null || !labels.containsKey(term.getKey())) {
+                return false;
+            }
+            if (term.getValue() != null && !term.getValue().equals(labels.get(term.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getContainerLogs(String serverName, String containerId, int tailLines) {
+        ContainerLogs logs = streamContainerLogs(serverName, containerId, tailLines, null, null, 0,
+                "both", null, maxLogBytes, null);
+
+        if (logs.getStderr().isEmpty()) {
+            return logs.getStdout();
+        }
+        return logs.getStdout() + "\n--- stderr ---\n" + logs.getStderr();
+    }
+
+    /**
+     * Streams container logs through a {@link DockerLogCollector}: stdout and stderr are
+     * demultiplexed and decoded as UTF-8, lines are filtered by {@code filter}, and output
+     * stops once {@code maxBytes} is reached. With {@code followSeconds > 0} the stream is
+     * followed for at most that long. Each batch of matching lines is also handed to
+     * {@code chunkListener} as {@code (stream, text)} while the stream is still open.
+     */
+    public ContainerLogs streamContainerLogs(String serverName,
+                                             String containerId,
+                                             int tailLines,
+                                             String since,
+                                             String until,
+                                             int followSeconds,
+                                             String streams,
+                                             String filter,
+                                             long maxBytes,
+                                             BiConsumer<String, String> chunkListener) {
+        String selected = streams != null && !streams.isBlank() ? streams.trim().toLowerCase() : "both";
+        if (!List.of("stdout", "stderr", "both").contains(selected)) {
+            throw new ValidationException("streams", streams, "Must be one of: stdout, stderr, both");
+        }
+
+        Pattern pattern = null;
+        if (filter != null && !filter.isEmpty()) {
+            try {
+                pattern = Pattern.compile(filter);
+            } catch (PatternSyntaxException e) {
+                throw new ValidationException("filter", filter, "Invalid regular expression: " + e.getDescription());
+            }
+        }
+
+        long byteCap = maxBytes > 0 ? Math.min(maxBytes, maxLogBytes) : maxLogBytes;
+        int followFor = Math.max(0, Math.min(followSeconds, maxFollowSeconds));
+        Integer sinceEpoch = parseLogTimestamp(since, "since");
+        Integer untilEpoch = parseLogTimestamp(until, "until");
 
-            StringBuilder logs = new StringBuilder();
+        // Bounded by the collector's own wait below, so a quiet follow is not cut off early
+        DockerClient dockerClient = dockerClientRegistry.getStreamingClient(serverName);
+        LogContainerCmd cmd = dockerClient.logContainerCmd(containerId)
+                .withStdOut(!selected.equals("stderr"))
+                .withStdErr(!selected.equals("stdout"))
+                .withFollowStream(followFor > 0);
+
+        if (tailLines > 0) {
+            cmd.withTail(tailLines);
+        } else {
+            cmd.withTailAll();
+        }
+        if (sinceEpoch != null) {
+            cmd.withSince(sinceEpoch);
+        }
+        if (untilEpoch != null) {
+            cmd.withUntil(untilEpoch);
+        }
 
-            dockerClient.logContainerCmd(containerId)
-                    .withStdOut(true)
-                    .withStdErr(true)
-                    .withTail(tailLines)
-                    .exec(new LogContainerResultCallback() {
-                        @Override
-                        public void onNext(Frame frame) {
-                            logs.append(new String(frame.getPayload()));
-                        }
-                    }).awaitCompletion();
+        long startTime = System.currentTimeMillis();
+        DockerLogCollector collector = new DockerLogCollector(pattern, byteCap, chunkListener);
 
-            return logs.toString();
+        try {
+            cmd.exec(collector);
+
+            long waitSeconds = followFor > 0 ? followFor : logTimeoutSeconds;
+            if (!collector.awaitCompletion(waitSeconds, TimeUnit.SECONDS)) {
+                if (followFor == 0) {
+                    log.warn("Log retrieval for {} did not finish within {}s, returning partial output",
+                            containerId, waitSeconds);
+                }
+                collector.close();
+            }
+            collector.finish();
+
+            return ContainerLogs.builder()
+                    .containerId(containerId)
+                    .stdout(collector.getStdout())
+                    .stderr(collector.getStderr())
+                    .stdoutBytes(collector.getStdoutBytes())
+                    .stderrBytes(collector.getStderrBytes())
+                    .linesScanned(collector.getLinesScanned())
+                    .linesMatched(collector.getLinesMatched())
+                    .truncated(collector.isTruncated())
+                    .followed(followFor > 0)
+                    .durationMs(System.currentTimeMillis() - startTime)
+                    .build();
 
         } catch (NotFoundException e) {
             throw new ResourceNotFoundException("Container", containerId);
@@ -282,43 +719,40 @@ public class DockerService {
                     "LOGS",
                     net.alishahidi.mcpconductor.exception.DockerException.ErrorCode.NETWORK_ERROR
             );
+        } finally {
+            try {
+                collector.close();
+            } catch (Exception e) {
+                log.debug("Error closing log stream for {}", containerId, e);
+            }
         }
     }
 
-    public String execInContainer(String containerId, String command) {
-        if (command == null || command.trim().isEmpty()) {
-            throw new ValidationException("command", command, "Command cannot be empty");
-        }
+    /**
+     * Runs {@code sh -c command} in one container and waits at most
+     * {@code timeoutSeconds}. Output is kept per stream up to {@code maxBytes} and
+     * the exit code comes from inspecting the exec once the process has exited.
+     */
+    public ExecResult execInContainer(String serverName, String containerId, String command,
+                                      int timeoutSeconds, long maxBytes) {
+        validateExecCommand(command);
+        DockerClient dockerClient = dockerClientRegistry.getClient(serverName);
+        DockerClient streamingClient = dockerClientRegistry.getStreamingClient(serverName);
 
         try {
-            // Validate container exists and is running
-            InspectContainerResponse containerInfo = dockerClient.inspectContainerCmd(containerId).exec();
-
-            if (!containerInfo.getState().getRunning()) {
-                throw new net.alishahidi.mcpconductor.exception.DockerException(
-                        "Container is not running",
-                        containerId,
-                        "EXEC",
-                        net.alishahidi.mcpconductor.exception.DockerException.ErrorCode.STOP_FAILED
-                );
-            }
-
-            ExecCreateCmdResponse execCreateResponse = dockerClient.execCreateCmd(containerId)
-                    .withCmd("sh", "-c", command)
-                    .withAttachStdout(true)
-                    .withAttachStderr(true)
-                    .exec();
-
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-
-            dockerClient.execStartCmd(execCreateResponse.getId())
-                    .exec(new ExecStartResultCallback(outputStream, outputStream))
-                    .awaitCompletion();
-
-            return outputStream.toString();
+            return runExec(dockerClient, streamingClient, containerId, command,
+                    execTimeout(timeoutSeconds), execByteCap(maxBytes));
 
         } catch (NotFoundException e) {
             throw new ResourceNotFoundException("Container", containerId);
+        } catch (ConflictException e) {
+            // 409 from exec create: the container exists but is not running
+            throw new net.alishahidi.mcpconductor.exception.DockerException(
+                    "Container is not running",
+                    containerId,
+                    "EXEC",
+                    net.alishahidi.mcpconductor.exception.DockerException.ErrorCode.STOP_FAILED
+            );
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new CommandExecutionException(
@@ -328,11 +762,6 @@ public class DockerService {
                     -1
             );
         } catch (Exception e) {
-            if (e instanceof net.alishahidi.mcpconductor.exception.DockerException ||
-                    e instanceof ResourceNotFoundException ||
-                    e instanceof ValidationException) {
-                throw e;
-            }
             log.error("Failed to execute command in container: {}", containerId, e);
             throw new CommandExecutionException(
                     "Failed to execute command in container: " + e.getMessage(),
@@ -343,6 +772,261 @@ public class DockerService {
         }
     }
 
+    /**
+     * Runs the same command in every selected running container, at most
+     * {@code concurrency} at a time, each with its own deadline. Containers whose
+     * exit code and output are identical are collapsed into one group, so a fleet
+     * of healthy replicas reads as a single answer.
+     */
+    public ExecFanOutResult execInContainers(String serverName,
+                                             List<String> containerIds,
+                                             String labelSelector,
+                                             String command,
+                                             int timeoutSeconds,
+                                             long maxBytes,
+                                             int concurrency) {
+        validateExecCommand(command);
+
+        List<String> targets = resolveContainerTargets(serverName, containerIds, labelSelector, false);
+        if (targets.size() > maxBulkContainers) {
+            throw new ValidationException("containerIds", targets.size(),
+                    "At most " + maxBulkContainers + " containers can be targeted in one call");
+        }
+
+        DockerClient dockerClient = dockerClientRegistry.getClient(serverName);
+        DockerClient streamingClient = dockerClientRegistry.getStreamingClient(serverName);
+        int timeout = execTimeout(timeoutSeconds);
+        long byteCap = execByteCap(maxBytes);
+        int limit = concurrency > 0 ? Math.min(concurrency, maxBulkConcurrency) : maxBulkConcurrency;
+        long startTime = System.currentTimeMillis();
+
+        log.info("Executing command in {} containers with concurrency {}", targets.size(), limit);
+        List<TaskOutcome<ExecResult>> outcomes = fanOutExecutor.runAll(targets, limit, null, id -> {
+            try {
+                return runExec(dockerClient, streamingClient, id, command, timeout, byteCap);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return ExecResult.builder().containerId(id).error("interrupted").build();
+            } catch (NotFoundException e) {
+                return ExecResult.builder().containerId(id).error("no such container").build();
+            } catch (ConflictException e) {
+                return ExecResult.builder().containerId(id).error("container is not running").build();
+            }
+        });
+
+        Map<List<Object>, ExecOutputGroup> groups = new LinkedHashMap<>();
+        int succeeded = 0;
+        int timedOut = 0;
+        for (TaskOutcome<ExecResult> outcome : outcomes) {
+            ExecResult result = outcome.isSuccess() ? outcome.getResult() : ExecResult.builder()
+                    .containerId(outcome.getTarget())
+                    .error(outcome.getError())
+                    .build();
+
+            if (result.getExitCode() != null && result.getExitCode() == 0) {
+                succeeded++;
+            }
+            if (result.isTimedOut()) {
+                timedOut++;
+            }
+
+            List<Object> key = Arrays.asList(result.getExitCode(), result.getStdout(), result.getStderr(),
+                    result.isTruncated(), result.isTimedOut(), result.isKilled(), result.getError());
+            groups.computeIfAbsent(key, k -> ExecOutputGroup.builder()
+                            .containerIds(new ArrayList<>())
+                            .exitCode(result.getExitCode())
+                            .stdout(result.getStdout())
+                            .stderr(result.getStderr())
+                            .truncated(result.isTruncated())
+                            .timedOut(result.isTimedOut())
+                            .killed(result.isKilled())
+                            .error(result.getError())
+                            .build())
+                    .getContainerIds().add(result.getContainerId());
+        }
+
+        return ExecFanOutResult.builder()
+                .command(command)
+                .containers(targets.size())
+                .succeeded(succeeded)
+                .failed(targets.size() - succeeded)
+                .timedOut(timedOut)
+                .durationMs(System.currentTimeMillis() - startTime)
+                .groups(new ArrayList<>(groups.values()))
+                .build();
+    }
+
+    /**
+     * The output is read on {@code streamingClient} so a command that stays quiet
+     * for longer than the client's response timeout still runs to its own deadline.
+     */
+    private ExecResult runExec(DockerClient dockerClient, DockerClient streamingClient, String containerId,
+                               String command, int timeoutSeconds, long maxBytes) throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        String marker = EXEC_MARKER_ENV + "=" + UUID.randomUUID();
+
+        ExecCreateCmdResponse execCreateResponse = dockerClient.execCreateCmd(containerId)
+                .withCmd("sh", "-c", command)
+                .withEnv(List.of(marker))
+                .withAttachStdout(true)
+                .withAttachStderr(true)
+                .exec();
+
+        DockerExecCollector collector = new DockerExecCollector(maxBytes);
+        boolean timedOut = false;
+        try {
+            streamingClient.execStartCmd(execCreateResponse.getId()).exec(collector);
+            if (!collector.awaitCompletion(timeoutSeconds, TimeUnit.SECONDS)) {
+                timedOut = true;
+                log.warn("Exec in {} did not finish within {}s", containerId, timeoutSeconds);
+            }
+        } finally {
+            try {
+                collector.close();
+            } catch (Exception e) {
+                log.debug("Error closing exec stream for {}", containerId, e);
+            }
+        }
+
+        // Still running after its deadline or after its output cap closed the stream
+        InspectExecResponse execInfo = dockerClient.inspectExecCmd(execCreateResponse.getId()).exec();
+        boolean running = Boolean.TRUE.equals(execInfo.isRunning());
+        boolean killed = false;
+        if (running) {
+            if (!timedOut) {
+                log.warn("Exec in {} still running after its output reached {} bytes", containerId, maxBytes);
+            }
+            killed = killExec(dockerClient, containerId, execCreateResponse.getId(), marker);
+        }
+
+        return ExecResult.builder()
+                .containerId(containerId)
+                .exitCode(running ? null : execInfo.getExitCodeLong())
+                .stdout(collector.getStdout())
+                .stderr(collector.getStderr())
+                .stdoutBytes(collector.getStdoutBytes())
+                .stderrBytes(collector.getStderrBytes())
+                .truncated(collector.isTruncated())
+                .timedOut(timedOut && running)
+                .killed(killed)
+                .durationMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    /**
+     * Kills an exec that outlived its deadline or its output cap, so it does not
+     * keep running unobserved, and reports whether it has stopped.
+     */
+    private boolean killExec(DockerClient dockerClient, String containerId, String execId, String marker)
+            throws InterruptedException {
+        try {
+            ExecCreateCmdResponse kill = dockerClient.execCreateCmd(containerId)
+                    .withCmd("sh", "-c", KILL_MARKED_SCRIPT, "sh", marker)
+                    .withAttachStdout(true)
+                    .withAttachStderr(true)
+                    .exec();
+            try (DockerExecCollector collector = new DockerExecCollector(4096)) {
+                dockerClient.execStartCmd(kill.getId()).exec(collector);
+                collector.awaitCompletion(10, TimeUnit.SECONDS);
+            }
+            for (int attempt = 0; attempt < 10; attempt++) {
+                if (!Boolean.TRUE.equals(dockerClient.inspectExecCmd(execId).exec().isRunning())) {
+                    log.info("Killed exec in {} after its deadline", containerId);
+                    return true;
+                }
+                Thread.sleep(200);
+            }
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            log.warn("Could not kill timed-out exec in {}: {}", containerId, e.getMessage());
+        }
+        return false;
+    }
+
+    private void validateExecCommand(String command) {
+        if (command == null || command.trim().isEmpty()) {
+            throw new ValidationException("command", command, "Command cannot be empty");
+        }
+    }
+
+    private int execTimeout(int timeoutSeconds) {
+        return timeoutSeconds > 0 ? Math.min(timeoutSeconds, maxExecTimeoutSeconds) : defaultExecTimeoutSeconds;
+    }
+
+    private long execByteCap(long maxBytes) {
+        return maxBytes > 0 ? Math.min(maxBytes, maxExecBytes) : maxExecBytes;
+    }
+
+    /**
+     * Accepts epoch seconds, ISO-8601 instants/offset date-times, or a relative
+     * duration such as {@code 30s}, {@code 15m}, {@code 2h}, {@code 1d} (meaning "ago").
+     */
+    private Integer parseLogTimestamp(String value, String field) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+
+        try {
+            if (trimmed.matches("\\d+")) {
+                return Integer.parseInt(trimmed);
+            }
+
+            Matcher relative = RELATIVE_TIME_PATTERN.matcher(trimmed);
+            if (relative.matches()) {
+                long amount = Long.parseLong(relative.group(1));
+                long seconds = switch (relative.group(2)) {
+                    case "s" -> amount;
+                    case "m" -> amount * 60;
+                    case "h" -> amount * 3600;
+                    default -> amount * 86400;
+                };
+                return (int) (Instant.now().getEpochSecond() - seconds);
+            }
+
+            return (int) OffsetDateTime.parse(trimmed).toEpochSecond();
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new ValidationException(field, value,
+                    "Expected epoch seconds, ISO-8601 timestamp or relative duration like 15m");
+        }
+    }
+
+    private static String imageReference(String imageName, String tag) {
+        if (imageName.contains("@")) {
+            return imageName;
+        }
+        if (tag != null && !tag.isBlank()) {
+            return imageName + ":" + tag.trim();
+        }
+        // Keep an inline tag ("nginx:1.25") but not a registry port ("registry:5000/app")
+        int slash = imageName.lastIndexOf('/');
+        return imageName.indexOf(':', slash + 1) >= 0 ? imageName : imageName + ":latest";
+    }
+
+    // "latest" moves, so an inspect hit says nothing about whether the registry has newer content
+    private static boolean isFloatingReference(String reference) {
+        return !reference.contains("@") && reference.endsWith(":latest");
+    }
+
+    private InspectImageResponse inspectImageOrNull(DockerClient dockerClient, String reference) {
+        try {
+            return dockerClient.inspectImageCmd(reference).exec();
+        } catch (NotFoundException e) {
+            return null;
+        }
+    }
+
+    private static String firstDigest(InspectImageResponse image) {
+        List<String> digests = image.getRepoDigests();
+        return digests != null && !digests.isEmpty() ? digests.get(0) : null;
+    }
+
+    private static final class PendingPull {
+        private final ImagePullTracker tracker = new ImagePullTracker();
+        private final CompletableFuture<ImagePullResult> result = new CompletableFuture<>();
+    }
+
     private DockerContainer mapToDockerContainer(Container container) {
         return DockerContainer.builder()
                 .id(container.getId())
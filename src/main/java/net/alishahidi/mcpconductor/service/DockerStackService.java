@@ -0,0 +1,496 @@
+package net.alishahidi.mcpconductor.service;
+
+import net.alishahidi.mcpconductor.exception.ValidationException;
+import net.alishahidi.mcpconductor.model.DockerContainer;
+import net.alishahidi.mcpconductor.model.ImagePullResult;
+import net.alishahidi.mcpconductor.model.StackDeployResult;
+import net.alishahidi.mcpconductor.model.StackServiceResult;
+import net.alishahidi.mcpconductor.model.StackServiceSpec;
+import net.alishahidi.mcpconductor.model.TaskOutcome;
+import net.alishahidi.mcpconductor.util.DockerClientRegistry;
+import net.alishahidi.mcpconductor.util.FanOutExecutor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.CreateContainerCmd;
+import com.github.dockerjava.api.command.HealthState;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.exception.NotModifiedException;
+import com.github.dockerjava.api.model.Bind;
+import com.github.dockerjava.api.model.ExposedPort;
+import com.github.dockerjava.api.model.HealthCheck;
+import com.github.dockerjava.api.model.HostConfig;
+import com.github.dockerjava.api.model.Ports;
+import com.github.dockerjava.api.model.RestartPolicy;
+import com.github.dockerjava.api.model.Volume;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+/**
+ * Converges a compose-like set of services on one Docker host.
+ *
+ * Images are pulled in parallel first. Every service then converges on its
+ * own virtual thread, blocking only on the readiness of the services it
+ * depends on, so independent branches of the dependency graph start
+ * concurrently. Containers carry a hash of their spec and image id as a label;
+ * a service whose hash matches its container is left alone, and its image is
+ * not pulled when the hash matches the image already on the host, so
+ * re-applying an unchanged stack makes no changes and never contacts the
+ * registry. A floating tag such as {@code latest} is therefore only refreshed
+ * when a service using it changes; the pulled image then applies to every
+ * service naming it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DockerStackService {
+
+    public static final String STACK_LABEL = "mcp-conductor.stack";
+    public static final String SERVICE_LABEL = "mcp-conductor.service";
+    public static final String CONFIG_HASH_LABEL = "mcp-conductor.config-hash";
+
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-zA-Z0-9][a-zA-Z0-9_.-]{0,62}");
+
+    private static final ObjectMapper CANONICAL_JSON = JsonMapper.builder()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+
+    private final DockerClientRegistry dockerClientRegistry;
+    private final DockerService dockerService;
+    private final FanOutExecutor fanOutExecutor;
+
+    @Value("${docker.stack.health-timeout-seconds:120}")
+    private int healthTimeoutSeconds;
+
+    @Value("${docker.stack.stop-timeout-seconds:10}")
+    private int stopTimeoutSeconds;
+
+    public StackDeployResult deployStack(String serverName,
+                                         String stackName,
+                                         Map<String, StackServiceSpec> services,
+                                         boolean prune) {
+        validate(stackName, services);
+
+        DockerClient dockerClient = dockerClientRegistry.getClient(serverName);
+        long startTime = System.currentTimeMillis();
+
+        Map<String, DockerContainer> existing = new HashMap<>();
+        for (DockerContainer container : dockerService.listContainers(serverName, true)) {
+            Map<String, String> labels = container.getLabels();
+            if (labels != null && stackName.equals(labels.get(STACK_LABEL)) && labels.get(SERVICE_LABEL) != null) {
+                existing.putIfAbsent(labels.get(SERVICE_LABEL), container);
+            }
+        }
+
+        // A service whose container already matches its spec and the local image needs no pull
+        Map<String, String> imageIds = new HashMap<>();
+        Set<String> toPull = new LinkedHashSet<>();
+        services.forEach((name, spec) -> {
+            String image = spec.getImage().trim();
+            if (!imageIds.containsKey(image)) {
+                imageIds.put(image, localImageId(dockerClient, image));
+            }
+            String localId = imageIds.get(image);
+            DockerContainer current = existing.get(name);
+            if (localId == null || current == null
+                    || !configHash(spec, localId).equals(current.getLabels().get(CONFIG_HASH_LABEL))) {
+                toPull.add(image);
+            }
+        });
+        toPull.forEach(imageIds::remove);
+
+        List<TaskOutcome<ImagePullResult>> pulls = fanOutExecutor.runAll(new ArrayList<>(toPull), 0, null,
+                image -> dockerService.pullImage(serverName, image, null, false, null));
+
+        Map<String, String> pullErrors = new HashMap<>();
+        for (TaskOutcome<ImagePullResult> pull : pulls) {
+            if (pull.isSuccess() && pull.getResult().getImageId() != null) {
+                imageIds.put(pull.getTarget(), pull.getResult().getImageId());
+            } else {
+                pullErrors.put(pull.getTarget(), pull.getError() != null ? pull.getError() : "image not found after pull");
+            }
+        }
+
+        String network = ensureNetwork(dockerClient, stackName);
+
+        // Completed with "healthy?" once a service has converged; dependents block on it
+        Map<String, CompletableFuture<Boolean>> ready = new HashMap<>();
+        services.keySet().forEach(name -> ready.put(name, new CompletableFuture<>()));
+
+        // Unbounded on purpose: a permit held while waiting on a dependency could deadlock the graph
+        List<TaskOutcome<StackServiceResult>> outcomes = fanOutExecutor.runAll(new ArrayList<>(services.keySet()), 0, null,
+                name -> {
+                    try {
+                        StackServiceResult result = converge(dockerClient, stackName, network, name,
+                                services.get(name), existing.get(name), imageIds, pullErrors, ready);
+                        ready.get(name).complete(result.isHealthy());
+                        return result;
+                    } catch (RuntimeException e) {
+                        ready.get(name).complete(false);
+                        throw e;
+                    }
+                });
+
+        List<StackServiceResult> results = new ArrayList<>();
+        for (TaskOutcome<StackServiceResult> outcome : outcomes) {
+            results.add(outcome.isSuccess() ? outcome.getResult() : StackServiceResult.builder()
+                    .service(outcome.getTarget())
+                    .action("failed")
+                    .image(services.get(outcome.getTarget()).getImage())
+                    .message(outcome.getError())
+                    .durationMs(outcome.getDurationMs())
+                    .build());
+        }
+
+        if (prune) {
+            existing.forEach((service, container) -> {
+                if (!services.containsKey(service)) {
+                    results.add(removeOrphan(dockerClient, service, container));
+                }
+            });
+        }
+
+        boolean unchanged = results.stream().allMatch(r -> r.getAction().equals("unchanged"));
+        boolean success = results.stream().allMatch(r -> r.getAction().equals("removed") || r.isHealthy());
+        log.info("Stack {} deployed: {} services, unchanged={}, success={}",
+                stackName, services.size(), unchanged, success);
+
+        return StackDeployResult.builder()
+                .stack(stackName)
+                .network(network)
+                .unchanged(unchanged)
+                .success(success)
+                .pulls(pulls)
+                .services(results)
+                .durationMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    private StackServiceResult converge(DockerClient dockerClient,
+                                        String stackName,
+                                        String network,
+                                        String name,
+                                        StackServiceSpec spec,
+                                        DockerContainer current,
+                                        Map<String, String> imageIds,
+                                        Map<String, String> pullErrors,
+                                        Map<String, CompletableFuture<Boolean>> ready) {
+        long startTime = System.currentTimeMillis();
+        String image = spec.getImage().trim();
+        StackServiceResult.StackServiceResultBuilder result = StackServiceResult.builder()
+                .service(name)
+                .image(image);
+
+        if (spec.getDependsOn() != null) {
+            for (String dependency : spec.getDependsOn()) {
+                if (!ready.get(dependency).join()) {
+                    return result.action("skipped")
+                            .message("dependency '" + dependency + "' is not healthy")
+                            .durationMs(System.currentTimeMillis() - startTime)
+                            .build();
+                }
+            }
+        }
+
+        String imageId = imageIds.get(image);
+        if (imageId == null) {
+            return result.action("failed")
+                    .message("image pull failed: " + pullErrors.get(image))
+                    .durationMs(System.currentTimeMillis() - startTime)
+                    .build();
+        }
+
+        String configHash = configHash(spec, imageId);
+        String containerId;
+        String action;
+
+        if (current != null && configHash.equals(current.getLabels().get(CONFIG_HASH_LABEL))) {
+            containerId = current.getId();
+            if ("running".equals(current.getState())) {
+                action = "unchanged";
+            } else {
+                startIfStopped(dockerClient, containerId);
+                action = "started";
+            }
+        } else {
+            if (current != null) {
+                removeContainer(dockerClient, current.getId());
+                action = "recreated";
+            } else {
+                action = "created";
+            }
+            containerId = createContainer(dockerClient, stackName, network, name, spec, configHash);
+            dockerClient.startContainerCmd(containerId).exec();
+        }
+
+        String problem = awaitHealthy(dockerClient, containerId);
+        return result.action(action)
+                .containerId(containerId)
+                .healthy(problem == null)
+                .message(problem)
+                .durationMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    private String createContainer(DockerClient dockerClient, String stackName, String network,
+                                   String name, StackServiceSpec spec, String configHash) {
+        Map<String, String> labels = new LinkedHashMap<>();
+        if (spec.getLabels() != null) {
+            labels.putAll(spec.getLabels());
+        }
+        labels.put(STACK_LABEL, stackName);
+        labels.put(SERVICE_LABEL, name);
+        labels.put(CONFIG_HASH_LABEL, configHash);
+
+        CreateContainerCmd createCmd = dockerClient.createContainerCmd(spec.getImage().trim())
+                .withName(stackName + "-" + name)
+                .withLabels(labels)
+                .withAliases(name);
+
+        if (spec.getCommand() != null && !spec.getCommand().isEmpty()) {
+            createCmd.withCmd(spec.getCommand());
+        }
+
+        if (spec.getEnvironment() != null && !spec.getEnvironment().isEmpty()) {
+            createCmd.withEnv(spec.getEnvironment().entrySet().stream()
+                    .map(e -> e.getKey() + "=" + e.getValue())
+                    .toList());
+        }
+
+        HostConfig hostConfig = HostConfig.newHostConfig().withNetworkMode(network);
+
+        if (spec.getPorts() != null && !spec.getPorts().isEmpty()) {
+            Ports portBindings = new Ports();
+            List<ExposedPort> exposedPorts = new ArrayList<>();
+            spec.getPorts().forEach((containerPort, hostPort) -> {
+                ExposedPort exposedPort = ExposedPort.parse(containerPort);
+                exposedPorts.add(exposedPort);
+                portBindings.bind(exposedPort, Ports.Binding.bindPort(Integer.parseInt(hostPort)));
+            });
+            createCmd.withExposedPorts(exposedPorts);
+            hostConfig.withPortBindings(portBindings);
+        }
+
+        if (spec.getVolumes() != null && !spec.getVolumes().isEmpty()) {
+            List<Bind> binds = new ArrayList<>();
+            List<Volume> anonymous = new ArrayList<>();
+            for (String volume : spec.getVolumes()) {
+                if (volume.contains(":")) {
+                    binds.add(Bind.parse(volume));
+                } else {
+                    anonymous.add(new Volume(volume));
+                }
+            }
+            hostConfig.withBinds(binds);
+            if (!anonymous.isEmpty()) {
+                createCmd.withVolumes(anonymous);
+            }
+        }
+
+        if (spec.getRestart() != null && !spec.getRestart().isBlank()) {
+            hostConfig.withRestartPolicy(RestartPolicy.parse(spec.getRestart().trim()));
+        }
+
+        StackServiceSpec.Healthcheck healthcheck = spec.getHealthcheck();
+        if (healthcheck != null && healthcheck.getCommand() != null && !healthcheck.getCommand().isBlank()) {
+            HealthCheck check = new HealthCheck().withTest(List.of("CMD-SHELL", healthcheck.getCommand()));
+            if (healthcheck.getIntervalSeconds() != null) {
+                check.withInterval(healthcheck.getIntervalSeconds() * 1_000_000_000L);
+            }
+            if (healthcheck.getTimeoutSeconds() != null) {
+                check.withTimeout(healthcheck.getTimeoutSeconds() * 1_000_000_000L);
+            }
+            if (healthcheck.getRetries() != null) {
+                check.withRetries(healthcheck.getRetries());
+            }
+            if (healthcheck.getStartPeriodSeconds() != null) {
+                check.withStartPeriod(healthcheck.getStartPeriodSeconds() * 1_000_000_000L);
+            }
+            createCmd.withHealthcheck(check);
+        }
+
+        String containerId = createCmd.withHostConfig(hostConfig).exec().getId();
+        log.info("Created container {} for service {} of stack {}", containerId, name, stackName);
+        return containerId;
+    }
+
+    /**
+     * Waits until the container is healthy, or merely running when it has no
+     * healthcheck. Returns {@code null} on success, otherwise the reason.
+     */
+    private String awaitHealthy(DockerClient dockerClient, String containerId) {
+        long deadline = System.currentTimeMillis() + healthTimeoutSeconds * 1000L;
+
+        while (true) {
+            InspectContainerResponse.ContainerState state = dockerClient.inspectContainerCmd(containerId).exec().getState();
+            boolean running = Boolean.TRUE.equals(state.getRunning());
+            boolean restarting = Boolean.TRUE.equals(state.getRestarting());
+
+            if (!running && !restarting) {
+                return "container exited with code " + state.getExitCodeLong();
+            }
+
+            HealthState health = state.getHealth();
+            if (running && (health == null || "healthy".equals(health.getStatus()))) {
+                return null;
+            }
+            if (health != null && "unhealthy".equals(health.getStatus())) {
+                return "healthcheck reports unhealthy";
+            }
+
+            if (System.currentTimeMillis() >= deadline) {
+                return "not healthy within " + healthTimeoutSeconds + "s";
+            }
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return "interrupted while waiting for health";
+            }
+        }
+    }
+
+    private void startIfStopped(DockerClient dockerClient, String containerId) {
+        try {
+            dockerClient.startContainerCmd(containerId).exec();
+        } catch (NotModifiedException e) {
+            // already running
+        }
+    }
+
+    private void removeContainer(DockerClient dockerClient, String containerId) {
+        try {
+            dockerClient.stopContainerCmd(containerId).withTimeout(stopTimeoutSeconds).exec();
+        } catch (NotModifiedException | NotFoundException e) {
+            // already stopped or gone
+        }
+        try {
+            dockerClient.removeContainerCmd(containerId).withForce(true).exec();
+        } catch (NotFoundException e) {
+            // already gone
+        }
+    }
+
+    private StackServiceResult removeOrphan(DockerClient dockerClient, String service, DockerContainer container) {
+        long startTime = System.currentTimeMillis();
+        StackServiceResult.StackServiceResultBuilder result = StackServiceResult.builder()
+                .service(service)
+                .containerId(container.getId())
+                .image(container.getImage());
+        try {
+            removeContainer(dockerClient, container.getId());
+            result.action("removed").message("no longer in spec");
+        } catch (Exception e) {
+            result.action("failed").message("failed to remove: " + e.getMessage());
+        }
+        return result.durationMs(System.currentTimeMillis() - startTime).build();
+    }
+
+    private String localImageId(DockerClient dockerClient, String image) {
+        try {
+            return dockerClient.inspectImageCmd(image).exec().getId();
+        } catch (NotFoundException e) {
+            return null;
+        }
+    }
+
+    private String ensureNetwork(DockerClient dockerClient, String stackName) {
+        String network = stackName + "_default";
+        boolean exists = dockerClient.listNetworksCmd().withNameFilter(network).exec().stream()
+                .anyMatch(n -> network.equals(n.getName()));
+        if (!exists) {
+            dockerClient.createNetworkCmd()
+                    .withName(network)
+                    .withDriver("bridge")
+                    .withLabels(Map.of(STACK_LABEL, stackName))
+                    .exec();
+            log.info("Created network {} for stack {}", network, stackName);
+        }
+        return network;
+    }
+
+    static String configHash(StackServiceSpec spec, String imageId) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(CANONICAL_JSON.writeValueAsBytes(spec));
+            digest.update(imageId.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Cannot hash service spec", e);
+        }
+    }
+
+    static void validate(String stackName, Map<String, StackServiceSpec> services) {
+        if (stackName == null || !NAME_PATTERN.matcher(stackName).matches()) {
+            throw new ValidationException("stackName", stackName,
+                    "Stack name must start with a letter or digit and contain only letters, digits, '_', '.' or '-'");
+        }
+        if (services == null || services.isEmpty()) {
+            throw new ValidationException("services", services, "At least one service is required");
+        }
+
+        for (Map.Entry<String, StackServiceSpec> entry : services.entrySet()) {
+            String name = entry.getKey();
+            StackServiceSpec spec = entry.getValue();
+            if (!NAME_PATTERN.matcher(name).matches()) {
+                throw new ValidationException("services", name, "Invalid service name");
+            }
+            if (spec == null || spec.getImage() == null || spec.getImage().isBlank()) {
+                throw new ValidationException("services." + name + ".image", null, "Image is required");
+            }
+            if (spec.getDependsOn() != null) {
+                for (String dependency : spec.getDependsOn()) {
+                    if (!services.containsKey(dependency) || dependency.equals(name)) {
+                        throw new ValidationException("services." + name + ".dependsOn", dependency,
+                                "Unknown or self dependency");
+                    }
+                }
+            }
+        }
+
+        Set<String> done = new HashSet<>();
+        for (String name : services.keySet()) {
+            checkCycle(name, services, done, new HashSet<>());
+        }
+    }
+
+    private static void checkCycle(String name, Map<String, StackServiceSpec> services,
+                                   Set<String> done, Set<String> path) {
+        if (done.contains(name)) {
+            return;
+        }
+        if (!path.add(name)) {
+            throw new ValidationException("services", name, "Dependency cycle through service '" + name + "'");
+        }
+        List<String> dependencies = services.get(name).getDependsOn();
+        if (dependencies != null) {
+            for (String dependency : dependencies) {
+                checkCycle(dependency, services, done, path);
+            }
+        }
+        path.remove(name);
+        done.add(name);
+    }
+}
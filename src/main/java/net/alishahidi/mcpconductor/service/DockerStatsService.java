@@ -0,0 +1,314 @@
+package net.alishahidi.mcpconductor.service;
+
+import net.alishahidi.mcpconductor.exception.ValidationException;
+import net.alishahidi.mcpconductor.model.ContainerStatsSummary;
+import net.alishahidi.mcpconductor.model.DockerContainer;
+import net.alishahidi.mcpconductor.util.DockerClientRegistry;
+import net.alishahidi.mcpconductor.util.DoubleRingBuffer;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.BlkioStatEntry;
+import com.github.dockerjava.api.model.BlkioStatsConfig;
+import com.github.dockerjava.api.model.CpuStatsConfig;
+import com.github.dockerjava.api.model.MemoryStatsConfig;
+import com.github.dockerjava.api.model.StatisticNetworksConfig;
+import com.github.dockerjava.api.model.Statistics;
+import com.github.dockerjava.api.model.StatsConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Samples the Docker stats stream and reduces it to per-metric aggregates.
+ *
+ * Each container has at most one open stats stream no matter how many callers
+ * sample it concurrently: callers join the shared stream, remember the sample
+ * sequence at which they joined, and summarise only what arrived during their
+ * window. The stream is closed when its last reader leaves. Samples live in
+ * fixed-size {@link DoubleRingBuffer}s, so memory stays flat for long windows.
+ * Streams are keyed by server and container id.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DockerStatsService {
+
+    private static final int SAMPLE_CAPACITY = 256;
+
+    private final DockerClientRegistry dockerClientRegistry;
+    private final DockerService dockerService;
+
+    private final Map<String, StatsStream> streams = new ConcurrentHashMap<>();
+
+    @Value("${docker.stats.max-window-seconds:120}")
+    private int maxWindowSeconds;
+
+    @Value("${docker.stats.max-containers:50}")
+    private int maxContainers;
+
+    public List<ContainerStatsSummary> sampleStats(String serverName, List<String> containerIds, int windowSeconds) {
+        if (windowSeconds <= 0 || windowSeconds > maxWindowSeconds) {
+            throw new ValidationException("windowSeconds", windowSeconds,
+                    "Window must be between 1 and " + maxWindowSeconds + " seconds");
+        }
+
+        // Each id joins its stream once, so the same id twice cannot leave a reader behind
+        List<String> targets = containerIds != null && !containerIds.isEmpty()
+                ? new ArrayList<>(new LinkedHashSet<>(containerIds))
+                : dockerService.listContainers(serverName, false).stream().map(DockerContainer::getId).toList();
+
+        if (targets.size() > maxContainers) {
+            throw new ValidationException("containerIds", targets.size(),
+                    "At most " + maxContainers + " containers can be sampled at once");
+        }
+
+        // Join (or open) every stream first so all windows overlap
+        Map<String, Long> joinedAt = new LinkedHashMap<>();
+        try {
+            for (String id : targets) {
+                String key = streamKey(serverName, id);
+                StatsStream stream = acquire(serverName, key, id);
+                joinedAt.put(key, stream.sequence());
+            }
+        } catch (Exception e) {
+            joinedAt.keySet().forEach(this::release);
+            throw new net.alishahidi.mcpconductor.exception.DockerException(
+                    "Failed to open stats stream: " + e.getMessage(), e, "STATS");
+        }
+
+        try {
+            Thread.sleep(windowSeconds * 1000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<ContainerStatsSummary> summaries = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : joinedAt.entrySet()) {
+            StatsStream stream = streams.get(entry.getKey());
+            try {
+                summaries.add(stream.summarizeSince(entry.getValue(), windowSeconds));
+            } finally {
+                release(entry.getKey());
+            }
+        }
+        return summaries;
+    }
+
+    private static String streamKey(String serverName, String containerId) {
+        String server = serverName == null || serverName.isBlank() ? DockerClientRegistry.DEFAULT_SERVER : serverName;
+        return server + ":" + containerId;
+    }
+
+    // The Docker call runs outside compute so a slow daemon does not block other keys of the map
+    private StatsStream acquire(String serverName, String key, String containerId) {
+        StatsStream created = new StatsStream(containerId);
+        StatsStream stream = streams.compute(key, (k, existing) -> {
+            StatsStream joined = existing != null ? existing : created;
+            joined.readers++;
+            return joined;
+        });
+        if (stream == created) {
+            try {
+                open(serverName, stream);
+            } catch (RuntimeException e) {
+                stream.error = e.getMessage();
+                release(key);
+                throw e;
+            }
+        }
+        return stream;
+    }
+
+    private void release(String key) {
+        streams.computeIfPresent(key, (k, stream) -> {
+            if (--stream.readers > 0) {
+                return stream;
+            }
+            try {
+                stream.close();
+            } catch (Exception e) {
+                log.debug("Error closing stats stream for {}", k, e);
+            }
+            return null;
+        });
+    }
+
+    private void open(String serverName, StatsStream stream) {
+        dockerClientRegistry.getStreamingClient(serverName).statsCmd(stream.containerId).withNoStream(false).exec(stream);
+        log.debug("Opened stats stream for container {}", stream.containerId);
+    }
+
+    private static final class StatsStream extends ResultCallback.Adapter<Statistics> {
+
+        private final String containerId;
+        private final DoubleRingBuffer cpuPercent = new DoubleRingBuffer(SAMPLE_CAPACITY);
+        private final DoubleRingBuffer memoryBytes = new DoubleRingBuffer(SAMPLE_CAPACITY);
+        private final DoubleRingBuffer memoryPercent = new DoubleRingBuffer(SAMPLE_CAPACITY);
+        private final DoubleRingBuffer netRx = new DoubleRingBuffer(SAMPLE_CAPACITY);
+        private final DoubleRingBuffer netTx = new DoubleRingBuffer(SAMPLE_CAPACITY);
+        private final DoubleRingBuffer blockRead = new DoubleRingBuffer(SAMPLE_CAPACITY);
+        private final DoubleRingBuffer blockWrite = new DoubleRingBuffer(SAMPLE_CAPACITY);
+
+        // Guarded by DockerStatsService.streams.compute
+        private int readers;
+
+        private volatile String error;
+        private volatile Long memoryLimit;
+
+        private long prevReadNanos = -1;
+        private long prevRx;
+        private long prevTx;
+        private long prevBlkRead;
+        private long prevBlkWrite;
+
+        private StatsStream(String containerId) {
+            this.containerId = containerId;
+        }
+
+        private long sequence() {
+            return cpuPercent.written();
+        }
+
+        @Override
+        public synchronized void onNext(Statistics stats) {
+            if (stats == null) {
+                return;
+            }
+
+            cpuPercent.add(cpuPercent(stats.getCpuStats(), stats.getPreCpuStats()));
+
+            MemoryStatsConfig memory = stats.getMemoryStats();
+            if (memory != null && memory.getUsage() != null) {
+                double used = memory.getUsage() - pageCache(memory.getStats());
+                memoryBytes.add(used);
+                Long limit = memory.getLimit();
+                memoryLimit = limit;
+                memoryPercent.add(limit != null && limit > 0 ? used * 100.0 / limit : Double.NaN);
+            } else {
+                memoryBytes.add(Double.NaN);
+                memoryPercent.add(Double.NaN);
+            }
+
+            long rx = 0;
+            long tx = 0;
+            if (stats.getNetworks() != null) {
+                for (StatisticNetworksConfig network : stats.getNetworks().values()) {
+                    rx += network.getRxBytes() != null ? network.getRxBytes() : 0;
+                    tx += network.getTxBytes() != null ? network.getTxBytes() : 0;
+                }
+            }
+            long[] blkio = blockIo(stats.getBlkioStats());
+
+            long readNanos = parseReadNanos(stats.getRead());
+            if (prevReadNanos > 0 && readNanos > prevReadNanos) {
+                double seconds = (readNanos - prevReadNanos) / 1e9;
+                netRx.add(Math.max(0, rx - prevRx) / seconds);
+                netTx.add(Math.max(0, tx - prevTx) / seconds);
+                blockRead.add(Math.max(0, blkio[0] - prevBlkRead) / seconds);
+                blockWrite.add(Math.max(0, blkio[1] - prevBlkWrite) / seconds);
+            } else {
+                netRx.add(Double.NaN);
+                netTx.add(Double.NaN);
+                blockRead.add(Double.NaN);
+                blockWrite.add(Double.NaN);
+            }
+            prevReadNanos = readNanos;
+            prevRx = rx;
+            prevTx = tx;
+            prevBlkRead = blkio[0];
+            prevBlkWrite = blkio[1];
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable.getMessage();
+            log.warn("Stats stream failed for container {}: {}", containerId, throwable.getMessage());
+            super.onError(throwable);
+        }
+
+        private synchronized ContainerStatsSummary summarizeSince(long fromSeq, int windowSeconds) {
+            double[] cpu = cpuPercent.snapshotSince(fromSeq);
+            return ContainerStatsSummary.builder()
+                    .containerId(containerId)
+                    .samples(cpu.length)
+                    .windowSeconds(windowSeconds)
+                    .memoryLimitBytes(memoryLimit)
+                    .cpuPercent(DoubleRingBuffer.summarize(cpu))
+                    .memoryBytes(DoubleRingBuffer.summarize(memoryBytes.snapshotSince(fromSeq)))
+                    .memoryPercent(DoubleRingBuffer.summarize(memoryPercent.snapshotSince(fromSeq)))
+                    .netRxBytesPerSec(DoubleRingBuffer.summarize(netRx.snapshotSince(fromSeq)))
+                    .netTxBytesPerSec(DoubleRingBuffer.summarize(netTx.snapshotSince(fromSeq)))
+                    .blockReadBytesPerSec(DoubleRingBuffer.summarize(blockRead.snapshotSince(fromSeq)))
+                    .blockWriteBytesPerSec(DoubleRingBuffer.summarize(blockWrite.snapshotSince(fromSeq)))
+                    .error(error)
+                    .build();
+        }
+
+        private static double cpuPercent(CpuStatsConfig current, CpuStatsConfig previous) {
+            if (current == null || previous == null || current.getCpuUsage() == null
+                    || previous.getCpuUsage() == null || current.getSystemCpuUsage() == null
+                    || previous.getSystemCpuUsage() == null) {
+                return Double.NaN;
+            }
+            long cpuDelta = current.getCpuUsage().getTotalUsage() - previous.getCpuUsage().getTotalUsage();
+            long systemDelta = current.getSystemCpuUsage() - previous.getSystemCpuUsage();
+            if (systemDelta <= 0 || cpuDelta < 0) {
+                return Double.NaN;
+            }
+            long cpus = current.getOnlineCpus() != null && current.getOnlineCpus() > 0
+                    ? current.getOnlineCpus()
+                    : current.getCpuUsage().getPercpuUsage() != null ? current.getCpuUsage().getPercpuUsage().size() : 1;
+            return (double) cpuDelta / systemDelta * cpus * 100.0;
+        }
+
+        // Same accounting as `docker stats`: cgroup v1 reports total_inactive_file, v2 inactive_file
+        private static long pageCache(StatsConfig stats) {
+            if (stats == null) {
+                return 0;
+            }
+            if (stats.getTotalInactiveFile() != null) {
+                return stats.getTotalInactiveFile();
+            }
+            return stats.getInactiveFile() != null ? stats.getInactiveFile() : 0;
+        }
+
+        private static long[] blockIo(BlkioStatsConfig blkio) {
+            long read = 0;
+            long write = 0;
+            if (blkio != null && blkio.getIoServiceBytesRecursive() != null) {
+                for (BlkioStatEntry entry : blkio.getIoServiceBytesRecursive()) {
+                    if (entry.getValue() == null || entry.getOp() == null) {
+                        continue;
+                    }
+                    if (entry.getOp().equalsIgnoreCase("read")) {
+                        read += entry.getValue();
+                    } else if (entry.getOp().equalsIgnoreCase("write")) {
+                        write += entry.getValue();
+                    }
+                }
+            }
+            return new long[]{read, write};
+        }
+
+        private static long parseReadNanos(String read) {
+            Instant instant = Instant.now();
+            if (read != null) {
+                try {
+                    instant = Instant.parse(read);
+                } catch (DateTimeParseException e) {
+                    // fall back to local receive time
+                }
+            }
+            return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+        }
+    }
+}
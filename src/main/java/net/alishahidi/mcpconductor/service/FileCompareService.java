@@ -0,0 +1,274 @@
+package net.alishahidi.mcpconductor.service;
+
+import net.alishahidi.mcpconductor.config.SSHProperties;
+import net.alishahidi.mcpconductor.exception.CommandExecutionException;
+import net.alishahidi.mcpconductor.exception.ValidationException;
+import net.alishahidi.mcpconductor.model.FileCompareGroup;
+import net.alishahidi.mcpconductor.model.FileCompareResult;
+import net.alishahidi.mcpconductor.model.TaskOutcome;
+import net.alishahidi.mcpconductor.util.ChunkedHash;
+import net.alishahidi.mcpconductor.util.CommandSanitizer;
+import net.alishahidi.mcpconductor.util.FanOutExecutor;
+import net.alishahidi.mcpconductor.util.LineDiff;
+import net.alishahidi.mcpconductor.util.RemoteCommandStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares one file across many servers without transferring it.
+ *
+ * Every server hashes the file in full and in fixed-size chunks
+ * ({@link ChunkedHash}), in parallel. Servers are grouped by whole-file hash
+ * and the largest group becomes the reference. For every other group one
+ * member's chunk hashes locate the first difference, and only the text from
+ * that line on is fetched from it and from a reference server to build a
+ * unified diff.
+ *
+ * Hashes are cached per server and path together with the file's stat key
+ * (inode, size, mtime, ctime). The next comparison sends the key along and the
+ * host only hashes again if the file changed, so a repeated drift check costs
+ * one stat per server.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileCompareService {
+
+    private static final int MIN_CHUNK_SIZE = 4096;
+    private static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+    private static final String MISSING = "missing";
+
+    private final SSHService sshService;
+    private final SSHProperties sshProperties;
+    private final CommandSanitizer commandSanitizer;
+    private final FanOutExecutor fanOutExecutor;
+
+    @Value("${files.compare.max-concurrency:32}")
+    private int maxConcurrency;
+
+    @Value("${files.compare.host-timeout-seconds:60}")
+    private int hostTimeoutSeconds;
+
+    @Value("${files.compare.max-diff-bytes:65536}")
+    private int maxDiffBytes;
+
+    @Value("${files.compare.cache-entries:10000}")
+    private int cacheEntries;
+
+    private final Map<String, ChunkedHash> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * @param chunkSize chunk length in bytes; cached hashes of another chunk size are not reused
+     * @param diff      fetch a unified diff against the reference for each divergent group
+     * @param refresh   hash again even when the cached stat key still matches
+     */
+    public FileCompareResult compare(String tags, String path, int chunkSize, boolean diff, boolean refresh) {
+        List<String> servers = sshProperties.selectServers(tags);
+        if (servers.isEmpty()) {
+            throw new ValidationException("tags", tags, "No configured servers match the selector");
+        }
+        if (path == null || !path.startsWith("/")) {
+            throw new ValidationException("path", path, "Path must be absolute");
+        }
+        if (chunkSize < MIN_CHUNK_SIZE || chunkSize > MAX_CHUNK_SIZE) {
+            throw new ValidationException("chunkSize", chunkSize,
+                    "chunkSize must be between " + MIN_CHUNK_SIZE + " and " + MAX_CHUNK_SIZE);
+        }
+        String file = Path.of(path).normalize().toString();
+        String quoted = commandSanitizer.escapeShellArgument(file);
+        long startTime = System.currentTimeMillis();
+
+        List<TaskOutcome<HashRead>> outcomes = fanOutExecutor.runAll(servers, maxConcurrency,
+                Duration.ofSeconds(hostTimeoutSeconds), server -> hash(server, file, quoted, chunkSize, refresh));
+
+        // Groups keep server order, so the first server of each group is its representative
+        Map<String, List<String>> members = new LinkedHashMap<>();
+        Map<String, ChunkedHash> hashes = new HashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+        int cacheHits = 0;
+        for (TaskOutcome<HashRead> outcome : outcomes) {
+            if (!outcome.isSuccess()) {
+                errors.put(outcome.getTarget(), outcome.getError());
+                continue;
+            }
+            HashRead read = outcome.getResult();
+            String key = read.hash() != null ? read.hash().getSha256() : MISSING;
+            members.computeIfAbsent(key, k -> new ArrayList<>()).add(outcome.getTarget());
+            hashes.putIfAbsent(key, read.hash());
+            cacheHits += read.cached() ? 1 : 0;
+        }
+
+        String reference = null;
+        for (Map.Entry<String, List<String>> group : members.entrySet()) {
+            if (!group.getKey().equals(MISSING)
+                    && (reference == null || group.getValue().size() > members.get(reference).size())) {
+                reference = group.getKey();
+            }
+        }
+
+        List<FileCompareGroup> groups = new ArrayList<>();
+        for (Map.Entry<String, List<String>> group : members.entrySet()) {
+            String key = group.getKey();
+            ChunkedHash hash = hashes.get(key);
+            FileCompareGroup.FileCompareGroupBuilder builder = FileCompareGroup.builder()
+                    .sha256(hash != null ? hash.getSha256() : null)
+                    .size(hash != null ? hash.getSize() : 0)
+                    .servers(group.getValue())
+                    .reference(key.equals(reference));
+            if (hash != null && reference != null && !key.equals(reference)) {
+                ChunkedHash referenceHash = hashes.get(reference);
+                int firstChunk = Math.max(referenceHash.firstDifferentChunk(hash), 0);
+                long offset = (long) firstChunk * chunkSize;
+                builder.differingChunks(referenceHash.differingChunks(hash)).firstDifferenceOffset(offset);
+                if (diff) {
+                    addDiff(builder, file, quoted, offset, members.get(reference).get(0), group.getValue().get(0));
+                }
+            }
+            groups.add(builder.build());
+        }
+
+        boolean identical = errors.isEmpty() && members.size() == 1 && reference != null;
+        log.info("Compared {} on {} servers in {} ms: {} groups, {} cached, {} failed", file, servers.size(),
+                System.currentTimeMillis() - startTime, groups.size(), cacheHits, errors.size());
+
+        return FileCompareResult.builder()
+                .path(file)
+                .servers(servers)
+                .identical(identical)
+                .chunkSize(chunkSize)
+                .groups(groups)
+                .cacheHits(cacheHits)
+                .errors(errors)
+                .elapsedMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    private HashRead hash(String server, String file, String quoted, int chunkSize, boolean refresh) {
+        String cacheKey = server + '\0' + file;
+        ChunkedHash cached;
+        synchronized (cache) {
+            cached = cache.get(cacheKey);
+        }
+        if (cached != null && cached.getChunkSize() != chunkSize) {
+            cached = null;
+        }
+        String command = ChunkedHash.command(quoted, chunkSize, cached != null && !refresh ? cached.getStat() : null);
+
+        String output;
+        try (RemoteCommandStream stream = sshService.openCommandStream(server, command)
+                .withDeadline(hostTimeoutSeconds * 1000L)) {
+            output = new String(stream.readAllStdout(), StandardCharsets.UTF_8);
+            int exitCode = stream.waitFor(10_000);
+            if (stream.isTimedOut()) {
+                throw new CommandExecutionException("Hashing " + file + " timed out after " + hostTimeoutSeconds + " s",
+                        "file_compare " + file, server, -1);
+            }
+            if (exitCode == 3) {
+                synchronized (cache) {
+                    cache.remove(cacheKey);
+                }
+                return new HashRead(null, false);
+            }
+            if (exitCode != 0 || output.isBlank()) {
+                String error = stream.getStderr().trim();
+                throw new CommandExecutionException("Failed to hash " + file + (error.isEmpty() ? "" : ": " + error),
+                        "file_compare " + file, server, exitCode);
+            }
+        } catch (IOException e) {
+            throw new CommandExecutionException("Failed to read hashes: " + e.getMessage(), "file_compare " + file, server, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CommandExecutionException("Interrupted while hashing", "file_compare " + file, server, -1);
+        }
+
+        ChunkedHash hash = ChunkedHash.parse(output, chunkSize);
+        if (hash == null && cached != null && cached.getStat().equals(ChunkedHash.statOf(output))) {
+            return new HashRead(cached, true);
+        }
+        if (hash == null) {
+            throw new CommandExecutionException("Incomplete hash output for " + file, "file_compare " + file, server, 0);
+        }
+        synchronized (cache) {
+            cache.put(cacheKey, hash);
+            if (cache.size() > cacheEntries) {
+                cache.remove(cache.keySet().iterator().next());
+            }
+        }
+        return new HashRead(hash, false);
+    }
+
+    private void addDiff(FileCompareGroup.FileCompareGroupBuilder builder, String file, String quoted, long offset,
+                         String referenceServer, String server) {
+        try {
+            Region expected = readRegion(referenceServer, file, quoted, offset);
+            Region actual = readRegion(server, file, quoted, offset);
+            // Both sides share the bytes before the offset, so their line numbers agree
+            builder.diff(LineDiff.unified(expected.lines(), actual.lines(), expected.firstLine(), 3,
+                            referenceServer + ":" + file, server + ":" + file))
+                    .diffTruncated(expected.truncated() || actual.truncated());
+        } catch (RuntimeException e) {
+            log.warn("Could not diff {} between {} and {}: {}", file, referenceServer, server, e.getMessage());
+            builder.diff("Diff unavailable: " + e.getMessage());
+        }
+    }
+
+    private Region readRegion(String server, String file, String quoted, long offset) {
+        byte[] output;
+        try (RemoteCommandStream stream = sshService.openCommandStream(server,
+                ChunkedHash.regionCommand(quoted, offset, maxDiffBytes)).withDeadline(hostTimeoutSeconds * 1000L)) {
+            output = stream.readAllStdout();
+            stream.waitFor(10_000);
+            if (stream.isTimedOut()) {
+                throw new CommandExecutionException("Reading " + file + " timed out after " + hostTimeoutSeconds + " s",
+                        "file_compare " + file, server, -1);
+            }
+        } catch (IOException e) {
+            throw new CommandExecutionException("Failed to read " + file + ": " + e.getMessage(), "file_compare " + file, server, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CommandExecutionException("Interrupted while reading", "file_compare " + file, server, -1);
+        }
+
+        int newline = 0;
+        while (newline < output.length && output[newline] != '\n') {
+            newline++;
+        }
+        if (newline == output.length) {
+            throw new CommandExecutionException("File changed while comparing", "file_compare " + file, server, 0);
+        }
+        int firstLine = Integer.parseInt(new String(output, 0, newline, StandardCharsets.US_ASCII).trim());
+        int length = output.length - newline - 1;
+        for (int i = newline + 1; i < output.length; i++) {
+            if (output[i] == 0) {
+                throw new IllegalStateException("binary content differs");
+            }
+        }
+        boolean truncated = length >= maxDiffBytes;
+        List<String> lines = new ArrayList<>(Arrays.asList(
+                new String(output, newline + 1, length, StandardCharsets.UTF_8).split("\n", -1)));
+        // The last element is empty after a final newline, or a line cut by the byte cap
+        if (truncated || lines.get(lines.size() - 1).isEmpty()) {
+            lines.remove(lines.size() - 1);
+        }
+        return new Region(firstLine, lines, truncated);
+    }
+
+    private record HashRead(ChunkedHash hash, boolean cached) {
+    }
+
+    private record Region(int firstLine, List<String> lines, boolean truncated) {
+    }
+}
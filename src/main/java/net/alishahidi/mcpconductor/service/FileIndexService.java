@@ -0,0 +1,407 @@
+package net.alishahidi.mcpconductor.service;
+
+import net.alishahidi.mcpconductor.exception.ResourceNotFoundException;
+import net.alishahidi.mcpconductor.exception.ValidationException;
+import net.alishahidi.mcpconductor.model.DiskUsageTree;
+import net.alishahidi.mcpconductor.model.FileFindResult;
+import net.alishahidi.mcpconductor.model.FileIndexInfo;
+import net.alishahidi.mcpconductor.model.TaskOutcome;
+import net.alishahidi.mcpconductor.util.CommandSanitizer;
+import net.alishahidi.mcpconductor.util.FanOutExecutor;
+import net.alishahidi.mcpconductor.util.FileIndex;
+import net.alishahidi.mcpconductor.util.RemoteCommandStream;
+import net.alishahidi.mcpconductor.util.parser.ByteScanner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-server metadata indexes of remote directory trees, so size and search
+ * questions are answered from memory instead of running {@code du} or
+ * {@code find} on the host each time.
+ *
+ * The first query under a path builds an index rooted there: one listing of
+ * the root, then one depth-first {@code find} per top-level directory, run
+ * concurrently over separate channels at idle I/O priority and without
+ * crossing into other filesystems. Later queries under that root reuse it.
+ *
+ * A refresh lists only directories with their mtimes, re-lists the direct
+ * children of directories whose mtime changed and scans newly appeared
+ * directories in full. Changes that leave directory mtimes untouched, such as
+ * a file growing in place, are only picked up by a full rebuild, which a
+ * refresh falls back to when more than half of the directories changed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileIndexService {
+
+    private static final String FIND_PRINTF = "-printf '" + FileIndex.FIND_FORMAT + "' 2>/dev/null";
+    private static final String IDLE_IO = "ionice -c 3 -p $$ >/dev/null 2>&1; ";
+
+    private final SSHService sshService;
+    private final FanOutExecutor fanOutExecutor;
+    private final CommandSanitizer commandSanitizer;
+
+    private final Map<String, IndexState> indexes = new ConcurrentHashMap<>();
+
+    @Value("${files.index.max-concurrency:4}")
+    private int maxConcurrency;
+
+    @Value("${files.index.scan-timeout-seconds:1800}")
+    private int scanTimeoutSeconds;
+
+    @Value("${files.index.max-entries:5000000}")
+    private int maxEntries;
+
+    /**
+     * @param depth levels of children to include below {@code path}
+     * @param limit largest children kept per level; the rest are summed
+     */
+    public DiskUsageTree diskUsageTree(String serverName, String path, int depth, int limit, boolean refresh) {
+        IndexState state = indexFor(serverName, path, refresh);
+        long start = System.currentTimeMillis();
+        FileIndex index = state.index;
+        int id = index.resolve(normalize(path));
+        if (id < 0) {
+            throw new ResourceNotFoundException("Path", path);
+        }
+        return DiskUsageTree.builder()
+                .tree(index.usageTree(id, Math.max(depth, 0), limit > 0 ? limit : 20))
+                .queryMs(System.currentTimeMillis() - start)
+                .index(info(state))
+                .build();
+    }
+
+    public FileFindResult findFiles(String serverName, String path, FileIndex.Query query, int limit, boolean refresh) {
+        IndexState state = indexFor(serverName, path, refresh);
+        long start = System.currentTimeMillis();
+        FileIndex index = state.index;
+        int id = index.resolve(normalize(path));
+        if (id < 0) {
+            throw new ResourceNotFoundException("Path", path);
+        }
+        int max = limit > 0 ? limit : 100;
+        FileIndex.Matches matches = index.find(id, query, max);
+        return FileFindResult.builder()
+                .matched(matches.matched())
+                .truncated(matches.matched() > matches.entries().size())
+                .entries(matches.entries())
+                .queryMs(System.currentTimeMillis() - start)
+                .index(info(state))
+                .build();
+    }
+
+    /**
+     * Translates tool filters into an index query; {@code null} means no filter.
+     */
+    public FileIndex.Query query(String namePattern, String type, Long minSizeBytes, Long maxSizeBytes,
+                                 Integer modifiedWithinMinutes, Integer olderThanMinutes, String owner, String sortBy) {
+        Character typeLetter = null;
+        if (type != null && !type.isBlank()) {
+            typeLetter = switch (type.trim().toLowerCase()) {
+                case "file", "f" -> 'f';
+                case "directory", "dir", "d" -> 'd';
+                case "symlink", "link", "l" -> 'l';
+                default -> throw new ValidationException("type", type, "Type must be file, directory or symlink");
+            };
+        }
+        String order = null;
+        if (sortBy != null && !sortBy.isBlank()) {
+            order = sortBy.trim().toLowerCase();
+            if (!order.equals("size") && !order.equals("mtime")) {
+                throw new ValidationException("sortBy", sortBy, "Sort must be size or mtime");
+            }
+        }
+        long now = Instant.now().getEpochSecond();
+        return new FileIndex.Query(
+                namePattern == null || namePattern.isBlank() ? null : FileIndex.globToPattern(namePattern),
+                typeLetter,
+                minSizeBytes != null ? minSizeBytes : -1,
+                maxSizeBytes != null ? maxSizeBytes : -1,
+                modifiedWithinMinutes != null ? now - modifiedWithinMinutes * 60L : -1,
+                olderThanMinutes != null ? now - olderThanMinutes * 60L : -1,
+                owner == null || owner.isBlank() ? null : owner,
+                order);
+    }
+
+    private IndexState indexFor(String serverName, String path, boolean refresh) {
+        String normalized = normalize(path);
+        IndexState state = covering(serverName, normalized);
+        if (state == null) {
+            state = indexes.computeIfAbsent(serverName + "\u0000" + normalized,
+                    key -> new IndexState(serverName, normalized));
+        }
+
+        state.lock.lock();
+        try {
+            if (state.index == null) {
+                try {
+                    build(state);
+                } catch (RuntimeException e) {
+                    indexes.remove(serverName + "\u0000" + normalized, state);
+                    throw e;
+                }
+            } else if (refresh) {
+                refresh(state);
+            }
+        } finally {
+            state.lock.unlock();
+        }
+        return state;
+    }
+
+    // The index with the longest root that contains path, if any
+    private IndexState covering(String serverName, String path) {
+        IndexState best = null;
+        for (IndexState state : indexes.values()) {
+            if (!state.server.equals(serverName)) {
+                continue;
+            }
+            boolean contains = path.equals(state.root)
+                    || path.startsWith(state.root.endsWith("/") ? state.root : state.root + "/");
+            if (contains && (best == null || state.root.length() > best.root.length())) {
+                best = state;
+            }
+        }
+        return best;
+    }
+
+    private void build(IndexState state) {
+        long start = System.currentTimeMillis();
+        log.info("Building file index of {} on {}", state.root, state.server);
+
+        FileIndex index = new FileIndex(state.root, maxEntries);
+        String root = commandSanitizer.escapeShellArgument(state.root);
+        try (RemoteCommandStream stream = sshService.openCommandStream(state.server,
+                "export LC_ALL=C; find " + root + " -maxdepth 1 " + FIND_PRINTF)) {
+            index.readEntries(stream.getStdout(), 0, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list " + state.root, e);
+        }
+        if (index.mtime(0) == 0) {
+            throw new ResourceNotFoundException("Directory", state.root);
+        }
+
+        Map<String, Integer> subtrees = new HashMap<>();
+        for (int dir : index.childDirectories(0)) {
+            subtrees.put(index.path(dir), dir);
+        }
+        List<String> errors = scanSubtrees(state, index, subtrees);
+
+        state.index = index;
+        state.builtAt = Instant.now();
+        state.refreshedAt = state.builtAt;
+        state.lastScan = "full";
+        state.lastScanMs = System.currentTimeMillis() - start;
+        state.rescannedDirectories = subtrees.size() + 1;
+        state.errors = errors;
+        log.info("Indexed {} entries under {} on {} in {} ms ({} subtrees failed)",
+                index.size(), state.root, state.server, state.lastScanMs, errors.size());
+    }
+
+    private void refresh(IndexState state) {
+        long start = System.currentTimeMillis();
+        FileIndex index = state.index;
+        Map<String, Integer> known = index.directoryPaths();
+
+        List<String> changed = new ArrayList<>();
+        List<String> added = new ArrayList<>();
+        long[] rootDevice = {-1};
+        String root = commandSanitizer.escapeShellArgument(state.root);
+        try (RemoteCommandStream stream = sshService.openCommandStream(state.server,
+                "export LC_ALL=C; " + IDLE_IO + "exec nice -n 10 find " + root
+                        + " -xdev -type d -printf '%D %T@ %P\\n' 2>/dev/null")) {
+            ByteScanner.forEachLine(stream.getStdout(), scanner -> {
+                if (!scanner.nextField()) {
+                    return true;
+                }
+                long device = scanner.fieldLong();
+                scanner.nextField();
+                long mtime = scanner.fieldLong();
+                String relative = scanner.toRest() ? scanner.field() : "";
+                if (relative.isEmpty()) {
+                    rootDevice[0] = device;
+                } else if (device != rootDevice[0]) {
+                    // Mount point: indexed as an entry but never descended into
+                    return true;
+                }
+                Integer id = known.get(relative);
+                if (id == null) {
+                    added.add(relative);
+                } else if (index.mtime(id) != mtime) {
+                    changed.add(relative);
+                }
+                return true;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list directories of " + state.root, e);
+        }
+        if (rootDevice[0] < 0) {
+            throw new ResourceNotFoundException("Directory", state.root);
+        }
+        if ((changed.size() + added.size()) * 2 > known.size()) {
+            log.info("{} of {} directories changed under {} on {}, rebuilding",
+                    changed.size() + added.size(), known.size(), state.root, state.server);
+            build(state);
+            return;
+        }
+
+        // Parents sort before their children, so new directories exist before their own listing
+        Collections.sort(changed);
+        List<Integer> ids = new ArrayList<>(changed.size());
+        changed.forEach(relative -> ids.add(known.get(relative)));
+        int relisted = changed.isEmpty() ? 0 : relist(state, index, changed, ids);
+
+        // Only the topmost new directories need a scan; it covers the ones inside them
+        Set<String> addedSet = new HashSet<>(added);
+        Map<String, Integer> newSubtrees = new HashMap<>();
+        for (String relative : added) {
+            int slash = relative.lastIndexOf('/');
+            if (slash > 0 && addedSet.contains(relative.substring(0, slash))) {
+                continue;
+            }
+            String absolute = absolute(state.root, relative);
+            int id = index.resolve(absolute);
+            if (id >= 0) {
+                newSubtrees.put(absolute, id);
+            }
+        }
+        List<String> errors = scanSubtrees(state, index, newSubtrees);
+
+        state.refreshedAt = Instant.now();
+        state.lastScan = "incremental";
+        state.lastScanMs = System.currentTimeMillis() - start;
+        state.rescannedDirectories = relisted + newSubtrees.size();
+        state.errors = errors;
+        log.info("Refreshed file index of {} on {}: {} directories re-listed, {} new subtrees, {} ms",
+                state.root, state.server, relisted, newSubtrees.size(), state.lastScanMs);
+    }
+
+    // Lists the direct children of each directory over one channel, paths fed on stdin
+    private int relist(IndexState state, FileIndex index, List<String> relatives, List<Integer> ids) {
+        FileIndex listing = new FileIndex(state.root, maxEntries);
+        try (RemoteCommandStream stream = sshService.openCommandStream(state.server,
+                "export LC_ALL=C; exec xargs -0 -r -I{} find {} -maxdepth 1 " + FIND_PRINTF)) {
+            Thread writer = Thread.startVirtualThread(() -> {
+                try (OutputStream stdin = stream.getStdin()) {
+                    for (String relative : relatives) {
+                        stdin.write(absolute(state.root, relative).getBytes(StandardCharsets.UTF_8));
+                        stdin.write(0);
+                    }
+                } catch (IOException e) {
+                    log.debug("Directory list for {} on {} not fully sent: {}", state.root, state.server, e.getMessage());
+                }
+            });
+            listing.readEntries(stream.getStdout(), 0, 1);
+            writer.join();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to re-list directories of " + state.root, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while re-listing " + state.root);
+        }
+        return index.applyListings(listing, ids);
+    }
+
+    // Scans each directory in full, concurrently, and grafts the results onto the index
+    private List<String> scanSubtrees(IndexState state, FileIndex index, Map<String, Integer> subtrees) {
+        List<String> errors = new ArrayList<>();
+        if (subtrees.isEmpty()) {
+            return errors;
+        }
+        String root = commandSanitizer.escapeShellArgument(state.root);
+        List<String> paths = new ArrayList<>(subtrees.keySet());
+        Collections.sort(paths);
+        List<TaskOutcome<FileIndex>> outcomes = fanOutExecutor.runAll(paths, maxConcurrency,
+                Duration.ofSeconds(scanTimeoutSeconds), dir -> {
+                    String quoted = commandSanitizer.escapeShellArgument(dir);
+                    FileIndex fragment = new FileIndex(dir, maxEntries);
+                    try (RemoteCommandStream stream = sshService.openCommandStream(state.server,
+                            "export LC_ALL=C; [ \"$(stat -c %d " + root + ")\" = \"$(stat -c %d " + quoted + ")\" ] || exit 0; "
+                                    + IDLE_IO + "exec nice -n 10 find " + quoted + " -xdev -mindepth 1 " + FIND_PRINTF)) {
+                        fragment.readEntries(stream.getStdout(), 0, 0);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return fragment;
+                });
+        for (TaskOutcome<FileIndex> outcome : outcomes) {
+            if (!outcome.isSuccess()) {
+                errors.add(outcome.getTarget() + ": " + outcome.getError());
+                continue;
+            }
+            try {
+                index.merge(outcome.getResult(), subtrees.get(outcome.getTarget()));
+            } catch (IllegalStateException e) {
+                errors.add(outcome.getTarget() + ": " + e.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    private FileIndexInfo info(IndexState state) {
+        return FileIndexInfo.builder()
+                .server(state.server)
+                .root(state.root)
+                .entries(state.index.size())
+                .memoryBytes(state.index.memoryBytes())
+                .builtAt(state.builtAt.toString())
+                .refreshedAt(state.refreshedAt.toString())
+                .lastScan(state.lastScan)
+                .lastScanMs(state.lastScanMs)
+                .rescannedDirectories(state.rescannedDirectories)
+                .errors(state.errors)
+                .build();
+    }
+
+    private static String normalize(String path) {
+        if (path == null || !path.startsWith("/")) {
+            throw new ValidationException("path", path, "Path must be absolute");
+        }
+        return Path.of(path).normalize().toString();
+    }
+
+    private static String absolute(String root, String relative) {
+        if (relative.isEmpty()) {
+            return root;
+        }
+        return (root.endsWith("/") ? root : root + "/") + relative;
+    }
+
+    private static final class IndexState {
+        private final String server;
+        private final String root;
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile FileIndex index;
+        private volatile Instant builtAt;
+        private volatile Instant refreshedAt;
+        private volatile String lastScan;
+        private volatile long lastScanMs;
+        private volatile int rescannedDirectories;
+        private volatile List<String> errors = List.of();
+
+        private IndexState(String server, String root) {
+            this.server = server;
+            this.root = root;
+        }
+    }
+}
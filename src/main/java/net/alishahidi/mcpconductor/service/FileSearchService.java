@@ -0,0 +1,221 @@
+package net.alishahidi.mcpconductor.service;
+
+import net.alishahidi.mcpconductor.config.SSHProperties;
+import net.alishahidi.mcpconductor.exception.ValidationException;
+import net.alishahidi.mcpconductor.model.FileSearchMatch;
+import net.alishahidi.mcpconductor.model.FileSearchResult;
+import net.alishahidi.mcpconductor.model.TaskOutcome;
+import net.alishahidi.mcpconductor.util.CommandSanitizer;
+import net.alishahidi.mcpconductor.util.FanOutExecutor;
+import net.alishahidi.mcpconductor.util.GrepMatchParser;
+import net.alishahidi.mcpconductor.util.RemoteCommandStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Text search in remote files by {@code grep -r} on every selected server at
+ * once, so only matching lines cross the wire instead of whole files.
+ *
+ * Output is parsed while it streams in ({@link GrepMatchParser}). All servers
+ * draw from one byte budget; a server that exhausts it stops reading and
+ * closes its channel, which ends the remote grep. Each grep runs under the
+ * remote {@code timeout} so a slow host still returns the matches it found.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileSearchService {
+
+    private static final int MAX_BYTES_LIMIT = 4 * 1024 * 1024;
+    private static final int MAX_MATCHES_PER_FILE = 10_000;
+    private static final int MAX_CONTEXT_LINES = 10;
+
+    private final SSHService sshService;
+    private final SSHProperties sshProperties;
+    private final CommandSanitizer commandSanitizer;
+    private final FanOutExecutor fanOutExecutor;
+
+    @Value("${files.search.max-concurrency:16}")
+    private int maxConcurrency;
+
+    @Value("${files.search.host-timeout-seconds:60}")
+    private int hostTimeoutSeconds;
+
+    @Value("${files.search.max-bytes:262144}")
+    private int defaultMaxBytes;
+
+    /**
+     * @param include         comma-separated file name globs to search; blank for all files
+     * @param exclude         comma-separated file name globs to skip
+     * @param maxMatchesPerFile stop reading a file after this many matching lines
+     * @param maxBytes        budget for matched text across all servers, or {@code null} for the default
+     */
+    public FileSearchResult search(String tags, String path, String pattern, boolean fixedStrings,
+                                   boolean ignoreCase, String include, String exclude,
+                                   int maxMatchesPerFile, int contextLines, Integer maxBytes) {
+        List<String> servers = sshProperties.selectServers(tags);
+        if (servers.isEmpty()) {
+            throw new ValidationException("tags", tags, "No configured servers match the selector");
+        }
+        if (path == null || !path.startsWith("/")) {
+            throw new ValidationException("path", path, "Path must be absolute");
+        }
+        if (pattern == null || pattern.isEmpty()) {
+            throw new ValidationException("pattern", pattern, "Pattern must not be empty");
+        }
+        if (maxMatchesPerFile < 1 || maxMatchesPerFile > MAX_MATCHES_PER_FILE) {
+            throw new ValidationException("maxMatchesPerFile", maxMatchesPerFile,
+                    "maxMatchesPerFile must be between 1 and " + MAX_MATCHES_PER_FILE);
+        }
+        if (contextLines < 0 || contextLines > MAX_CONTEXT_LINES) {
+            throw new ValidationException("contextLines", contextLines,
+                    "contextLines must be between 0 and " + MAX_CONTEXT_LINES);
+        }
+        int budget = maxBytes != null ? maxBytes : defaultMaxBytes;
+        if (budget < 1 || budget > MAX_BYTES_LIMIT) {
+            throw new ValidationException("maxBytes", maxBytes, "maxBytes must be between 1 and " + MAX_BYTES_LIMIT);
+        }
+
+        String root = Path.of(path).normalize().toString();
+        String command = grepCommand(root, pattern, fixedStrings, ignoreCase, include, exclude,
+                maxMatchesPerFile, contextLines);
+        long startTime = System.currentTimeMillis();
+        AtomicLong remaining = new AtomicLong(budget);
+
+        // The remote timeout ends grep first, so the fan-out deadline only catches hung connections
+        List<TaskOutcome<ServerMatches>> outcomes = fanOutExecutor.runAll(servers, maxConcurrency,
+                Duration.ofSeconds(hostTimeoutSeconds + 15L),
+                server -> searchServer(server, command, contextLines, remaining));
+
+        List<FileSearchMatch> matches = new ArrayList<>();
+        Map<String, Integer> perServer = new LinkedHashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+        int files = 0;
+        boolean truncated = false;
+        for (TaskOutcome<ServerMatches> outcome : outcomes) {
+            if (!outcome.isSuccess()) {
+                errors.put(outcome.getTarget(), outcome.getError());
+                continue;
+            }
+            ServerMatches found = outcome.getResult();
+            matches.addAll(found.matches());
+            perServer.put(outcome.getTarget(), found.matches().size());
+            files += found.files();
+            truncated |= found.truncated();
+            if (found.error() != null) {
+                errors.put(outcome.getTarget(), found.error());
+            }
+        }
+        long bytes = budget - Math.max(remaining.get(), 0);
+        log.info("Found {} matches of {} under {} on {} servers in {} ms ({} failed)", matches.size(), pattern, root,
+                servers.size(), System.currentTimeMillis() - startTime, errors.size());
+
+        return FileSearchResult.builder()
+                .pattern(pattern)
+                .path(root)
+                .servers(servers)
+                .matches(matches)
+                .matchesPerServer(perServer)
+                .files(files)
+                .bytes(bytes)
+                .truncated(truncated)
+                .errors(errors)
+                .elapsedMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    private ServerMatches searchServer(String server, String command, int contextLines, AtomicLong remaining) {
+        GrepMatchParser parser = new GrepMatchParser(server, contextLines);
+        List<FileSearchMatch> matches = new ArrayList<>();
+        try (RemoteCommandStream stream = sshService.openCommandStream(server, command)) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(stream.getStdout(), StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (remaining.addAndGet(-(line.length() + 1L)) < 0) {
+                    // Budget spent: closing the channel stops the remote grep
+                    return new ServerMatches(matches, parser.getFiles(), true, null);
+                }
+                FileSearchMatch match = parser.accept(line);
+                if (match != null) {
+                    matches.add(match);
+                }
+            }
+            int exitCode = stream.waitFor(10_000);
+            String error = switch (exitCode) {
+                case 0, 1 -> null;
+                case 3 -> "Path not found";
+                case 124 -> "Search timed out after " + hostTimeoutSeconds + "s; matches are partial";
+                default -> matches.isEmpty()
+                        ? "grep failed with exit code " + exitCode + errorSuffix(stream.getStderr())
+                        : null;
+            };
+            return new ServerMatches(matches, parser.getFiles(), exitCode == 124, error);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read search results", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for grep", e);
+        }
+    }
+
+    private String grepCommand(String root, String pattern, boolean fixedStrings, boolean ignoreCase,
+                               String include, String exclude, int maxMatchesPerFile, int contextLines) {
+        String quotedRoot = commandSanitizer.escapeShellArgument(root);
+        StringBuilder command = new StringBuilder("export LC_ALL=C; [ -e ").append(quotedRoot)
+                .append(" ] || exit 3; exec timeout ").append(hostTimeoutSeconds)
+                // -I skips binary files, -D skip avoids blocking on FIFOs and devices
+                .append(" grep -r -n -H -Z -I -s -D skip --color=never ")
+                .append(fixedStrings ? "-F" : "-E");
+        if (ignoreCase) {
+            command.append(" -i");
+        }
+        command.append(" -m ").append(maxMatchesPerFile);
+        if (contextLines > 0) {
+            command.append(" -C ").append(contextLines);
+        }
+        for (String glob : globs(include)) {
+            command.append(" --include=").append(commandSanitizer.escapeShellArgument(glob));
+        }
+        for (String glob : globs(exclude)) {
+            command.append(" --exclude=").append(commandSanitizer.escapeShellArgument(glob))
+                    .append(" --exclude-dir=").append(commandSanitizer.escapeShellArgument(glob));
+        }
+        return command.append(" -e ").append(commandSanitizer.escapeShellArgument(pattern))
+                .append(" -- ").append(quotedRoot).toString();
+    }
+
+    private static List<String> globs(String list) {
+        List<String> globs = new ArrayList<>();
+        if (list != null) {
+            for (String glob : list.split(",")) {
+                if (!glob.isBlank()) {
+                    globs.add(glob.trim());
+                }
+            }
+        }
+        return globs;
+    }
+
+    private static String errorSuffix(String stderr) {
+        String trimmed = stderr.trim();
+        return trimmed.isEmpty() ? "" : ": " + trimmed;
+    }
+
+    private record ServerMatches(List<FileSearchMatch> matches, int files, boolean truncated, String error) {
+    }
+}
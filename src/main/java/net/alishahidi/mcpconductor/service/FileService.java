@@ -2,19 +2,45 @@ package net.alishahidi.mcpconductor.service;
 
 import net.alishahidi.mcpconductor.exception.*;
 import net.alishahidi.mcpconductor.model.CommandResult;
+import net.alishahidi.mcpconductor.model.FileEntry;
+import net.alishahidi.mcpconductor.model.FileListing;
+import net.alishahidi.mcpconductor.model.FilePatchFile;
+import net.alishahidi.mcpconductor.model.FilePatchResult;
+import net.alishahidi.mcpconductor.model.FileWriteBatchEntry;
+import net.alishahidi.mcpconductor.model.FileWriteBatchResult;
 import net.alishahidi.mcpconductor.security.PathValidator;
+import net.alishahidi.mcpconductor.util.CommandSanitizer;
+import net.alishahidi.mcpconductor.util.FileIndex;
+import net.alishahidi.mcpconductor.util.RemoteCommandStream;
+import net.alishahidi.mcpconductor.util.UnifiedDiff;
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.SftpATTRS;
+import com.jcraft.jsch.SftpException;
 import org.springframework.stereotype.Service;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.InvalidPathException;
-import java.util.Arrays;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
@@ -23,8 +49,13 @@ public class FileService {
 
     private final SSHService sshService;
     private final PathValidator pathValidator;
+    private final CommandSanitizer commandSanitizer;
 
     private static final int MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
+    private static final int MAX_PAGE_SIZE = 5000;
+    private static final int MAX_LIST_DEPTH = 10;
+    private static final int MAX_PATCH_SIZE = 1024 * 1024;
+    private static final long PATCH_TIMEOUT_MS = 60_000;
 
     @Cacheable(value = "file-content", key = "#serverName + ':' + #filePath")
     public String readFile(String serverName, String filePath) {
@@ -143,6 +174,285 @@ public class FileService {
         log.info("File written successfully: {}", filePath);
     }
 
+    /**
+     * Writes several files as one unit over a single SFTP channel.
+     *
+     * Every file is first uploaded to a staging file next to its target and
+     * the staged copies are checked against the local SHA-256 in one remote
+     * {@code sha256sum}. Only then is each target swapped in: the old file is
+     * kept as a hard link and the staged file renamed over it (atomically on
+     * OpenSSH, which supports posix-rename). If anything fails, files already
+     * swapped are restored from their links, new files are removed and staging
+     * files are deleted, so either all files change or none does. Existing
+     * files keep their mode, and their owner when the SSH user may set it (as
+     * root); otherwise replaced files belong to the SSH user. Symlinks are
+     * written through.
+     *
+     * @param files content keyed by absolute path
+     */
+    // The written paths are map keys, so every cached file content is dropped
+    @CacheEvict(value = "file-content", allEntries = true)
+    public FileWriteBatchResult writeFiles(String serverName, Map<String, String> files) {
+        log.info("Writing {} files on server: {}", files == null ? 0 : files.size(), serverName);
+        long startTime = System.currentTimeMillis();
+
+        if (files == null || files.isEmpty()) {
+            throw new ValidationException("files", null, "At least one file is required");
+        }
+        List<StagedWrite> writes = new ArrayList<>();
+        long totalBytes = 0;
+        for (Map.Entry<String, String> file : files.entrySet()) {
+            Path path = validatePath(file.getKey(), FileOperationException.OperationType.WRITE);
+            if (!path.isAbsolute() || path.getParent() == null) {
+                throw new ValidationException("filePath", file.getKey(), "Path must be an absolute file path");
+            }
+            if (file.getValue() == null) {
+                throw new ValidationException("content", file.getKey(), "File content cannot be null");
+            }
+            byte[] bytes = file.getValue().getBytes(StandardCharsets.UTF_8);
+            totalBytes += bytes.length;
+            if (totalBytes > MAX_FILE_SIZE) {
+                throw new ValidationException("files", totalBytes, "Batch exceeds maximum size of " + MAX_FILE_SIZE + " bytes");
+            }
+            writes.add(new StagedWrite(path.normalize().toString(), bytes, sha256(bytes)));
+        }
+        if (writes.stream().map(StagedWrite::getPath).distinct().count() < writes.size()) {
+            throw new ValidationException("files", null, "A path appears twice in the batch");
+        }
+
+        String batchId = Long.toHexString(System.nanoTime());
+        try {
+            sshService.withSftp(serverName, sftp -> {
+                stageAll(serverName, sftp, writes, batchId);
+                swapAll(serverName, sftp, writes);
+                return null;
+            });
+        } catch (SftpException e) {
+            throw new FileOperationException("Batch write failed, no file was changed: " + e.getMessage(),
+                    Paths.get(writes.get(0).getPath()), FileOperationException.OperationType.WRITE, serverName, e);
+        }
+
+        List<FileWriteBatchEntry> entries = new ArrayList<>();
+        for (StagedWrite write : writes) {
+            entries.add(FileWriteBatchEntry.builder()
+                    .path(write.getPath())
+                    .bytes(write.getContent().length)
+                    .sha256(write.getSha256())
+                    .created(write.getExisting() == null)
+                    .build());
+        }
+        log.info("Wrote {} files ({} bytes) on {}", writes.size(), totalBytes, serverName);
+        return FileWriteBatchResult.builder()
+                .server(serverName)
+                .files(entries)
+                .totalBytes(totalBytes)
+                .elapsedMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    // Uploads every file next to its target and verifies the staged copies; cleans up on failure
+    private void stageAll(String serverName, ChannelSftp sftp, List<StagedWrite> writes, String batchId)
+            throws SftpException {
+        try {
+            for (StagedWrite write : writes) {
+                write.setTarget(resolveTarget(sftp, write.getPath()));
+                String dir = write.getTarget().substring(0, write.getTarget().lastIndexOf('/') + 1);
+                String name = write.getTarget().substring(dir.length());
+                SftpATTRS dirAttrs = sftp.stat(quoteSftpPath(dir.isEmpty() ? "/" : dir));
+                if (!dirAttrs.isDir()) {
+                    throw new SftpException(ChannelSftp.SSH_FX_NO_SUCH_FILE, "Parent is not a directory: " + dir);
+                }
+                write.setExisting(statOrNull(sftp, write.getTarget()));
+                if (write.getExisting() != null && !write.getExisting().isReg()) {
+                    throw new SftpException(ChannelSftp.SSH_FX_FAILURE, "Not a regular file: " + write.getTarget());
+                }
+                write.setStaging(dir + "." + name + ".stage-" + batchId);
+                write.setBackup(dir + "." + name + ".backup-" + batchId);
+
+                sftp.put(new ByteArrayInputStream(write.getContent()), quoteSftpPath(write.getStaging()), ChannelSftp.OVERWRITE);
+                SftpATTRS existing = write.getExisting();
+                if (existing != null) {
+                    sftp.chmod(existing.getPermissions() & 07777, quoteSftpPath(write.getStaging()));
+                    SftpATTRS staged = sftp.stat(quoteSftpPath(write.getStaging()));
+                    keepOwnership(serverName, sftp, write, staged, existing);
+                }
+            }
+            verifyStaged(serverName, writes);
+        } catch (SftpException | RuntimeException e) {
+            for (StagedWrite write : writes) {
+                if (write.getStaging() != null) {
+                    removeQuietly(sftp, write.getStaging());
+                }
+            }
+            throw e;
+        }
+    }
+
+    // Only root may give a file away; other users replace files they may write but not chown as themselves
+    private static void keepOwnership(String serverName, ChannelSftp sftp, StagedWrite write, SftpATTRS staged,
+                                      SftpATTRS existing) throws SftpException {
+        try {
+            if (staged.getUId() != existing.getUId()) {
+                sftp.chown(existing.getUId(), quoteSftpPath(write.getStaging()));
+            }
+            if (staged.getGId() != existing.getGId()) {
+                sftp.chgrp(existing.getGId(), quoteSftpPath(write.getStaging()));
+            }
+        } catch (SftpException e) {
+            if (e.id != ChannelSftp.SSH_FX_PERMISSION_DENIED) {
+                throw e;
+            }
+            log.warn("Cannot keep owner {}:{} of {} on {}; it will be owned by the SSH user",
+                    existing.getUId(), existing.getGId(), write.getTarget(), serverName);
+        }
+    }
+
+    // One sha256sum over all staged files; a short or corrupted upload fails the batch
+    private void verifyStaged(String serverName, List<StagedWrite> writes) {
+        StringBuilder command = new StringBuilder("export LC_ALL=C; sha256sum --");
+        for (StagedWrite write : writes) {
+            command.append(' ').append(commandSanitizer.escapeShellArgument(write.getStaging()));
+        }
+        String[] lines;
+        try (RemoteCommandStream stream = sshService.openCommandStream(serverName, command.toString())
+                .withDeadline(PATCH_TIMEOUT_MS)) {
+            lines = new String(stream.readAllStdout(), StandardCharsets.UTF_8).split("\n");
+            stream.waitFor(PATCH_TIMEOUT_MS);
+            if (stream.isTimedOut()) {
+                throw new CommandExecutionException("Verifying staged files timed out after " + PATCH_TIMEOUT_MS + " ms",
+                        "sha256sum", serverName, -1);
+            }
+        } catch (IOException e) {
+            throw new CommandExecutionException("Failed to verify staged files: " + e.getMessage(),
+                    "sha256sum", serverName, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CommandExecutionException("Interrupted while verifying staged files", "sha256sum", serverName, -1);
+        }
+        for (int i = 0; i < writes.size(); i++) {
+            String actual = i < lines.length ? lines[i].split(" ", 2)[0] : "";
+            // GNU sha256sum marks lines whose file name it had to escape (backslash, newline) with a leading backslash
+            if (actual.startsWith("\\")) {
+                actual = actual.substring(1);
+            }
+            if (!actual.equals(writes.get(i).getSha256())) {
+                throw new FileOperationException("Checksum mismatch after upload",
+                        Paths.get(writes.get(i).getPath()), FileOperationException.OperationType.WRITE, serverName, null);
+            }
+        }
+    }
+
+    // Renames the staged files into place; on failure restores what was swapped so far
+    private void swapAll(String serverName, ChannelSftp sftp, List<StagedWrite> writes) throws SftpException {
+        List<StagedWrite> swapped = new ArrayList<>();
+        try {
+            for (StagedWrite write : writes) {
+                String target = quoteSftpPath(write.getTarget());
+                if (write.getExisting() != null) {
+                    try {
+                        sftp.hardlink(target, quoteSftpPath(write.getBackup()));
+                    } catch (SftpException e) {
+                        // No hardlink extension: move the old file aside instead
+                        sftp.rename(target, quoteSftpPath(write.getBackup()));
+                    }
+                }
+                swapped.add(write);
+                try {
+                    sftp.rename(quoteSftpPath(write.getStaging()), target);
+                } catch (SftpException e) {
+                    // Plain SFTP rename refuses to replace; the old content is safe in the backup
+                    if (statOrNull(sftp, write.getTarget()) == null) {
+                        throw e;
+                    }
+                    sftp.rm(target);
+                    sftp.rename(quoteSftpPath(write.getStaging()), target);
+                }
+            }
+        } catch (SftpException | RuntimeException e) {
+            log.warn("Batch write on {} failed at {} of {} files, rolling back: {}",
+                    serverName, swapped.size(), writes.size(), e.getMessage());
+            for (int i = swapped.size() - 1; i >= 0; i--) {
+                rollback(sftp, swapped.get(i));
+            }
+            for (StagedWrite write : writes) {
+                removeQuietly(sftp, write.getStaging());
+            }
+            throw e;
+        }
+        for (StagedWrite write : writes) {
+            if (write.getExisting() != null) {
+                removeQuietly(sftp, write.getBackup());
+            }
+        }
+    }
+
+    private void rollback(ChannelSftp sftp, StagedWrite write) {
+        try {
+            if (write.getExisting() == null) {
+                removeQuietly(sftp, write.getTarget());
+            } else if (statOrNull(sftp, write.getBackup()) != null) {
+                try {
+                    sftp.rename(quoteSftpPath(write.getBackup()), quoteSftpPath(write.getTarget()));
+                } catch (SftpException e) {
+                    sftp.rm(quoteSftpPath(write.getTarget()));
+                    sftp.rename(quoteSftpPath(write.getBackup()), quoteSftpPath(write.getTarget()));
+                }
+            }
+        } catch (SftpException e) {
+            log.error("Could not restore {} from {}: {}", write.getTarget(), write.getBackup(), e.getMessage());
+        }
+    }
+
+    // Writes go through a symlink to the file it points at, as a shell redirect would
+    private static String resolveTarget(ChannelSftp sftp, String path) throws SftpException {
+        String current = path;
+        for (int hops = 0; hops < 8; hops++) {
+            SftpATTRS attrs;
+            try {
+                attrs = sftp.lstat(quoteSftpPath(current));
+            } catch (SftpException e) {
+                if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                    return current;
+                }
+                throw e;
+            }
+            if (!attrs.isLink()) {
+                return current;
+            }
+            String link = sftp.readlink(quoteSftpPath(current));
+            current = link.startsWith("/") ? link
+                    : Paths.get(current).resolveSibling(link).normalize().toString();
+        }
+        throw new SftpException(ChannelSftp.SSH_FX_FAILURE, "Too many levels of symbolic links: " + path);
+    }
+
+    private static SftpATTRS statOrNull(ChannelSftp sftp, String path) throws SftpException {
+        try {
+            return sftp.lstat(quoteSftpPath(path));
+        } catch (SftpException e) {
+            if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private static void removeQuietly(ChannelSftp sftp, String path) {
+        try {
+            sftp.rm(quoteSftpPath(path));
+        } catch (SftpException e) {
+            // Already gone or never created
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     @CacheEvict(value = "file-content", key = "#serverName + ':' + #filePath")
     public void appendToFile(String serverName, String filePath, String content) {
         log.info("Appending to file: {} on server: {}", filePath, serverName);
@@ -216,41 +526,224 @@ public class FileService {
         log.info("File deleted successfully: {}", filePath);
     }
 
-    public List<String> listFiles(String serverName, String directoryPath) {
-        log.info("Listing files in: {} on server: {}", directoryPath, serverName);
+    /**
+     * Applies a unified diff to one or more files on the server in a single
+     * round trip ({@link UnifiedDiff}), so only the changed lines are sent.
+     * Context lines must match exactly and, when given, so must each file's
+     * SHA-256 before patching; otherwise nothing is written. Patched files
+     * replace the originals by rename, keeping their mode, and a failed rename
+     * restores the files already replaced.
+     *
+     * @param baseHashes comma-separated {@code path=sha256} pairs for files that must be unchanged
+     * @param dryRun     verify the patch and report hashes without writing
+     */
+    // The patched paths come from the diff, so every cached file content is dropped
+    @CacheEvict(value = "file-content", allEntries = true)
+    public FilePatchResult patchFiles(String serverName, String diff, String baseHashes, boolean dryRun) {
+        log.info("Patching files on server: {} (dry run: {})", serverName, dryRun);
+        long startTime = System.currentTimeMillis();
 
-        Path path = validatePath(directoryPath, FileOperationException.OperationType.LIST);
+        if (diff == null || diff.isBlank()) {
+            throw new ValidationException("diff", null, "Diff cannot be empty");
+        }
+        if (diff.length() > MAX_PATCH_SIZE) {
+            throw new ValidationException("diff", diff.length(), "Diff exceeds maximum size of " + MAX_PATCH_SIZE + " bytes");
+        }
+        List<UnifiedDiff.FilePatch> patches;
+        try {
+            patches = UnifiedDiff.parse(diff);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("diff", null, e.getMessage());
+        }
+        for (UnifiedDiff.FilePatch patch : patches) {
+            validatePath(patch.path(), FileOperationException.OperationType.WRITE);
+        }
+        Map<String, String> expected = parseBaseHashes(baseHashes, patches);
 
-        // Check if directory exists
-        CommandResult dirCheck = sshService.executeCommand(
-                serverName,
-                String.format("test -d '%s' && echo 'exists' || echo 'not_exists'", directoryPath),
-                false
-        );
+        List<String> quotedPaths = new ArrayList<>();
+        List<String> hashes = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        ByteArrayOutputStream input = new ByteArrayOutputStream();
+        for (UnifiedDiff.FilePatch patch : patches) {
+            byte[] bytes = patch.text().getBytes(StandardCharsets.UTF_8);
+            quotedPaths.add(commandSanitizer.escapeShellArgument(patch.path()));
+            hashes.add(expected.get(patch.path()));
+            sizes.add(bytes.length);
+            input.writeBytes(bytes);
+        }
+        String command = UnifiedDiff.command(quotedPaths, hashes, sizes, !dryRun);
 
-        if (dirCheck.getOutput().trim().equals("not_exists")) {
-            throw new ResourceNotFoundException("Directory", directoryPath);
+        String output;
+        int exitCode;
+        try (RemoteCommandStream stream = sshService.openCommandStream(serverName, command)) {
+            try (OutputStream stdin = stream.getStdin()) {
+                input.writeTo(stdin);
+            }
+            output = new String(stream.getStdout().readAllBytes(), StandardCharsets.UTF_8);
+            exitCode = stream.waitFor(PATCH_TIMEOUT_MS);
+            if (exitCode == 5 || exitCode == 6 || exitCode < 0) {
+                String reason = exitCode < 0 ? "Patch did not finish in time" : stream.getStderr().trim();
+                throw new FileOperationException("Cannot patch: " + (reason.isEmpty() ? "exit code " + exitCode : reason),
+                        Paths.get(patches.get(0).path()), FileOperationException.OperationType.WRITE, serverName, null);
+            }
+        } catch (IOException e) {
+            throw new FileOperationException("Failed to send patch: " + e.getMessage(),
+                    Paths.get(patches.get(0).path()), FileOperationException.OperationType.WRITE, serverName, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileOperationException("Interrupted while patching",
+                    Paths.get(patches.get(0).path()), FileOperationException.OperationType.WRITE, serverName, e);
         }
 
-        CommandResult result = sshService.executeCommand(
-                serverName,
-                String.format("ls -la '%s'", directoryPath),
-                false
-        );
+        Map<Integer, UnifiedDiff.Outcome> outcomes = new HashMap<>();
+        UnifiedDiff.parseOutput(output).forEach(outcome -> outcomes.put(outcome.index(), outcome));
+        // Exit 2: renaming failed at the reported file and the files before it could not all be restored
+        int failedAt = outcomes.values().stream().filter(outcome -> !outcome.ok())
+                .mapToInt(UnifiedDiff.Outcome::index).findFirst().orElse(-1);
+        List<FilePatchFile> files = new ArrayList<>();
+        for (int i = 0; i < patches.size(); i++) {
+            UnifiedDiff.FilePatch patch = patches.get(i);
+            UnifiedDiff.Outcome outcome = outcomes.get(i);
+            String status;
+            if (i == failedAt) {
+                status = "failed";
+            } else if (exitCode == 0) {
+                status = dryRun ? "verified" : "applied";
+            } else {
+                status = exitCode == 2 && i < failedAt ? "applied" : "skipped";
+            }
+            files.add(FilePatchFile.builder()
+                    .path(patch.path())
+                    .status(status)
+                    .hunks(patch.hunks())
+                    .linesAdded(patch.added())
+                    .linesRemoved(patch.removed())
+                    .oldSha256(outcome != null ? outcome.oldSha256() : null)
+                    .newSha256(outcome != null ? outcome.newSha256() : null)
+                    .error(outcome != null ? outcome.error() : null)
+                    .build());
+        }
 
-        if (!result.isSuccess()) {
+        String error = null;
+        if (exitCode != 0) {
+            error = failedAt >= 0
+                    ? patches.get(failedAt).path() + ": " + outcomes.get(failedAt).error()
+                    : "Patch failed with exit code " + exitCode;
+        }
+        log.info("Patch of {} files on {}: exit code {}", patches.size(), serverName, exitCode);
+
+        return FilePatchResult.builder()
+                .server(serverName)
+                .dryRun(dryRun)
+                .applied(!dryRun && exitCode == 0)
+                .files(files)
+                .error(error)
+                .elapsedMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    private static Map<String, String> parseBaseHashes(String baseHashes, List<UnifiedDiff.FilePatch> patches) {
+        Map<String, String> expected = new HashMap<>();
+        if (baseHashes == null || baseHashes.isBlank()) {
+            return expected;
+        }
+        List<String> paths = patches.stream().map(UnifiedDiff.FilePatch::path).toList();
+        for (String pair : baseHashes.split(",")) {
+            if (pair.isBlank()) {
+                continue;
+            }
+            int separator = pair.lastIndexOf('=');
+            String path = separator > 0 ? pair.substring(0, separator).trim() : "";
+            String hash = separator > 0 ? pair.substring(separator + 1).trim().toLowerCase() : "";
+            if (!paths.contains(path) || !UnifiedDiff.isSha256(hash)) {
+                throw new ValidationException("baseHashes", pair,
+                        "Expected path=sha256 for a file in the diff");
+            }
+            expected.put(path, hash);
+        }
+        return expected;
+    }
+
+    /**
+     * Lists a directory page by page over SFTP readdir. Entries are examined
+     * one at a time as the server returns them, and only the requested page
+     * is kept, so huge directories cost memory proportional to the page.
+     *
+     * With {@code depth > 0} subdirectories are listed after their parent,
+     * down to that many levels; symlinked directories are not followed. Each
+     * directory is listed in name order and the cursor is the path of the last
+     * entry returned, so the next page resumes right after it, even when
+     * entries were created or removed in between, without reading the
+     * directories already finished again. SFTP cannot seek within a
+     * directory, so the one a page resumes in is still read from its start.
+     *
+     * @param pattern shell glob matched against entry names; directories are descended regardless
+     */
+    public FileListing listFiles(String serverName, String directoryPath, String pattern,
+                                 int depth, int pageSize, String cursor) {
+        log.info("Listing files in: {} on server: {}", directoryPath, serverName);
+
+        Path path = validatePath(directoryPath, FileOperationException.OperationType.LIST);
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new ValidationException("pageSize", pageSize, "Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (depth < 0 || depth > MAX_LIST_DEPTH) {
+            throw new ValidationException("depth", depth, "Depth must be between 0 and " + MAX_LIST_DEPTH);
+        }
+        Pattern namePattern = pattern == null || pattern.isBlank() ? null : FileIndex.globToPattern(pattern);
+        String listingKey = directoryPath + "\u0000" + pattern + "\u0000" + depth;
+        String after = decodeCursor(cursor, listingKey, depth);
+        String root = directoryPath.length() > 1 && directoryPath.endsWith("/")
+                ? directoryPath.substring(0, directoryPath.length() - 1) : directoryPath;
+
+        try {
+            return sshService.withSftp(serverName, sftp -> {
+                ListingPage listing = new ListingPage(sftp, root, depth, namePattern, pageSize);
+                listing.collect(after);
+                List<FileEntry> page = listing.entries;
+                boolean more = page.size() > pageSize;
+                if (more) {
+                    page.remove(pageSize);
+                }
+
+                // Bounded by the page size, unlike resolving every link of the directory
+                for (FileEntry entry : page) {
+                    if (entry.getType() == FileEntry.FileType.SYMLINK) {
+                        try {
+                            entry.setLinkTarget(sftp.readlink(root + "/" + entry.getName()));
+                        } catch (SftpException e) {
+                            log.debug("Could not read link {}/{}: {}", root, entry.getName(), e.getMessage());
+                        }
+                    }
+                }
+
+                return FileListing.builder()
+                        .path(directoryPath)
+                        .entries(page)
+                        .nextCursor(more ? encodeCursor(page.get(page.size() - 1).getName(), listingKey) : null)
+                        .build();
+            });
+        } catch (SftpException e) {
+            if (e.id == ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                throw new ResourceNotFoundException("Directory", directoryPath);
+            }
+            if (e.id == ChannelSftp.SSH_FX_PERMISSION_DENIED) {
+                throw new FileOperationException(
+                        "Permission denied",
+                        path,
+                        FileOperationException.OperationType.LIST,
+                        serverName,
+                        e
+                );
+            }
             throw new FileOperationException(
-                    "Failed to list files: " + result.getError(),
+                    "Failed to list files: " + e.getMessage(),
                     path,
                     FileOperationException.OperationType.LIST,
                     serverName,
-                    null
+                    e
             );
         }
-
-        return Arrays.stream(result.getOutput().split("\n"))
-                .filter(line -> !line.trim().isEmpty())
-                .collect(Collectors.toList());
     }
 
     public void changePermissions(String serverName, String filePath, String permissions) {
@@ -334,6 +827,203 @@ public class FileService {
         log.info("Ownership changed successfully for: {}", filePath);
     }
 
+    private static FileEntry toFileEntry(String name, SftpATTRS attrs, String longname) {
+        FileEntry.FileEntryBuilder entry = FileEntry.builder()
+                .name(name)
+                .type(attrs.isReg() ? FileEntry.FileType.FILE
+                        : attrs.isDir() ? FileEntry.FileType.DIRECTORY
+                        : attrs.isLink() ? FileEntry.FileType.SYMLINK
+                        : attrs.isFifo() ? FileEntry.FileType.FIFO
+                        : attrs.isSock() ? FileEntry.FileType.SOCKET
+                        : attrs.isChr() ? FileEntry.FileType.CHAR_DEVICE
+                        : attrs.isBlk() ? FileEntry.FileType.BLOCK_DEVICE
+                        : FileEntry.FileType.UNKNOWN)
+                .permissions(attrs.getPermissionsString())
+                .mode(String.format("%04o", attrs.getPermissions() & 07777))
+                .sizeBytes(attrs.getSize())
+                .modifiedEpochSeconds(Integer.toUnsignedLong(attrs.getMTime()))
+                .owner(String.valueOf(attrs.getUId()))
+                .group(String.valueOf(attrs.getGId()));
+
+        // OpenSSH sends an ls -l style line with the link count and owner names; numeric ids otherwise
+        String[] columns = longname == null ? new String[0] : longname.trim().split("\\s+", 5);
+        if (columns.length == 5) {
+            try {
+                entry.links(Integer.parseInt(columns[1])).owner(columns[2]).group(columns[3]);
+            } catch (NumberFormatException ignored) {
+                // Not the OpenSSH layout
+            }
+        }
+        return entry.build();
+    }
+
+    @Data
+    @RequiredArgsConstructor
+    private static class StagedWrite {
+        private final String path;
+        private final byte[] content;
+        private final String sha256;
+        private String target;
+        private SftpATTRS existing;
+        private String staging;
+        private String backup;
+    }
+
+    // JSch treats * and ? in the last path segment as a glob unless escaped
+    private static String quoteSftpPath(String path) {
+        return path.replace("\\", "\\\\").replace("*", "\\*").replace("?", "\\?");
+    }
+
+    static String encodeCursor(String lastPath, String listingKey) {
+        String value = Integer.toHexString(listingKey.hashCode()) + ":" + lastPath;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the relative path of the last entry already returned, or {@code null} for the first page
+     */
+    static String decodeCursor(String cursor, String listingKey, int depth) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 2);
+            if (parts.length == 2 && parts[0].equals(Integer.toHexString(listingKey.hashCode()))) {
+                // The path is joined to the listed directory, so it must stay inside it
+                String[] segments = parts[1].split("/", -1);
+                boolean inside = segments.length <= depth + 1;
+                for (String segment : segments) {
+                    inside &= !segment.isEmpty() && !segment.equals(".") && !segment.equals("..");
+                }
+                if (inside) {
+                    return parts[1];
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Falls through to the validation error
+        }
+        throw new ValidationException("cursor", cursor, "Cursor does not belong to this listing");
+    }
+
+    /**
+     * One page of a listing in name order: a directory's matching entries,
+     * then each of its subdirectories in turn. Keeps at most one entry more
+     * than the page, which tells whether another page follows.
+     */
+    private static final class ListingPage {
+
+        private final ChannelSftp sftp;
+        private final String root;
+        private final int depth;
+        private final Pattern namePattern;
+        private final int pageSize;
+        private final List<FileEntry> entries = new ArrayList<>();
+
+        private ListingPage(ChannelSftp sftp, String root, int depth, Pattern namePattern, int pageSize) {
+            this.sftp = sftp;
+            this.root = root;
+            this.depth = depth;
+            this.namePattern = namePattern;
+            this.pageSize = pageSize;
+        }
+
+        /**
+         * @param after relative path of the last entry of the previous page, or {@code null}
+         */
+        private void collect(String after) throws SftpException {
+            if (after == null) {
+                visit("", null);
+                return;
+            }
+            // The rest of the directory holding the cursor, then the later subdirectories of each parent
+            String child = parent(after);
+            visit(child, name(after));
+            while (!child.isEmpty() && !full()) {
+                String parent = parent(child);
+                for (String subdirectory : read(parent, false, null, name(child))) {
+                    if (full()) {
+                        return;
+                    }
+                    visit(join(parent, subdirectory), null);
+                }
+                child = parent;
+            }
+        }
+
+        private void visit(String relative, String after) throws SftpException {
+            for (String subdirectory : read(relative, true, after, null)) {
+                if (full()) {
+                    return;
+                }
+                visit(join(relative, subdirectory), null);
+            }
+        }
+
+        /**
+         * Reads one directory in a single pass. Adds the smallest matching
+         * entry names after {@code after} that still fit the page, and
+         * returns the sorted subdirectory names after {@code subdirectoriesAfter}
+         * when the depth allows descending into them.
+         */
+        private List<String> read(String relative, boolean withEntries, String after, String subdirectoriesAfter)
+                throws SftpException {
+            String prefix = relative.isEmpty() ? "" : relative + "/";
+            boolean descend = (relative.isEmpty() ? 0 : relative.split("/").length) < depth;
+            int room = pageSize + 1 - entries.size();
+            TreeMap<String, FileEntry> smallest = new TreeMap<>();
+            List<String> subdirectories = new ArrayList<>();
+            try {
+                sftp.ls(quoteSftpPath(relative.isEmpty() ? root : root + "/" + relative), entry -> {
+                    String name = entry.getFilename();
+                    if (name.equals(".") || name.equals("..")) {
+                        return ChannelSftp.LsEntrySelector.CONTINUE;
+                    }
+                    SftpATTRS attrs = entry.getAttrs();
+                    if (descend && attrs.isDir() && (subdirectoriesAfter == null || name.compareTo(subdirectoriesAfter) > 0)) {
+                        subdirectories.add(name);
+                    }
+                    if (!withEntries || (after != null && name.compareTo(after) <= 0)
+                            || (namePattern != null && !namePattern.matcher(name).matches())) {
+                        return ChannelSftp.LsEntrySelector.CONTINUE;
+                    }
+                    if (smallest.size() == room) {
+                        if (name.compareTo(smallest.lastKey()) > 0) {
+                            return ChannelSftp.LsEntrySelector.CONTINUE;
+                        }
+                        smallest.pollLastEntry();
+                    }
+                    smallest.put(name, toFileEntry(prefix + name, attrs, entry.getLongname()));
+                    return ChannelSftp.LsEntrySelector.CONTINUE;
+                });
+            } catch (SftpException e) {
+                // A subdirectory removed since it was seen, or since the previous page, has nothing left to list
+                if (relative.isEmpty() || e.id != ChannelSftp.SSH_FX_NO_SUCH_FILE) {
+                    throw e;
+                }
+            }
+            entries.addAll(smallest.values());
+            subdirectories.sort(null);
+            return subdirectories;
+        }
+
+        private boolean full() {
+            return entries.size() > pageSize;
+        }
+
+        private static String parent(String relative) {
+            int slash = relative.lastIndexOf('/');
+            return slash < 0 ? "" : relative.substring(0, slash);
+        }
+
+        private static String name(String relative) {
+            return relative.substring(relative.lastIndexOf('/') + 1);
+        }
+
+        private static String join(String relative, String name) {
+            return relative.isEmpty() ? name : relative + "/" + name;
+        }
+    }
+
     private Path validatePath(String filePath, FileOperationException.OperationType operation) {
         if (filePath == null || filePath.trim().isEmpty()) {
             throw new ValidationException("filePath", filePath, "File path cannot be empty");
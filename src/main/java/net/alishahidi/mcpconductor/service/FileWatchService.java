@@ -0,0 +1,413 @@
+package net.alishahidi.mcpconductor.service;
+
+import net.alishahidi.mcpconductor.exception.ResourceNotFoundException;
+import net.alishahidi.mcpconductor.exception.ValidationException;
+import net.alishahidi.mcpconductor.model.FileEventBatch;
+import net.alishahidi.mcpconductor.model.FileWatchEvent;
+import net.alishahidi.mcpconductor.model.FileWatchInfo;
+import net.alishahidi.mcpconductor.util.CommandSanitizer;
+import net.alishahidi.mcpconductor.util.FileEventCoalescer;
+import net.alishahidi.mcpconductor.util.FileWatchCommand;
+import net.alishahidi.mcpconductor.util.McpNotifier;
+import net.alishahidi.mcpconductor.util.RemoteCommandStream;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches files and directories on remote servers and turns their changes
+ * into debounced create/modify/delete events.
+ *
+ * Each watch runs {@link FileWatchCommand} under one long-lived exec channel,
+ * read by its own virtual thread. Raw events go through a per-watch
+ * {@link FileEventCoalescer}; a flush tick every {@value #FLUSH_INTERVAL_MS} ms
+ * moves settled changes into the watch's bounded buffer, where
+ * {@link #events} collects them, and sends each one to the client that started
+ * the watch as a logging notification. When the buffer is full the oldest
+ * events are dropped and counted.
+ *
+ * In auto mode a host whose {@code inotifywait} stops with an error (for
+ * example when the inotify watch limit is reached) is switched to polling
+ * once. Any other end of the stream leaves the watch inactive with its error
+ * until its remaining events are collected or it is removed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileWatchService {
+
+    private static final long FLUSH_INTERVAL_MS = 100;
+    private static final int MAX_EVENTS_PER_CALL = 5000;
+
+    private final SSHService sshService;
+    private final CommandSanitizer commandSanitizer;
+
+    @Value("${files.watch.max-watches:50}")
+    private int maxWatches;
+
+    @Value("${files.watch.debounce-ms:500}")
+    private long defaultDebounceMs;
+
+    @Value("${files.watch.max-delay-ms:5000}")
+    private long maxDelayMs;
+
+    @Value("${files.watch.poll-interval-seconds:2}")
+    private int pollIntervalSeconds;
+
+    @Value("${files.watch.buffer-events:10000}")
+    private int bufferEvents;
+
+    @Value("${files.watch.max-wait-seconds:60}")
+    private int maxWaitSeconds;
+
+    private final Map<String, Watch> watches = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Object arrivals = new Object();
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "file-watch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::flush, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        watches.values().forEach(Watch::close);
+    }
+
+    /**
+     * Starts watching, or returns the active watch with the same server, paths
+     * and recursion.
+     *
+     * @param mode       {@code auto} (inotify when installed, else polling), {@code inotify} or {@code poll}
+     * @param debounceMs quiet period per path before its change is reported; {@code null} for the default
+     * @param notifier   receives every settled event; {@link McpNotifier#noop()} to only buffer them
+     */
+    public FileWatchInfo watch(String serverName, List<String> paths, boolean recursive, String mode,
+                               Long debounceMs, McpNotifier notifier) {
+        if (paths == null || paths.isEmpty()) {
+            throw new ValidationException("paths", paths, "At least one path is required");
+        }
+        List<String> normalized = new ArrayList<>();
+        for (String path : paths) {
+            if (path == null || !path.startsWith("/")) {
+                throw new ValidationException("paths", path, "Paths must be absolute");
+            }
+            String file = Path.of(path).normalize().toString();
+            if (!normalized.contains(file)) {
+                normalized.add(file);
+            }
+        }
+        FileWatchCommand.Mode watchMode;
+        try {
+            watchMode = FileWatchCommand.Mode.of(mode);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("mode", mode, "Mode must be 'auto', 'inotify' or 'poll'");
+        }
+        long debounce = debounceMs != null ? debounceMs : defaultDebounceMs;
+        if (debounce < 0 || debounce > maxDelayMs) {
+            throw new ValidationException("debounceMs", debounceMs, "debounceMs must be between 0 and " + maxDelayMs);
+        }
+
+        synchronized (watches) {
+            for (Watch existing : watches.values()) {
+                if (existing.active && existing.server.equals(serverName) && existing.paths.equals(normalized)
+                        && existing.recursive == recursive) {
+                    return existing.info();
+                }
+            }
+            if (watches.values().stream().filter(w -> w.active).count() >= maxWatches) {
+                throw new ValidationException("paths", normalized,
+                        "Too many active watches (" + maxWatches + "); remove one with file_unwatch first");
+            }
+            Watch watch = new Watch(Long.toHexString(System.nanoTime()), serverName, normalized, recursive,
+                    watchMode, debounce, notifier);
+            watches.put(watch.id, watch);
+            Thread.startVirtualThread(watch::run);
+            log.info("Watching {} on {} (watch {}, {}, recursive: {})", normalized, serverName, watch.id,
+                    watchMode.name().toLowerCase(), recursive);
+            return watch.info();
+        }
+    }
+
+    /**
+     * Removes and returns buffered events in the order they settled, waiting up
+     * to {@code waitSeconds} for the first one. Inactive watches whose events
+     * have all been collected are dropped after being reported once.
+     *
+     * @param watchId one watch, or blank for all of them
+     */
+    public FileEventBatch events(String watchId, Integer maxEvents, Integer waitSeconds) {
+        List<Watch> selected;
+        if (watchId == null || watchId.isBlank()) {
+            selected = new ArrayList<>(watches.values());
+        } else {
+            Watch watch = watches.get(watchId.trim());
+            if (watch == null) {
+                throw new ResourceNotFoundException("File watch", watchId);
+            }
+            selected = List.of(watch);
+        }
+        int limit = Math.max(1, Math.min(maxEvents != null ? maxEvents : 500, MAX_EVENTS_PER_CALL));
+        long deadline = System.currentTimeMillis()
+                + Math.max(0, Math.min(waitSeconds != null ? waitSeconds : 0, maxWaitSeconds)) * 1000L;
+
+        synchronized (arrivals) {
+            long remaining;
+            while (selected.stream().noneMatch(Watch::hasEvents) && selected.stream().anyMatch(w -> w.active)
+                    && (remaining = deadline - System.currentTimeMillis()) > 0) {
+                try {
+                    arrivals.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        // Take the lowest sequence number across the selected buffers each time
+        List<FileWatchEvent> events = new ArrayList<>();
+        while (events.size() < limit) {
+            Watch next = null;
+            long lowest = Long.MAX_VALUE;
+            for (Watch watch : selected) {
+                FileWatchEvent head = watch.peek();
+                if (head != null && head.getSequence() < lowest) {
+                    lowest = head.getSequence();
+                    next = watch;
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            events.add(next.poll());
+        }
+
+        List<FileWatchInfo> infos = new ArrayList<>();
+        for (Watch watch : selected) {
+            infos.add(watch.info());
+            if (!watch.active && !watch.hasEvents() && watch.coalescer.size() == 0) {
+                watches.remove(watch.id, watch);
+            }
+        }
+        return FileEventBatch.builder()
+                .events(events)
+                .more(selected.stream().anyMatch(Watch::hasEvents))
+                .watches(infos)
+                .build();
+    }
+
+    /**
+     * Stops a watch and discards its buffered events.
+     */
+    public FileWatchInfo unwatch(String watchId) {
+        Watch watch = watchId != null ? watches.remove(watchId.trim()) : null;
+        if (watch == null) {
+            throw new ResourceNotFoundException("File watch", watchId);
+        }
+        watch.close();
+        log.info("Stopped watch {} of {} on {}", watch.id, watch.paths, watch.server);
+        return watch.info();
+    }
+
+    public List<FileWatchInfo> list() {
+        return watches.values().stream().map(Watch::info).toList();
+    }
+
+    private void flush() {
+        try {
+            long now = System.currentTimeMillis();
+            boolean arrived = false;
+            for (Watch watch : watches.values()) {
+                for (FileEventCoalescer.Change change : watch.coalescer.drain(now)) {
+                    watch.deliver(change);
+                    arrived = true;
+                }
+            }
+            if (arrived) {
+                synchronized (arrivals) {
+                    arrivals.notifyAll();
+                }
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel the schedule for good
+            log.warn("File watch flush failed: {}", e.getMessage());
+        }
+    }
+
+    private final class Watch {
+
+        private final String id;
+        private final String server;
+        private final List<String> paths;
+        private final boolean recursive;
+        private final FileWatchCommand.Mode requestedMode;
+        private final long debounceMs;
+        private final McpNotifier notifier;
+        private final FileEventCoalescer coalescer;
+        private final Instant startedAt = Instant.now();
+        private final Deque<FileWatchEvent> buffer = new ArrayDeque<>();
+
+        private volatile boolean active = true;
+        private volatile String mode;
+        private volatile String error;
+        private volatile RemoteCommandStream stream;
+        private long delivered;
+        private long dropped;
+
+        private Watch(String id, String server, List<String> paths, boolean recursive, FileWatchCommand.Mode mode,
+                      long debounceMs, McpNotifier notifier) {
+            this.id = id;
+            this.server = server;
+            this.paths = paths;
+            this.recursive = recursive;
+            this.requestedMode = mode;
+            this.debounceMs = debounceMs;
+            this.notifier = notifier;
+            this.coalescer = new FileEventCoalescer(debounceMs, maxDelayMs);
+        }
+
+        private void run() {
+            List<String> quoted = paths.stream().map(commandSanitizer::escapeShellArgument).toList();
+            FileWatchCommand.Mode runMode = requestedMode;
+            try {
+                while (active) {
+                    String command = FileWatchCommand.command(quoted, recursive, runMode, pollIntervalSeconds);
+                    try (RemoteCommandStream opened = sshService.openCommandStream(server, command)) {
+                        stream = opened;
+                        BufferedReader reader = new BufferedReader(new InputStreamReader(opened.getStdout(), StandardCharsets.UTF_8));
+                        String line;
+                        while (active && (line = reader.readLine()) != null) {
+                            if (line.equals(FileWatchCommand.INOTIFY_MARKER) || line.equals(FileWatchCommand.POLL_MARKER)) {
+                                mode = line.substring(2);
+                                continue;
+                            }
+                            FileWatchCommand.Event event = FileWatchCommand.parse(line);
+                            if (event != null) {
+                                coalescer.add(event, System.currentTimeMillis());
+                            }
+                        }
+                        if (!active) {
+                            return;
+                        }
+                        int exitCode = opened.waitFor(5_000);
+                        String stderr = opened.getStderr().trim();
+                        if (exitCode != 3 && runMode == FileWatchCommand.Mode.AUTO && "inotify".equals(mode)) {
+                            log.warn("inotifywait on {} stopped (exit {}: {}); polling instead", server, exitCode, stderr);
+                            runMode = FileWatchCommand.Mode.POLL;
+                            continue;
+                        }
+                        error = exitCode == 3 ? "Path not found: " + stderr
+                                : "Watch ended (exit " + exitCode + ")" + (stderr.isEmpty() ? "" : ": " + stderr);
+                    }
+                    break;
+                }
+            } catch (IOException | RuntimeException e) {
+                if (active) {
+                    error = e.getMessage();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                stream = null;
+            }
+            if (active) {
+                active = false;
+                log.warn("Watch {} of {} on {} stopped: {}", id, paths, server, error);
+                notifier.warn("[" + server + "] watch " + id + " stopped: " + error);
+                synchronized (arrivals) {
+                    arrivals.notifyAll();
+                }
+            }
+        }
+
+        private void deliver(FileEventCoalescer.Change change) {
+            String type = change.kind().name().toLowerCase();
+            FileWatchEvent event = FileWatchEvent.builder()
+                    .sequence(sequence.incrementAndGet())
+                    .watchId(id)
+                    .server(server)
+                    .path(change.path())
+                    .type(type)
+                    .directory(change.directory())
+                    .rawEvents(change.count())
+                    .firstAt(Instant.ofEpochMilli(change.firstAt()).toString())
+                    .lastAt(Instant.ofEpochMilli(change.lastAt()).toString())
+                    .build();
+            synchronized (this) {
+                buffer.addLast(event);
+                delivered++;
+                if (buffer.size() > bufferEvents) {
+                    buffer.removeFirst();
+                    dropped++;
+                }
+            }
+            notifier.info("[" + server + "] " + type + " " + change.path() + (change.directory() ? "/" : ""));
+        }
+
+        private synchronized boolean hasEvents() {
+            return !buffer.isEmpty();
+        }
+
+        private synchronized FileWatchEvent peek() {
+            return buffer.peekFirst();
+        }
+
+        private synchronized FileWatchEvent poll() {
+            return buffer.pollFirst();
+        }
+
+        private void close() {
+            active = false;
+            RemoteCommandStream current = stream;
+            if (current != null) {
+                current.close();
+            }
+        }
+
+        private synchronized FileWatchInfo info() {
+            return FileWatchInfo.builder()
+                    .id(id)
+                    .server(server)
+                    .paths(paths)
+                    .recursive(recursive)
+                    .mode(mode != null ? mode : "starting")
+                    .debounceMs(debounceMs)
+                    .active(active)
+                    .startedAt(startedAt.toString())
+                    .eventsDelivered(delivered)
+                    .eventsBuffered(buffer.size())
+                    .eventsDropped(dropped)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package net.alishahidi.mcpconductor.service;
+
+import net.alishahidi.mcpconductor.config.SSHProperties;
+import net.alishahidi.mcpconductor.exception.ValidationException;
+import net.alishahidi.mcpconductor.model.FleetInventory;
+import net.alishahidi.mcpconductor.model.FleetOutlier;
+import net.alishahidi.mcpconductor.model.MetricSummary;
+import net.alishahidi.mcpconductor.model.SystemInfo;
+import net.alishahidi.mcpconductor.model.TaskOutcome;
+import net.alishahidi.mcpconductor.util.DoubleRingBuffer;
+import net.alishahidi.mcpconductor.util.FanOutExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Probes many SSH servers concurrently and reduces the answers to a fleet-wide
+ * summary. Each host gets its own deadline so one slow or dead machine only
+ * lands in the error list. Successful probes are cached per host for a TTL,
+ * so asking again right after is served from memory; failures are never cached.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FleetInventoryService {
+
+    private static final List<String> COLUMNS = List.of(
+            "server", "hostname", "operatingSystem", "kernelVersion", "architecture", "cpuCores",
+            "memTotalBytes", "memUsedPercent", "diskTotalBytes", "diskUsedPercent", "load1",
+            "uptimeSeconds", "ageSeconds");
+
+    private final SSHProperties sshProperties;
+    private final SystemService systemService;
+    private final FanOutExecutor fanOutExecutor;
+
+    private final Map<String, CachedInfo> cache = new ConcurrentHashMap<>();
+
+    @Value("${fleet.inventory.cache-ttl-seconds:60}")
+    private int cacheTtlSeconds;
+
+    @Value("${fleet.inventory.host-timeout-seconds:20}")
+    private int hostTimeoutSeconds;
+
+    @Value("${fleet.inventory.max-concurrency:32}")
+    private int maxConcurrency;
+
+    @Value("${fleet.inventory.mem-used-percent-threshold:90}")
+    private double memThreshold;
+
+    @Value("${fleet.inventory.disk-used-percent-threshold:90}")
+    private double diskThreshold;
+
+    @Value("${fleet.inventory.load-per-core-threshold:2.0}")
+    private double loadPerCoreThreshold;
+
+    /**
+     * @param tags    comma-separated server tags; blank selects every configured server
+     * @param refresh ignore cached results and probe every selected host
+     */
+    public FleetInventory inventory(String tags, boolean refresh) {
+        List<String> servers = sshProperties.selectServers(tags);
+        if (servers.isEmpty()) {
+            throw new ValidationException("tags", tags, "No configured servers match the selector");
+        }
+
+        long startTime = System.currentTimeMillis();
+        Map<String, CachedInfo> fresh = new LinkedHashMap<>();
+        List<String> toProbe = new ArrayList<>();
+        for (String server : servers) {
+            CachedInfo cached = cache.get(server);
+            if (!refresh && cached != null && startTime - cached.fetchedAt() < cacheTtlSeconds * 1000L) {
+                fresh.put(server, cached);
+            } else {
+                toProbe.add(server);
+            }
+        }
+        int fromCache = fresh.size();
+
+        Map<String, String> errors = new TreeMap<>();
+        if (!toProbe.isEmpty()) {
+            log.info("Probing {} of {} servers for inventory", toProbe.size(), servers.size());
+            List<TaskOutcome<SystemInfo>> outcomes = fanOutExecutor.runAll(toProbe, maxConcurrency,
+                    Duration.ofSeconds(hostTimeoutSeconds), systemService::getSystemInfo);
+            for (TaskOutcome<SystemInfo> outcome : outcomes) {
+                if (outcome.isSuccess()) {
+                    CachedInfo info = new CachedInfo(outcome.getResult(), System.currentTimeMillis());
+                    cache.put(outcome.getTarget(), info);
+                    fresh.put(outcome.getTarget(), info);
+                } else {
+                    errors.put(outcome.getTarget(), outcome.getError());
+                }
+            }
+        }
+
+        Map<String, CachedInfo> ordered = new TreeMap<>(fresh);
+        return FleetInventory.builder()
+                .requested(servers.size())
+                .succeeded(ordered.size())
+                .failed(errors.size())
+                .cached(fromCache)
+                .durationMs(System.currentTimeMillis() - startTime)
+                .hosts(columns(ordered, System.currentTimeMillis()))
+                .operatingSystems(histogram(ordered, SystemInfo::getOperatingSystem))
+                .kernels(histogram(ordered, SystemInfo::getKernelVersion))
+                .memUsedPercent(summary(ordered, SystemInfo::getMemUsedPercent))
+                .diskUsedPercent(summary(ordered, SystemInfo::getDiskUsedPercent))
+                .loadPerCore(summary(ordered, FleetInventoryService::loadPerCore))
+                .outliers(outliers(ordered))
+                .errors(errors)
+                .build();
+    }
+
+    private Map<String, List<Object>> columns(Map<String, CachedInfo> infos, long now) {
+        Map<String, List<Object>> columns = new LinkedHashMap<>();
+        COLUMNS.forEach(column -> columns.put(column, new ArrayList<>(infos.size())));
+        infos.forEach((server, cached) -> {
+            SystemInfo info = cached.info();
+            columns.get("server").add(server);
+            columns.get("hostname").add(info.getHostname());
+            columns.get("operatingSystem").add(info.getOperatingSystem());
+            columns.get("kernelVersion").add(info.getKernelVersion());
+            columns.get("architecture").add(info.getArchitecture());
+            columns.get("cpuCores").add(info.getCpuCores());
+            columns.get("memTotalBytes").add(info.getMemTotalBytes());
+            columns.get("memUsedPercent").add(info.getMemUsedPercent());
+            columns.get("diskTotalBytes").add(info.getDiskTotalBytes());
+            columns.get("diskUsedPercent").add(info.getDiskUsedPercent());
+            columns.get("load1").add(info.getLoad1());
+            columns.get("uptimeSeconds").add(info.getUptimeSeconds());
+            columns.get("ageSeconds").add((now - cached.fetchedAt()) / 1000);
+        });
+        return columns;
+    }
+
+    private List<FleetOutlier> outliers(Map<String, CachedInfo> infos) {
+        List<FleetOutlier> outliers = new ArrayList<>();
+        infos.forEach((server, cached) -> {
+            SystemInfo info = cached.info();
+            addIfAbove(outliers, server, "memUsedPercent", info.getMemUsedPercent(), memThreshold);
+            addIfAbove(outliers, server, "diskUsedPercent", info.getDiskUsedPercent(), diskThreshold);
+            addIfAbove(outliers, server, "loadPerCore", loadPerCore(info), loadPerCoreThreshold);
+        });
+        outliers.sort(Comparator.comparing(FleetOutlier::getMetric)
+                .thenComparing(FleetOutlier::getValue, Comparator.reverseOrder()));
+        return outliers;
+    }
+
+    private static void addIfAbove(List<FleetOutlier> outliers, String server, String metric,
+                                   Double value, double threshold) {
+        if (value != null && value >= threshold) {
+            outliers.add(FleetOutlier.builder()
+                    .server(server)
+                    .metric(metric)
+                    .value(value)
+                    .threshold(threshold)
+                    .build());
+        }
+    }
+
+    private static Map<String, Integer> histogram(Map<String, CachedInfo> infos,
+                                                  Function<SystemInfo, String> field) {
+        Map<String, Integer> counts = new TreeMap<>();
+        infos.values().forEach(cached -> {
+            String value = field.apply(cached.info());
+            counts.merge(value != null ? value : "unknown", 1, Integer::sum);
+        });
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    private static MetricSummary summary(Map<String, CachedInfo> infos,
+                                         Function<SystemInfo, Double> field) {
+        double[] values = infos.values().stream()
+                .map(cached -> field.apply(cached.info()))
+                .mapToDouble(value -> value != null ? value : Double.NaN)
+                .toArray();
+        return DoubleRingBuffer.summarize(values);
+    }
+
+    private static Double loadPerCore(SystemInfo info) {
+        if (info.getLoad1() == null || info.getCpuCores() == null || info.getCpuCores() <= 0) {
+            return null;
+        }
+        return Math.round(info.getLoad1() / info.getCpuCores() * 100) / 100.0;
+    }
+
+    private record CachedInfo(SystemInfo info, long fetchedAt) {
+    }
+}
@@ -2,16 +2,16 @@ package net.alishahidi.mcpconductor.service;
 
 import net.alishahidi.mcpconductor.exception.*;
 import net.alishahidi.mcpconductor.model.CommandResult;
+import net.alishahidi.mcpconductor.model.GitBranch;
+import net.alishahidi.mcpconductor.util.parser.OutputParsers;
 import org.springframework.stereotype.Service;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -219,29 +219,20 @@ public class GitService {
         return result.getOutput();
     }
 
-    public List<String> listBranches(String serverName, String repoPath) {
+    public List<GitBranch> listBranches(String serverName, String repoPath) {
         log.info("Listing branches in: {} on server: {}", repoPath, serverName);
 
         validateGitRepository(serverName, repoPath);
 
-        CommandResult result = sshService.executeCommand(
-                serverName,
-                String.format("cd '%s' && git branch -a", repoPath),
-                false
-        );
-
-        if (!result.isSuccess()) {
+        try {
+            return sshService.executeParsed(serverName, OutputParsers.GIT_BRANCH, repoPath);
+        } catch (CommandExecutionException e) {
             throw new GitOperationException(
-                    "Failed to list branches: " + result.getError(),
+                    "Failed to list branches: " + e.getMessage(),
                     repoPath,
                     GitOperationException.GitOperation.FETCH
             );
         }
-
-        return Arrays.stream(result.getOutput().split("\n"))
-                .map(String::trim)
-                .filter(line -> !line.isEmpty())
-                .collect(Collectors.toList());
     }
 
     public void addAll(String serverName, String repoPath) {
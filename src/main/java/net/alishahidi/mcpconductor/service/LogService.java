@@ -0,0 +1,538 @@
+package net.alishahidi.mcpconductor.service;
+
+import net.alishahidi.mcpconductor.config.SSHProperties;
+import net.alishahidi.mcpconductor.exception.CommandExecutionException;
+import net.alishahidi.mcpconductor.exception.ResourceNotFoundException;
+import net.alishahidi.mcpconductor.exception.ValidationException;
+import net.alishahidi.mcpconductor.model.FleetLogLine;
+import net.alishahidi.mcpconductor.model.FleetLogTail;
+import net.alishahidi.mcpconductor.model.LogCursor;
+import net.alishahidi.mcpconductor.model.LogFollowResult;
+import net.alishahidi.mcpconductor.security.PathValidator;
+import net.alishahidi.mcpconductor.util.CommandSanitizer;
+import net.alishahidi.mcpconductor.util.FanOutExecutor;
+import net.alishahidi.mcpconductor.util.LogCursorStore;
+import net.alishahidi.mcpconductor.util.LogFileDelta;
+import net.alishahidi.mcpconductor.util.LogMerger;
+import net.alishahidi.mcpconductor.util.LogTimestampParser;
+import net.alishahidi.mcpconductor.util.RemoteCommandStream;
+import net.alishahidi.mcpconductor.util.Utf8;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Incremental reads of remote logs. Each (server, source) pair keeps a cursor
+ * that is persisted on the conductor, so asking again only transfers what was
+ * appended since the previous answer.
+ *
+ * Sources are absolute file paths, {@code journal} for the whole systemd
+ * journal or {@code journal:<unit>} for one unit. File cursors are inode plus
+ * byte offset ({@link LogFileDelta}); journal cursors are journald's own.
+ * The same sources can be tailed across many servers at once as one merged,
+ * time-ordered view.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LogService {
+
+    private static final String JOURNAL = "journal";
+    private static final int MAX_BYTES_LIMIT = 1024 * 1024;
+    private static final int JOURNAL_INITIAL_ENTRIES = 100;
+    private static final int MAX_TAIL_LINES = 100_000;
+
+    private final SSHService sshService;
+    private final SSHProperties sshProperties;
+    private final CommandSanitizer commandSanitizer;
+    private final PathValidator pathValidator;
+    private final ObjectMapper objectMapper;
+    private final FanOutExecutor fanOutExecutor;
+
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+    private LogCursorStore cursorStore;
+
+    @Value("${logs.follow.state-file:${user.home}/.mcp-conductor/log-cursors.json}")
+    private String stateFile;
+
+    @Value("${logs.follow.max-bytes:65536}")
+    private int defaultMaxBytes;
+
+    @Value("${logs.follow.timeout-seconds:30}")
+    private int followTimeoutSeconds;
+
+    @Value("${logs.tail.host-timeout-seconds:20}")
+    private int tailHostTimeoutSeconds;
+
+    @Value("${logs.tail.max-bytes:262144}")
+    private int tailDefaultMaxBytes;
+
+    @Value("${logs.tail.max-concurrency:32}")
+    private int tailMaxConcurrency;
+
+    @PostConstruct
+    void init() {
+        cursorStore = new LogCursorStore(Path.of(stateFile), objectMapper);
+    }
+
+    /**
+     * Returns what was appended to {@code source} since the previous call for
+     * the same server and source, oldest first, up to {@code maxBytes}. The
+     * first call, or one with {@code reset}, returns the recent tail instead.
+     */
+    public LogFollowResult follow(String serverName, String source, Integer maxBytes, boolean reset) {
+        int cap = maxBytes != null ? maxBytes : defaultMaxBytes;
+        if (cap < 1 || cap > MAX_BYTES_LIMIT) {
+            throw new ValidationException("maxBytes", maxBytes, "maxBytes must be between 1 and " + MAX_BYTES_LIMIT);
+        }
+        String trimmed = validateSource(source);
+        boolean journal = isJournal(trimmed);
+
+        ReentrantLock lock = locks.computeIfAbsent(serverName + "\u0000" + trimmed, key -> new ReentrantLock());
+        lock.lock();
+        try {
+            LogCursor cursor = reset ? null : cursorStore.get(serverName, trimmed);
+            LogFollowResult result = journal
+                    ? followJournal(serverName, trimmed, cursor, cap)
+                    : followFile(serverName, trimmed, cursor, cap);
+            cursorStore.put(result.getCursor());
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private LogFollowResult followFile(String serverName, String path, LogCursor cursor, int cap) {
+        long inode = cursor != null ? cursor.getInode() : 0;
+        long offset = cursor != null ? cursor.getOffset() : 0;
+        String command = LogFileDelta.command(commandSanitizer.escapeShellArgument(path), inode, offset, cap);
+
+        LogFileDelta delta;
+        try (RemoteCommandStream stream = sshService.openCommandStream(serverName, command)
+                .withDeadline(followTimeoutSeconds * 1000L)) {
+            byte[] output = stream.readAllStdout();
+            int exitCode = stream.waitFor(30_000);
+            if (stream.isTimedOut()) {
+                throw new CommandExecutionException("Reading " + path + " timed out after " + followTimeoutSeconds + " s",
+                        "log_follow " + path, serverName, -1);
+            }
+            if (exitCode == 3) {
+                throw new ResourceNotFoundException("Log file", path);
+            }
+            delta = LogFileDelta.parse(output, inode, offset, cap);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new CommandExecutionException("Failed to read log delta: " + e.getMessage(), "log_follow " + path, serverName, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CommandExecutionException("Interrupted while reading log", "log_follow " + path, serverName, -1);
+        }
+
+        String content = new String(delta.getContent(), StandardCharsets.UTF_8);
+        return LogFollowResult.builder()
+                .server(serverName)
+                .source(path)
+                .content(content)
+                .bytes(delta.getContent().length)
+                .lines(countLines(content))
+                .more(delta.hasMore())
+                .rotated(delta.isRotated())
+                .fromTail(cursor == null)
+                .cursor(LogCursor.builder()
+                        .server(serverName)
+                        .source(path)
+                        .inode(delta.getInode())
+                        .offset(delta.getOffset())
+                        .updatedAt(Instant.now().toString())
+                        .build())
+                .build();
+    }
+
+    private LogFollowResult followJournal(String serverName, String source, LogCursor cursor, int cap) {
+        String after = cursor != null ? cursor.getJournalCursor() : null;
+        JournalRead read = readJournal(serverName, source, after, cap);
+        boolean fromTail = after == null;
+        if (read == null && after != null) {
+            // Cursor no longer valid, e.g. the journal was vacuumed past it
+            log.info("Journal cursor for {} on {} is no longer valid, restarting from the tail", source, serverName);
+            read = readJournal(serverName, source, null, cap);
+            fromTail = true;
+        }
+        if (read == null) {
+            throw new CommandExecutionException("journalctl failed", "journalctl", serverName, -1);
+        }
+
+        String content = read.content().toString(StandardCharsets.UTF_8);
+        return LogFollowResult.builder()
+                .server(serverName)
+                .source(source)
+                .content(content)
+                .bytes(read.content().size())
+                .lines(read.entries())
+                .more(read.more())
+                .rotated(false)
+                .fromTail(fromTail)
+                .cursor(LogCursor.builder()
+                        .server(serverName)
+                        .source(source)
+                        .journalCursor(read.lastCursor() != null ? read.lastCursor() : after)
+                        .updatedAt(Instant.now().toString())
+                        .build())
+                .build();
+    }
+
+    /**
+     * Streams journal entries as JSON and stops once the cap is reached, which
+     * also ends the remote journalctl.
+     *
+     * @return {@code null} when journalctl failed without output, as it does for an unknown cursor
+     */
+    private JournalRead readJournal(String serverName, String source, String afterCursor, int cap) {
+        StringBuilder command = new StringBuilder("exec journalctl --no-pager -o json "
+                + "--output-fields=MESSAGE,SYSLOG_IDENTIFIER,_SYSTEMD_UNIT,_PID");
+        if (source.startsWith(JOURNAL + ":")) {
+            command.append(" -u ").append(commandSanitizer.escapeShellArgument(source.substring(JOURNAL.length() + 1)));
+        }
+        if (afterCursor != null) {
+            command.append(" --after-cursor=").append(commandSanitizer.escapeShellArgument(afterCursor));
+        } else {
+            command.append(" -n ").append(JOURNAL_INITIAL_ENTRIES);
+        }
+
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        String lastCursor = null;
+        int entries = 0;
+        boolean more = false;
+        try (RemoteCommandStream stream = sshService.openCommandStream(serverName, command.toString())
+                .withDeadline(followTimeoutSeconds * 1000L)) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(stream.getStdout(), StandardCharsets.UTF_8));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    JsonNode entry = objectMapper.readTree(line);
+                    byte[] formatted = (formatJournalEntry(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+                    if (content.size() + formatted.length > cap) {
+                        if (entries > 0) {
+                            more = true;
+                            break;
+                        }
+                        // A single entry larger than the cap is cut rather than never returned
+                        content.write(formatted, 0, Utf8.completeLength(formatted, cap));
+                    } else {
+                        content.write(formatted);
+                    }
+                    lastCursor = entry.path("__CURSOR").asText(null);
+                    entries++;
+                }
+            } catch (IOException e) {
+                // An entry cut off by the deadline is dropped; the ones before it are kept
+                if (!stream.isTimedOut()) {
+                    throw e;
+                }
+            }
+            if (stream.isTimedOut()) {
+                if (entries == 0) {
+                    throw new CommandExecutionException("journalctl timed out after " + followTimeoutSeconds + " s",
+                            "journalctl", serverName, -1);
+                }
+                more = true;
+            } else if (!more && entries == 0 && stream.waitFor(30_000) != 0) {
+                return null;
+            }
+        } catch (IOException e) {
+            throw new CommandExecutionException("Failed to read journal: " + e.getMessage(), "journalctl", serverName, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CommandExecutionException("Interrupted while reading journal", "journalctl", serverName, -1);
+        }
+        return new JournalRead(content, entries, more, lastCursor);
+    }
+
+    /**
+     * The latest entries of one log source on many servers, merged into a
+     * single time-ordered view ({@link LogMerger}). Every server streams its
+     * log newest first, with {@code pattern} applied remotely by grep, and the
+     * merge stops reading once {@code maxBytes} of the newest entries are
+     * collected. A server that fails or stays silent past the host timeout is
+     * reported and left out.
+     *
+     * @param lines   most recent lines (or matching lines) to read per server
+     * @param pattern extended regular expression, as for {@code grep -E}
+     */
+    public FleetLogTail fleetTail(String tags, String source, int lines, String pattern,
+                                  String timestampFormat, Integer maxBytes) {
+        List<String> servers = sshProperties.selectServers(tags);
+        if (servers.isEmpty()) {
+            throw new ValidationException("tags", tags, "No configured servers match the selector");
+        }
+        String trimmed = validateSource(source);
+        if (lines < 1 || lines > MAX_TAIL_LINES) {
+            throw new ValidationException("lines", lines, "lines must be between 1 and " + MAX_TAIL_LINES);
+        }
+        int budget = maxBytes != null ? maxBytes : tailDefaultMaxBytes;
+        if (budget < 1 || budget > MAX_BYTES_LIMIT) {
+            throw new ValidationException("maxBytes", maxBytes, "maxBytes must be between 1 and " + MAX_BYTES_LIMIT);
+        }
+        try {
+            LogTimestampParser.of(timestampFormat);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("timestampFormat", timestampFormat, "Invalid timestamp format: " + e.getMessage());
+        }
+
+        long startTime = System.currentTimeMillis();
+        String command = tailCommand(trimmed, lines, pattern);
+        Map<String, StreamLines> streams = new LinkedHashMap<>();
+        try {
+            List<LogMerger.ReverseRecordReader> readers = new ArrayList<>();
+            for (String server : servers) {
+                StreamLines stream = new StreamLines(server, tailHostTimeoutSeconds * 1000L, budget);
+                streams.put(server, stream);
+                readers.add(new LogMerger.ReverseRecordReader(server, stream, LogTimestampParser.of(timestampFormat)));
+            }
+            fanOutExecutor.startAll(servers, tailMaxConcurrency, null, server -> {
+                streams.get(server).pump(command);
+                return null;
+            }).whenComplete((outcomes, e) -> streams.values().forEach(StreamLines::abandon));
+            LogMerger.Result merged = LogMerger.mergeNewestFirst(readers, budget);
+
+            List<FleetLogLine> merge = new ArrayList<>(merged.records().size());
+            Map<String, Integer> perServer = new LinkedHashMap<>();
+            servers.forEach(server -> perServer.put(server, 0));
+            for (LogMerger.Record record : merged.records()) {
+                merge.add(FleetLogLine.builder()
+                        .server(record.server())
+                        .timestamp(record.timestamp() != null ? record.timestamp().toString() : null)
+                        .text(record.text())
+                        .build());
+                perServer.merge(record.server(), 1, Integer::sum);
+            }
+            log.info("Merged {} log entries of {} from {} servers in {} ms ({} failed)", merge.size(), trimmed,
+                    servers.size(), System.currentTimeMillis() - startTime, merged.failed().size());
+
+            return FleetLogTail.builder()
+                    .source(trimmed)
+                    .servers(servers)
+                    .lines(merge)
+                    .linesPerServer(perServer)
+                    .bytes(merged.bytes())
+                    .truncated(merged.truncated())
+                    .errors(merged.failed())
+                    .elapsedMs(System.currentTimeMillis() - startTime)
+                    .build();
+        } finally {
+            // Stops remote commands that still had output when the budget ran out
+            streams.values().forEach(StreamLines::close);
+        }
+    }
+
+    private String tailCommand(String source, int lines, String pattern) {
+        String filter = pattern == null || pattern.isBlank() ? null
+                : "grep -a -E -m " + lines + " -e " + commandSanitizer.escapeShellArgument(pattern);
+        if (isJournal(source)) {
+            StringBuilder command = new StringBuilder("journalctl --no-pager -q -r -o short-iso-precise");
+            if (source.startsWith(JOURNAL + ":")) {
+                command.append(" -u ").append(commandSanitizer.escapeShellArgument(source.substring(JOURNAL.length() + 1)));
+            }
+            return filter == null ? command.append(" -n ").append(lines).toString() : command + " | " + filter;
+        }
+        String path = commandSanitizer.escapeShellArgument(source);
+        // tac reads from the end, and grep -m / head stop it after enough lines, however large the file
+        return "export LC_ALL=C; [ -r " + path + " ] || { echo 'Log file not found or not readable' >&2; exit 3; }; "
+                + "tac -- " + path + " | " + (filter == null ? "head -n " + lines : filter);
+    }
+
+    private String validateSource(String source) {
+        if (source == null || source.isBlank()) {
+            throw new ValidationException("source", source, "Source must be a file path, 'journal' or 'journal:<unit>'");
+        }
+        String trimmed = source.trim();
+        boolean journal = isJournal(trimmed);
+        if (!journal && !trimmed.startsWith("/")) {
+            throw new ValidationException("source", source, "Source must be a file path, 'journal' or 'journal:<unit>'");
+        }
+        if (!journal && !pathValidator.isValidPath(trimmed)) {
+            throw new ValidationException("source", source, "Access to this path is restricted");
+        }
+        return trimmed;
+    }
+
+    private static boolean isJournal(String source) {
+        return source.equals(JOURNAL) || source.startsWith(JOURNAL + ":");
+    }
+
+    private static String formatJournalEntry(JsonNode entry) {
+        StringBuilder line = new StringBuilder();
+        long micros = entry.path("__REALTIME_TIMESTAMP").asLong(0);
+        line.append(Instant.EPOCH.plus(micros, ChronoUnit.MICROS).truncatedTo(ChronoUnit.MILLIS));
+        String identifier = entry.path("SYSLOG_IDENTIFIER").asText(entry.path("_SYSTEMD_UNIT").asText("-"));
+        line.append(' ').append(identifier);
+        if (entry.hasNonNull("_PID")) {
+            line.append('[').append(entry.get("_PID").asText()).append(']');
+        }
+        line.append(": ");
+        JsonNode message = entry.path("MESSAGE");
+        if (message.isArray()) {
+            // journald sends non-UTF-8 messages as byte arrays
+            byte[] bytes = new byte[message.size()];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) message.get(i).asInt();
+            }
+            line.append(new String(bytes, StandardCharsets.UTF_8));
+        } else {
+            line.append(message.asText(""));
+        }
+        return line.toString();
+    }
+
+    private static int countLines(String content) {
+        int lines = 0;
+        for (int i = 0; i < content.length(); i++) {
+            if (content.charAt(i) == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private record JournalRead(ByteArrayOutputStream content, int entries, boolean more, String lastCursor) {
+    }
+
+    /**
+     * Lines of one server's command, pumped by a fan-out task into a queue so
+     * all servers stream at once while the merge consumes them. The merge can
+     * take at most the byte budget from any one server, so a pump stops there
+     * and never waits on the merge; that keeps the fan-out's concurrency limit
+     * from stalling servers still waiting for a slot.
+     */
+    private final class StreamLines implements LogMerger.LineSource {
+
+        // End of stream; readLine never yields a null line
+        private static final Line END = new Line(null);
+
+        private final String server;
+        private final long timeoutMs;
+        private final long byteBudget;
+        private final BlockingQueue<Line> queue = new LinkedBlockingQueue<>();
+        private volatile RemoteCommandStream stream;
+        private volatile boolean started;
+        private volatile boolean closed;
+        private volatile String error;
+
+        private StreamLines(String server, long timeoutMs, long byteBudget) {
+            this.server = server;
+            this.timeoutMs = timeoutMs;
+            this.byteBudget = byteBudget;
+        }
+
+        private record Line(String text) {
+        }
+
+        private void pump(String command) {
+            started = true;
+            if (closed) {
+                queue.add(END);
+                return;
+            }
+            try (RemoteCommandStream opened = sshService.openCommandStream(server, command)) {
+                stream = opened;
+                BufferedReader reader = new BufferedReader(new InputStreamReader(opened.getStdout(), StandardCharsets.UTF_8));
+                boolean any = false;
+                long bytes = 0;
+                String line;
+                while (!closed && bytes <= byteBudget && (line = reader.readLine()) != null) {
+                    any = true;
+                    bytes += line.length() + 1;
+                    queue.add(new Line(line));
+                }
+                if (!closed && !any) {
+                    int exitCode = opened.waitFor(5_000);
+                    String stderr = opened.getStderr().trim();
+                    if (exitCode == 3 || !stderr.isEmpty()) {
+                        error = stderr.isEmpty() ? "Log source not readable" : stderr;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                if (!closed) {
+                    error = e.getMessage();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                queue.add(END);
+            }
+        }
+
+        // After the fan-out: a server whose task never ran must not leave the merge waiting
+        private void abandon() {
+            if (!started) {
+                error = "Not started";
+                started = true;
+                queue.add(END);
+            }
+        }
+
+        @Override
+        public String nextLine() throws IOException {
+            Line line;
+            try {
+                line = take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted");
+            }
+            if (line == null) {
+                throw new IOException("No output within " + timeoutMs / 1000 + "s");
+            }
+            if (line == END) {
+                if (error != null) {
+                    throw new IOException(error);
+                }
+                return null;
+            }
+            return line.text();
+        }
+
+        // The timeout only runs once the pump has a slot in the fan-out
+        private Line take() throws InterruptedException {
+            while (!started) {
+                Line line = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (line != null) {
+                    return line;
+                }
+            }
+            return queue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        }
+
+        private void close() {
+            closed = true;
+            RemoteCommandStream current = stream;
+            if (current != null) {
+                current.close();
+            }
+        }
+    }
+}
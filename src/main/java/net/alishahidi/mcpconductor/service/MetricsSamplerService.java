@@ -0,0 +1,485 @@
+package net.alishahidi.mcpconductor.service;
+
+import net.alishahidi.mcpconductor.config.SSHProperties;
+import net.alishahidi.mcpconductor.exception.ValidationException;
+import net.alishahidi.mcpconductor.model.CommandResult;
+import net.alishahidi.mcpconductor.model.MetricHistory;
+import net.alishahidi.mcpconductor.util.DoubleRingBuffer;
+import net.alishahidi.mcpconductor.util.HostMetricsProbe;
+import net.alishahidi.mcpconductor.util.MetricSeries;
+import net.alishahidi.mcpconductor.util.MetricsAgent;
+import net.alishahidi.mcpconductor.util.RemoteCommandStream;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Opt-in background sampler of host CPU, memory, load, disk and network.
+ *
+ * Every interval each sampled server runs {@link HostMetricsProbe#COMMAND} on
+ * its pooled SSH session and the derived metrics are appended to per-metric
+ * {@link MetricSeries}, so history queries are answered from memory without
+ * contacting the host. A server whose previous sample is still running skips
+ * the tick instead of piling up channels; a failed sample is recorded as a gap.
+ *
+ * In agent mode a {@link MetricsAgent} is started on the host instead and
+ * pushes a frame every interval over one long-lived channel. The tick then only
+ * supervises: it restarts an agent whose stream ended and drops one that has
+ * gone quiet for {@value #AGENT_STALL_INTERVALS} intervals.
+ */
+@Service
+@Slf4j
+public class MetricsSamplerService {
+
+    private static final int AGENT_STALL_INTERVALS = 3;
+    private static final long AGENT_INSTALL_TIMEOUT_MS = 30_000;
+
+    private final SSHService sshService;
+    private final SSHProperties sshProperties;
+    private final ExecutorService executor;
+
+    private final Map<String, HostSeries> hosts = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    @Value("${metrics.sampler.enabled:false}")
+    private boolean enabled;
+
+    @Value("${metrics.sampler.tags:all}")
+    private String startupTags;
+
+    @Value("${metrics.sampler.mode:exec}")
+    private String defaultMode;
+
+    @Value("${metrics.sampler.interval-seconds:10}")
+    private int intervalSeconds;
+
+    @Value("${metrics.sampler.tiers:1:360,6:1440,60:1008}")
+    private String tierSpec;
+
+    private int[] tierFactors;
+    private int[] tierCapacities;
+
+    public MetricsSamplerService(SSHService sshService,
+                                 SSHProperties sshProperties,
+                                 @Qualifier("fanOutExecutorService") ExecutorService executor) {
+        this.sshService = sshService;
+        this.sshProperties = sshProperties;
+        this.executor = executor;
+    }
+
+    @PostConstruct
+    void init() {
+        parseTiers(tierSpec);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::tick, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        if (enabled) {
+            List<String> servers = start(startupTags, defaultMode);
+            log.info("Metrics sampler started for {} every {}s", servers, intervalSeconds);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        hosts.values().forEach(HostSeries::closeAgent);
+    }
+
+    /**
+     * Starts sampling the servers matching the tag selector. Already sampled
+     * servers keep their history and mode.
+     *
+     * @param mode {@code exec} (one command per sample) or {@code agent}; blank for the configured default
+     * @return servers added by this call
+     */
+    public List<String> start(String tags, String mode) {
+        String resolved = mode == null || mode.isBlank() ? defaultMode : mode.trim().toLowerCase();
+        if (!"exec".equals(resolved) && !"agent".equals(resolved)) {
+            throw new ValidationException("mode", mode, "Mode must be 'exec' or 'agent'");
+        }
+        boolean agent = "agent".equals(resolved);
+
+        List<String> added = new ArrayList<>();
+        for (String server : sshProperties.selectServers(tags)) {
+            if (!hosts.containsKey(server) && hosts.putIfAbsent(server, new HostSeries(agent)) == null) {
+                added.add(server);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Stops sampling and drops the history of the servers matching the selector.
+     *
+     * @return servers removed by this call
+     */
+    public List<String> stop(String tags) {
+        List<String> removed = new ArrayList<>();
+        for (String server : sshProperties.selectServers(tags)) {
+            HostSeries host = hosts.remove(server);
+            if (host != null) {
+                host.closeAgent();
+                removed.add(server);
+            }
+        }
+        return removed;
+    }
+
+    public List<Map<String, Object>> status() {
+        List<Map<String, Object>> status = new ArrayList<>();
+        new TreeMap<>(hosts).forEach((server, host) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("server", server);
+            entry.put("mode", host.agentMode ? "agent" : "exec");
+            entry.put("intervalSeconds", intervalSeconds);
+            entry.put("samples", host.samples);
+            entry.put("failures", host.failures);
+            entry.put("lastSampleAt", host.lastSampleAt > 0 ? Instant.ofEpochMilli(host.lastSampleAt).toString() : null);
+            entry.put("lastError", host.lastError);
+            status.add(entry);
+        });
+        return status;
+    }
+
+    /**
+     * Summaries of recorded metrics over the last {@code windowSeconds}.
+     *
+     * @param metrics   comma-separated metric names; blank for all
+     * @param maxPoints also return up to this many points per metric; {@code <= 0} for none
+     */
+    public List<MetricHistory> history(String serverName, String metrics, int windowSeconds, int maxPoints) {
+        HostSeries host = hosts.get(serverName);
+        if (host == null) {
+            throw new ValidationException("serverName", serverName,
+                    "Server is not being sampled; start sampling it first");
+        }
+        if (windowSeconds <= 0) {
+            throw new ValidationException("windowSeconds", windowSeconds, "Window must be positive");
+        }
+
+        List<String> names = metrics == null || metrics.isBlank()
+                ? HostMetricsProbe.METRICS
+                : Arrays.stream(metrics.split(",")).map(String::trim).filter(m -> !m.isEmpty()).toList();
+        for (String name : names) {
+            if (!HostMetricsProbe.METRICS.contains(name)) {
+                throw new ValidationException("metrics", name, "Unknown metric; expected one of " + HostMetricsProbe.METRICS);
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        long from = now - windowSeconds * 1000L;
+        List<MetricHistory> histories = new ArrayList<>(names.size());
+        for (String name : names) {
+            MetricSeries series = host.series.get(name);
+            histories.add(summarize(serverName, name, series.read(from, now), maxPoints));
+        }
+        return histories;
+    }
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            hosts.forEach((server, host) -> {
+                if (!host.inFlight.compareAndSet(false, true)) {
+                    if (host.agentMode && now - host.lastSampleAt > AGENT_STALL_INTERVALS * intervalSeconds * 1000L) {
+                        log.warn("Metrics agent on {} stalled; restarting", server);
+                        host.closeAgent();
+                    } else if (!host.agentMode) {
+                        log.debug("Previous metrics sample of {} still running; skipping", server);
+                    }
+                    return;
+                }
+                executor.execute(() -> {
+                    try {
+                        if (host.agentMode) {
+                            runAgent(server, host);
+                        } else {
+                            sample(server, host);
+                        }
+                    } finally {
+                        host.inFlight.set(false);
+                    }
+                });
+            });
+        } catch (RuntimeException e) {
+            // An exception would cancel the schedule for good
+            log.warn("Metrics sampler tick failed: {}", e.getMessage());
+        }
+    }
+
+    private void sample(String server, HostSeries host) {
+        long timestamp = System.currentTimeMillis();
+        try {
+            CommandResult result = sshService.executeCommand(server, HostMetricsProbe.COMMAND, false);
+            Map<String, Double> raw = HostMetricsProbe.parse(result.getOutput());
+            if (raw.isEmpty()) {
+                throw new IllegalStateException(result.getError() != null && !result.getError().isBlank()
+                        ? result.getError().trim() : "Empty sample");
+            }
+            record(host, timestamp, raw, timestamp - host.previousAt);
+        } catch (Exception e) {
+            recordFailure(server, host, timestamp, e.getMessage());
+        }
+    }
+
+    /**
+     * Runs the agent until its stream ends, recording every frame. Returns when
+     * the agent exits, the stream is closed by {@link HostSeries#closeAgent()},
+     * or the host stops being sampled. A host without a copy of the agent whose
+     * checksum matches gets it uploaded once, then the start is retried.
+     */
+    private void runAgent(String server, HostSeries host) {
+        host.lastSampleAt = System.currentTimeMillis();
+        try {
+            for (int attempt = 0; attempt < 2; attempt++) {
+                try (RemoteCommandStream stream = sshService.openCommandStream(server, MetricsAgent.startCommand(intervalSeconds))) {
+                    host.agent = stream;
+                    if (hosts.get(server) != host) {
+                        return;
+                    }
+
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(stream.getStdout(), StandardCharsets.UTF_8));
+                    String line = reader.readLine();
+                    if (MetricsAgent.INSTALL_MARKER.equals(line)) {
+                        if (attempt > 0) {
+                            throw new IllegalStateException("Metrics agent checksum does not match after upload");
+                        }
+                        installAgent(server);
+                        continue;
+                    }
+
+                    log.info("Metrics agent running on {}", server);
+                    MetricsAgent.FrameParser parser = new MetricsAgent.FrameParser();
+                    for (; line != null; line = reader.readLine()) {
+                        MetricsAgent.Frame frame = parser.feed(line);
+                        if (frame != null) {
+                            long timestamp = System.currentTimeMillis();
+                            long elapsed = frame.elapsedMs() > 0 ? frame.elapsedMs() : timestamp - host.previousAt;
+                            record(host, timestamp, HostMetricsProbe.parse(frame.output()), elapsed);
+                        }
+                    }
+                    if (hosts.get(server) == host) {
+                        String stderr = stream.getStderr().trim();
+                        recordFailure(server, host, System.currentTimeMillis(),
+                                stderr.isEmpty() ? "Agent exited" : "Agent exited: " + stderr);
+                    }
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            recordFailure(server, host, System.currentTimeMillis(), e.getMessage());
+        } finally {
+            host.agent = null;
+        }
+    }
+
+    private void installAgent(String server) throws IOException, InterruptedException {
+        log.info("Installing metrics agent {} on {}", MetricsAgent.SHA256.substring(0, 12), server);
+        try (RemoteCommandStream install = sshService.openCommandStream(server, MetricsAgent.installCommand())) {
+            try (OutputStream stdin = install.getStdin()) {
+                stdin.write(MetricsAgent.SCRIPT.getBytes(StandardCharsets.UTF_8));
+            }
+            int exit = install.waitFor(AGENT_INSTALL_TIMEOUT_MS);
+            if (exit != 0) {
+                throw new IllegalStateException("Agent install failed (exit " + exit + "): " + install.getStderr().trim());
+            }
+        }
+    }
+
+    private void record(HostSeries host, long timestamp, Map<String, Double> raw, long elapsedMs) {
+        Map<String, Double> metrics = HostMetricsProbe.derive(host.previousRaw, raw, elapsedMs);
+        host.previousRaw = raw;
+        host.previousAt = timestamp;
+        host.lastSampleAt = timestamp;
+        host.lastError = null;
+        host.samples++;
+        for (String name : HostMetricsProbe.METRICS) {
+            host.series.get(name).add(timestamp, metrics.getOrDefault(name, Double.NaN));
+        }
+    }
+
+    private void recordFailure(String server, HostSeries host, long timestamp, String error) {
+        host.failures++;
+        host.lastError = error;
+        host.lastSampleAt = timestamp;
+        log.debug("Metrics sample of {} failed: {}", server, error);
+        for (String name : HostMetricsProbe.METRICS) {
+            host.series.get(name).add(timestamp, Double.NaN);
+        }
+    }
+
+    private static MetricHistory summarize(String server, String metric, MetricSeries.Window window, int maxPoints) {
+        long[] times = window.times();
+        double[] avg = window.avg();
+
+        int n = 0;
+        double[] finite = new double[avg.length];
+        Double first = null;
+        Double last = null;
+        double max = Double.NaN;
+        for (int i = 0; i < avg.length; i++) {
+            if (Double.isNaN(avg[i])) {
+                continue;
+            }
+            finite[n++] = avg[i];
+            first = first == null ? avg[i] : first;
+            last = avg[i];
+            double peak = window.max()[i];
+            max = Double.isNaN(max) ? peak : Math.max(max, peak);
+        }
+
+        MetricHistory.MetricHistoryBuilder builder = MetricHistory.builder()
+                .server(server)
+                .metric(metric)
+                .resolutionSeconds(window.resolutionMs() / 1000)
+                .count(n);
+        if (times.length > 0) {
+            builder.from(Instant.ofEpochMilli(times[0]).toString())
+                    .to(Instant.ofEpochMilli(times[times.length - 1]).toString());
+        }
+        if (n > 0) {
+            double[] sorted = Arrays.copyOf(finite, n);
+            Arrays.sort(sorted);
+            double sum = 0;
+            for (double v : sorted) {
+                sum += v;
+            }
+            builder.min(sorted[0])
+                    .avg(round(sum / n))
+                    .p50(DoubleRingBuffer.percentile(sorted, 50))
+                    .p90(DoubleRingBuffer.percentile(sorted, 90))
+                    .p99(DoubleRingBuffer.percentile(sorted, 99))
+                    .max(max)
+                    .first(first)
+                    .last(last)
+                    .ratePerMinute(slopePerMinute(times, avg));
+        }
+        if (maxPoints > 0) {
+            addPoints(builder, times, avg, maxPoints);
+        }
+        return builder.build();
+    }
+
+    // Least-squares slope of value over time, ignoring gaps
+    private static Double slopePerMinute(long[] times, double[] values) {
+        int n = 0;
+        double meanT = 0;
+        double meanV = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (!Double.isNaN(values[i])) {
+                n++;
+                meanT += (times[i] - times[0]) / 60000.0;
+                meanV += values[i];
+            }
+        }
+        if (n < 2) {
+            return null;
+        }
+        meanT /= n;
+        meanV /= n;
+        double cov = 0;
+        double var = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (!Double.isNaN(values[i])) {
+                double dt = (times[i] - times[0]) / 60000.0 - meanT;
+                cov += dt * (values[i] - meanV);
+                var += dt * dt;
+            }
+        }
+        return var > 0 ? round(cov / var) : null;
+    }
+
+    // Averages consecutive points into at most maxPoints buckets
+    private static void addPoints(MetricHistory.MetricHistoryBuilder builder, long[] times, double[] values, int maxPoints) {
+        int step = (int) Math.ceil(times.length / (double) maxPoints);
+        step = Math.max(step, 1);
+        List<Long> outTimes = new ArrayList<>();
+        List<Double> outValues = new ArrayList<>();
+        for (int start = 0; start < times.length; start += step) {
+            int end = Math.min(start + step, times.length);
+            double sum = 0;
+            int count = 0;
+            for (int i = start; i < end; i++) {
+                if (!Double.isNaN(values[i])) {
+                    sum += values[i];
+                    count++;
+                }
+            }
+            outTimes.add(times[start]);
+            outValues.add(count > 0 ? round(sum / count) : null);
+        }
+        builder.timestamps(outTimes).values(outValues);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    private void parseTiers(String spec) {
+        String[] parts = spec.split(",");
+        tierFactors = new int[parts.length];
+        tierCapacities = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            String[] tier = parts[i].trim().split(":");
+            if (tier.length != 2) {
+                throw new IllegalArgumentException("metrics.sampler.tiers must be factor:capacity pairs, got: " + spec);
+            }
+            tierFactors[i] = Integer.parseInt(tier[0].trim());
+            tierCapacities[i] = Integer.parseInt(tier[1].trim());
+        }
+    }
+
+    private final class HostSeries {
+        private final Map<String, MetricSeries> series = new LinkedHashMap<>();
+        private final AtomicBoolean inFlight = new AtomicBoolean(false);
+        private final boolean agentMode;
+        private volatile RemoteCommandStream agent;
+        private volatile Map<String, Double> previousRaw;
+        private volatile long previousAt;
+        private volatile long lastSampleAt;
+        private volatile String lastError;
+        private volatile long samples;
+        private volatile long failures;
+
+        private HostSeries(boolean agentMode) {
+            this.agentMode = agentMode;
+            for (String name : HostMetricsProbe.METRICS) {
+                series.put(name, new MetricSeries(intervalSeconds * 1000L, tierFactors, tierCapacities));
+            }
+        }
+
+        private void closeAgent() {
+            RemoteCommandStream running = agent;
+            if (running != null) {
+                running.close();
+            }
+        }
+    }
+}
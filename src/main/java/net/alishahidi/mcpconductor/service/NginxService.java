@@ -8,6 +8,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -24,8 +25,8 @@ public class NginxService {
         String configPath = "/etc/nginx/sites-available/" + site.getServerName();
         
         try {
-            // Write configuration file
-            fileService.writeFile(serverName, configPath, config);
+            // Staged and renamed into place, so nginx never reads a half-written file
+            fileService.writeFiles(serverName, Map.of(configPath, config));
             log.info("Nginx site configuration created at: {}", configPath);
         } catch (Exception e) {
             log.error("Failed to create Nginx site configuration", e);
@@ -3,7 +3,9 @@ package net.alishahidi.mcpconductor.service;
 import net.alishahidi.mcpconductor.config.SSHProperties;
 import net.alishahidi.mcpconductor.exception.*;
 import net.alishahidi.mcpconductor.model.CommandResult;
+import net.alishahidi.mcpconductor.util.RemoteCommandStream;
 import net.alishahidi.mcpconductor.util.SSHConnectionPool;
+import net.alishahidi.mcpconductor.util.parser.OutputParser;
 import com.jcraft.jsch.*;
 import org.springframework.stereotype.Service;
 import org.springframework.retry.annotation.Backoff;
@@ -142,6 +144,104 @@ public class SSHService {
         }
     }
 
+    /**
+     * Starts a command on its own exec channel of the pooled session and returns
+     * immediately, leaving stdout/stdin to the caller. The caller must close the
+     * stream; the session itself stays in the pool.
+     */
+    public RemoteCommandStream openCommandStream(String serverName, String command) {
+        if (!sshProperties.getServers().containsKey(serverName) && !serverName.equals("localhost")) {
+            throw new ConfigurationException("Server configuration not found", serverName, "application.yml");
+        }
+
+        Session session;
+        try {
+            session = connectionPool.getConnection(serverName);
+        } catch (Exception e) {
+            throw new SSHConnectionException("Failed to establish SSH connection to " + serverName, e);
+        }
+
+        ChannelExec channel = null;
+        try {
+            channel = (ChannelExec) session.openChannel("exec");
+            channel.setCommand(command);
+            RemoteCommandStream stream = new RemoteCommandStream(channel);
+            channel.connect(sshProperties.getCommandTimeout());
+            return stream;
+        } catch (JSchException | IOException e) {
+            if (channel != null) {
+                channel.disconnect();
+            }
+            throw new CommandExecutionException("Failed to start command: " + e.getMessage(), command, serverName, -1);
+        }
+    }
+
+    /**
+     * Runs a parser's command and parses the captured stdout in place. Output
+     * is parsed even when the command exits non-zero (df with one unreadable
+     * mount, for example); only a failure with no output is an error. The
+     * command is cut off after the configured command timeout.
+     */
+    public <T> T executeParsed(String serverName, OutputParser<T> parser, String argument) {
+        String command = parser.command(argument);
+        int timeoutMs = sshProperties.getCommandTimeout();
+        try (RemoteCommandStream stream = openCommandStream(serverName, command).withDeadline(timeoutMs)) {
+            byte[] output = stream.readAllStdout();
+            int exitCode = stream.waitFor(timeoutMs);
+            if (stream.isTimedOut()) {
+                throw new CommandExecutionException("Command timed out after " + timeoutMs + " ms",
+                        command, serverName, -1);
+            }
+            if (exitCode != 0 && output.length == 0) {
+                throw new CommandExecutionException(
+                        "Command failed: " + stream.getStderr().trim(), command, serverName, exitCode);
+            }
+            log.debug("Parsing {} bytes of {} output from {}", output.length, parser.name(), serverName);
+            return parser.parse(output, output.length);
+        } catch (IOException e) {
+            throw new CommandExecutionException("Failed to read command output: " + e.getMessage(), command, serverName, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CommandExecutionException("Interrupted while waiting for command", command, serverName, -1);
+        }
+    }
+
+    /**
+     * Runs {@code action} on an SFTP channel of the pooled session. SFTP
+     * errors are passed through so the caller can map them for its path.
+     */
+    public <T> T withSftp(String serverName, SftpAction<T> action) throws SftpException {
+        if (!sshProperties.getServers().containsKey(serverName) && !serverName.equals("localhost")) {
+            throw new ConfigurationException("Server configuration not found", serverName, "application.yml");
+        }
+
+        Session session;
+        try {
+            session = connectionPool.getConnection(serverName);
+        } catch (Exception e) {
+            throw new SSHConnectionException("Failed to establish SSH connection to " + serverName, e);
+        }
+
+        ChannelSftp sftpChannel = null;
+        try {
+            sftpChannel = (ChannelSftp) session.openChannel("sftp");
+            sftpChannel.connect(sshProperties.getCommandTimeout());
+            return action.run(sftpChannel);
+        } catch (JSchException e) {
+            throw new SSHConnectionException("Failed to open SFTP channel to " + serverName, e);
+        } finally {
+            if (sftpChannel != null) {
+                sftpChannel.disconnect();
+            }
+            connectionPool.returnConnection(serverName, session);
+        }
+    }
+
+    @FunctionalInterface
+    public interface SftpAction<T> {
+        T run(ChannelSftp sftp) throws SftpException;
+    }
+
     public void uploadFile(String serverName, String localPath, String remotePath) {
         Session session = null;
         ChannelSftp sftpChannel = null;
@@ -1,12 +1,20 @@
 package net.alishahidi.mcpconductor.service;
 
+import net.alishahidi.mcpconductor.config.SSHProperties;
+import net.alishahidi.mcpconductor.exception.CommandExecutionException;
 import net.alishahidi.mcpconductor.model.CommandResult;
+import net.alishahidi.mcpconductor.model.ProcessTable;
+import net.alishahidi.mcpconductor.model.ServiceInfo;
 import net.alishahidi.mcpconductor.model.SystemInfo;
+import net.alishahidi.mcpconductor.util.ProcStatScanner;
+import net.alishahidi.mcpconductor.util.RemoteCommandStream;
+import net.alishahidi.mcpconductor.util.SystemProbe;
+import net.alishahidi.mcpconductor.util.parser.OutputParsers;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.Arrays;
+import java.io.IOException;
 import java.util.List;
 
 @Service
@@ -15,6 +23,7 @@ import java.util.List;
 public class SystemService {
     
     private final SSHService sshService;
+    private final SSHProperties sshProperties;
     
     public void startService(String serverName, String serviceName) {
         CommandResult result = sshService.executeCommand(serverName, 
@@ -62,75 +71,19 @@ public class SystemService {
         }
     }
     
-    public List<String> listServices(String serverName) {
-        CommandResult result = sshService.executeCommand(serverName, 
-            "systemctl list-units --type=service --all", false);
-        if (!result.isSuccess()) {
-            throw new RuntimeException("Failed to list services: " + result.getError());
-        }
-        return Arrays.asList(result.getOutput().split("\n"));
+    public List<ServiceInfo> listServices(String serverName) {
+        return sshService.executeParsed(serverName, OutputParsers.SYSTEMCTL_UNITS, null);
     }
     
     public SystemInfo getSystemInfo(String serverName) {
         try {
-            SystemInfo.SystemInfoBuilder builder = SystemInfo.builder();
-            
-            // Get hostname
-            CommandResult hostnameResult = sshService.executeCommand(serverName, "hostname", false);
-            if (hostnameResult.isSuccess()) {
-                builder.hostname(hostnameResult.getOutput().trim());
-            }
-            
-            // Get OS information
-            CommandResult osResult = sshService.executeCommand(serverName, "cat /etc/os-release", false);
-            if (osResult.isSuccess()) {
-                String osInfo = parseOSInfo(osResult.getOutput());
-                builder.operatingSystem(osInfo);
-            }
-            
-            // Get kernel version
-            CommandResult kernelResult = sshService.executeCommand(serverName, "uname -r", false);
-            if (kernelResult.isSuccess()) {
-                builder.kernelVersion(kernelResult.getOutput().trim());
-            }
-            
-            // Get uptime
-            CommandResult uptimeResult = sshService.executeCommand(serverName, "uptime -p", false);
-            if (uptimeResult.isSuccess()) {
-                builder.uptime(uptimeResult.getOutput().trim());
-            }
-            
-            // Get CPU info
-            CommandResult cpuResult = sshService.executeCommand(serverName, "nproc", false);
-            if (cpuResult.isSuccess()) {
-                try {
-                    builder.cpuCores(Integer.parseInt(cpuResult.getOutput().trim()));
-                } catch (NumberFormatException e) {
-                    log.warn("Failed to parse CPU cores: {}", cpuResult.getOutput());
-                }
-            }
-            
-            // Get memory info
-            CommandResult memResult = sshService.executeCommand(serverName, "free -h", false);
-            if (memResult.isSuccess()) {
-                String memInfo = parseMemoryInfo(memResult.getOutput());
-                builder.memoryInfo(memInfo);
-            }
-            
-            // Get disk usage
-            CommandResult diskResult = sshService.executeCommand(serverName, "df -h /", false);
-            if (diskResult.isSuccess()) {
-                String diskInfo = parseDiskInfo(diskResult.getOutput());
-                builder.diskUsage(diskInfo);
+            CommandResult result = sshService.executeCommand(serverName, SystemProbe.COMMAND, false);
+            if (!result.isSuccess() && (result.getOutput() == null || result.getOutput().isBlank())) {
+                throw new RuntimeException(result.getError());
             }
-            
-            // Get load average
-            CommandResult loadResult = sshService.executeCommand(serverName, "cat /proc/loadavg", false);
-            if (loadResult.isSuccess()) {
-                builder.loadAverage(loadResult.getOutput().trim());
-            }
-            
-            return builder.build();
+            log.debug("System probe on {} returned {} bytes in {} ms",
+                    serverName, result.getOutput().length(), result.getExecutionTimeMs());
+            return SystemProbe.parse(result.getOutput());
             
         } catch (Exception e) {
             log.error("Failed to get system info for server: {}", serverName, e);
@@ -138,39 +91,42 @@ public class SystemService {
         }
     }
     
-    private String parseOSInfo(String output) {
-        String[] lines = output.split("\n");
-        for (String line : lines) {
-            if (line.startsWith("PRETTY_NAME=")) {
-                return line.substring(12).replaceAll("\"", "");
-            }
-        }
-        return "Unknown";
-    }
-    
-    private String parseMemoryInfo(String output) {
-        String[] lines = output.split("\n");
-        for (String line : lines) {
-            if (line.trim().startsWith("Mem:")) {
-                String[] parts = line.trim().split("\\s+");
-                if (parts.length >= 4) {
-                    return String.format("Total: %s, Used: %s, Free: %s", 
-                        parts[1], parts[2], parts[3]);
+    /**
+     * Top processes by CPU or resident memory, streamed from /proc and scanned
+     * as it arrives.
+     *
+     * @param limit number of processes to return; {@code <= 0} for all
+     */
+    public ProcessTable getProcessTable(String serverName, ProcStatScanner.SortKey sortKey, int limit) {
+        int timeoutMs = sshProperties.getCommandTimeout();
+        try (RemoteCommandStream stream = sshService.openCommandStream(serverName, ProcStatScanner.COMMAND)
+                .withDeadline(timeoutMs)) {
+            ProcessTable table;
+            try {
+                table = ProcStatScanner.scan(stream.getStdout(), sortKey, limit);
+            } catch (IOException e) {
+                if (!stream.isTimedOut()) {
+                    throw e;
                 }
+                table = null;
             }
-        }
-        return "Unknown";
-    }
-    
-    private String parseDiskInfo(String output) {
-        String[] lines = output.split("\n");
-        if (lines.length >= 2) {
-            String[] parts = lines[1].trim().split("\\s+");
-            if (parts.length >= 5) {
-                return String.format("Size: %s, Used: %s, Available: %s, Use%%: %s", 
-                    parts[1], parts[2], parts[3], parts[4]);
+            if (stream.isTimedOut()) {
+                throw new CommandExecutionException("Reading the process table timed out after " + timeoutMs + " ms",
+                        ProcStatScanner.COMMAND, serverName, -1);
+            }
+            if (table.getTotalProcesses() == 0) {
+                throw new CommandExecutionException("No process data returned: " + stream.getStderr().trim(),
+                        ProcStatScanner.COMMAND, serverName, stream.waitFor(5_000));
             }
+            return table;
+        } catch (IOException e) {
+            log.error("Failed to read process table for server: {}", serverName, e);
+            throw new CommandExecutionException("Failed to read process table: " + e.getMessage(),
+                    ProcStatScanner.COMMAND, serverName, -1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CommandExecutionException("Interrupted while reading process table",
+                    ProcStatScanner.COMMAND, serverName, -1);
         }
-        return "Unknown";
     }
-}
\ No newline at end of file
+}
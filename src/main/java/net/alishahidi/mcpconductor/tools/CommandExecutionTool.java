@@ -2,11 +2,13 @@ package net.alishahidi.mcpconductor.tools;
 
 import net.alishahidi.mcpconductor.service.SSHService;
 import net.alishahidi.mcpconductor.security.CommandValidator;
+import net.alishahidi.mcpconductor.security.PathValidator;
 import net.alishahidi.mcpconductor.security.AuditLogger;
 import net.alishahidi.mcpconductor.security.RateLimiter;
 import net.alishahidi.mcpconductor.exception.*;
 import net.alishahidi.mcpconductor.model.CommandResult;
 import net.alishahidi.mcpconductor.util.ResponseFormatter;
+import net.alishahidi.mcpconductor.util.parser.OutputParsers;
 import org.springframework.ai.mcp.server.annotation.McpTool;
 import org.springframework.ai.mcp.server.annotation.McpToolParam;
 import org.springframework.stereotype.Component;
@@ -31,6 +33,7 @@ public class CommandExecutionTool {
 
     private final SSHService sshService;
     private final CommandValidator commandValidator;
+    private final PathValidator pathValidator;
     private final AuditLogger auditLogger;
     private final RateLimiter rateLimiter;
     private final ResponseFormatter responseFormatter;
@@ -125,6 +128,56 @@ public class CommandExecutionTool {
         }
     }
 
+    @McpTool(name = "execute_structured_command",
+            description = "Run a well-known read-only command on a remote server and return its output as typed JSON instead of raw text. Supported: 'df [path]', 'free', 'ps', 'systemctl list-units [pattern]', 'git branch <repository path>', 'ls <path>'. The command always runs with fixed options under LC_ALL=C, so results do not depend on the server's locale; options cannot be passed, only one path or pattern.")
+    public String executeStructuredCommand(
+            @McpToolParam(description = "The command, e.g. 'df', 'systemctl list-units nginx*', 'ls /var/log'") String command,
+            @McpToolParam(description = "The target server identifier") String serverName) {
+
+        log.info("Executing structured command: {} on server: {}", command, serverName);
+
+        try {
+            String clientId = getCurrentClientId();
+            if (!rateLimiter.tryConsume(clientId)) {
+                throw new RateLimitExceededException(
+                        clientId,
+                        rateLimiter.getAvailableTokens(clientId),
+                        60000
+                );
+            }
+
+            if (serverName == null || serverName.trim().isEmpty()) {
+                throw new ValidationException("serverName", serverName, "Server name cannot be empty");
+            }
+
+            OutputParsers.Invocation invocation = OutputParsers.resolve(command);
+            if (invocation.parser().takesPath() && invocation.argument() != null
+                    && !pathValidator.isValidPath(invocation.argument())) {
+                throw new ValidationException("command", command, "Access to this path is restricted");
+            }
+            auditLogger.logCommandExecution(serverName, invocation.parser().command(invocation.argument()), false);
+
+            Object parsed = sshService.executeParsed(serverName, invocation.parser(), invocation.argument());
+            return parsed instanceof List<?> items
+                    ? responseFormatter.formatList(items, invocation.parser().selector() + " output")
+                    : responseFormatter.formatSuccess(invocation.parser().selector() + " output", parsed);
+
+        } catch (RateLimitExceededException e) {
+            log.warn("Rate limit exceeded for client: {}", e.getClientId());
+            return responseFormatter.formatError(
+                    "Rate limit exceeded. Please wait before trying again.", e);
+
+        } catch (ValidationException e) {
+            log.warn("Validation failed: {}", e.getMessage());
+            return responseFormatter.formatError(e.getMessage(), e);
+
+        } catch (Exception e) {
+            log.error("Structured command failed: {} on {}", command, serverName, e);
+            return responseFormatter.formatError(
+                    "Command execution failed: " + e.getMessage(), e);
+        }
+    }
+
     @McpTool(name = "execute_script",
             description = "Execute a multi-line script with transaction support and rollback capability")
     public String executeScript(
@@ -1,7 +1,26 @@
 package net.alishahidi.mcpconductor.tools;
 
 import net.alishahidi.mcpconductor.service.DockerService;
+import net.alishahidi.mcpconductor.service.DockerImageTransferService;
+import net.alishahidi.mcpconductor.service.DockerStackService;
+import net.alishahidi.mcpconductor.service.DockerStatsService;
+import net.alishahidi.mcpconductor.model.BulkActionResult;
+import net.alishahidi.mcpconductor.model.ContainerLogs;
+import net.alishahidi.mcpconductor.model.ContainerStatsSummary;
 import net.alishahidi.mcpconductor.model.DockerContainer;
+import net.alishahidi.mcpconductor.model.ExecFanOutResult;
+import net.alishahidi.mcpconductor.model.ExecResult;
+import net.alishahidi.mcpconductor.model.ImagePullProgress;
+import net.alishahidi.mcpconductor.model.ImagePullResult;
+import net.alishahidi.mcpconductor.model.ImageTransferResult;
+import net.alishahidi.mcpconductor.model.StackDeployResult;
+import net.alishahidi.mcpconductor.model.StackServiceSpec;
+import net.alishahidi.mcpconductor.model.TaskOutcome;
+import net.alishahidi.mcpconductor.util.DockerClientRegistry;
+import net.alishahidi.mcpconductor.util.FanOutExecutor;
+import net.alishahidi.mcpconductor.util.McpNotifier;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
+import org.springframework.ai.mcp.server.annotation.McpProgressToken;
 import org.springframework.ai.mcp.server.annotation.McpTool;
 import org.springframework.ai.mcp.server.annotation.McpToolParam;
 import org.springframework.stereotype.Component;
@@ -10,6 +29,8 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 @Component
 @RequiredArgsConstructor
@@ -17,69 +38,199 @@ import java.util.Map;
 public class DockerManagementTool {
 
     private final DockerService dockerService;
+    private final DockerStatsService dockerStatsService;
+    private final DockerStackService dockerStackService;
+    private final DockerImageTransferService dockerImageTransferService;
+    private final DockerClientRegistry dockerClientRegistry;
+    private final FanOutExecutor fanOutExecutor;
 
     @McpTool(name = "docker_list_containers", description = "List Docker containers on the system. Use this to see running containers or all containers including stopped ones. Perfect for monitoring container status, getting container IDs, and managing containerized applications.")
-    public List<DockerContainer> listContainers(
+    public List<TaskOutcome<List<DockerContainer>>> listContainers(
+            @McpToolParam(description = "Docker host to target: a name from docker.hosts, a comma-separated list (e.g., 'web1,web2') or 'all'. Leave empty for 'local'.", required = false) String serverName,
             @McpToolParam(description = "Whether to show all containers including stopped ones (true) or only running containers (false). Use true to see the complete container inventory, false for active containers only.") boolean showAll) {
-        log.info("Listing Docker containers, showAll: {}", showAll);
-        return dockerService.listContainers(showAll);
+        log.info("Listing Docker containers on {}, showAll: {}", serverName, showAll);
+        return onServers(serverName, server -> dockerService.listContainers(server, showAll));
     }
 
-    @McpTool(name = "docker_pull_image", description = "Pull a Docker image from a registry (Docker Hub by default). Use this to download images before running containers. Essential for getting the latest versions or specific versions of applications.")
-    public String pullImage(
-            @McpToolParam(description = "The Docker image name to pull (e.g., 'nginx', 'ubuntu', 'node', 'postgres'). Can include registry URL like 'registry.example.com/myapp'.") String imageName,
-            @McpToolParam(description = "The image tag/version to pull (e.g., 'latest', '14-alpine', '1.21', 'stable'). Use 'latest' for the newest version or specific version tags for reproducible deployments.") String tag) {
-        log.info("Pulling Docker image: {}:{}", imageName, tag);
-        dockerService.pullImage(imageName, tag);
-        return "Image pulled successfully: " + imageName + ":" + tag;
+    @McpTool(name = "docker_pull_image", description = "Pull a Docker image from a registry (Docker Hub by default). Use this to download images before running containers. Concurrent pulls of the same image on the same host are merged into one, images pinned by digest or a fixed tag are skipped when already present, and layer download progress is streamed to the client.")
+    public List<TaskOutcome<ImagePullResult>> pullImage(
+            McpSyncServerExchange exchange,
+            @McpProgressToken String progressToken,
+            @McpToolParam(description = "Docker host to target: a name from docker.hosts, a comma-separated list (e.g., 'web1,web2') or 'all'. Leave empty for 'local'.", required = false) String serverName,
+            @McpToolParam(description = "The Docker image name to pull (e.g., 'nginx', 'ubuntu', 'node', 'postgres'). Can include registry URL like 'registry.example.com/myapp' or a digest like 'nginx@sha256:...'.") String imageName,
+            @McpToolParam(description = "The image tag/version to pull (e.g., 'latest', '14-alpine', '1.21', 'stable'). Use 'latest' for the newest version or specific version tags for reproducible deployments.") String tag,
+            @McpToolParam(description = "Pull even if the image is already present (true/false). Only needed for re-pushed fixed tags; 'latest' is always re-checked.", required = false) boolean force) {
+        log.info("Pulling Docker image: {}:{} on {}", imageName, tag, serverName);
+
+        // With several hosts the client sees one progress bar over the combined layer bytes
+        McpNotifier notifier = McpNotifier.of(exchange, progressToken, "docker.pull." + imageName);
+        Map<String, ImagePullProgress> progressByServer = new ConcurrentHashMap<>();
+
+        return onServers(serverName, server -> dockerService.pullImage(server, imageName, tag, force, progress -> {
+            progressByServer.put(server, progress);
+            reportPullProgress(notifier, progressByServer);
+        }));
+    }
+
+    @McpTool(name = "docker_transfer_image", description = "Copy an image from one Docker host to one or more others without a registry, for air-gapped networks. docker save on the source is streamed straight into docker load on every target in a single read, optionally gzip-compressed. Targets that already have the image are skipped, and layers a target already has are not sent.")
+    public ImageTransferResult transferImage(
+            @McpToolParam(description = "Docker host holding the image (a name from docker.hosts). Leave empty for 'local'.", required = false) String sourceServer,
+            @McpToolParam(description = "Image to copy, by name:tag or id (e.g., 'myapp:1.4.2').") String imageName,
+            @McpToolParam(description = "Hosts to copy to: a name from docker.hosts, a comma-separated list (e.g., 'edge1,edge2') or 'all'.") String targetServers,
+            @McpToolParam(description = "Gzip the stream sent to each target (true/false). Helps on slow links such as SSH tunnels at the cost of CPU.", required = false) boolean compress,
+            @McpToolParam(description = "Leave out layers a target already has (true/false). Recommended; ignored for targets using the containerd image store.", required = false) boolean skipExistingLayers) {
+        log.info("Transferring image {} from {} to {}", imageName, sourceServer, targetServers);
+        return dockerImageTransferService.transferImage(sourceServer, imageName, targetServers, compress, skipExistingLayers);
     }
 
     @McpTool(name = "docker_run_container", description = "Run a new Docker container from an image. This creates and starts a container with specified configuration including environment variables, port mappings, and volume mounts. Perfect for deploying applications, databases, and services.")
-    public String runContainer(
+    public List<TaskOutcome<String>> runContainer(
+            @McpToolParam(description = "Docker host to target: a name from docker.hosts, a comma-separated list (e.g., 'web1,web2') or 'all'. Leave empty for 'local'.", required = false) String serverName,
             @McpToolParam(description = "The Docker image name to run (e.g., 'nginx:latest', 'postgres:13', 'node:16-alpine'). Must be available locally or will be pulled automatically.") String imageName,
             @McpToolParam(description = "A unique name for the container (e.g., 'my-web-server', 'prod-database', 'api-service'). Used for container management and networking.") String containerName,
             @McpToolParam(description = "Environment variables as key-value pairs (e.g., {'NODE_ENV': 'production', 'DATABASE_URL': 'postgres://...'} ). Use for application configuration and secrets.") Map<String, String> environment,
             @McpToolParam(description = "Port mappings from host to container (e.g., {'8080': '80', '5432': '5432'}). Format: hostPort:containerPort. Essential for accessing services from outside the container.") Map<String, String> ports,
             @McpToolParam(description = "Volume mounts for persistent data (e.g., ['/host/path:/container/path', '/var/lib/docker/volumes/mydata:/data']). Use for databases, logs, and persistent application data.") List<String> volumes) {
-        log.info("Running container: {} from image: {}", containerName, imageName);
+        log.info("Running container: {} from image: {} on {}", containerName, imageName, serverName);
 
-        String containerId = dockerService.runContainer(
-                imageName, containerName, environment, ports, volumes
-        );
+        return onServers(serverName, server -> {
+            String containerId = dockerService.runContainer(
+                    server, imageName, containerName, environment, ports, volumes
+            );
+            return "Container started with ID: " + containerId;
+        });
+    }
 
-        return "Container started with ID: " + containerId;
+    @McpTool(name = "docker_deploy_stack", description = "Deploy or update a multi-container stack from a compose-like spec in one call. Images are pulled in parallel, services without dependencies start concurrently, and services with dependsOn start only after their dependencies are healthy. Re-applying an unchanged spec is a no-op that pulls nothing; only services whose spec or image changed are recreated, and a floating tag like latest is re-pulled only when one of its services changes.")
+    public List<TaskOutcome<StackDeployResult>> deployStack(
+            @McpToolParam(description = "Docker host to target: a name from docker.hosts, a comma-separated list (e.g., 'web1,web2') or 'all'. Leave empty for 'local'.", required = false) String serverName,
+            @McpToolParam(description = "Stack name (e.g., 'shop'). Containers are named '<stack>-<service>' and joined to the '<stack>_default' network, where services reach each other by service name.") String stackName,
+            @McpToolParam(description = "Services keyed by name. Each has: image (required), command (list), environment (map), ports (map of containerPort to hostPort, e.g. {'80': '8080'}), volumes (list of '/host:/container[:ro]'), labels (map), dependsOn (list of service names), restart (e.g. 'unless-stopped'), healthcheck ({command, intervalSeconds, timeoutSeconds, retries, startPeriodSeconds}).") Map<String, StackServiceSpec> services,
+            @McpToolParam(description = "Remove containers of this stack whose service is no longer in the spec (true/false).", required = false) boolean prune) {
+        log.info("Deploying stack {} with {} services on {}", stackName, services != null ? services.size() : 0, serverName);
+        return onServers(serverName, server -> dockerStackService.deployStack(server, stackName, services, prune));
     }
 
     @McpTool(name = "docker_stop_container", description = "Stop a running Docker container gracefully. Sends SIGTERM signal to allow clean shutdown. Use this for maintenance, updates, or when services are no longer needed.")
-    public String stopContainer(
+    public List<TaskOutcome<String>> stopContainer(
+            @McpToolParam(description = "Docker host to target: a name from docker.hosts, a comma-separated list (e.g., 'web1,web2') or 'all'. Leave empty for 'local'.", required = false) String serverName,
             @McpToolParam(description = "The container ID or name to stop (e.g., 'abc123def456', 'my-web-server', 'prod-database'). Can be full ID, short ID, or the container name.") String containerId) {
-        log.info("Stopping container: {}", containerId);
-        dockerService.stopContainer(containerId);
-        return "Container stopped: " + containerId;
+        log.info("Stopping container: {} on {}", containerId, serverName);
+        return onServers(serverName, server -> {
+            dockerService.stopContainer(server, containerId);
+            return "Container stopped: " + containerId;
+        });
     }
 
     @McpTool(name = "docker_remove_container", description = "Remove a Docker container permanently. This deletes the container and its filesystem (but not volumes). Use after stopping containers to free up disk space and clean up unused containers.")
-    public String removeContainer(
+    public List<TaskOutcome<String>> removeContainer(
+            @McpToolParam(description = "Docker host to target: a name from docker.hosts, a comma-separated list (e.g., 'web1,web2') or 'all'. Leave empty for 'local'.", required = false) String serverName,
             @McpToolParam(description = "The container ID or name to remove (e.g., 'abc123def456', 'my-web-server', 'old-container'). Can be full ID, short ID, or container name.") String containerId,
             @McpToolParam(description = "Whether to force removal of running containers (true/false). Use true to remove running containers (sends SIGKILL), false to only remove stopped containers safely.") boolean force) {
-        log.info("Removing container: {}, force: {}", containerId, force);
-        dockerService.removeContainer(containerId, force);
-        return "Container removed: " + containerId;
+        log.info("Removing container: {} on {}, force: {}", containerId, serverName, force);
+        return onServers(serverName, server -> {
+            dockerService.removeContainer(server, containerId, force);
+            return "Container removed: " + containerId;
+        });
+    }
+
+    @McpTool(name = "docker_bulk_action", description = "Start, stop, restart or remove many containers in one call, selected by ids and/or a label selector. Runs in parallel with a concurrency limit and returns a per-container result table (done, unchanged, not_found, failed). Use this instead of repeated single-container calls for rollouts, maintenance windows and cleanups.")
+    public List<TaskOutcome<BulkActionResult>> bulkContainerAction(
+            @McpToolParam(description = "Docker host to target: a name from docker.hosts, a comma-separated list (e.g., 'web1,web2') or 'all'. Leave empty for 'local'.", required = false) String serverName,
+            @McpToolParam(description = "The action to apply: 'start', 'stop', 'restart' or 'remove'.") String action,
+            @McpToolParam(description = "Container IDs or names to act on (e.g., ['api-1', 'api-2']). Can be combined with labelSelector.", required = false) List<String> containerIds,
+            @McpToolParam(description = "Label selector matching containers to act on, comma-separated 'key=value' or bare 'key' terms that must all match (e.g., 'app=web,env=staging'). Stopped containers are included.", required = false) String labelSelector,
+            @McpToolParam(description = "Maximum containers changed at the same time per host (e.g., 8). Use 0 for the server default.", required = false) int concurrency,
+            @McpToolParam(description = "Seconds to wait for a graceful stop before SIGKILL for stop/restart (e.g., 10). Use 0 for Docker's default.", required = false) int stopTimeoutSeconds,
+            @McpToolParam(description = "For remove: also remove running containers (true/false).", required = false) boolean force) {
+        log.info("Bulk {} on {}: ids={}, selector={}", action, serverName, containerIds, labelSelector);
+        return onServers(serverName, server -> dockerService.bulkContainerAction(
+                server, action, containerIds, labelSelector, concurrency, stopTimeoutSeconds, force));
     }
 
     @McpTool(name = "docker_get_logs", description = "Get logs from a Docker container for debugging and monitoring. Shows application output, error messages, and system logs. Essential for troubleshooting container issues and monitoring application behavior.")
-    public String getContainerLogs(
+    public List<TaskOutcome<String>> getContainerLogs(
+            @McpToolParam(description = "Docker host to target: a name from docker.hosts, a comma-separated list (e.g., 'web1,web2') or 'all'. Leave empty for 'local'.", required = false) String serverName,
             @McpToolParam(description = "The container ID or name to get logs from (e.g., 'abc123def456', 'my-web-server', 'api-service'). Can be full ID, short ID, or container name.") String containerId,
             @McpToolParam(description = "Number of recent log lines to retrieve (e.g., 100, 500, 1000). Use smaller numbers for quick checks, larger numbers for detailed analysis. Use 0 for all logs.") int tailLines) {
-        log.info("Getting logs for container: {}, tail: {}", containerId, tailLines);
-        return dockerService.getContainerLogs(containerId, tailLines);
+        log.info("Getting logs for container: {} on {}, tail: {}", containerId, serverName, tailLines);
+        return onServers(serverName, server -> dockerService.getContainerLogs(server, containerId, tailLines));
+    }
+
+    @McpTool(name = "docker_stream_logs", description = "Stream logs from a Docker container with time windows, stream selection, regex filtering and a hard size cap. Matching lines are forwarded to the client incrementally as they arrive. Use follow mode to watch live output for a bounded number of seconds.")
+    public List<TaskOutcome<ContainerLogs>> streamContainerLogs(
+            McpSyncServerExchange exchange,
+            @McpToolParam(description = "Docker host to target: a name from docker.hosts, a comma-separated list (e.g., 'web1,web2') or 'all'. Leave empty for 'local'.", required = false) String serverName,
+            @McpToolParam(description = "The container ID or name to read logs from (e.g., 'abc123def456', 'api-service').") String containerId,
+            @McpToolParam(description = "Number of most recent lines to start from (e.g., 200). Use 0 for the whole log.") int tailLines,
+            @McpToolParam(description = "Only return logs after this point: epoch seconds, ISO-8601 timestamp (e.g., '2024-05-01T10:00:00Z') or relative duration (e.g., '15m', '2h'). Leave empty for no lower bound.", required = false) String since,
+            @McpToolParam(description = "Only return logs before this point, same formats as 'since'. Leave empty for no upper bound.", required = false) String until,
+            @McpToolParam(description = "Follow new output for this many seconds after the existing logs (e.g., 30). Use 0 to return immediately.") int followSeconds,
+            @McpToolParam(description = "Which streams to include: 'stdout', 'stderr' or 'both' (default).", required = false) String streams,
+            @McpToolParam(description = "Optional regular expression; only lines containing a match are returned (e.g., 'ERROR|WARN', 'request_id=abc').", required = false) String filter,
+            @McpToolParam(description = "Maximum bytes of matching output to return (e.g., 65536). Streaming stops once reached. Use 0 for the server default.") long maxBytes) {
+        log.info("Streaming logs for container: {} on {}, tail: {}, follow: {}s",
+                containerId, serverName, tailLines, followSeconds);
+
+        return onServers(serverName, server -> {
+            McpNotifier notifier = McpNotifier.of(exchange, null, "docker.logs." + server + "." + containerId);
+            return dockerService.streamContainerLogs(server, containerId, tailLines, since, until, followSeconds,
+                    streams, filter, maxBytes, (stream, chunk) -> notifier.info("[" + stream + "] " + chunk));
+        });
+    }
+
+    @McpTool(name = "docker_stats", description = "Sample CPU, memory, network and block I/O usage of one or many containers over a time window and return aggregates (min, avg, p95, max, last) per metric instead of raw samples. Containers are sampled concurrently. Perfect for spotting resource hogs or confirming a container is idle or saturated.")
+    public List<TaskOutcome<List<ContainerStatsSummary>>> containerStats(
+            @McpToolParam(description = "Docker host to target: a name from docker.hosts, a comma-separated list (e.g., 'web1,web2') or 'all'. Leave empty for 'local'.", required = false) String serverName,
+            @McpToolParam(description = "Container IDs or names to sample (e.g., ['api-service', 'db']). Leave empty to sample all running containers.", required = false) List<String> containerIds,
+            @McpToolParam(description = "Sampling window in seconds (e.g., 10). Docker emits roughly one sample per second, so longer windows give steadier aggregates.") int windowSeconds) {
+        log.info("Sampling stats for containers: {} on {} over {}s", containerIds, serverName, windowSeconds);
+        return onServers(serverName, server -> dockerStatsService.sampleStats(server, containerIds, windowSeconds));
     }
 
-    @McpTool(name = "docker_exec_command", description = "Execute a command inside a running Docker container. Perfect for debugging, maintenance tasks, running scripts, checking file contents, or interactive troubleshooting within the container environment.")
-    public String execInContainer(
+    @McpTool(name = "docker_exec_command", description = "Execute a command inside a running Docker container. Returns stdout and stderr separately, the process exit code, and whether the output was truncated or the command hit its deadline (a command still running past its deadline or output cap is killed). Perfect for debugging, maintenance tasks, running scripts or checking file contents within the container environment.")
+    public List<TaskOutcome<ExecResult>> execInContainer(
+            @McpToolParam(description = "Docker host to target: a name from docker.hosts, a comma-separated list (e.g., 'web1,web2') or 'all'. Leave empty for 'local'.", required = false) String serverName,
             @McpToolParam(description = "The container ID or name to execute command in (e.g., 'abc123def456', 'my-web-server', 'database-container'). Must be a running container.") String containerId,
-            @McpToolParam(description = "The command to execute inside the container (e.g., 'ls -la', 'ps aux', 'cat /etc/nginx/nginx.conf', 'npm install'). Use Linux commands appropriate for the container's operating system.") String command) {
-        log.info("Executing command in container: {}", containerId);
-        return dockerService.execInContainer(containerId, command);
+            @McpToolParam(description = "The command to execute inside the container (e.g., 'ls -la', 'ps aux', 'cat /etc/nginx/nginx.conf', 'npm install'). Use Linux commands appropriate for the container's operating system.") String command,
+            @McpToolParam(description = "Deadline in seconds (e.g., 30). Use 0 for the server default.", required = false) int timeoutSeconds,
+            @McpToolParam(description = "Maximum output bytes to keep across stdout and stderr (e.g., 65536). Use 0 for the server default.", required = false) long maxBytes) {
+        log.info("Executing command in container: {} on {}", containerId, serverName);
+        return onServers(serverName, server -> dockerService.execInContainer(server, containerId, command, timeoutSeconds, maxBytes));
+    }
+
+    @McpTool(name = "docker_exec_many", description = "Run the same command in many running containers selected by ids and/or a label selector, in parallel with a per-container deadline; commands still running at the deadline or once their output cap is reached are killed. Returns exit codes and separated, size-capped stdout/stderr, with containers that produced identical results grouped together. Ideal for checking config, versions or health across replicas.")
+    public List<TaskOutcome<ExecFanOutResult>> execInContainers(
+            @McpToolParam(description = "Docker host to target: a name from docker.hosts, a comma-separated list (e.g., 'web1,web2') or 'all'. Leave empty for 'local'.", required = false) String serverName,
+            @McpToolParam(description = "Container IDs or names to run in (e.g., ['api-1', 'api-2']). Can be combined with labelSelector.", required = false) List<String> containerIds,
+            @McpToolParam(description = "Label selector for running containers, comma-separated 'key=value' or bare 'key' terms that must all match (e.g., 'app=api').", required = false) String labelSelector,
+            @McpToolParam(description = "The shell command to run in each container (e.g., 'cat /app/VERSION', 'nginx -t').") String command,
+            @McpToolParam(description = "Per-container deadline in seconds (e.g., 30). Use 0 for the server default.", required = false) int timeoutSeconds,
+            @McpToolParam(description = "Maximum output bytes kept per container (e.g., 16384). Use 0 for the server default.", required = false) long maxBytes,
+            @McpToolParam(description = "Maximum containers running the command at the same time per host (e.g., 8). Use 0 for the server default.", required = false) int concurrency) {
+        log.info("Executing command in containers on {}: ids={}, selector={}", serverName, containerIds, labelSelector);
+        return onServers(serverName, server -> dockerService.execInContainers(
+                server, containerIds, labelSelector, command, timeoutSeconds, maxBytes, concurrency));
+    }
+
+    private void reportPullProgress(McpNotifier notifier, Map<String, ImagePullProgress> progressByServer) {
+        long current = 0;
+        long total = 0;
+        int layers = 0;
+        int layersDone = 0;
+        for (ImagePullProgress progress : progressByServer.values()) {
+            current += progress.getCurrentBytes();
+            total += progress.getTotalBytes();
+            layers += progress.getLayers();
+            layersDone += progress.getLayersDone();
+        }
+        if (total > 0) {
+            notifier.progress(current, (double) total, layersDone + "/" + layers + " layers complete");
+        }
+    }
+
+    // Runs the operation on every selected host in parallel; one outcome per host
+    private <T> List<TaskOutcome<T>> onServers(String serverName, Function<String, T> operation) {
+        return fanOutExecutor.runAll(dockerClientRegistry.resolveServers(serverName), 0, null, operation);
     }
 }
\ No newline at end of file
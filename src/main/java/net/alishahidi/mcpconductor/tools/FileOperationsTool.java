@@ -1,8 +1,26 @@
 package net.alishahidi.mcpconductor.tools;
 
+import net.alishahidi.mcpconductor.service.ArchiveService;
+import net.alishahidi.mcpconductor.service.FileCompareService;
+import net.alishahidi.mcpconductor.service.FileIndexService;
+import net.alishahidi.mcpconductor.service.FileSearchService;
 import net.alishahidi.mcpconductor.service.FileService;
+import net.alishahidi.mcpconductor.service.FileWatchService;
 import net.alishahidi.mcpconductor.security.PathValidator;
+import net.alishahidi.mcpconductor.model.ArchiveTransfer;
+import net.alishahidi.mcpconductor.model.DiskUsageTree;
+import net.alishahidi.mcpconductor.model.FileCompareResult;
+import net.alishahidi.mcpconductor.model.FileEventBatch;
+import net.alishahidi.mcpconductor.model.FileFindResult;
 import net.alishahidi.mcpconductor.model.FileOperation;
+import net.alishahidi.mcpconductor.model.FileListing;
+import net.alishahidi.mcpconductor.model.FilePatchResult;
+import net.alishahidi.mcpconductor.model.FileSearchResult;
+import net.alishahidi.mcpconductor.model.FileWatchInfo;
+import net.alishahidi.mcpconductor.model.FileWriteBatchResult;
+import net.alishahidi.mcpconductor.util.FileIndex;
+import net.alishahidi.mcpconductor.util.McpNotifier;
+import io.modelcontextprotocol.server.McpSyncServerExchange;
 import org.springframework.ai.mcp.server.annotation.McpTool;
 import org.springframework.ai.mcp.server.annotation.McpToolParam;
 import org.springframework.stereotype.Component;
@@ -10,7 +28,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
-
+import java.util.Map;
 
 @Component
 @RequiredArgsConstructor
@@ -18,6 +36,11 @@ import java.util.List;
 public class FileOperationsTool {
 
     private final FileService fileService;
+    private final FileIndexService fileIndexService;
+    private final FileSearchService fileSearchService;
+    private final FileCompareService fileCompareService;
+    private final ArchiveService archiveService;
+    private final FileWatchService fileWatchService;
     private final PathValidator pathValidator;
 
     @McpTool(name = "file_read", description = "Read the contents of a file from a remote server. Perfect for viewing configuration files, logs, scripts, or any text-based files. Essential for debugging, configuration management, and file analysis.")
@@ -48,6 +71,23 @@ public class FileOperationsTool {
         return "File written successfully: " + filePath;
     }
 
+    @McpTool(name = "file_write_batch", description = "Write several files on a remote server as one all-or-nothing unit over a single SFTP session. All files are uploaded to staging files next to their targets, verified by SHA-256, and only then renamed into place; if any step fails, every file is left as it was. Existing files keep their permissions, and their owner when the SSH user is allowed to change ownership (root); otherwise replaced files become owned by the SSH user. Ideal for config bundles that must change together.")
+    public FileWriteBatchResult writeFiles(
+            @McpToolParam(description = "File contents keyed by absolute path (e.g., {'/etc/app/app.conf': 'port=8080\n', '/etc/app/limits.conf': '...'}). Parent directories must exist.") Map<String, String> files,
+            @McpToolParam(description = "The target server identifier where the files should be written (e.g., 'production', 'staging', 'localhost'). Must be a configured server connection.") String serverName) {
+        log.info("Writing {} files on server: {}", files == null ? 0 : files.size(), serverName);
+
+        if (files != null) {
+            for (String filePath : files.keySet()) {
+                if (!pathValidator.isValidPath(filePath)) {
+                    throw new IllegalArgumentException("Invalid file path: " + filePath);
+                }
+            }
+        }
+
+        return fileService.writeFiles(serverName, files);
+    }
+
     @McpTool(name = "file_append", description = "Append content to an existing file on a remote server without overwriting existing content. Perfect for adding entries to log files, configuration files, or accumulating data over time.")
     public String appendToFile(
             @McpToolParam(description = "The full path to the existing file to append to (e.g., '/var/log/custom.log', '/etc/hosts', '/home/user/.bashrc'). File must already exist.") String filePath,
@@ -63,6 +103,17 @@ public class FileOperationsTool {
         return "Content appended to file: " + filePath;
     }
 
+    @McpTool(name = "file_patch", description = "Edit one or more files on a remote server by sending only a unified diff (as produced by 'diff -u' or 'git diff' with absolute paths) instead of rewriting whole files. Every context line must match exactly and optional base SHA-256 hashes guard against concurrent changes; all files are patched on temporary copies first and replace the originals by atomic rename only if every file applied cleanly; if a rename fails, the files already replaced are restored. Returns the old and new SHA-256 of each file.")
+    public FilePatchResult patchFiles(
+            @McpToolParam(description = "Unified diff with one '--- path' / '+++ path' header pair and @@ hunks per file; paths must be absolute (git-style a/ and b/ prefixes are taken relative to /)") String diff,
+            @McpToolParam(description = "The target server identifier where the files are located (e.g., 'production', 'staging', 'localhost'). Must be a configured server connection.") String serverName,
+            @McpToolParam(description = "Comma-separated path=sha256 pairs; the patch is rejected if a listed file's current SHA-256 differs (e.g., '/etc/app.conf=9f86d0...')", required = false) String baseHashes,
+            @McpToolParam(description = "Only verify that the diff applies and report current hashes, without writing. Default: false", required = false) Boolean dryRun) {
+        log.info("Patching files on server: {}", serverName);
+
+        return fileService.patchFiles(serverName, diff, baseHashes, Boolean.TRUE.equals(dryRun));
+    }
+
     @McpTool(name = "file_delete", description = "Delete a file from a remote server permanently. Use for cleanup, removing temporary files, or deleting obsolete configuration files. This operation cannot be undone.")
     public String deleteFile(
             @McpToolParam(description = "The full path to the file to delete (e.g., '/tmp/old_file.txt', '/var/cache/app/temp.dat', '/home/user/unused.log'). Must be an absolute path to an existing file.") String filePath,
@@ -77,17 +128,200 @@ public class FileOperationsTool {
         return "File deleted: " + filePath;
     }
 
-    @McpTool(name = "file_list", description = "List files and directories in a directory on a remote server. Essential for exploring file systems, finding files, checking directory contents, and understanding file structure.")
-    public List<String> listFiles(
+    @McpTool(name = "file_list", description = "List files and directories in a directory on a remote server with type, permissions, octal mode, owner, group, size in bytes, modification time and symlink target. Returns one page at a time with a cursor for the next, optionally filtered by a name pattern and descending into subdirectories, so even directories with hundreds of thousands of entries can be explored.")
+    public FileListing listFiles(
             @McpToolParam(description = "The full path to the directory to list (e.g., '/etc/', '/var/log/', '/home/user/', '/opt/apps/'). Must be an absolute path to an existing directory.") String directoryPath,
-            @McpToolParam(description = "The target server identifier where the directory is located (e.g., 'production', 'staging', 'localhost'). Must be a configured server connection.") String serverName) {
+            @McpToolParam(description = "The target server identifier where the directory is located (e.g., 'production', 'staging', 'localhost'). Must be a configured server connection.") String serverName,
+            @McpToolParam(description = "Shell glob matched against entry names (e.g., '*.conf', 'access.log*')", required = false) String pattern,
+            @McpToolParam(description = "Levels of subdirectories to descend into; names are then relative to the listed directory. Default: 0", required = false) Integer depth,
+            @McpToolParam(description = "Maximum entries per page, up to 5000. Default: 500", required = false) Integer pageSize,
+            @McpToolParam(description = "The nextCursor of the previous page, to continue the same listing", required = false) String cursor) {
         log.info("Listing files in: {} on server: {}", directoryPath, serverName);
 
         if (!pathValidator.isValidPath(directoryPath)) {
             throw new IllegalArgumentException("Invalid directory path: " + directoryPath);
         }
 
-        return fileService.listFiles(serverName, directoryPath);
+        return fileService.listFiles(serverName, directoryPath, pattern,
+                depth != null ? depth : 0, pageSize != null ? pageSize : 500, cursor);
+    }
+
+    @McpTool(name = "disk_usage_tree", description = "Show where disk space goes below a directory on a remote server as a tree of the largest subdirectories and files with total sizes and file counts. Answered from an in-memory index of file metadata built by one parallel scan on first use, so repeated questions take milliseconds instead of re-running du.")
+    public DiskUsageTree diskUsageTree(
+            @McpToolParam(description = "The target server identifier (e.g., 'production', 'staging', 'localhost'). Must be a configured server connection.") String serverName,
+            @McpToolParam(description = "The absolute directory to analyze (e.g., '/var', '/home', '/'). An index covering it is reused; otherwise one is built rooted here.") String path,
+            @McpToolParam(description = "Levels of subdirectories to expand below the path. Default: 2", required = false) Integer depth,
+            @McpToolParam(description = "Largest children to show per directory; the rest are summed. Default: 20", required = false) Integer limit,
+            @McpToolParam(description = "Rescan directories whose modification time changed before answering. Default: false", required = false) Boolean refresh) {
+        log.info("Disk usage tree of {} on server: {}", path, serverName);
+
+        if (!pathValidator.isValidPath(path)) {
+            throw new IllegalArgumentException("Invalid directory path: " + path);
+        }
+
+        return fileIndexService.diskUsageTree(serverName, path,
+                depth != null ? depth : 2, limit != null ? limit : 20, Boolean.TRUE.equals(refresh));
+    }
+
+    @McpTool(name = "find_files", description = "Find files below a directory on a remote server by name pattern, type, size, modification age and owner, optionally sorted by size or modification time. Answered from an in-memory index of file metadata built by one parallel scan on first use, so repeated searches take milliseconds instead of re-running find.")
+    public FileFindResult findFiles(
+            @McpToolParam(description = "The target server identifier (e.g., 'production', 'staging', 'localhost'). Must be a configured server connection.") String serverName,
+            @McpToolParam(description = "The absolute directory to search below (e.g., '/var/log', '/srv'). An index covering it is reused; otherwise one is built rooted here.") String path,
+            @McpToolParam(description = "Shell glob matched against file names (e.g., '*.log', 'core.*')", required = false) String namePattern,
+            @McpToolParam(description = "Entry type: file, directory or symlink", required = false) String type,
+            @McpToolParam(description = "Minimum size in bytes", required = false) Long minSizeBytes,
+            @McpToolParam(description = "Maximum size in bytes", required = false) Long maxSizeBytes,
+            @McpToolParam(description = "Only entries modified within this many minutes", required = false) Integer modifiedWithinMinutes,
+            @McpToolParam(description = "Only entries last modified more than this many minutes ago", required = false) Integer olderThanMinutes,
+            @McpToolParam(description = "Only entries owned by this user", required = false) String owner,
+            @McpToolParam(description = "Return the top entries by 'size' or 'mtime' instead of tree order", required = false) String sortBy,
+            @McpToolParam(description = "Maximum entries to return. Default: 100", required = false) Integer limit,
+            @McpToolParam(description = "Rescan directories whose modification time changed before answering. Default: false", required = false) Boolean refresh) {
+        log.info("Finding files below {} on server: {}", path, serverName);
+
+        if (!pathValidator.isValidPath(path)) {
+            throw new IllegalArgumentException("Invalid directory path: " + path);
+        }
+
+        FileIndex.Query query = fileIndexService.query(namePattern, type, minSizeBytes, maxSizeBytes,
+                modifiedWithinMinutes, olderThanMinutes, owner, sortBy);
+        return fileIndexService.findFiles(serverName, path, query,
+                limit != null ? limit : 100, Boolean.TRUE.equals(refresh));
+    }
+
+    @McpTool(name = "file_search", description = "Search text in files below a path on many servers at once with grep running on each server, so only matching lines are transferred instead of whole files. Supports fixed strings or extended regular expressions, include/exclude file name globs, a cap on matches per file, context lines around each match and a total byte budget across all servers. Returns typed matches with server, file, line number and text.")
+    public FileSearchResult searchFiles(
+            @McpToolParam(description = "The absolute file or directory to search (e.g., '/etc/nginx', '/var/log/app'). Directories are searched recursively.") String path,
+            @McpToolParam(description = "The text or extended regular expression (grep -E) to search for") String pattern,
+            @McpToolParam(description = "Comma-separated server tags to select servers; empty for all configured servers", required = false) String tags,
+            @McpToolParam(description = "Treat the pattern as a literal string instead of a regular expression. Default: false", required = false) Boolean fixedStrings,
+            @McpToolParam(description = "Ignore case when matching. Default: false", required = false) Boolean ignoreCase,
+            @McpToolParam(description = "Comma-separated globs of file names to search (e.g., '*.conf,*.yml'); default all text files", required = false) String include,
+            @McpToolParam(description = "Comma-separated globs of file and directory names to skip (e.g., '*.gz,.git')", required = false) String exclude,
+            @McpToolParam(description = "Maximum matching lines per file. Default: 50", required = false) Integer maxMatchesPerFile,
+            @McpToolParam(description = "Lines of context before and after each match, up to 10. Default: 0", required = false) Integer contextLines,
+            @McpToolParam(description = "Total bytes of matched text across all servers, up to 4194304. Default: 262144", required = false) Integer maxBytes) {
+        log.info("Searching {} for '{}' on servers tagged: {}", path, pattern, tags);
+
+        if (!pathValidator.isValidPath(path)) {
+            throw new IllegalArgumentException("Invalid path: " + path);
+        }
+
+        return fileSearchService.search(tags, path, pattern, Boolean.TRUE.equals(fixedStrings),
+                Boolean.TRUE.equals(ignoreCase), include, exclude,
+                maxMatchesPerFile != null ? maxMatchesPerFile : 50, contextLines != null ? contextLines : 0, maxBytes);
+    }
+
+    @McpTool(name = "file_compare", description = "Check whether a file is identical on many servers (config drift) without transferring it. Each server computes whole-file and per-chunk SHA-256 hashes in parallel; servers are grouped by identical content, the largest group is the reference, and for every divergent group only the differing part is fetched to show a unified diff. Hashes are cached by file stat, so repeated checks only stat the file.")
+    public FileCompareResult compareFiles(
+            @McpToolParam(description = "The absolute path of the file to compare (e.g., '/etc/nginx/nginx.conf')") String path,
+            @McpToolParam(description = "Comma-separated server tags to select servers; empty for all configured servers", required = false) String tags,
+            @McpToolParam(description = "Include a unified diff against the reference for each divergent group. Default: true", required = false) Boolean diff,
+            @McpToolParam(description = "Chunk size in bytes for locating differences, 4096 to 67108864. Default: 65536", required = false) Integer chunkSize,
+            @McpToolParam(description = "Hash again even if the file looks unchanged since the last comparison. Default: false", required = false) Boolean refresh) {
+        log.info("Comparing {} across servers tagged: {}", path, tags);
+
+        if (!pathValidator.isValidPath(path)) {
+            throw new IllegalArgumentException("Invalid file path: " + path);
+        }
+
+        return fileCompareService.compare(tags, path, chunkSize != null ? chunkSize : 65536,
+                !Boolean.FALSE.equals(diff), Boolean.TRUE.equals(refresh));
+    }
+
+    @McpTool(name = "directory_download", description = "Download a whole directory from a remote server as a tar archive (optionally gzip or zstd compressed on the server) into the conductor's local archive directory. The archive is streamed straight to disk, with include/exclude name filters and a size budget. Use instead of many file_read calls.")
+    public ArchiveTransfer downloadDirectory(
+            @McpToolParam(description = "The target server identifier (e.g., 'production', 'staging', 'localhost'). Must be a configured server connection.") String serverName,
+            @McpToolParam(description = "The absolute directory to archive (e.g., '/etc/nginx'). Members are stored under the directory's own name.") String remotePath,
+            @McpToolParam(description = "Archive path relative to the conductor's archive directory (e.g., 'backups/nginx.tar.gz'). Default: '<server>-<dir>.tar[.gz|.zst]'", required = false) String localPath,
+            @McpToolParam(description = "Comma-separated file name globs to include (e.g., '*.conf,*.yml'); default everything", required = false) String include,
+            @McpToolParam(description = "Comma-separated file and directory name globs to leave out (e.g., '*.log,cache')", required = false) String exclude,
+            @McpToolParam(description = "Compression on the server: none, gzip or zstd. Default: none", required = false) String compression,
+            @McpToolParam(description = "Abort if the archive grows beyond this many bytes. Default: 1073741824", required = false) Long maxBytes) {
+        log.info("Downloading directory {} from server: {}", remotePath, serverName);
+
+        if (!pathValidator.isValidPath(remotePath)) {
+            throw new IllegalArgumentException("Invalid directory path: " + remotePath);
+        }
+
+        return archiveService.download(serverName, remotePath, localPath, include, exclude, compression, maxBytes);
+    }
+
+    @McpTool(name = "directory_upload", description = "Upload a tar archive from the conductor's local archive directory and unpack it into a directory on a remote server, streaming it from disk. The directory is created if needed; existing files with the same names are overwritten.")
+    public ArchiveTransfer uploadDirectory(
+            @McpToolParam(description = "The target server identifier (e.g., 'production', 'staging', 'localhost'). Must be a configured server connection.") String serverName,
+            @McpToolParam(description = "Archive path relative to the conductor's archive directory (e.g., 'web-1-nginx.tar.gz')") String localPath,
+            @McpToolParam(description = "The absolute directory to unpack into (e.g., '/etc'). Archives from directory_download contain the directory's name, so unpack into its parent to restore it in place.") String remotePath,
+            @McpToolParam(description = "Comma-separated member name globs to extract; default everything", required = false) String include,
+            @McpToolParam(description = "Comma-separated member name globs to skip", required = false) String exclude,
+            @McpToolParam(description = "Compression of the archive: none, gzip or zstd. Default: detected from the file extension", required = false) String compression) {
+        log.info("Uploading archive {} to {} on server: {}", localPath, remotePath, serverName);
+
+        if (!pathValidator.isValidPath(remotePath)) {
+            throw new IllegalArgumentException("Invalid directory path: " + remotePath);
+        }
+
+        return archiveService.upload(serverName, localPath, remotePath, include, exclude, compression);
+    }
+
+    @McpTool(name = "directory_copy", description = "Copy a directory from one remote server to another by piping a tar stream from the source through the conductor into the target, without storing it anywhere. Optionally compressed on the way and filtered by name, with a size budget.")
+    public ArchiveTransfer copyDirectory(
+            @McpToolParam(description = "The server to copy from") String sourceServer,
+            @McpToolParam(description = "The absolute directory to copy (e.g., '/srv/app/releases/42')") String sourcePath,
+            @McpToolParam(description = "The server to copy to") String targetServer,
+            @McpToolParam(description = "The absolute directory to copy into; the source directory is recreated inside it (e.g., '/srv/app/releases')") String targetPath,
+            @McpToolParam(description = "Comma-separated file name globs to include; default everything", required = false) String include,
+            @McpToolParam(description = "Comma-separated file and directory name globs to leave out", required = false) String exclude,
+            @McpToolParam(description = "Compression between the servers: none, gzip or zstd. Default: none", required = false) String compression,
+            @McpToolParam(description = "Abort if the stream grows beyond this many bytes. Default: 1073741824", required = false) Long maxBytes) {
+        log.info("Copying directory {} from {} to {} on {}", sourcePath, sourceServer, targetPath, targetServer);
+
+        if (!pathValidator.isValidPath(sourcePath) || !pathValidator.isValidPath(targetPath)) {
+            throw new IllegalArgumentException("Invalid directory path: " + sourcePath + " -> " + targetPath);
+        }
+
+        return archiveService.copy(sourceServer, sourcePath, targetServer, targetPath, include, exclude,
+                compression, maxBytes);
+    }
+
+    @McpTool(name = "file_watch", description = "Watch files or directories on a remote server for changes instead of polling file_read. The server runs inotifywait (or a periodic find snapshot when inotify-tools is missing) under one long-lived connection; create, modify and delete events are debounced and coalesced per path, sent to this client as notifications and buffered for get_file_events. Returns the watch id. Ideal for waiting on deploys, config rewrites or lock files.")
+    public FileWatchInfo watchFiles(
+            McpSyncServerExchange exchange,
+            @McpToolParam(description = "The target server identifier (e.g., 'production', 'staging', 'localhost'). Must be a configured server connection.") String serverName,
+            @McpToolParam(description = "Absolute paths of files or directories to watch (e.g., ['/etc/nginx', '/var/run/deploy.lock']). All must exist.") List<String> paths,
+            @McpToolParam(description = "Also watch everything below watched directories. Default: false (a directory's own entries only)", required = false) Boolean recursive,
+            @McpToolParam(description = "auto (inotify if installed, else polling), inotify or poll. Default: auto", required = false) String mode,
+            @McpToolParam(description = "Quiet period per path before a burst of events is reported as one change, in milliseconds. Default: 500", required = false) Long debounceMs) {
+        log.info("Watching {} on server: {}", paths, serverName);
+
+        if (paths != null) {
+            for (String path : paths) {
+                if (!pathValidator.isValidPath(path)) {
+                    throw new IllegalArgumentException("Invalid path: " + path);
+                }
+            }
+        }
+
+        McpNotifier notifier = McpNotifier.of(exchange, null, "file.watch." + serverName);
+        return fileWatchService.watch(serverName, paths, Boolean.TRUE.equals(recursive), mode, debounceMs, notifier);
+    }
+
+    @McpTool(name = "get_file_events", description = "Collect the file change events buffered by file_watch since the previous call, oldest first, optionally waiting for the first one to arrive. Each event has the server, path, type (created, modified or deleted), how many raw events it coalesces and when they happened. Also reports the state of the watches, including ones that stopped with an error.")
+    public FileEventBatch getFileEvents(
+            @McpToolParam(description = "Watch id returned by file_watch; empty for events of all watches", required = false) String watchId,
+            @McpToolParam(description = "Maximum events to return; the rest stay buffered. Default: 500", required = false) Integer maxEvents,
+            @McpToolParam(description = "Wait up to this many seconds for an event when none is buffered. Default: 0 (return immediately), at most 60", required = false) Integer waitSeconds) {
+        log.info("Getting file events (watch: {}, wait: {}s)", watchId, waitSeconds);
+
+        return fileWatchService.events(watchId, maxEvents, waitSeconds);
+    }
+
+    @McpTool(name = "file_unwatch", description = "Stop a file watch started by file_watch, closing its connection on the server and discarding its buffered events.")
+    public FileWatchInfo unwatchFiles(
+            @McpToolParam(description = "Watch id returned by file_watch") String watchId) {
+        log.info("Stopping file watch: {}", watchId);
+
+        return fileWatchService.unwatch(watchId);
     }
 
     @McpTool(name = "file_chmod", description = "Change file permissions on a remote server using chmod. Essential for security, making scripts executable, or controlling file access. Uses standard Unix permission notation.")
@@ -1,5 +1,6 @@
 package net.alishahidi.mcpconductor.tools;
 
+import net.alishahidi.mcpconductor.model.GitBranch;
 import net.alishahidi.mcpconductor.service.GitService;
 import org.springframework.ai.mcp.server.annotation.McpTool;
 import org.springframework.ai.mcp.server.annotation.McpToolParam;
@@ -59,8 +60,8 @@ public class GitOperationsTool {
         return gitService.getStatus(serverName, repositoryPath);
     }
 
-    @McpTool(name = "git_list_branches", description = "List all branches in the Git repository including local and remote branches. Useful for understanding available branches, planning deployments, and seeing what development branches exist.")
-    public List<String> listBranches(
+    @McpTool(name = "git_list_branches", description = "List all branches in the Git repository including local and remote branches, with the current branch, commit, upstream and how far each branch is ahead of or behind its upstream. Useful for understanding available branches, planning deployments, and seeing what development branches exist.")
+    public List<GitBranch> listBranches(
             @McpToolParam(description = "The path to the local Git repository directory (e.g., '/opt/myapp', '/var/www/website', '/home/user/project'). Must be an existing Git repository directory.") String repositoryPath,
             @McpToolParam(description = "The target server identifier where the repository is located (e.g., 'production', 'staging', 'localhost'). Must be a configured server connection.") String serverName) {
         log.info("Listing branches in: {} on server: {}", repositoryPath, serverName);
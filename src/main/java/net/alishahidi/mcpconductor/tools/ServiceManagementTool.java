@@ -1,5 +1,6 @@
 package net.alishahidi.mcpconductor.tools;
 
+import net.alishahidi.mcpconductor.model.ServiceInfo;
 import net.alishahidi.mcpconductor.service.SystemService;
 import org.springframework.ai.mcp.server.annotation.McpTool;
 import org.springframework.ai.mcp.server.annotation.McpToolParam;
@@ -69,8 +70,8 @@ public class ServiceManagementTool {
         return "Service disabled: " + serviceName;
     }
 
-    @McpTool(name = "service_list", description = "List all available system services on a remote server using systemctl. Perfect for discovering installed services, checking what's available for management, and understanding the service landscape on the server.")
-    public List<String> listServices(
+    @McpTool(name = "service_list", description = "List all available system services on a remote server using systemctl, with each unit's status, load/active/sub state and description. Perfect for discovering installed services, checking what's available for management, and understanding the service landscape on the server.")
+    public List<ServiceInfo> listServices(
             @McpToolParam(description = "The target server identifier where services should be listed (e.g., 'production', 'staging', 'localhost'). Must be a configured server connection.") String serverName) {
         log.info("Listing services on server: {}", serverName);
         return systemService.listServices(serverName);
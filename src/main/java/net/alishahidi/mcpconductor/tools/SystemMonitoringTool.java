@@ -2,9 +2,21 @@ package net.alishahidi.mcpconductor.tools;
 
 import net.alishahidi.mcpconductor.service.SSHService;
 import net.alishahidi.mcpconductor.service.SystemService;
+import net.alishahidi.mcpconductor.service.FleetInventoryService;
+import net.alishahidi.mcpconductor.service.MetricsSamplerService;
+import net.alishahidi.mcpconductor.service.LogService;
+import net.alishahidi.mcpconductor.model.FleetInventory;
+import net.alishahidi.mcpconductor.model.FleetLogTail;
+import net.alishahidi.mcpconductor.model.LogFollowResult;
+import net.alishahidi.mcpconductor.model.MetricHistory;
+import net.alishahidi.mcpconductor.model.ProcessTable;
+import net.alishahidi.mcpconductor.model.DiskUsage;
+import net.alishahidi.mcpconductor.model.MemoryUsage;
+import net.alishahidi.mcpconductor.util.ProcStatScanner;
 import net.alishahidi.mcpconductor.model.CommandResult;
 import net.alishahidi.mcpconductor.model.SystemInfo;
 import net.alishahidi.mcpconductor.util.ResponseFormatter;
+import net.alishahidi.mcpconductor.util.parser.OutputParsers;
 import org.springframework.ai.mcp.server.annotation.McpTool;
 import org.springframework.ai.mcp.server.annotation.McpToolParam;
 import org.springframework.stereotype.Component;
@@ -23,6 +35,9 @@ public class SystemMonitoringTool {
     
     private final SSHService sshService;
     private final SystemService systemService;
+    private final FleetInventoryService fleetInventoryService;
+    private final MetricsSamplerService metricsSamplerService;
+    private final LogService logService;
     private final ResponseFormatter responseFormatter;
 
     @McpTool(name = "get_system_info", description = "Get comprehensive system information including CPU, memory, disk usage, and system details from a remote server. Perfect for monitoring system health and resources.")
@@ -39,25 +54,109 @@ public class SystemMonitoringTool {
         }
     }
 
-    @McpTool(name = "get_process_list", description = "Get list of running processes on a remote server. Useful for monitoring what's running and identifying resource-intensive processes.")
+    @McpTool(name = "fleet_inventory", description = "Collect system information from all configured servers, or those carrying given tags, concurrently with a deadline per host. Returns a columnar per-host table plus fleet-wide OS and kernel counts, memory, disk and load summaries, hosts over pressure thresholds, and an error list. Results are cached per host for a short TTL, so repeated calls are instant.")
+    public String fleetInventory(
+            @McpToolParam(description = "Comma-separated server tags to select (e.g. 'web,db'); empty or 'all' selects every configured server", required = false) String tags,
+            @McpToolParam(description = "Probe every host again instead of using cached results (default: false)", required = false) Boolean refresh) {
+        log.info("Collecting fleet inventory (tags: {}, refresh: {})", tags, refresh);
+        
+        try {
+            FleetInventory inventory = fleetInventoryService.inventory(tags, Boolean.TRUE.equals(refresh));
+            return responseFormatter.formatSuccess(String.format("Inventory of %d/%d servers (%d from cache)",
+                    inventory.getSucceeded(), inventory.getRequested(), inventory.getCached()), inventory);
+        } catch (Exception e) {
+            log.error("Failed to collect fleet inventory", e);
+            return responseFormatter.formatError("Failed to collect fleet inventory: " + e.getMessage());
+        }
+    }
+
+    @McpTool(name = "metric_sampling", description = "Start, stop or inspect background sampling of CPU, memory, load, disk and network on servers. Sampled servers keep an in-memory history at the configured interval that get_metric_history answers from without contacting the host. In agent mode a small checksum-verified shell agent streams samples over one long-lived SSH channel instead of one command per sample.")
+    public String metricSampling(
+            @McpToolParam(description = "Action: 'start', 'stop' or 'status' (default: status)", required = false) String action,
+            @McpToolParam(description = "Comma-separated server tags for start/stop; empty or 'all' selects every configured server", required = false) String tags,
+            @McpToolParam(description = "Sampling mode for start: 'exec' (one command per sample) or 'agent' (streaming agent); default from configuration", required = false) String mode) {
+        log.info("Metric sampling action: {} (tags: {}, mode: {})", action, tags, mode);
+        
+        try {
+            String op = action == null || action.isBlank() ? "status" : action.trim().toLowerCase();
+            return switch (op) {
+                case "start" -> responseFormatter.formatSuccess("Sampling started", metricsSamplerService.start(tags, mode));
+                case "stop" -> responseFormatter.formatSuccess("Sampling stopped", metricsSamplerService.stop(tags));
+                case "status" -> responseFormatter.formatList(metricsSamplerService.status(), "Sampled servers");
+                default -> responseFormatter.formatError("Unknown action: " + action + " (expected start, stop or status)");
+            };
+        } catch (Exception e) {
+            log.error("Failed to {} metric sampling", action, e);
+            return responseFormatter.formatError("Failed to " + action + " metric sampling: " + e.getMessage());
+        }
+    }
+
+    @McpTool(name = "get_metric_history", description = "Get recorded history of host metrics from the background sampler without touching the remote host: min, avg, p50/p90/p99, max, first/last and trend (rate per minute) over a time window, optionally with downsampled points. Metrics: cpu.busy_percent, cpu.iowait_percent, mem.used_percent, mem.available_bytes, swap.used_percent, load.1, load.5, load.15, disk.root.used_percent, net.rx_bytes_per_sec, net.tx_bytes_per_sec. Answers questions like 'is load rising?'.")
+    public String getMetricHistory(
+            @McpToolParam(description = "The sampled server name") String serverName,
+            @McpToolParam(description = "Comma-separated metric names (default: all)", required = false) String metrics,
+            @McpToolParam(description = "Window to summarize in seconds, ending now (default: 900)", required = false) Integer windowSeconds,
+            @McpToolParam(description = "Also return up to this many points per metric (default: 0, summaries only)", required = false) Integer maxPoints) {
+        log.info("Getting metric history for server: {} (metrics: {}, window: {}s)", serverName, metrics, windowSeconds);
+        
+        try {
+            List<MetricHistory> history = metricsSamplerService.history(serverName, metrics,
+                    windowSeconds != null ? windowSeconds : 900, maxPoints != null ? maxPoints : 0);
+            return responseFormatter.formatList(history, "Metric history for " + serverName);
+        } catch (Exception e) {
+            log.error("Failed to get metric history for server: {}", serverName, e);
+            return responseFormatter.formatError("Failed to get metric history: " + e.getMessage());
+        }
+    }
+
+    @McpTool(name = "log_follow", description = "Return only what was appended to a log since the previous call for the same server and source. Works for log files (cursor is inode plus byte offset, so rotation and truncation are detected and the rest of a rotated file is read first) and for the systemd journal (native journald cursor). Cursors are kept across restarts. The first call returns the recent tail. Ideal for repeatedly asking 'what is new in the logs?' without re-reading them.")
+    public String logFollow(
+            @McpToolParam(description = "The target server name") String serverName,
+            @McpToolParam(description = "Absolute log file path (e.g. '/var/log/nginx/error.log'), 'journal' for the whole journal or 'journal:<unit>' (e.g. 'journal:nginx.service')") String source,
+            @McpToolParam(description = "Maximum bytes to return; the rest is returned by the next call (default: 65536, at most 1048576)", required = false) Integer maxBytes,
+            @McpToolParam(description = "Forget the saved cursor and start again from the recent tail (default: false)", required = false) Boolean reset) {
+        log.info("Following log {} on server: {}", source, serverName);
+        
+        try {
+            LogFollowResult result = logService.follow(serverName, source, maxBytes, Boolean.TRUE.equals(reset));
+            return responseFormatter.formatSuccess(String.format("%d new lines from %s%s", result.getLines(), source,
+                    result.isMore() ? " (more pending)" : ""), result);
+        } catch (Exception e) {
+            log.error("Failed to follow log {} on server: {}", source, serverName, e);
+            return responseFormatter.formatError("Failed to follow log: " + e.getMessage());
+        }
+    }
+
+    @McpTool(name = "fleet_log_tail", description = "Show the latest entries of the same log on many servers as one timeline, merged by timestamp and labelled with the server name. Every server is read in parallel from the newest line backwards with the optional regex filter applied remotely, and reading stops once the byte budget holds the newest entries. Ideal for following a request or an incident across a cluster.")
+    public String fleetLogTail(
+            @McpToolParam(description = "Comma-separated server tags to select servers; empty for all configured servers", required = false) String tags,
+            @McpToolParam(description = "Absolute log file path (e.g. '/var/log/nginx/access.log'), 'journal' for the whole journal or 'journal:<unit>' (e.g. 'journal:nginx.service')") String source,
+            @McpToolParam(description = "Most recent lines to read per server; with a pattern, most recent matching lines (default: 200)", required = false) Integer lines,
+            @McpToolParam(description = "Extended regular expression (grep -E) a line must match, applied on each server", required = false) String pattern,
+            @McpToolParam(description = "Timestamp layout: auto, iso8601, clf, syslog, epoch or a Java DateTimeFormatter pattern at the start of the line (default: auto)", required = false) String timestampFormat,
+            @McpToolParam(description = "Total bytes of log text to return across all servers; the newest entries are kept (default: 262144, at most 1048576)", required = false) Integer maxBytes) {
+        log.info("Fleet log tail of {} on servers tagged: {}", source, tags);
+        
+        try {
+            FleetLogTail tail = logService.fleetTail(tags, source, lines != null ? lines : 200, pattern,
+                    timestampFormat, maxBytes);
+            return responseFormatter.formatSuccess(String.format("%d entries from %d servers%s", tail.getLines().size(),
+                    tail.getServers().size() - tail.getErrors().size(), tail.isTruncated() ? " (truncated to the newest)" : ""), tail);
+        } catch (Exception e) {
+            log.error("Failed to tail log {} on servers tagged: {}", source, tags, e);
+            return responseFormatter.formatError("Failed to tail fleet log: " + e.getMessage());
+        }
+    }
+
+    @McpTool(name = "get_process_list", description = "Get list of running processes on a remote server, sorted by CPU usage. Useful for monitoring what's running and identifying resource-intensive processes.")
     public String getProcessList(
             @McpToolParam(description = "The target server name to get process list from") String serverName,
             @McpToolParam(description = "Maximum number of processes to return (default: 20)") int limit) {
         log.info("Getting process list for server: {} (limit: {})", serverName, limit);
         
         try {
-            String command = limit > 0 ? 
-                String.format("ps aux --sort=-%scpu | head -%d", "%", limit + 1) : 
-                "ps aux --sort=-%cpu";
-                
-            CommandResult result = sshService.executeCommand(serverName, command, false);
-            
-            if (result.isSuccess()) {
-                return responseFormatter.formatSuccess("Process list retrieved successfully", 
-                    parseProcessList(result.getOutput()));
-            } else {
-                return responseFormatter.formatError("Failed to get process list: " + result.getError());
-            }
+            ProcessTable table = systemService.getProcessTable(serverName, ProcStatScanner.SortKey.CPU, limit);
+            return responseFormatter.formatSuccess("Process list retrieved successfully", table);
         } catch (Exception e) {
             log.error("Failed to get process list for server: {}", serverName, e);
             return responseFormatter.formatError("Failed to get process list: " + e.getMessage());
@@ -84,40 +183,28 @@ public class SystemMonitoringTool {
         }
     }
 
-    @McpTool(name = "get_disk_usage", description = "Get disk space usage information for all mounted filesystems on a remote server. Essential for monitoring storage capacity.")
+    @McpTool(name = "get_disk_usage", description = "Get disk space usage information for all mounted filesystems on a remote server, with sizes in bytes and the used percentage per mount point. Essential for monitoring storage capacity.")
     public String getDiskUsage(
             @McpToolParam(description = "The target server name to check disk usage on") String serverName) {
         log.info("Getting disk usage for server: {}", serverName);
         
         try {
-            CommandResult result = sshService.executeCommand(serverName, "df -h", false);
-            
-            if (result.isSuccess()) {
-                List<Map<String, Object>> diskInfo = parseDiskUsage(result.getOutput());
-                return responseFormatter.formatList(diskInfo, "Disk usage information");
-            } else {
-                return responseFormatter.formatError("Failed to get disk usage: " + result.getError());
-            }
+            List<DiskUsage> disks = sshService.executeParsed(serverName, OutputParsers.DF, null);
+            return responseFormatter.formatList(disks, "Disk usage information");
         } catch (Exception e) {
             log.error("Failed to get disk usage for server: {}", serverName, e);
             return responseFormatter.formatError("Failed to get disk usage: " + e.getMessage());
         }
     }
 
-    @McpTool(name = "get_memory_usage", description = "Get detailed memory usage information including RAM and swap usage on a remote server.")
+    @McpTool(name = "get_memory_usage", description = "Get detailed memory usage information including RAM and swap usage on a remote server, in bytes, with available memory and the used percentage.")
     public String getMemoryUsage(
             @McpToolParam(description = "The target server name to check memory usage on") String serverName) {
         log.info("Getting memory usage for server: {}", serverName);
         
         try {
-            CommandResult result = sshService.executeCommand(serverName, "free -h", false);
-            
-            if (result.isSuccess()) {
-                Map<String, Object> memoryInfo = parseMemoryUsage(result.getOutput());
-                return responseFormatter.formatMap(memoryInfo, "Memory usage information");
-            } else {
-                return responseFormatter.formatError("Failed to get memory usage: " + result.getError());
-            }
+            MemoryUsage memory = sshService.executeParsed(serverName, OutputParsers.FREE, null);
+            return responseFormatter.formatSuccess("Memory usage information", memory);
         } catch (Exception e) {
             log.error("Failed to get memory usage for server: {}", serverName, e);
             return responseFormatter.formatError("Failed to get memory usage: " + e.getMessage());
@@ -172,55 +259,17 @@ public class SystemMonitoringTool {
         log.info("Getting top processes for server: {} (sorted by: {}, count: {})", serverName, sortBy, count);
         
         try {
-            String sortColumn = "cpu".equalsIgnoreCase(sortBy) ? "%cpu" : "%mem";
-            String command = String.format("ps aux --sort=-%s | head -%d", sortColumn, count + 1);
-            
-            CommandResult result = sshService.executeCommand(serverName, command, false);
-            
-            if (result.isSuccess()) {
-                List<Map<String, Object>> processes = parseProcessList(result.getOutput());
-                return responseFormatter.formatList(processes, 
-                    String.format("Top %d processes by %s", count, sortBy));
-            } else {
-                return responseFormatter.formatError("Failed to get top processes: " + result.getError());
-            }
+            ProcStatScanner.SortKey sortKey = "memory".equalsIgnoreCase(sortBy) || "mem".equalsIgnoreCase(sortBy)
+                    ? ProcStatScanner.SortKey.MEMORY : ProcStatScanner.SortKey.CPU;
+            ProcessTable table = systemService.getProcessTable(serverName, sortKey, count > 0 ? count : 10);
+            return responseFormatter.formatSuccess(
+                    String.format("Top %d processes by %s", table.getProcesses().size(), table.getSortBy()), table);
         } catch (Exception e) {
             log.error("Failed to get top processes for server: {}", serverName, e);
             return responseFormatter.formatError("Failed to get top processes: " + e.getMessage());
         }
     }
 
-    private List<Map<String, Object>> parseProcessList(String output) {
-        List<Map<String, Object>> processes = new ArrayList<>();
-        String[] lines = output.split("\n");
-        
-        if (lines.length < 2) return processes;
-        
-        for (int i = 1; i < lines.length; i++) { // Skip header
-            String line = lines[i].trim();
-            if (line.isEmpty()) continue;
-            
-            String[] parts = line.split("\\s+", 11);
-            if (parts.length >= 11) {
-                Map<String, Object> process = new HashMap<>();
-                process.put("user", parts[0]);
-                process.put("pid", parts[1]);
-                process.put("cpu", parts[2]);
-                process.put("memory", parts[3]);
-                process.put("vsz", parts[4]);
-                process.put("rss", parts[5]);
-                process.put("tty", parts[6]);
-                process.put("stat", parts[7]);
-                process.put("start", parts[8]);
-                process.put("time", parts[9]);
-                process.put("command", parts[10]);
-                processes.add(process);
-            }
-        }
-        
-        return processes;
-    }
-
     private Map<String, Object> parseServiceStatus(String output) {
         Map<String, Object> serviceInfo = new HashMap<>();
         String[] lines = output.split("\n");
@@ -249,61 +298,6 @@ public class SystemMonitoringTool {
         return serviceInfo;
     }
 
-    private List<Map<String, Object>> parseDiskUsage(String output) {
-        List<Map<String, Object>> disks = new ArrayList<>();
-        String[] lines = output.split("\n");
-        
-        if (lines.length < 2) return disks;
-        
-        for (int i = 1; i < lines.length; i++) { // Skip header
-            String line = lines[i].trim();
-            if (line.isEmpty()) continue;
-            
-            String[] parts = line.split("\\s+");
-            if (parts.length >= 6) {
-                Map<String, Object> disk = new HashMap<>();
-                disk.put("filesystem", parts[0]);
-                disk.put("size", parts[1]);
-                disk.put("used", parts[2]);
-                disk.put("available", parts[3]);
-                disk.put("usePercent", parts[4]);
-                disk.put("mountedOn", parts[5]);
-                disks.add(disk);
-            }
-        }
-        
-        return disks;
-    }
-
-    private Map<String, Object> parseMemoryUsage(String output) {
-        Map<String, Object> memory = new HashMap<>();
-        String[] lines = output.split("\n");
-        
-        for (String line : lines) {
-            line = line.trim();
-            if (line.startsWith("Mem:")) {
-                String[] parts = line.split("\\s+");
-                if (parts.length >= 7) {
-                    memory.put("total", parts[1]);
-                    memory.put("used", parts[2]);
-                    memory.put("free", parts[3]);
-                    memory.put("shared", parts[4]);
-                    memory.put("buffCache", parts[5]);
-                    memory.put("available", parts[6]);
-                }
-            } else if (line.startsWith("Swap:")) {
-                String[] parts = line.split("\\s+");
-                if (parts.length >= 4) {
-                    memory.put("swapTotal", parts[1]);
-                    memory.put("swapUsed", parts[2]);
-                    memory.put("swapFree", parts[3]);
-                }
-            }
-        }
-        
-        return memory;
-    }
-
     private List<Map<String, Object>> parseNetworkInfo(String output) {
         List<Map<String, Object>> interfaces = new ArrayList<>();
         String[] lines = output.split("\n");
@@ -0,0 +1,135 @@
+package net.alishahidi.mcpconductor.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Whole-file and per-chunk SHA-256 of a remote file, computed on the host by
+ * one command so only the hashes cross the wire.
+ *
+ * The command prints the file's stat key ({@code inode size mtime ctime})
+ * first. When the caller passes the key of a cached result and it is
+ * unchanged, nothing is hashed and only that line is returned. Otherwise the
+ * whole-file hash follows, then one hash per chunk from {@code split --filter}:
+ * <pre>
+ * inode size mtime ctime
+ * sha256
+ * sha256 of chunk 0
+ * ...
+ * </pre>
+ */
+public final class ChunkedHash {
+
+    private final String stat;
+    private final long size;
+    private final int chunkSize;
+    private final String sha256;
+    private final List<String> chunks;
+
+    private ChunkedHash(String stat, long size, int chunkSize, String sha256, List<String> chunks) {
+        this.stat = stat;
+        this.size = size;
+        this.chunkSize = chunkSize;
+        this.sha256 = sha256;
+        this.chunks = chunks;
+    }
+
+    /**
+     * @param quotedPath shell-quoted absolute path
+     * @param knownStat  stat key of a cached result, or {@code null} to always hash
+     */
+    public static String command(String quotedPath, int chunkSize, String knownStat) {
+        return "export LC_ALL=C; f=" + quotedPath + "\n"
+                + "s=$(stat -L -c '%i %s %Y %Z' -- \"$f\" 2>/dev/null) || exit 3\n"
+                + "[ -f \"$f\" ] && [ -r \"$f\" ] || { echo 'Not a readable regular file' >&2; exit 4; }\n"
+                + "echo \"$s\"\n"
+                + (knownStat != null && knownStat.matches("[0-9 ]+") ? "[ \"$s\" = '" + knownStat + "' ] && exit 0\n" : "")
+                + "sha256sum < \"$f\" | cut -d' ' -f1\n"
+                + "split -b " + chunkSize + " --filter='sha256sum | cut -d\" \" -f1' < \"$f\"\n";
+    }
+
+    /**
+     * @return the hashes, or {@code null} when only the stat key was printed
+     *         (unchanged since the cached result); see {@link #statOf}
+     */
+    public static ChunkedHash parse(String output, int chunkSize) {
+        String[] lines = output.split("\n");
+        String stat = lines[0].trim();
+        if (lines.length < 2) {
+            return null;
+        }
+        List<String> chunks = new ArrayList<>(lines.length - 2);
+        for (int i = 2; i < lines.length; i++) {
+            if (!lines[i].isBlank()) {
+                chunks.add(lines[i].trim());
+            }
+        }
+        return new ChunkedHash(stat, sizeOf(stat), chunkSize, lines[1].trim(), chunks);
+    }
+
+    public static String statOf(String output) {
+        int newline = output.indexOf('\n');
+        return (newline >= 0 ? output.substring(0, newline) : output).trim();
+    }
+
+    /**
+     * Reads the file from the start of the line containing {@code start},
+     * preceded by a line with the number of lines before it.
+     */
+    public static String regionCommand(String quotedPath, long start, int maxBytes) {
+        return "export LC_ALL=C; f=" + quotedPath + "; n=$(head -c " + start + " -- \"$f\" | wc -l); echo $n; "
+                + "tail -n +$((n + 1)) -- \"$f\" | head -c " + maxBytes;
+    }
+
+    /**
+     * @return index of the first chunk that differs, or {@code -1} when all chunks are equal
+     */
+    public int firstDifferentChunk(ChunkedHash other) {
+        int common = Math.min(chunks.size(), other.chunks.size());
+        for (int i = 0; i < common; i++) {
+            if (!chunks.get(i).equals(other.chunks.get(i))) {
+                return i;
+            }
+        }
+        return chunks.size() == other.chunks.size() ? -1 : common;
+    }
+
+    /**
+     * Chunks at the same position with different content, counting chunks only one side has.
+     */
+    public int differingChunks(ChunkedHash other) {
+        int common = Math.min(chunks.size(), other.chunks.size());
+        int differing = Math.abs(chunks.size() - other.chunks.size());
+        for (int i = 0; i < common; i++) {
+            if (!chunks.get(i).equals(other.chunks.get(i))) {
+                differing++;
+            }
+        }
+        return differing;
+    }
+
+    public String getStat() {
+        return stat;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public List<String> getChunks() {
+        return chunks;
+    }
+
+    private static long sizeOf(String stat) {
+        String[] fields = stat.split(" ");
+        return fields.length == 4 ? Long.parseLong(fields[1]) : 0;
+    }
+}
@@ -0,0 +1,268 @@
+package net.alishahidi.mcpconductor.util;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.core.DefaultDockerClientConfig;
+import com.github.dockerjava.core.DockerClientBuilder;
+import com.github.dockerjava.core.DockerClientConfig;
+import com.github.dockerjava.httpclient5.ApacheDockerHttpClient;
+import com.jcraft.jsch.Session;
+import net.alishahidi.mcpconductor.config.DockerProperties;
+import net.alishahidi.mcpconductor.exception.ConfigurationException;
+import net.alishahidi.mcpconductor.exception.DockerException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Docker endpoints keyed by server name, each with its own lazily created, pooled
+ * {@link ApacheDockerHttpClient} and event-driven {@link DockerContainerStateCache}.
+ *
+ * Hosts configured with {@code ssh-server} are reached by forwarding a local TCP
+ * port to the remote Docker socket over the pooled SSH session for that server.
+ * If that session drops, the endpoint is rebuilt on next use.
+ *
+ * Each endpoint carries a second client without a response timeout for
+ * long-lived streams (events, log follow, stats, exec output). Those stay open
+ * while idle and bound themselves with their own deadlines; the regular client's
+ * {@code response-timeout-seconds} would otherwise cut a quiet stream off.
+ */
+@Slf4j
+public class DockerClientRegistry implements Closeable {
+
+    public static final String DEFAULT_SERVER = "local";
+
+    private final Map<String, DockerProperties.HostConfig> hosts;
+    private final SSHConnectionPool sshConnectionPool;
+    private final String registryUrl;
+    private final String registryUsername;
+    private final String registryPassword;
+    private final boolean eventsEnabled;
+    private final Duration resyncInterval;
+    private final Duration reconnectDelay;
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public DockerClientRegistry(Map<String, DockerProperties.HostConfig> hosts,
+                                SSHConnectionPool sshConnectionPool,
+                                String registryUrl,
+                                String registryUsername,
+                                String registryPassword,
+                                boolean eventsEnabled,
+                                Duration resyncInterval,
+                                Duration reconnectDelay) {
+        this.hosts = new LinkedHashMap<>(hosts);
+        this.sshConnectionPool = sshConnectionPool;
+        this.registryUrl = registryUrl;
+        this.registryUsername = registryUsername;
+        this.registryPassword = registryPassword;
+        this.eventsEnabled = eventsEnabled;
+        this.resyncInterval = resyncInterval;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    public DockerClient getClient(String serverName) {
+        return getEndpoint(serverName).client;
+    }
+
+    /**
+     * Client for calls that stream for as long as the caller wants, which must
+     * close the callback themselves when their own deadline passes.
+     */
+    public DockerClient getStreamingClient(String serverName) {
+        return getEndpoint(serverName).streamingClient;
+    }
+
+    public DockerContainerStateCache getStateCache(String serverName) {
+        return getEndpoint(serverName).stateCache;
+    }
+
+    public List<String> getServerNames() {
+        return new ArrayList<>(hosts.keySet());
+    }
+
+    /**
+     * Expands a server selector: empty means {@code local}, {@code all} or {@code *}
+     * means every configured host, otherwise a comma-separated list of names.
+     */
+    public List<String> resolveServers(String selector) {
+        if (selector == null || selector.isBlank()) {
+            return List.of(DEFAULT_SERVER);
+        }
+        String trimmed = selector.trim();
+        if (trimmed.equals("all") || trimmed.equals("*")) {
+            return getServerNames();
+        }
+
+        List<String> names = Arrays.stream(trimmed.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .distinct()
+                .toList();
+        for (String name : names) {
+            requireHost(name);
+        }
+        return names;
+    }
+
+    /**
+     * Eagerly builds an endpoint so its event subscription starts at startup.
+     */
+    public void warmUp(String serverName) {
+        getEndpoint(serverName);
+    }
+
+    @Override
+    public void close() {
+        endpoints.values().forEach(Endpoint::close);
+        endpoints.clear();
+    }
+
+    private Endpoint getEndpoint(String serverName) {
+        String name = serverName == null || serverName.isBlank() ? DEFAULT_SERVER : serverName.trim();
+        Endpoint current = endpoints.get(name);
+        if (current != null && current.isUsable()) {
+            return current;
+        }
+
+        return endpoints.compute(name, (key, existing) -> {
+            if (existing != null && existing.isUsable()) {
+                return existing;
+            }
+            if (existing != null) {
+                log.info("Docker endpoint for {} lost its SSH tunnel, rebuilding", key);
+                existing.close();
+            }
+            return createEndpoint(key, requireHost(key));
+        });
+    }
+
+    private DockerProperties.HostConfig requireHost(String name) {
+        DockerProperties.HostConfig config = hosts.get(name);
+        if (config == null) {
+            throw new ConfigurationException(
+                    "Docker host configuration not found",
+                    "docker.hosts." + name,
+                    "application.yml"
+            );
+        }
+        return config;
+    }
+
+    private Endpoint createEndpoint(String name, DockerProperties.HostConfig config) {
+        Session tunnelSession = null;
+        int tunnelPort = -1;
+        String dockerHost = config.getHost();
+
+        try {
+            if (config.getSshServer() != null && !config.getSshServer().isBlank()) {
+                tunnelSession = sshConnectionPool.getConnection(config.getSshServer());
+                tunnelPort = tunnelSession.setSocketForwardingL("127.0.0.1", 0, config.getRemoteSocket(),
+                        null, config.getConnectionTimeoutSeconds() * 1000);
+                dockerHost = "tcp://127.0.0.1:" + tunnelPort;
+                log.info("Tunnelling Docker socket {} on {} via SSH to local port {}",
+                        config.getRemoteSocket(), config.getSshServer(), tunnelPort);
+            }
+
+            boolean tunnelled = tunnelSession != null;
+            DockerClientConfig clientConfig = DefaultDockerClientConfig.createDefaultConfigBuilder()
+                    .withDockerHost(dockerHost)
+                    .withDockerTlsVerify(!tunnelled && config.isTlsVerify())
+                    .withDockerCertPath(tunnelled ? null : config.getCertPath())
+                    .withApiVersion(config.getApiVersion())
+                    .withRegistryUrl(registryUrl)
+                    .withRegistryUsername(registryUsername)
+                    .withRegistryPassword(registryPassword)
+                    .build();
+
+            DockerClient client = buildClient(clientConfig, config,
+                    Duration.ofSeconds(config.getResponseTimeoutSeconds()));
+            DockerClient streamingClient = buildClient(clientConfig, config, null);
+
+            DockerContainerStateCache stateCache = new DockerContainerStateCache(
+                    client, streamingClient, name, resyncInterval, reconnectDelay);
+            if (eventsEnabled && config.isEventsEnabled()) {
+                stateCache.start();
+            }
+
+            log.info("Docker client initialized for {} at {} (max {} connections)",
+                    name, dockerHost, config.getMaxConnections());
+            return new Endpoint(client, streamingClient, stateCache, tunnelSession, tunnelPort);
+
+        } catch (Exception e) {
+            if (tunnelSession != null && tunnelPort > 0) {
+                try {
+                    tunnelSession.delPortForwardingL("127.0.0.1", tunnelPort);
+                } catch (Exception ignored) {
+                    // best effort
+                }
+            }
+            throw new DockerException("Failed to connect to Docker host '" + name + "': " + e.getMessage(),
+                    e, "CONNECT");
+        }
+    }
+
+    /**
+     * A {@code null} response timeout leaves the socket without a read timeout.
+     */
+    private static DockerClient buildClient(DockerClientConfig clientConfig,
+                                            DockerProperties.HostConfig config,
+                                            Duration responseTimeout) {
+        ApacheDockerHttpClient httpClient = new ApacheDockerHttpClient.Builder()
+                .dockerHost(clientConfig.getDockerHost())
+                .sslConfig(clientConfig.getSSLConfig())
+                .maxConnections(config.getMaxConnections())
+                .connectionTimeout(Duration.ofSeconds(config.getConnectionTimeoutSeconds()))
+                .responseTimeout(responseTimeout)
+                .build();
+
+        return DockerClientBuilder.getInstance(clientConfig)
+                .withDockerHttpClient(httpClient)
+                .build();
+    }
+
+    private static final class Endpoint {
+        private final DockerClient client;
+        private final DockerClient streamingClient;
+        private final DockerContainerStateCache stateCache;
+        private final Session tunnelSession;
+        private final int tunnelPort;
+
+        private Endpoint(DockerClient client, DockerClient streamingClient, DockerContainerStateCache stateCache,
+                         Session tunnelSession, int tunnelPort) {
+            this.client = client;
+            this.streamingClient = streamingClient;
+            this.stateCache = stateCache;
+            this.tunnelSession = tunnelSession;
+            this.tunnelPort = tunnelPort;
+        }
+
+        private boolean isUsable() {
+            return tunnelSession == null || tunnelSession.isConnected();
+        }
+
+        private void close() {
+            stateCache.close();
+            for (DockerClient dockerClient : List.of(client, streamingClient)) {
+                try {
+                    dockerClient.close();
+                } catch (Exception e) {
+                    log.debug("Error closing Docker client", e);
+                }
+            }
+            if (tunnelSession != null && tunnelSession.isConnected()) {
+                try {
+                    tunnelSession.delPortForwardingL("127.0.0.1", tunnelPort);
+                } catch (Exception e) {
+                    log.debug("Error removing Docker socket forward on port {}", tunnelPort, e);
+                }
+            }
+        }
+    }
+}
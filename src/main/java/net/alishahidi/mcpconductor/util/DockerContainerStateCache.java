@@ -0,0 +1,282 @@
+package net.alishahidi.mcpconductor.util;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.api.model.EventType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory model of the containers on one Docker daemon, kept current by the
+ * daemon's event stream instead of polling {@code listContainersCmd}.
+ *
+ * Events only mark container ids as dirty; a single scheduler thread drains the
+ * dirty set with one id-filtered list call and also performs the periodic full
+ * resync, so every mutation of the model happens on that thread. When the event
+ * stream drops the cache reports itself as not synced (callers fall back to the
+ * daemon) until the stream is re-established and a full resync has completed.
+ *
+ * The subscription runs on a client without a response timeout, so a quiet
+ * daemon keeps the same stream open indefinitely. It is only re-established,
+ * with exponential backoff, when the daemon or the SSH tunnel actually closes it.
+ */
+@Slf4j
+public class DockerContainerStateCache implements Closeable {
+
+    private static final Set<String> STATE_CHANGING_ACTIONS = Set.of(
+            "create", "start", "restart", "die", "stop", "pause", "unpause",
+            "rename", "update", "destroy", "oom", "health_status"
+    );
+
+    private static final Set<String> LISTED_WITHOUT_SHOW_ALL = Set.of("running", "paused", "restarting");
+
+    private static final long DRAIN_DELAY_MS = 200;
+    private static final long MAX_RECONNECT_DELAY_MS = 60_000;
+
+    private final DockerClient dockerClient;
+    private final DockerClient streamingClient;
+    private final String name;
+    private final Duration resyncInterval;
+    private final Duration reconnectDelay;
+
+    private final Map<String, Container> containers = new ConcurrentHashMap<>();
+    private final Set<String> dirtyIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    private final AtomicBoolean streamConnected = new AtomicBoolean(false);
+    private final ScheduledExecutorService scheduler;
+
+    private volatile boolean synced;
+    private volatile boolean closed;
+    private volatile Closeable subscription;
+    private volatile long currentReconnectDelayMs;
+
+    public DockerContainerStateCache(DockerClient dockerClient, DockerClient streamingClient, String name,
+                                     Duration resyncInterval, Duration reconnectDelay) {
+        this.dockerClient = dockerClient;
+        this.streamingClient = streamingClient;
+        this.name = name;
+        this.resyncInterval = resyncInterval;
+        this.reconnectDelay = reconnectDelay;
+        this.currentReconnectDelayMs = reconnectDelay.toMillis();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "docker-events-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Subscribes to the event stream and schedules periodic resyncs. Never blocks
+     * on the daemon: connection failures are retried in the background.
+     */
+    public void start() {
+        scheduler.execute(this::connect);
+        long resyncMs = resyncInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::periodicResync, resyncMs, resyncMs, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isSynced() {
+        return synced && streamConnected.get() && !closed;
+    }
+
+    /**
+     * Snapshot of the cached containers, newest first like the daemon returns them.
+     */
+    public List<Container> getContainers(boolean showAll) {
+        List<Container> snapshot = new ArrayList<>(containers.size());
+        for (Container container : containers.values()) {
+            if (showAll || LISTED_WITHOUT_SHOW_ALL.contains(container.getState())) {
+                snapshot.add(container);
+            }
+        }
+        snapshot.sort(Comparator.comparing(
+                (Container c) -> c.getCreated() != null ? c.getCreated() : 0L).reversed());
+        return snapshot;
+    }
+
+    public int size() {
+        return containers.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        synced = false;
+        closeSubscription();
+        scheduler.shutdownNow();
+    }
+
+    private void connect() {
+        if (closed) {
+            return;
+        }
+        try {
+            closeSubscription();
+            subscription = streamingClient.eventsCmd()
+                    .withEventTypeFilter(EventType.CONTAINER)
+                    .exec(new EventCallback());
+            streamConnected.set(true);
+
+            // Subscribe first, then resync, so nothing that happens in between is lost
+            fullResync();
+            currentReconnectDelayMs = reconnectDelay.toMillis();
+            log.info("Docker event stream connected for {} ({} containers cached)", name, containers.size());
+        } catch (Exception e) {
+            log.warn("Failed to connect Docker event stream for {}: {}", name, e.getMessage());
+            streamLost();
+        }
+    }
+
+    private void streamLost() {
+        streamConnected.set(false);
+        synced = false;
+        if (closed) {
+            return;
+        }
+        long delay = currentReconnectDelayMs;
+        currentReconnectDelayMs = Math.min(delay * 2, MAX_RECONNECT_DELAY_MS);
+        log.info("Reconnecting Docker event stream for {} in {} ms", name, delay);
+        scheduler.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void periodicResync() {
+        if (!streamConnected.get()) {
+            return;
+        }
+        try {
+            fullResync();
+        } catch (Exception e) {
+            log.warn("Periodic container resync failed for {}: {}", name, e.getMessage());
+        }
+    }
+
+    private void fullResync() {
+        List<Container> fresh = dockerClient.listContainersCmd()
+                .withShowAll(true)
+                .exec();
+
+        Map<String, Container> byId = new HashMap<>(fresh.size() * 2);
+        for (Container container : fresh) {
+            byId.put(container.getId(), container);
+        }
+        containers.keySet().retainAll(byId.keySet());
+        containers.putAll(byId);
+        synced = true;
+        log.debug("Full container resync for {}: {} containers", name, byId.size());
+    }
+
+    private void markDirty(String containerId) {
+        dirtyIds.add(containerId);
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.schedule(this::drainDirty, DRAIN_DELAY_MS, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                drainScheduled.set(false);
+            }
+        }
+    }
+
+    private void drainDirty() {
+        drainScheduled.set(false);
+        if (dirtyIds.isEmpty()) {
+            return;
+        }
+
+        List<String> batch = new ArrayList<>(dirtyIds);
+        batch.forEach(dirtyIds::remove);
+
+        try {
+            List<Container> refreshed = dockerClient.listContainersCmd()
+                    .withShowAll(true)
+                    .withIdFilter(batch)
+                    .exec();
+
+            Set<String> seen = new HashSet<>();
+            for (Container container : refreshed) {
+                containers.put(container.getId(), container);
+                seen.add(container.getId());
+            }
+            // Ids the daemon no longer reports were destroyed
+            for (String id : batch) {
+                if (!seen.contains(id)) {
+                    containers.remove(id);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to refresh {} containers on {}, forcing resync: {}", batch.size(), name, e.getMessage());
+            synced = false;
+            dirtyIds.addAll(batch);
+            scheduler.execute(this::periodicResync);
+        }
+    }
+
+    private void closeSubscription() {
+        Closeable current = subscription;
+        subscription = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (Exception e) {
+                log.debug("Error closing Docker event subscription for {}", name, e);
+            }
+        }
+    }
+
+    private class EventCallback extends ResultCallback.Adapter<Event> {
+
+        @Override
+        public void onNext(Event event) {
+            if (event.getId() == null) {
+                return;
+            }
+            String action = event.getAction() != null ? event.getAction() : event.getStatus();
+            if (action == null) {
+                return;
+            }
+            // e.g. "health_status: healthy"
+            int colon = action.indexOf(':');
+            String baseAction = colon > 0 ? action.substring(0, colon) : action;
+            if (STATE_CHANGING_ACTIONS.contains(baseAction)) {
+                markDirty(event.getId());
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            if (closed) {
+                return;
+            }
+            log.warn("Docker event stream error for {}: {}", name, throwable.getMessage());
+            if (subscription == this) {
+                streamLost();
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (closed) {
+                return;
+            }
+            log.warn("Docker event stream closed by daemon for {}", name);
+            if (subscription == this) {
+                streamLost();
+            }
+        }
+    }
+}
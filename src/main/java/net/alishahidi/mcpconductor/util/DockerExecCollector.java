@@ -0,0 +1,77 @@
+package net.alishahidi.mcpconductor.util;
+
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.StreamType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Collects the stdout and stderr of a Docker exec exactly as the frames carry
+ * them, up to {@code maxBytes} across both streams. Bytes are decoded only when
+ * read, so characters split across frames survive. Once the budget is reached
+ * the output is cut at a character boundary and the stream closed; the exec
+ * itself keeps running until it is stopped separately.
+ */
+@Slf4j
+public class DockerExecCollector extends ResultCallback.Adapter<Frame> {
+
+    private final long maxBytes;
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+    private volatile boolean truncated;
+
+    public DockerExecCollector(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public synchronized void onNext(Frame frame) {
+        if (truncated || frame == null || frame.getPayload() == null) {
+            return;
+        }
+        ByteArrayOutputStream target = frame.getStreamType() == StreamType.STDERR ? stderr : stdout;
+        byte[] payload = frame.getPayload();
+        long room = maxBytes - stdout.size() - stderr.size();
+        if (payload.length <= room) {
+            target.write(payload, 0, payload.length);
+            return;
+        }
+
+        target.write(payload, 0, (int) Math.max(room, 0));
+        truncated = true;
+        try {
+            close();
+        } catch (Exception e) {
+            log.debug("Error closing exec stream after reaching byte cap", e);
+        }
+    }
+
+    public synchronized String getStdout() {
+        return decode(stdout);
+    }
+
+    public synchronized String getStderr() {
+        return decode(stderr);
+    }
+
+    public synchronized long getStdoutBytes() {
+        return stdout.size();
+    }
+
+    public synchronized long getStderrBytes() {
+        return stderr.size();
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    private String decode(ByteArrayOutputStream stream) {
+        byte[] bytes = stream.toByteArray();
+        int length = truncated ? Utf8.completeLength(bytes, bytes.length) : bytes.length;
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
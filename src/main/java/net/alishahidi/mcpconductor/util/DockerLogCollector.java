@@ -0,0 +1,198 @@
+package net.alishahidi.mcpconductor.util;
+
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.StreamType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+import java.util.regex.Pattern;
+
+/**
+ * Demultiplexes a Docker frame stream (container logs or exec output) into
+ * stdout/stderr lines.
+ *
+ * Frames are split on newline bytes before decoding, so multi-byte UTF-8
+ * sequences that straddle frame boundaries decode correctly. Matching lines are
+ * kept up to {@code maxBytes} in total and forwarded in batches to an optional
+ * chunk listener; once the budget is exhausted the stream is closed, which stops
+ * the daemon from sending anything further.
+ */
+@Slf4j
+public class DockerLogCollector extends ResultCallback.Adapter<Frame> {
+
+    private static final int CHUNK_FLUSH_BYTES = 16 * 1024;
+    private static final long CHUNK_FLUSH_INTERVAL_MS = 250;
+
+    private final Pattern filter;
+    private final long maxBytes;
+    private final BiConsumer<String, String> chunkListener;
+
+    private final LineBuffer stdoutBuffer = new LineBuffer("stdout");
+    private final LineBuffer stderrBuffer = new LineBuffer("stderr");
+
+    private long retainedBytes;
+    private long linesScanned;
+    private long linesMatched;
+    private volatile boolean truncated;
+
+    /**
+     * @param filter        optional regex; only lines containing a match are kept
+     * @param maxBytes      hard cap on retained output across both streams
+     * @param chunkListener optional {@code (stream, text)} callback for incremental delivery
+     */
+    public DockerLogCollector(Pattern filter, long maxBytes, BiConsumer<String, String> chunkListener) {
+        this.filter = filter;
+        this.maxBytes = maxBytes;
+        this.chunkListener = chunkListener;
+    }
+
+    @Override
+    public synchronized void onNext(Frame frame) {
+        if (truncated || frame == null || frame.getPayload() == null) {
+            return;
+        }
+        LineBuffer buffer = frame.getStreamType() == StreamType.STDERR ? stderrBuffer : stdoutBuffer;
+        buffer.append(frame.getPayload());
+        buffer.maybeFlushChunk(false);
+    }
+
+    @Override
+    public void onComplete() {
+        finish();
+        super.onComplete();
+    }
+
+    /**
+     * Emits any trailing partial lines and pending chunks. Safe to call more than once.
+     */
+    public synchronized void finish() {
+        stdoutBuffer.drainRemainder();
+        stderrBuffer.drainRemainder();
+        stdoutBuffer.maybeFlushChunk(true);
+        stderrBuffer.maybeFlushChunk(true);
+    }
+
+    public synchronized String getStdout() {
+        return stdoutBuffer.retained.toString();
+    }
+
+    public synchronized String getStderr() {
+        return stderrBuffer.retained.toString();
+    }
+
+    public synchronized long getStdoutBytes() {
+        return stdoutBuffer.retainedBytes;
+    }
+
+    public synchronized long getStderrBytes() {
+        return stderrBuffer.retainedBytes;
+    }
+
+    public synchronized long getLinesScanned() {
+        return linesScanned;
+    }
+
+    public synchronized long getLinesMatched() {
+        return linesMatched;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    private void acceptLine(LineBuffer buffer, byte[] bytes, int offset, int length) {
+        linesScanned++;
+        String line = new String(bytes, offset, length, StandardCharsets.UTF_8);
+        if (filter != null && !filter.matcher(line).find()) {
+            return;
+        }
+
+        int lineBytes = length + 1;
+        if (retainedBytes + lineBytes > maxBytes) {
+            truncated = true;
+            try {
+                close();
+            } catch (Exception e) {
+                log.debug("Error closing log stream after reaching byte cap", e);
+            }
+            return;
+        }
+
+        linesMatched++;
+        retainedBytes += lineBytes;
+        buffer.retainedBytes += lineBytes;
+        buffer.retained.append(line).append('\n');
+        buffer.pendingChunk.append(line).append('\n');
+    }
+
+    private final class LineBuffer {
+        private final String streamName;
+        private final ByteArrayOutputStream partial = new ByteArrayOutputStream();
+        private final StringBuilder retained = new StringBuilder();
+        private final StringBuilder pendingChunk = new StringBuilder();
+        private long retainedBytes;
+        private long lastChunkAt = System.currentTimeMillis();
+
+        private LineBuffer(String streamName) {
+            this.streamName = streamName;
+        }
+
+        private void append(byte[] payload) {
+            int start = 0;
+            for (int i = 0; i < payload.length && !truncated; i++) {
+                if (payload[i] != '\n') {
+                    continue;
+                }
+                if (partial.size() > 0) {
+                    partial.write(payload, start, i - start);
+                    byte[] joined = partial.toByteArray();
+                    partial.reset();
+                    acceptLine(this, joined, 0, stripCr(joined, joined.length));
+                } else {
+                    acceptLine(this, payload, start, stripCr(payload, i) - start);
+                }
+                start = i + 1;
+            }
+            if (!truncated && start < payload.length) {
+                partial.write(payload, start, payload.length - start);
+                // A single line larger than the whole budget can never be retained
+                if (partial.size() > maxBytes) {
+                    drainRemainder();
+                }
+            }
+        }
+
+        private int stripCr(byte[] bytes, int end) {
+            return end > 0 && bytes[end - 1] == '\r' ? end - 1 : end;
+        }
+
+        private void drainRemainder() {
+            if (partial.size() > 0 && !truncated) {
+                byte[] rest = partial.toByteArray();
+                partial.reset();
+                acceptLine(this, rest, 0, rest.length);
+            }
+            partial.reset();
+        }
+
+        private void maybeFlushChunk(boolean force) {
+            if (chunkListener == null || pendingChunk.isEmpty()) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (force || pendingChunk.length() >= CHUNK_FLUSH_BYTES || now - lastChunkAt >= CHUNK_FLUSH_INTERVAL_MS) {
+                String chunk = pendingChunk.toString();
+                pendingChunk.setLength(0);
+                lastChunkAt = now;
+                try {
+                    chunkListener.accept(streamName, chunk);
+                } catch (Exception e) {
+                    log.debug("Log chunk listener failed for {}", streamName, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package net.alishahidi.mcpconductor.util;
+
+import net.alishahidi.mcpconductor.model.MetricSummary;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-capacity ring buffer of primitive doubles. Memory use is constant
+ * regardless of how many samples are written; the oldest values are overwritten.
+ *
+ * Every write gets a monotonically increasing sequence number, so a reader can
+ * remember {@link #written()} and later ask for only the samples added since.
+ * {@code NaN} marks "no value" and is ignored by {@link #summarize(double[])}.
+ */
+public class DoubleRingBuffer {
+
+    private final double[] values;
+    private long written;
+
+    public DoubleRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.values = new double[capacity];
+    }
+
+    public synchronized void add(double value) {
+        values[(int) (written % values.length)] = value;
+        written++;
+    }
+
+    /**
+     * Total number of values ever written (the sequence number of the next write).
+     */
+    public synchronized long written() {
+        return written;
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    public synchronized int size() {
+        return (int) Math.min(written, values.length);
+    }
+
+    public synchronized double latest() {
+        return written == 0 ? Double.NaN : values[(int) ((written - 1) % values.length)];
+    }
+
+    /**
+     * Values with sequence number {@code >= fromSeq} that are still retained, oldest first.
+     */
+    public synchronized double[] snapshotSince(long fromSeq) {
+        long oldest = Math.max(written - values.length, 0);
+        long start = Math.max(fromSeq, oldest);
+        if (start >= written) {
+            return new double[0];
+        }
+        double[] out = new double[(int) (written - start)];
+        for (long seq = start; seq < written; seq++) {
+            out[(int) (seq - start)] = values[(int) (seq % values.length)];
+        }
+        return out;
+    }
+
+    public double[] snapshot() {
+        return snapshotSince(0);
+    }
+
+    /**
+     * Count/min/avg/p95/max/last over the non-NaN values, or {@code null} if there are none.
+     */
+    public static MetricSummary summarize(double[] samples) {
+        double[] finite = Arrays.stream(samples).filter(v -> !Double.isNaN(v)).toArray();
+        if (finite.length == 0) {
+            return null;
+        }
+
+        double last = finite[finite.length - 1];
+        double sum = 0;
+        for (double v : finite) {
+            sum += v;
+        }
+        Arrays.sort(finite);
+
+        return MetricSummary.builder()
+                .count(finite.length)
+                .min(finite[0])
+                .avg(sum / finite.length)
+                .p95(percentile(finite, 95))
+                .max(finite[finite.length - 1])
+                .last(last)
+                .build();
+    }
+
+    /**
+     * Nearest-rank percentile of an already sorted array.
+     */
+    public static double percentile(double[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.min(Math.max(rank, 1), sorted.length) - 1];
+    }
+}
@@ -0,0 +1,118 @@
+package net.alishahidi.mcpconductor.util;
+
+import net.alishahidi.mcpconductor.model.TaskOutcome;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Runs one task per target (host, container, file...) in parallel with a
+ * concurrency limit and an optional per-task deadline, and collects an outcome
+ * for every target instead of failing the whole batch on the first error.
+ * The deadline starts when a task gets its permit, not when it was queued.
+ */
+@Component
+@Slf4j
+public class FanOutExecutor {
+
+    private final ExecutorService executor;
+
+    public FanOutExecutor(@Qualifier("fanOutExecutorService") ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @param maxConcurrency maximum tasks in flight; {@code <= 0} means unbounded
+     * @param timeout        per-task deadline, or {@code null} for none
+     * @return one outcome per target, in target order
+     */
+    public <T> List<TaskOutcome<T>> runAll(List<String> targets, int maxConcurrency,
+                                           Duration timeout, Function<String, T> task) {
+        Semaphore permits = new Semaphore(maxConcurrency > 0 ? maxConcurrency : Integer.MAX_VALUE);
+
+        List<Future<TaskOutcome<T>>> futures = new ArrayList<>(targets.size());
+        for (String target : targets) {
+            futures.add(executor.submit(() -> runOne(target, permits, timeout, task)));
+        }
+
+        List<TaskOutcome<T>> outcomes = new ArrayList<>(targets.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                outcomes.add(futures.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                outcomes.add(failure(targets.get(i), "Interrupted", false, 0));
+            } catch (ExecutionException e) {
+                outcomes.add(failure(targets.get(i), rootMessage(e), false, 0));
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * {@link #runAll} without waiting, for callers that consume what the tasks
+     * produce while they are still running.
+     */
+    public <T> CompletableFuture<List<TaskOutcome<T>>> startAll(List<String> targets, int maxConcurrency,
+                                                              Duration timeout, Function<String, T> task) {
+        return CompletableFuture.supplyAsync(() -> runAll(targets, maxConcurrency, timeout, task), executor);
+    }
+
+    private <T> TaskOutcome<T> runOne(String target, Semaphore permits, Duration timeout,
+                                      Function<String, T> task) throws InterruptedException {
+        permits.acquire();
+        long start = System.currentTimeMillis();
+        Future<T> inner = executor.submit(() -> task.apply(target));
+        try {
+            T result = timeout != null
+                    ? inner.get(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                    : inner.get();
+            return TaskOutcome.<T>builder()
+                    .target(target)
+                    .success(true)
+                    .result(result)
+                    .durationMs(System.currentTimeMillis() - start)
+                    .build();
+        } catch (TimeoutException e) {
+            inner.cancel(true);
+            return failure(target, "Timed out after " + timeout.toMillis() + " ms", true,
+                    System.currentTimeMillis() - start);
+        } catch (ExecutionException e) {
+            log.debug("Fan-out task failed for {}", target, e.getCause());
+            return failure(target, rootMessage(e), false, System.currentTimeMillis() - start);
+        } catch (InterruptedException e) {
+            inner.cancel(true);
+            throw e;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private <T> TaskOutcome<T> failure(String target, String error, boolean timedOut, long durationMs) {
+        return TaskOutcome.<T>builder()
+                .target(target)
+                .success(false)
+                .error(error)
+                .timedOut(timedOut)
+                .durationMs(durationMs)
+                .build();
+    }
+
+    private String rootMessage(ExecutionException e) {
+        Throwable cause = e.getCause() != null ? e.getCause() : e;
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+}
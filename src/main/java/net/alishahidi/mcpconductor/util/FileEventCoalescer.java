@@ -0,0 +1,100 @@
+package net.alishahidi.mcpconductor.util;
+
+import net.alishahidi.mcpconductor.util.FileWatchCommand.Event;
+import net.alishahidi.mcpconductor.util.FileWatchCommand.Kind;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Debounces raw file events per path and reduces each burst to its net effect.
+ *
+ * A path's events are held until it has been quiet for the debounce period,
+ * or for at most the maximum delay so a file written continuously is still
+ * reported. A burst collapses to one change: created then modified is a
+ * creation, modified then deleted a deletion, deleted then created a
+ * modification (a replaced file), and created then deleted nothing at all
+ * (an editor's or deploy tool's temporary file). Settled changes are returned
+ * in the order their paths first changed.
+ */
+public class FileEventCoalescer {
+
+    private final long debounceMs;
+    private final long maxDelayMs;
+    private final Map<String, Pending> pending = new LinkedHashMap<>();
+
+    public FileEventCoalescer(long debounceMs, long maxDelayMs) {
+        this.debounceMs = debounceMs;
+        this.maxDelayMs = Math.max(maxDelayMs, debounceMs);
+    }
+
+    public record Change(Kind kind, String path, boolean directory, int count, long firstAt, long lastAt) {
+    }
+
+    public synchronized void add(Event event, long now) {
+        Pending entry = pending.get(event.path());
+        if (entry == null) {
+            pending.put(event.path(), new Pending(event.kind(), event.directory(), now));
+            return;
+        }
+        entry.kind = merge(entry.kind, event.kind());
+        entry.directory |= event.directory();
+        entry.count++;
+        entry.lastAt = now;
+    }
+
+    /**
+     * Removes and returns the changes that have settled by {@code now}.
+     */
+    public synchronized List<Change> drain(long now) {
+        List<Change> settled = new ArrayList<>();
+        Iterator<Map.Entry<String, Pending>> entries = pending.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, Pending> entry = entries.next();
+            Pending p = entry.getValue();
+            if (now - p.lastAt < debounceMs && now - p.firstAt < maxDelayMs) {
+                continue;
+            }
+            entries.remove();
+            if (p.kind != null) {
+                settled.add(new Change(p.kind, entry.getKey(), p.directory, p.count, p.firstAt, p.lastAt));
+            }
+        }
+        return settled;
+    }
+
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    // null stands for "no net change" after a creation was undone within the burst
+    private static Kind merge(Kind current, Kind next) {
+        if (current == null) {
+            return next == Kind.DELETED ? null : Kind.CREATED;
+        }
+        return switch (current) {
+            case CREATED -> next == Kind.DELETED ? null : Kind.CREATED;
+            case MODIFIED -> next == Kind.DELETED ? Kind.DELETED : Kind.MODIFIED;
+            case DELETED -> next == Kind.DELETED ? Kind.DELETED : Kind.MODIFIED;
+        };
+    }
+
+    private static final class Pending {
+
+        private Kind kind;
+        private boolean directory;
+        private int count = 1;
+        private final long firstAt;
+        private long lastAt;
+
+        private Pending(Kind kind, boolean directory, long now) {
+            this.kind = kind;
+            this.directory = directory;
+            this.firstAt = now;
+            this.lastAt = now;
+        }
+    }
+}
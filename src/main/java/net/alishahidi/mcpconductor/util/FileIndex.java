@@ -0,0 +1,686 @@
+package net.alishahidi.mcpconductor.util;
+
+import net.alishahidi.mcpconductor.model.DiskUsageNode;
+import net.alishahidi.mcpconductor.model.FileMatch;
+import net.alishahidi.mcpconductor.util.parser.ByteScanner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Metadata of one remote directory tree (type, size, mtime, owner per entry)
+ * held in parallel primitive arrays, about 40 bytes per entry plus its name.
+ *
+ * Entries are read from {@code find -printf} lines in {@link #FIND_FORMAT}:
+ * <pre>
+ * type depth size mtime owner basename
+ * </pre>
+ * Depth-first output lets the parent of each line be taken from a stack of the
+ * directories seen at each depth, so full paths are never transferred or
+ * stored. Owners are interned. A parent always has a smaller id than its
+ * children, which keeps subtree totals a single reverse pass.
+ *
+ * Directories can be re-listed in place ({@link #applyListings}); removed
+ * entries become tombstones and the arrays are compacted once more than half
+ * of them are dead.
+ */
+public class FileIndex {
+
+    /**
+     * {@code find -printf} format for {@link #readEntries}; escapes are for a single-quoted shell argument.
+     */
+    public static final String FIND_FORMAT = "%y %d %s %T@ %u %f\\n";
+
+    public static final byte DIRECTORY = 'd';
+
+    private static final byte DEAD = 0;
+    private static final int NONE = -1;
+
+    private final String root;
+    private final int maxEntries;
+
+    private int count;
+    private int dead;
+    private int[] parent;
+    private int[] firstChild;
+    private int[] nextSibling;
+    private int[] nameOffset;
+    private short[] nameLength;
+    private long[] size;
+    // Seconds since the epoch, unsigned
+    private int[] mtime;
+    private short[] owner;
+    private byte[] type;
+    private byte[] names;
+    private int namesLength;
+
+    private final List<String> owners = new ArrayList<>();
+    private final Map<String, Short> ownerIds = new HashMap<>();
+    private String lastOwner;
+    private short lastOwnerId;
+
+    // Subtree totals, computed on first query after a change
+    private long[] totalSize;
+    private long[] totalFiles;
+    private long[] totalDirectories;
+
+    /**
+     * @param root       absolute path of the indexed directory; becomes entry 0
+     * @param maxEntries entries beyond this are refused with {@link IllegalStateException}
+     */
+    public FileIndex(String root, int maxEntries) {
+        this.root = root;
+        this.maxEntries = maxEntries;
+        allocate(1024, 16 * 1024);
+        byte[] rootName = root.getBytes(StandardCharsets.UTF_8);
+        add(NONE, DIRECTORY, 0, 0, internOwner("?"), rootName, 0, rootName.length);
+    }
+
+    public String getRoot() {
+        return root;
+    }
+
+    public synchronized int size() {
+        return count - dead;
+    }
+
+    public synchronized long memoryBytes() {
+        return (long) parent.length * (4 * 5 + 2 + 8 + 2 + 1) + names.length;
+    }
+
+    /**
+     * Adds the entries of a {@link #FIND_FORMAT} stream below {@code baseId}.
+     * A line at depth {@code d} becomes a child of the last directory seen at
+     * depth {@code d - 1}; depth 0 (the starting point itself) updates
+     * {@code baseId} unless {@code depthOffset} shifts it down.
+     *
+     * @param depthOffset added to every depth; 1 when each starting point should become a child of {@code baseId}
+     */
+    public synchronized void readEntries(InputStream in, int baseId, int depthOffset) throws IOException {
+        int[][] stack = {new int[64]};
+        stack[0][0] = baseId;
+        IOException[] overflow = new IOException[1];
+        ByteScanner.forEachLine(in, scanner -> {
+            if (!scanner.nextField()) {
+                return true;
+            }
+            byte entryType = scanner.fieldByte(0);
+            scanner.nextField();
+            long depth = scanner.fieldLong();
+            scanner.nextField();
+            long entrySize = scanner.fieldLong();
+            scanner.nextField();
+            long entryMtime = scanner.fieldLong();
+            scanner.nextField();
+            short entryOwner = internOwner(scanner);
+            if (depth < 0 || !scanner.toRest()) {
+                return true;
+            }
+            int level = (int) depth + depthOffset;
+            if (level == 0) {
+                update(baseId, entryType, entrySize, entryMtime, entryOwner);
+                return true;
+            }
+            if (count - dead >= maxEntries) {
+                overflow[0] = new IOException("Index limit of " + maxEntries + " entries reached");
+                return false;
+            }
+            if (level >= stack[0].length) {
+                stack[0] = Arrays.copyOf(stack[0], level * 2);
+            }
+            int id = add(stack[0][level - 1], entryType, entrySize, entryMtime, entryOwner, scanner);
+            if (entryType == DIRECTORY) {
+                stack[0][level] = id;
+            }
+            return true;
+        });
+        if (overflow[0] != null) {
+            throw overflow[0];
+        }
+    }
+
+    /**
+     * Copies all entries of {@code fragment} except its root below {@code targetId}.
+     */
+    public synchronized void merge(FileIndex fragment, int targetId) {
+        if (size() + fragment.size() - 1 > maxEntries) {
+            throw new IllegalStateException("Index limit of " + maxEntries + " entries reached");
+        }
+        int[] map = new int[fragment.count];
+        map[0] = targetId;
+        for (int i = 1; i < fragment.count; i++) {
+            if (fragment.type[i] == DEAD) {
+                continue;
+            }
+            map[i] = add(map[fragment.parent[i]], fragment.type[i], fragment.size[i],
+                    Integer.toUnsignedLong(fragment.mtime[i]), internOwner(fragment.owners.get(fragment.owner[i])),
+                    fragment.names, fragment.nameOffset[i], fragment.nameLength[i]);
+        }
+    }
+
+    /**
+     * Replaces the direct children of directories with a fresh listing.
+     *
+     * @param listing    {@link #readEntries} of {@code find dir -maxdepth 1} for each directory in
+     *                   order, read with depth offset 1, so each listed directory is a child of its root
+     * @param directories ids of the listed directories, in listing order; directories missing from
+     *                   the listing (removed meanwhile) are skipped
+     * @return number of directories updated
+     */
+    public synchronized int applyListings(FileIndex listing, List<Integer> directories) {
+        int applied = 0;
+        int expected = 0;
+        for (int listed = 1; listed < listing.count; listed++) {
+            if (listing.parent[listed] != 0 || listing.type[listed] == DEAD) {
+                continue;
+            }
+            while (expected < directories.size()
+                    && !nameEquals(directories.get(expected), listing, listed)) {
+                expected++;
+            }
+            if (expected == directories.size()) {
+                break;
+            }
+            int dir = directories.get(expected++);
+            if (type[dir] != DIRECTORY) {
+                continue;
+            }
+            update(dir, DIRECTORY, listing.size[listed], Integer.toUnsignedLong(listing.mtime[listed]),
+                    internOwner(listing.owners.get(listing.owner[listed])));
+            reconcile(dir, listing, listed);
+            applied++;
+        }
+        compactIfSparse();
+        return applied;
+    }
+
+    /**
+     * Live directory ids by path relative to the root ({@code ""} for the root), for refresh planning.
+     */
+    public synchronized Map<String, Integer> directoryPaths() {
+        String[] relative = new String[count];
+        Map<String, Integer> paths = new HashMap<>();
+        relative[0] = "";
+        paths.put("", 0);
+        for (int i = 1; i < count; i++) {
+            if (type[i] != DIRECTORY || relative[parent[i]] == null) {
+                continue;
+            }
+            String parentPath = relative[parent[i]];
+            relative[i] = parentPath.isEmpty() ? name(i) : parentPath + "/" + name(i);
+            paths.put(relative[i], i);
+        }
+        return paths;
+    }
+
+    public synchronized long mtime(int id) {
+        return Integer.toUnsignedLong(mtime[id]);
+    }
+
+    public synchronized List<Integer> childDirectories(int id) {
+        List<Integer> dirs = new ArrayList<>();
+        for (int c = firstChild[id]; c != NONE; c = nextSibling[c]) {
+            if (type[c] == DIRECTORY) {
+                dirs.add(c);
+            }
+        }
+        return dirs;
+    }
+
+    /**
+     * Entry id for an absolute path inside the index, or {@code -1}.
+     */
+    public synchronized int resolve(String path) {
+        String relative = relativize(path);
+        if (relative == null) {
+            return NONE;
+        }
+        int id = 0;
+        for (String segment : relative.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            byte[] wanted = segment.getBytes(StandardCharsets.UTF_8);
+            int found = NONE;
+            for (int c = firstChild[id]; c != NONE; c = nextSibling[c]) {
+                if (Arrays.equals(names, nameOffset[c], nameOffset[c] + nameLength[c], wanted, 0, wanted.length)) {
+                    found = c;
+                    break;
+                }
+            }
+            if (found == NONE) {
+                return NONE;
+            }
+            id = found;
+        }
+        return id;
+    }
+
+    /**
+     * Path relative to the root for an absolute path under it, or {@code null} when it is outside.
+     */
+    public String relativize(String path) {
+        if (path.equals(root)) {
+            return "";
+        }
+        String prefix = root.endsWith("/") ? root : root + "/";
+        return path.startsWith(prefix) ? path.substring(prefix.length()) : null;
+    }
+
+    public synchronized String path(int id) {
+        if (id == 0) {
+            return root;
+        }
+        Deque<String> segments = new ArrayDeque<>();
+        for (int i = id; i > 0; i = parent[i]) {
+            segments.push(name(i));
+        }
+        return (root.endsWith("/") ? root : root + "/") + String.join("/", segments);
+    }
+
+    /**
+     * Size tree below {@code id}, {@code depth} levels deep, keeping the
+     * {@code limit} largest children per level.
+     */
+    public synchronized DiskUsageNode usageTree(int id, int depth, int limit) {
+        computeTotals();
+        return usageNode(id, path(id), depth, limit);
+    }
+
+    /**
+     * Entries below {@code id} (excluding {@code id}) accepted by {@code query}.
+     *
+     * @param limit entries to return; with a sort key the top entries by it, otherwise the first in tree order
+     */
+    public synchronized Matches find(int id, Query query, int limit) {
+        Comparator<Integer> order = switch (query.sortBy() == null ? "" : query.sortBy()) {
+            case "size" -> Comparator.comparingLong(i -> size[i]);
+            case "mtime" -> Comparator.comparingLong(i -> Integer.toUnsignedLong(mtime[i]));
+            default -> null;
+        };
+        PriorityQueue<Integer> top = order != null ? new PriorityQueue<>(limit + 1, order) : null;
+        List<Integer> first = new ArrayList<>();
+        int matched = 0;
+
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.push(id);
+        while (!pending.isEmpty()) {
+            int dir = pending.pop();
+            for (int c = firstChild[dir]; c != NONE; c = nextSibling[c]) {
+                if (type[c] == DIRECTORY) {
+                    pending.push(c);
+                }
+                if (!matches(c, query)) {
+                    continue;
+                }
+                matched++;
+                if (top != null) {
+                    top.add(c);
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                } else if (first.size() < limit) {
+                    first.add(c);
+                }
+            }
+        }
+
+        List<Integer> selected = top != null ? new ArrayList<>(top) : first;
+        if (order != null) {
+            selected.sort(order.reversed());
+        }
+        List<FileMatch> entries = new ArrayList<>(selected.size());
+        for (int i : selected) {
+            entries.add(FileMatch.builder()
+                    .path(path(i))
+                    .type(typeName(type[i]))
+                    .sizeBytes(size[i])
+                    .modified(Instant.ofEpochSecond(Integer.toUnsignedLong(mtime[i])).toString())
+                    .owner(owners.get(owner[i]))
+                    .build());
+        }
+        return new Matches(matched, entries);
+    }
+
+    /**
+     * Filters for {@link #find}; {@code null} or negative values do not filter.
+     *
+     * @param type   find type letter: f, d, l...
+     * @param sortBy {@code size}, {@code mtime} or {@code null} for tree order
+     */
+    public record Query(Pattern name, Character type, long minSize, long maxSize,
+                        long modifiedAfter, long modifiedBefore, String owner, String sortBy) {
+    }
+
+    public record Matches(int matched, List<FileMatch> entries) {
+    }
+
+    /**
+     * Translates a shell glob ({@code *}, {@code ?}, {@code [...]}) for a single name into a regex.
+     */
+    public static Pattern globToPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        boolean inClass = false;
+        for (char c : glob.toCharArray()) {
+            if (inClass) {
+                regex.append(c == '\\' ? "\\\\" : c);
+                inClass = c != ']';
+                continue;
+            }
+            switch (c) {
+                case '*' -> regex.append(".*");
+                case '?' -> regex.append('.');
+                case '[' -> {
+                    regex.append('[');
+                    inClass = true;
+                }
+                default -> regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    private boolean matches(int i, Query query) {
+        if (query.type() != null && type[i] != query.type()) {
+            return false;
+        }
+        if (query.minSize() >= 0 && size[i] < query.minSize()) {
+            return false;
+        }
+        if (query.maxSize() >= 0 && size[i] > query.maxSize()) {
+            return false;
+        }
+        long modified = Integer.toUnsignedLong(mtime[i]);
+        if (query.modifiedAfter() >= 0 && modified < query.modifiedAfter()) {
+            return false;
+        }
+        if (query.modifiedBefore() >= 0 && modified > query.modifiedBefore()) {
+            return false;
+        }
+        if (query.owner() != null && !owners.get(owner[i]).equals(query.owner())) {
+            return false;
+        }
+        return query.name() == null || query.name().matcher(name(i)).matches();
+    }
+
+    private DiskUsageNode usageNode(int id, String path, int depth, int limit) {
+        DiskUsageNode.DiskUsageNodeBuilder node = DiskUsageNode.builder()
+                .path(path)
+                .sizeBytes(totalSize[id])
+                .files(totalFiles[id])
+                .directories(totalDirectories[id])
+                .modified(Instant.ofEpochSecond(Integer.toUnsignedLong(mtime[id])).toString());
+        if (depth <= 0 || type[id] != DIRECTORY) {
+            return node.build();
+        }
+        List<Integer> children = new ArrayList<>();
+        for (int c = firstChild[id]; c != NONE; c = nextSibling[c]) {
+            children.add(c);
+        }
+        children.sort(Comparator.comparingLong((Integer c) -> totalSize[c]).reversed());
+
+        String prefix = path.endsWith("/") ? path : path + "/";
+        List<DiskUsageNode> shown = new ArrayList<>();
+        long omittedBytes = 0;
+        for (int k = 0; k < children.size(); k++) {
+            int c = children.get(k);
+            if (k < limit) {
+                shown.add(usageNode(c, prefix + name(c), depth - 1, limit));
+            } else {
+                omittedBytes += totalSize[c];
+            }
+        }
+        return node.children(shown)
+                .omittedChildren(Math.max(children.size() - limit, 0))
+                .omittedBytes(omittedBytes)
+                .build();
+    }
+
+    private void computeTotals() {
+        if (totalSize != null) {
+            return;
+        }
+        totalSize = new long[count];
+        totalFiles = new long[count];
+        totalDirectories = new long[count];
+        for (int i = count - 1; i >= 0; i--) {
+            if (type[i] == DEAD) {
+                continue;
+            }
+            totalSize[i] += size[i];
+            if (type[i] == DIRECTORY) {
+                totalDirectories[i]++;
+            } else {
+                totalFiles[i]++;
+            }
+            if (i > 0) {
+                totalSize[parent[i]] += totalSize[i];
+                totalFiles[parent[i]] += totalFiles[i];
+                totalDirectories[parent[i]] += totalDirectories[i];
+            }
+        }
+        // The queried directory itself is not one of its own directories
+        for (int i = 0; i < count; i++) {
+            if (type[i] == DIRECTORY) {
+                totalDirectories[i]--;
+            }
+        }
+    }
+
+    private void reconcile(int dir, FileIndex listing, int listed) {
+        Map<String, Integer> existing = new HashMap<>();
+        for (int c = firstChild[dir]; c != NONE; c = nextSibling[c]) {
+            existing.put(name(c), c);
+        }
+        for (int l = listing.firstChild[listed]; l != NONE; l = listing.nextSibling[l]) {
+            Integer current = existing.remove(listing.name(l));
+            short entryOwner = internOwner(listing.owners.get(listing.owner[l]));
+            long entryMtime = Integer.toUnsignedLong(listing.mtime[l]);
+            if (current != null && type[current] == listing.type[l]) {
+                update(current, listing.type[l], listing.size[l], entryMtime, entryOwner);
+                continue;
+            }
+            if (current != null) {
+                remove(current);
+            }
+            add(dir, listing.type[l], listing.size[l], entryMtime, entryOwner,
+                    listing.names, listing.nameOffset[l], listing.nameLength[l]);
+        }
+        existing.values().forEach(this::remove);
+    }
+
+    private void remove(int id) {
+        int p = parent[id];
+        if (firstChild[p] == id) {
+            firstChild[p] = nextSibling[id];
+        } else {
+            for (int c = firstChild[p]; c != NONE; c = nextSibling[c]) {
+                if (nextSibling[c] == id) {
+                    nextSibling[c] = nextSibling[id];
+                    break;
+                }
+            }
+        }
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.push(id);
+        while (!pending.isEmpty()) {
+            int i = pending.pop();
+            for (int c = firstChild[i]; c != NONE; c = nextSibling[c]) {
+                pending.push(c);
+            }
+            type[i] = DEAD;
+            dead++;
+        }
+        totalSize = null;
+    }
+
+    private void compactIfSparse() {
+        if (dead * 2 <= count) {
+            return;
+        }
+        int[] map = new int[count];
+        int[] oldParent = parent;
+        int[] oldNameOffset = nameOffset;
+        short[] oldNameLength = nameLength;
+        long[] oldSize = size;
+        int[] oldMtime = mtime;
+        short[] oldOwner = owner;
+        byte[] oldType = type;
+        byte[] oldNames = names;
+        int oldCount = count;
+
+        allocate(Math.max(1024, (count - dead) * 5 / 4), Math.max(16 * 1024, namesLength));
+        count = 0;
+        dead = 0;
+        namesLength = 0;
+        for (int i = 0; i < oldCount; i++) {
+            if (oldType[i] == DEAD) {
+                continue;
+            }
+            map[i] = add(i == 0 ? NONE : map[oldParent[i]], oldType[i], oldSize[i],
+                    Integer.toUnsignedLong(oldMtime[i]), oldOwner[i], oldNames, oldNameOffset[i], oldNameLength[i]);
+        }
+        totalSize = null;
+    }
+
+    private int add(int parentId, byte entryType, long entrySize, long entryMtime, short entryOwner, ByteScanner scanner) {
+        int length = Math.min(scanner.fieldLength(), Short.MAX_VALUE);
+        ensureNames(length);
+        scanner.copyField(names, namesLength);
+        int id = link(parentId, entryType, entrySize, entryMtime, entryOwner, namesLength, length);
+        namesLength += length;
+        return id;
+    }
+
+    private int add(int parentId, byte entryType, long entrySize, long entryMtime, short entryOwner,
+                    byte[] source, int offset, int length) {
+        ensureNames(length);
+        System.arraycopy(source, offset, names, namesLength, length);
+        int id = link(parentId, entryType, entrySize, entryMtime, entryOwner, namesLength, length);
+        namesLength += length;
+        return id;
+    }
+
+    private int link(int parentId, byte entryType, long entrySize, long entryMtime, short entryOwner,
+                     int offset, int length) {
+        if (count == parent.length) {
+            grow(parent.length * 2);
+        }
+        int id = count++;
+        parent[id] = parentId;
+        firstChild[id] = NONE;
+        nextSibling[id] = parentId == NONE ? NONE : firstChild[parentId];
+        if (parentId != NONE) {
+            firstChild[parentId] = id;
+        }
+        nameOffset[id] = offset;
+        nameLength[id] = (short) length;
+        update(id, entryType, entrySize, entryMtime, entryOwner);
+        return id;
+    }
+
+    private void update(int id, byte entryType, long entrySize, long entryMtime, short entryOwner) {
+        type[id] = entryType;
+        size[id] = Math.max(entrySize, 0);
+        mtime[id] = (int) Math.max(entryMtime, 0);
+        owner[id] = entryOwner;
+        totalSize = null;
+    }
+
+    private short internOwner(ByteScanner scanner) {
+        if (lastOwner != null && scanner.fieldEquals(lastOwner)) {
+            return lastOwnerId;
+        }
+        String name = scanner.field();
+        short id = internOwner(name);
+        lastOwner = name;
+        lastOwnerId = id;
+        return id;
+    }
+
+    private short internOwner(String name) {
+        Short id = ownerIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        if (owners.size() == Short.MAX_VALUE) {
+            return internOwner("?");
+        }
+        short next = (short) owners.size();
+        owners.add(name);
+        ownerIds.put(name, next);
+        return next;
+    }
+
+    private String name(int id) {
+        return new String(names, nameOffset[id], nameLength[id], StandardCharsets.UTF_8);
+    }
+
+    // find prints the starting point's basename, while entry 0 holds the whole root path
+    private boolean nameEquals(int id, FileIndex other, int otherId) {
+        int otherEnd = other.nameOffset[otherId] + other.nameLength[otherId];
+        if (id == 0) {
+            byte[] base = (root.equals("/") ? root : root.substring(root.lastIndexOf('/') + 1))
+                    .getBytes(StandardCharsets.UTF_8);
+            return Arrays.equals(base, 0, base.length, other.names, other.nameOffset[otherId], otherEnd);
+        }
+        return Arrays.equals(names, nameOffset[id], nameOffset[id] + nameLength[id],
+                other.names, other.nameOffset[otherId], otherEnd);
+    }
+
+    private static String typeName(byte entryType) {
+        return switch (entryType) {
+            case 'f' -> "file";
+            case 'd' -> "directory";
+            case 'l' -> "symlink";
+            case 'p' -> "fifo";
+            case 's' -> "socket";
+            case 'c' -> "char-device";
+            case 'b' -> "block-device";
+            default -> "unknown";
+        };
+    }
+
+    private void allocate(int capacity, int nameCapacity) {
+        parent = new int[capacity];
+        firstChild = new int[capacity];
+        nextSibling = new int[capacity];
+        nameOffset = new int[capacity];
+        nameLength = new short[capacity];
+        size = new long[capacity];
+        mtime = new int[capacity];
+        owner = new short[capacity];
+        type = new byte[capacity];
+        names = new byte[nameCapacity];
+    }
+
+    private void grow(int capacity) {
+        parent = Arrays.copyOf(parent, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+        nameOffset = Arrays.copyOf(nameOffset, capacity);
+        nameLength = Arrays.copyOf(nameLength, capacity);
+        size = Arrays.copyOf(size, capacity);
+        mtime = Arrays.copyOf(mtime, capacity);
+        owner = Arrays.copyOf(owner, capacity);
+        type = Arrays.copyOf(type, capacity);
+    }
+
+    private void ensureNames(int length) {
+        if (namesLength + length > names.length) {
+            names = Arrays.copyOf(names, Math.max(names.length * 2, namesLength + length));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package net.alishahidi.mcpconductor.util;
+
+import java.util.List;
+
+/**
+ * Remote command that watches files and directories and prints one line per
+ * change for as long as its channel stays open:
+ * <pre>
+ * &#64;&#64;inotify                    or &#64;&#64;poll, once, naming the mechanism in use
+ * CREATE /etc/app/new.conf
+ * CLOSE_WRITE,CLOSE /etc/app/app.conf
+ * DELETE,ISDIR /etc/app/old.d
+ * </pre>
+ *
+ * With {@code inotifywait} (inotify-tools) on the host the kernel reports
+ * events as they happen. Without it, or in poll mode, the host snapshots the
+ * watched trees with {@code find} every interval and prints the difference as
+ * CREATE, MODIFY and DELETE lines; changes within one interval are only seen
+ * by their net effect, and directory timestamps are ignored as inotify does.
+ *
+ * A background reader holds the channel's stdin and stops the watcher when it
+ * reaches end of file, so closing the channel never leaves an idle
+ * {@code inotifywait} behind. Exit code 3 means a path does not exist, 5 that
+ * inotify mode was requested but {@code inotifywait} is not installed.
+ */
+public final class FileWatchCommand {
+
+    public static final String INOTIFY_MARKER = "@@inotify";
+    public static final String POLL_MARKER = "@@poll";
+
+    // Background reader of the channel's stdin; $$ stays the watcher across exec
+    private static final String STOP_ON_EOF = "exec 3<&0\n"
+            + "{ cat >/dev/null; kill $$; } <&3 >/dev/null 2>&1 &\n"
+            + "exec 3<&-\n";
+
+    static final String INOTIFY_EVENTS = "create,modify,attrib,close_write,delete,delete_self,moved_from,moved_to,move_self";
+
+    public enum Mode {
+        AUTO, INOTIFY, POLL;
+
+        /**
+         * @throws IllegalArgumentException for anything but auto, inotify or poll
+         */
+        public static Mode of(String name) {
+            if (name == null || name.isBlank()) {
+                return AUTO;
+            }
+            return valueOf(name.trim().toUpperCase());
+        }
+    }
+
+    public enum Kind { CREATED, MODIFIED, DELETED }
+
+    public record Event(Kind kind, String path, boolean directory) {
+    }
+
+    private FileWatchCommand() {
+    }
+
+    /**
+     * @param quotedPaths  shell-quoted absolute paths
+     * @param recursive    also watch everything below watched directories; otherwise only their entries
+     * @param pollSeconds  snapshot interval when polling
+     */
+    public static String command(List<String> quotedPaths, boolean recursive, Mode mode, int pollSeconds) {
+        String paths = String.join(" ", quotedPaths);
+        StringBuilder command = new StringBuilder("export LC_ALL=C\n")
+                .append("for p in ").append(paths).append("; do [ -e \"$p\" ] || { echo \"$p: No such file or directory\" >&2; exit 3; }; done\n");
+
+        String inotify = "echo " + INOTIFY_MARKER + "\n" + STOP_ON_EOF
+                + "exec inotifywait -m -q" + (recursive ? " -r" : "") + " -e " + INOTIFY_EVENTS
+                + " --format '%e %w%f' -- " + paths + "\n";
+        switch (mode) {
+            case INOTIFY -> {
+                return command.append("command -v inotifywait >/dev/null 2>&1 || { echo 'inotifywait is not installed (inotify-tools)' >&2; exit 5; }\n")
+                        .append(inotify).toString();
+            }
+            case AUTO -> command.append("if command -v inotifywait >/dev/null 2>&1; then\n").append(inotify).append("fi\n");
+            case POLL -> {
+            }
+        }
+
+        // Snapshot lines are "path<TAB>type mtime size inode"; a changed inode catches rename-over replacements
+        return command.append("echo ").append(POLL_MARKER).append("\n")
+                .append("d=$(mktemp -d) || exit 1\n")
+                .append("trap 'rm -rf \"$d\"' EXIT\n")
+                .append("trap 'exit 0' HUP PIPE TERM\n")
+                .append(STOP_ON_EOF)
+                .append("snap() { find ").append(paths).append(recursive ? "" : " -maxdepth 1")
+                .append(" -printf '%p\\t%y %T@ %s %i\\n' 2>/dev/null > \"$1\"; }\n")
+                .append("snap \"$d/a\"\n")
+                .append("while sleep ").append(pollSeconds).append("; do\n")
+                .append("  snap \"$d/b\"\n")
+                .append("  awk -F '\\t' 'FILENAME == ARGV[1] { old[$1] = $2; next }\n")
+                .append("    { dir = substr($2, 1, 1) == \"d\" ? \",ISDIR\" : \"\" }\n")
+                .append("    !($1 in old) { print \"CREATE\" dir \" \" $1; next }\n")
+                .append("    old[$1] != $2 && dir == \"\" { print \"MODIFY \" $1 }\n")
+                .append("    { delete old[$1] }\n")
+                .append("    END { for (p in old) print \"DELETE\" (substr(old[p], 1, 1) == \"d\" ? \",ISDIR\" : \"\") \" \" p }' \"$d/a\" \"$d/b\" || exit 0\n")
+                .append("  mv -f \"$d/b\" \"$d/a\"\n")
+                .append("done\n")
+                .toString();
+    }
+
+    /**
+     * Parses one event line. Watcher-internal events (such as IGNORED after a
+     * watched directory is removed) and markers yield {@code null}.
+     */
+    public static Event parse(String line) {
+        int space = line.indexOf(' ');
+        if (space <= 0 || space == line.length() - 1) {
+            return null;
+        }
+        List<String> flags = List.of(line.substring(0, space).split(","));
+        String path = line.substring(space + 1);
+        boolean directory = flags.contains("ISDIR");
+
+        if (flags.contains("DELETE") || flags.contains("DELETE_SELF") || flags.contains("MOVED_FROM")
+                || flags.contains("MOVE_SELF")) {
+            return new Event(Kind.DELETED, path, directory);
+        }
+        if (flags.contains("CREATE") || flags.contains("MOVED_TO")) {
+            return new Event(Kind.CREATED, path, directory);
+        }
+        if (flags.contains("MODIFY") || flags.contains("CLOSE_WRITE") || flags.contains("ATTRIB")) {
+            return new Event(Kind.MODIFIED, path, directory);
+        }
+        return null;
+    }
+}
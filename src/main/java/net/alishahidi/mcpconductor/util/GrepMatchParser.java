@@ -0,0 +1,117 @@
+package net.alishahidi.mcpconductor.util;
+
+import net.alishahidi.mcpconductor.model.FileSearchMatch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+
+/**
+ * Turns the output of {@code grep -r -n -H -Z [-C n]}, fed one line at a time,
+ * into match records.
+ *
+ * With {@code -Z} the file name ends with a NUL byte instead of a separator,
+ * so names containing {@code :} or {@code -} parse unambiguously:
+ * <pre>
+ * path\0LINE:text     a matching line
+ * path\0LINE-text     a context line
+ * --                  between context groups
+ * </pre>
+ * Context lines following a match fill its {@code after} list up to the
+ * context size; the rest are held as {@code before} of the next match.
+ */
+public final class GrepMatchParser {
+
+    // Keeps responses readable when a match sits in minified or generated text
+    static final int MAX_TEXT_CHARS = 2000;
+
+    private final String server;
+    private final int contextLines;
+    private final Deque<String> pending = new ArrayDeque<>();
+    private String lastPath;
+    private FileSearchMatch last;
+    private String lastMatchPath;
+    private int files;
+
+    public GrepMatchParser(String server, int contextLines) {
+        this.server = server;
+        this.contextLines = contextLines;
+    }
+
+    /**
+     * @return the match the line starts, or {@code null} for context lines,
+     *         separators and anything that is not grep output
+     */
+    public FileSearchMatch accept(String line) {
+        if (line.equals("--")) {
+            pending.clear();
+            last = null;
+            return null;
+        }
+        int nul = line.indexOf('\0');
+        if (nul < 0) {
+            return null;
+        }
+        int digits = nul + 1;
+        while (digits < line.length() && Character.isDigit(line.charAt(digits))) {
+            digits++;
+        }
+        if (digits == nul + 1 || digits == line.length()) {
+            return null;
+        }
+        char separator = line.charAt(digits);
+        if (separator != ':' && separator != '-') {
+            return null;
+        }
+        String path = line.substring(0, nul);
+        int number = Integer.parseInt(line.substring(nul + 1, digits));
+        String text = clip(line.substring(digits + 1));
+
+        if (!path.equals(lastPath)) {
+            pending.clear();
+            last = null;
+            lastPath = path;
+        }
+        if (separator == '-') {
+            if (last != null && last.getAfter().size() < contextLines) {
+                last.getAfter().add(text);
+            } else if (contextLines > 0) {
+                pending.addLast(text);
+                if (pending.size() > contextLines) {
+                    pending.removeFirst();
+                }
+            }
+            return null;
+        }
+
+        FileSearchMatch match = FileSearchMatch.builder()
+                .server(server)
+                .path(path)
+                .line(number)
+                .text(text)
+                .build();
+        if (contextLines > 0) {
+            match.setBefore(new ArrayList<>(pending));
+            match.setAfter(new ArrayList<>(contextLines));
+            pending.clear();
+        }
+        // grep prints all lines of a file together, so a new path is a new file
+        if (!path.equals(lastMatchPath)) {
+            lastMatchPath = path;
+            files++;
+        }
+        last = match;
+        return match;
+    }
+
+    /**
+     * Distinct files with at least one match so far.
+     */
+    public int getFiles() {
+        return files;
+    }
+
+    private static String clip(String text) {
+        return text.length() > MAX_TEXT_CHARS ? text.substring(0, MAX_TEXT_CHARS) + "..." : text;
+    }
+}
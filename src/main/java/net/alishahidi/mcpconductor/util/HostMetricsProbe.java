@@ -0,0 +1,185 @@
+package net.alishahidi.mcpconductor.util;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remote command and parser for one host metrics sample, small enough to run
+ * every few seconds. {@link #COMMAND} prints one prefixed line per source:
+ * <pre>
+ * cpu  user nice system idle iowait irq softirq steal ...   (/proc/stat)
+ * MemTotal: / MemAvailable: / SwapTotal: / SwapFree: lines (/proc/meminfo, kB)
+ * load 0.38 0.80 0.71 1/78 3993                             (/proc/loadavg)
+ * fs blockSize blocks free available                        (statfs of /)
+ * net rxBytes txBytes                                       (/proc/net/dev)
+ * </pre>
+ * Network totals skip loopback and the bridge/veth interfaces of container
+ * runtimes, whose traffic would otherwise be counted twice.
+ * {@link #parse(String)} turns that into raw readings, and
+ * {@link #derive(Map, Map, long)} turns two consecutive readings into the
+ * published metrics, using counter deltas for CPU and network rates.
+ */
+public final class HostMetricsProbe {
+
+    public static final String CPU_BUSY = "cpu.busy_percent";
+    public static final String CPU_IOWAIT = "cpu.iowait_percent";
+    public static final String MEM_USED = "mem.used_percent";
+    public static final String MEM_AVAILABLE = "mem.available_bytes";
+    public static final String SWAP_USED = "swap.used_percent";
+    public static final String LOAD_1 = "load.1";
+    public static final String LOAD_5 = "load.5";
+    public static final String LOAD_15 = "load.15";
+    public static final String DISK_USED = "disk.root.used_percent";
+    public static final String NET_RX = "net.rx_bytes_per_sec";
+    public static final String NET_TX = "net.tx_bytes_per_sec";
+
+    public static final List<String> METRICS = List.of(
+            CPU_BUSY, CPU_IOWAIT, MEM_USED, MEM_AVAILABLE, SWAP_USED,
+            LOAD_1, LOAD_5, LOAD_15, DISK_USED, NET_RX, NET_TX);
+
+    public static final String SAMPLE_SCRIPT = String.join("\n",
+            "head -n 1 /proc/stat",
+            "grep -E '^(MemTotal|MemAvailable|SwapTotal|SwapFree):' /proc/meminfo",
+            "printf 'load '; cat /proc/loadavg",
+            "printf 'fs '; stat -f -c '%S %b %f %a' /",
+            "awk -F: 'NR > 2 { split($2, f, \" \"); gsub(/ /, \"\", $1); if ($1 !~ /^(lo|veth|docker|br-|virbr|cni|flannel|cali)/) { rx += f[1]; tx += f[9] } }"
+                    + " END { printf \"net %.0f %.0f\\n\", rx, tx }' /proc/net/dev");
+
+    public static final String COMMAND = "export LC_ALL=C\n" + SAMPLE_SCRIPT + "\nexit 0";
+
+    // Raw reading keys
+    private static final String CPU_TOTAL = "cpuTotal";
+    private static final String CPU_IDLE = "cpuIdle";
+    private static final String CPU_WAIT = "cpuIowait";
+    private static final String RX = "rx";
+    private static final String TX = "tx";
+
+    private HostMetricsProbe() {
+    }
+
+    /**
+     * Raw readings from one sample; sources that are missing or malformed are left out.
+     */
+    public static Map<String, Double> parse(String output) {
+        Map<String, Double> raw = new LinkedHashMap<>();
+        if (output == null) {
+            return raw;
+        }
+        for (String line : output.split("\n")) {
+            String[] parts = line.trim().split("\\s+");
+            if (parts.length < 2) {
+                continue;
+            }
+            try {
+                switch (parts[0]) {
+                    case "cpu" -> parseCpu(parts, raw);
+                    case "MemTotal:", "MemAvailable:", "SwapTotal:", "SwapFree:" ->
+                            raw.put(parts[0].substring(0, parts[0].length() - 1), Double.parseDouble(parts[1]) * 1024);
+                    case "load" -> {
+                        if (parts.length >= 4) {
+                            raw.put(LOAD_1, Double.parseDouble(parts[1]));
+                            raw.put(LOAD_5, Double.parseDouble(parts[2]));
+                            raw.put(LOAD_15, Double.parseDouble(parts[3]));
+                        }
+                    }
+                    case "fs" -> parseFs(parts, raw);
+                    case "net" -> {
+                        if (parts.length >= 3) {
+                            raw.put(RX, Double.parseDouble(parts[1]));
+                            raw.put(TX, Double.parseDouble(parts[2]));
+                        }
+                    }
+                    default -> {
+                        // not ours
+                    }
+                }
+            } catch (NumberFormatException e) {
+                // leave the source out of this sample
+            }
+        }
+        return raw;
+    }
+
+    /**
+     * Published metrics for {@code current}. Gauges come straight from the
+     * reading; CPU shares and network rates need {@code previous}, taken
+     * {@code elapsedMs} earlier, and are omitted without it or when a counter
+     * went backwards (reboot, interface reset).
+     */
+    public static Map<String, Double> derive(Map<String, Double> previous, Map<String, Double> current, long elapsedMs) {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+
+        if (previous != null && current.containsKey(CPU_TOTAL) && previous.containsKey(CPU_TOTAL)) {
+            double total = current.get(CPU_TOTAL) - previous.get(CPU_TOTAL);
+            double idle = current.get(CPU_IDLE) - previous.get(CPU_IDLE);
+            double wait = current.get(CPU_WAIT) - previous.get(CPU_WAIT);
+            if (total > 0 && idle >= 0 && wait >= 0) {
+                metrics.put(CPU_BUSY, round((total - idle - wait) * 100 / total));
+                metrics.put(CPU_IOWAIT, round(wait * 100 / total));
+            }
+        }
+
+        Double memTotal = current.get("MemTotal");
+        Double memAvailable = current.get("MemAvailable");
+        if (memTotal != null && memAvailable != null && memTotal > 0) {
+            metrics.put(MEM_USED, round((memTotal - memAvailable) * 100 / memTotal));
+            metrics.put(MEM_AVAILABLE, memAvailable);
+        }
+        Double swapTotal = current.get("SwapTotal");
+        Double swapFree = current.get("SwapFree");
+        if (swapTotal != null && swapFree != null) {
+            metrics.put(SWAP_USED, swapTotal > 0 ? round((swapTotal - swapFree) * 100 / swapTotal) : 0.0);
+        }
+
+        for (String load : List.of(LOAD_1, LOAD_5, LOAD_15)) {
+            if (current.containsKey(load)) {
+                metrics.put(load, current.get(load));
+            }
+        }
+        if (current.containsKey(DISK_USED)) {
+            metrics.put(DISK_USED, current.get(DISK_USED));
+        }
+
+        if (previous != null && elapsedMs > 0 && current.containsKey(RX) && previous.containsKey(RX)) {
+            double rx = current.get(RX) - previous.get(RX);
+            double tx = current.get(TX) - previous.get(TX);
+            if (rx >= 0 && tx >= 0) {
+                metrics.put(NET_RX, round(rx * 1000 / elapsedMs));
+                metrics.put(NET_TX, round(tx * 1000 / elapsedMs));
+            }
+        }
+        return metrics;
+    }
+
+    private static void parseCpu(String[] parts, Map<String, Double> raw) {
+        if (parts.length < 6) {
+            return;
+        }
+        double total = 0;
+        // user..steal; guest time is already included in user and nice
+        for (int i = 1; i < parts.length && i <= 8; i++) {
+            total += Double.parseDouble(parts[i]);
+        }
+        raw.put(CPU_TOTAL, total);
+        raw.put(CPU_IDLE, Double.parseDouble(parts[4]));
+        raw.put(CPU_WAIT, Double.parseDouble(parts[5]));
+    }
+
+    private static void parseFs(String[] parts, Map<String, Double> raw) {
+        if (parts.length < 5) {
+            return;
+        }
+        double blocks = Double.parseDouble(parts[2]);
+        double free = Double.parseDouble(parts[3]);
+        double available = Double.parseDouble(parts[4]);
+        double used = blocks - free;
+        if (used + available > 0) {
+            raw.put(DISK_USED, round(used * 100 / (used + available)));
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,161 @@
+package net.alishahidi.mcpconductor.util;
+
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.model.PullResponseItem;
+import com.github.dockerjava.api.model.ResponseItem;
+import net.alishahidi.mcpconductor.model.ImagePullProgress;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Pull callback that folds the per-layer status stream from the daemon into an
+ * aggregate {@link ImagePullProgress} and fans it out to any number of listeners.
+ *
+ * Listeners can join while the pull is in flight (a deduplicated second caller);
+ * they immediately receive the current aggregate so their progress does not
+ * start from zero. Once the stream completes, {@link #failure()} tells whether
+ * the daemon reported the image as pulled.
+ */
+@Slf4j
+public class ImagePullTracker extends ResultCallback.Adapter<PullResponseItem> {
+
+    private final Map<String, Layer> layers = new LinkedHashMap<>();
+    private final List<Consumer<ImagePullProgress>> listeners = new CopyOnWriteArrayList<>();
+
+    private String lastStatus;
+    private PullResponseItem lastItem;
+    private String error;
+
+    public void addListener(Consumer<ImagePullProgress> listener) {
+        if (listener == null) {
+            return;
+        }
+        listeners.add(listener);
+        listener.accept(snapshot());
+    }
+
+    public void removeListener(Consumer<ImagePullProgress> listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public void onNext(PullResponseItem item) {
+        if (item == null) {
+            return;
+        }
+
+        ImagePullProgress progress;
+        synchronized (this) {
+            apply(item);
+            progress = snapshot();
+        }
+        for (Consumer<ImagePullProgress> listener : listeners) {
+            try {
+                listener.accept(progress);
+            } catch (Exception e) {
+                log.debug("Pull progress listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Why the completed pull failed, or {@code null} if it succeeded. The
+     * daemon reports errors such as a missing tag or a denied registry as a
+     * stream item, not an HTTP status, so the first error item fails the pull;
+     * without one, the last status must still say the image was downloaded or
+     * is up to date.
+     */
+    public synchronized String failure() {
+        if (error != null) {
+            return error;
+        }
+        if (lastItem == null) {
+            return "the daemon sent no pull status";
+        }
+        return lastItem.isPullSuccessIndicated() ? null : "unexpected final status: " + lastItem.getStatus();
+    }
+
+    public synchronized ImagePullProgress snapshot() {
+        long current = 0;
+        long total = 0;
+        int done = 0;
+        int reused = 0;
+        for (Layer layer : layers.values()) {
+            current += layer.current;
+            total += layer.total;
+            if (layer.done) {
+                done++;
+            }
+            if (layer.reused) {
+                reused++;
+            }
+        }
+        return ImagePullProgress.builder()
+                .layers(layers.size())
+                .layersDone(done)
+                .layersReused(reused)
+                .currentBytes(current)
+                .totalBytes(total)
+                .status(lastStatus)
+                .build();
+    }
+
+    private void apply(PullResponseItem item) {
+        lastItem = item;
+        if (error == null && item.isErrorIndicated()) {
+            ResponseItem.ErrorDetail errorDetail = item.getErrorDetail();
+            // The daemon sends the message in errorDetail as well as in the deprecated error field
+            error = errorDetail != null && errorDetail.getMessage() != null
+                    ? errorDetail.getMessage() : "the daemon reported an error without details";
+        }
+
+        String status = item.getStatus();
+        if (status != null) {
+            lastStatus = item.getId() != null ? item.getId() + ": " + status : status;
+        }
+
+        // Messages without an id are image-level ("Pulling from library/nginx", "Digest: ...")
+        String id = item.getId();
+        if (id == null || status == null || status.startsWith("Pulling from")) {
+            return;
+        }
+
+        Layer layer = layers.computeIfAbsent(id, key -> new Layer());
+        ResponseItem.ProgressDetail detail = item.getProgressDetail();
+
+        switch (status) {
+            case "Already exists" -> {
+                layer.reused = true;
+                layer.done = true;
+            }
+            case "Downloading" -> {
+                if (detail != null && detail.getTotal() != null && detail.getTotal() > 0) {
+                    layer.total = detail.getTotal();
+                }
+                if (detail != null && detail.getCurrent() != null) {
+                    layer.current = Math.min(detail.getCurrent(), layer.total > 0 ? layer.total : Long.MAX_VALUE);
+                }
+            }
+            case "Download complete", "Verifying Checksum" -> layer.current = layer.total;
+            case "Pull complete" -> {
+                layer.current = layer.total;
+                layer.done = true;
+            }
+            default -> {
+                // "Pulling fs layer", "Waiting", "Extracting": no byte accounting
+            }
+        }
+    }
+
+    private static final class Layer {
+        private long current;
+        private long total;
+        private boolean done;
+        private boolean reused;
+    }
+}
@@ -0,0 +1,222 @@
+package net.alishahidi.mcpconductor.util;
+
+import com.google.common.io.CountingInputStream;
+import com.google.common.io.CountingOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Copies one {@code docker save} tar stream to several outputs in a single pass.
+ *
+ * The source is read entry by entry with a fixed-size buffer and each chunk is
+ * written to every live sink, so nothing is held in memory beyond that buffer
+ * and back-pressure from the slowest sink throttles the read. Each sink can
+ * omit layer blobs ({@code blobs/sha256/<hex>}) its target already has, and can
+ * gzip its copy. A sink that fails is dropped without affecting the others.
+ */
+@Slf4j
+public class ImageTarFanOut {
+
+    private static final String BLOB_PREFIX = "blobs/sha256/";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final List<Sink> sinks = new ArrayList<>();
+
+    /**
+     * @param skipDigests hex sha256 digests of blobs to leave out for this sink
+     */
+    public Sink addSink(String name, OutputStream out, boolean gzip, Set<String> skipDigests) throws IOException {
+        Sink sink = new Sink(name, out, gzip, skipDigests);
+        sinks.add(sink);
+        return sink;
+    }
+
+    public List<Sink> getSinks() {
+        return sinks;
+    }
+
+    /**
+     * Streams the whole source to all sinks and closes them. Stops reading early
+     * once every sink has failed.
+     *
+     * @return bytes read from the source
+     */
+    public long pump(InputStream source) throws IOException {
+        CountingInputStream counted = new CountingInputStream(source);
+        byte[] buffer = new byte[BUFFER_SIZE];
+
+        try (TarArchiveInputStream tarIn = new TarArchiveInputStream(counted)) {
+            TarArchiveEntry entry;
+            while ((entry = tarIn.getNextEntry()) != null && hasLiveSinks()) {
+                List<Sink> receivers = new ArrayList<>(sinks.size());
+                for (Sink sink : sinks) {
+                    if (sink.failed()) {
+                        continue;
+                    }
+                    if (sink.skips(entry)) {
+                        sink.blobsSkipped++;
+                        continue;
+                    }
+                    if (sink.begin(entry)) {
+                        receivers.add(sink);
+                    }
+                }
+
+                if (!entry.isDirectory() && entry.getSize() > 0) {
+                    int read;
+                    while ((read = tarIn.read(buffer)) != -1) {
+                        for (Sink sink : receivers) {
+                            sink.write(buffer, read);
+                        }
+                    }
+                }
+
+                for (Sink sink : receivers) {
+                    sink.end(entry);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Never finish a sink's archive cleanly after a source failure; the target must see it fail
+            for (Sink sink : sinks) {
+                sink.fail("source stream failed: " + e.getMessage());
+            }
+            throw e;
+        }
+
+        for (Sink sink : sinks) {
+            sink.close();
+        }
+        return counted.getCount();
+    }
+
+    private boolean hasLiveSinks() {
+        return sinks.stream().anyMatch(sink -> !sink.failed());
+    }
+
+    public static final class Sink {
+        private final String name;
+        private final OutputStream raw;
+        private final CountingOutputStream counter;
+        private final TarArchiveOutputStream tarOut;
+        private final Set<String> skipDigests;
+
+        private int blobsSent;
+        private int blobsSkipped;
+        private volatile String error;
+
+        private Sink(String name, OutputStream out, boolean gzip, Set<String> skipDigests) throws IOException {
+            this.name = name;
+            this.raw = out;
+            this.counter = new CountingOutputStream(out);
+            this.tarOut = new TarArchiveOutputStream(gzip ? new GZIPOutputStream(counter, BUFFER_SIZE) : counter);
+            this.tarOut.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            this.tarOut.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+            this.skipDigests = skipDigests != null ? skipDigests : Set.of();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getBlobsSent() {
+            return blobsSent;
+        }
+
+        public int getBlobsSkipped() {
+            return blobsSkipped;
+        }
+
+        public long getBytesSent() {
+            return counter.getCount();
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public boolean failed() {
+            return error != null;
+        }
+
+        /**
+         * Marks the sink failed from outside, e.g. when its consumer gave up.
+         */
+        public void fail(String reason) {
+            if (error == null) {
+                error = reason;
+            }
+            closeQuietly();
+        }
+
+        private boolean skips(TarArchiveEntry entry) {
+            String entryName = entry.getName();
+            return entryName.startsWith(BLOB_PREFIX)
+                    && skipDigests.contains(entryName.substring(BLOB_PREFIX.length()));
+        }
+
+        private boolean begin(TarArchiveEntry entry) {
+            try {
+                tarOut.putArchiveEntry(entry);
+                return true;
+            } catch (IOException e) {
+                fail(e.getMessage());
+                return false;
+            }
+        }
+
+        private void write(byte[] buffer, int length) {
+            if (failed()) {
+                return;
+            }
+            try {
+                tarOut.write(buffer, 0, length);
+            } catch (IOException e) {
+                fail(e.getMessage());
+            }
+        }
+
+        private void end(TarArchiveEntry entry) {
+            if (failed()) {
+                return;
+            }
+            try {
+                tarOut.closeArchiveEntry();
+                if (entry.getName().startsWith(BLOB_PREFIX)) {
+                    blobsSent++;
+                }
+            } catch (IOException e) {
+                fail(e.getMessage());
+            }
+        }
+
+        private void close() {
+            if (failed()) {
+                return;
+            }
+            try {
+                tarOut.finish();
+                tarOut.close();
+            } catch (IOException e) {
+                fail(e.getMessage());
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                raw.close();
+            } catch (IOException e) {
+                log.debug("Error closing sink {}", name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package net.alishahidi.mcpconductor.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Line-based unified diff of two texts using Myers' O(ND) algorithm.
+ *
+ * Only the diagonals reached at each edit distance are kept for backtracking,
+ * so memory grows with the square of the number of edits rather than with the
+ * product of the text lengths. Past {@link #MAX_EDITS} edits the texts are
+ * treated as entirely different, which still yields a valid diff.
+ */
+public final class LineDiff {
+
+    static final int MAX_EDITS = 2000;
+
+    private LineDiff() {
+    }
+
+    private enum Op { EQUAL, DELETE, INSERT }
+
+    private record Edit(Op op, int oldIndex, int newIndex) {
+    }
+
+    /**
+     * @param firstLine number of lines before the compared texts in both files,
+     *                  added to the line numbers in the hunk headers
+     * @param context   unchanged lines shown around each change
+     * @return the hunks with {@code ---}/{@code +++} headers, or an empty string when equal
+     */
+    public static String unified(List<String> oldLines, List<String> newLines, int firstLine, int context,
+                                 String oldLabel, String newLabel) {
+        List<Edit> edits = diff(oldLines, newLines);
+        StringBuilder out = new StringBuilder();
+        int i = 0;
+        while (i < edits.size()) {
+            while (i < edits.size() && edits.get(i).op() == Op.EQUAL) {
+                i++;
+            }
+            if (i == edits.size()) {
+                break;
+            }
+            // A hunk spans changes separated by at most 2 * context unchanged lines
+            int start = Math.max(0, i - context);
+            int end = i;
+            int equalRun = 0;
+            for (int j = i; j < edits.size(); j++) {
+                if (edits.get(j).op() == Op.EQUAL) {
+                    if (++equalRun > 2 * context) {
+                        break;
+                    }
+                } else {
+                    equalRun = 0;
+                    end = j;
+                }
+            }
+            end = Math.min(edits.size() - 1, end + context);
+
+            if (out.isEmpty()) {
+                out.append("--- ").append(oldLabel).append('\n').append("+++ ").append(newLabel).append('\n');
+            }
+            appendHunk(out, edits.subList(start, end + 1), oldLines, newLines, firstLine);
+            i = end + 1;
+        }
+        return out.toString();
+    }
+
+    private static void appendHunk(StringBuilder out, List<Edit> hunk, List<String> oldLines, List<String> newLines,
+                                   int firstLine) {
+        int oldCount = 0;
+        int newCount = 0;
+        for (Edit edit : hunk) {
+            oldCount += edit.op() != Op.INSERT ? 1 : 0;
+            newCount += edit.op() != Op.DELETE ? 1 : 0;
+        }
+        Edit first = hunk.get(0);
+        int oldStart = oldCount == 0 ? first.oldIndex() : first.oldIndex() + 1;
+        int newStart = newCount == 0 ? first.newIndex() : first.newIndex() + 1;
+        out.append("@@ -").append(firstLine + oldStart).append(',').append(oldCount)
+                .append(" +").append(firstLine + newStart).append(',').append(newCount).append(" @@\n");
+        for (Edit edit : hunk) {
+            switch (edit.op()) {
+                case EQUAL -> out.append(' ').append(oldLines.get(edit.oldIndex()));
+                case DELETE -> out.append('-').append(oldLines.get(edit.oldIndex()));
+                case INSERT -> out.append('+').append(newLines.get(edit.newIndex()));
+            }
+            out.append('\n');
+        }
+    }
+
+    // Edit script in file order; each edit carries the position of both sides
+    private static List<Edit> diff(List<String> a, List<String> b) {
+        int n = a.size();
+        int m = b.size();
+        int max = n + m;
+        int[] v = new int[2 * max + 3];
+        int offset = max + 1;
+        List<int[]> trace = new ArrayList<>();
+
+        int found = -1;
+        for (int d = 0; d <= Math.min(max, MAX_EDITS) && found < 0; d++) {
+            // Diagonals -(d+1)..(d+1) are all backtracking reads from this step
+            trace.add(Arrays.copyOfRange(v, offset - d - 1, offset + d + 2));
+            for (int k = -d; k <= d; k += 2) {
+                int x = (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]))
+                        ? v[offset + k + 1]
+                        : v[offset + k - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a.get(x).equals(b.get(y))) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    found = d;
+                    break;
+                }
+            }
+        }
+        if (found < 0) {
+            return replaceAll(n, m);
+        }
+
+        List<Edit> edits = new ArrayList<>();
+        int x = n;
+        int y = m;
+        for (int d = found; d >= 0; d--) {
+            int[] prev = trace.get(d);
+            int base = d + 1;
+            int k = x - y;
+            int prevK = (k == -d || (k != d && prev[base + k - 1] < prev[base + k + 1])) ? k + 1 : k - 1;
+            int prevX = prev[base + prevK];
+            int prevY = prevX - prevK;
+            while (x > prevX && y > prevY) {
+                edits.add(new Edit(Op.EQUAL, x - 1, y - 1));
+                x--;
+                y--;
+            }
+            if (d > 0) {
+                edits.add(x == prevX ? new Edit(Op.INSERT, x, y - 1) : new Edit(Op.DELETE, x - 1, y));
+            }
+            x = prevX;
+            y = prevY;
+        }
+        Collections.reverse(edits);
+        return edits;
+    }
+
+    private static List<Edit> replaceAll(int n, int m) {
+        List<Edit> edits = new ArrayList<>(n + m);
+        for (int i = 0; i < n; i++) {
+            edits.add(new Edit(Op.DELETE, i, 0));
+        }
+        for (int j = 0; j < m; j++) {
+            edits.add(new Edit(Op.INSERT, n, j));
+        }
+        return edits;
+    }
+}
@@ -0,0 +1,91 @@
+package net.alishahidi.mcpconductor.util;
+
+import net.alishahidi.mcpconductor.model.LogCursor;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Log cursors by server and source, kept in a JSON file so they survive
+ * restarts. Every change rewrites the file through a temporary file and an
+ * atomic rename; a missing or unreadable file starts empty.
+ */
+@Slf4j
+public class LogCursorStore {
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+    private final Map<String, LogCursor> cursors = new LinkedHashMap<>();
+
+    public LogCursorStore(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        load();
+    }
+
+    public synchronized LogCursor get(String server, String source) {
+        LogCursor cursor = cursors.get(key(server, source));
+        return cursor == null ? null : cursor.toBuilder().build();
+    }
+
+    public synchronized void put(LogCursor cursor) {
+        cursors.put(key(cursor.getServer(), cursor.getSource()), cursor.toBuilder().build());
+        save();
+    }
+
+    public synchronized boolean remove(String server, String source) {
+        boolean removed = cursors.remove(key(server, source)) != null;
+        if (removed) {
+            save();
+        }
+        return removed;
+    }
+
+    public synchronized List<LogCursor> list() {
+        List<LogCursor> copy = new ArrayList<>();
+        cursors.values().forEach(cursor -> copy.add(cursor.toBuilder().build()));
+        return copy;
+    }
+
+    private void load() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            List<LogCursor> stored = objectMapper.readValue(file.toFile(), new TypeReference<List<LogCursor>>() {
+            });
+            stored.forEach(cursor -> cursors.put(key(cursor.getServer(), cursor.getSource()), cursor));
+            log.info("Loaded {} log cursors from {}", cursors.size(), file);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable log cursor file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void save() {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), new ArrayList<>(cursors.values()));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Cursors still work for this run; only the restart case is affected
+            log.warn("Failed to save log cursors to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static String key(String server, String source) {
+        return server + "\u0000" + source;
+    }
+}
@@ -0,0 +1,159 @@
+package net.alishahidi.mcpconductor.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads what was appended to a remote log file since a cursor of inode and
+ * byte offset, in one command.
+ *
+ * The remote side stats the file and prints a header line followed by raw
+ * bytes, so only the delta crosses the wire:
+ * <pre>
+ * inode size oldFound oldSize oldBytes start length
+ * &lt;oldBytes of the rotated file from the cursor offset&gt;&lt;length bytes of the file from start&gt;
+ * </pre>
+ * When the inode changed the file was rotated: the rest of the previous file
+ * is read first if it is still next to the new one (renamed by logrotate, for
+ * example), then the new file from its start. A file shorter than the offset
+ * was truncated in place and is read from its start. Without a cursor the last
+ * {@code maxBytes} are returned.
+ *
+ * Only whole lines are returned; a final line without a newline is returned
+ * once it is completed, unless a single line fills the whole byte cap.
+ */
+public final class LogFileDelta {
+
+    private final long inode;
+    private final long offset;
+    private final byte[] content;
+    private final boolean rotated;
+    private final boolean more;
+
+    private LogFileDelta(long inode, long offset, byte[] content, boolean rotated, boolean more) {
+        this.inode = inode;
+        this.offset = offset;
+        this.content = content;
+        this.rotated = rotated;
+        this.more = more;
+    }
+
+    /**
+     * @param quotedPath shell-quoted absolute path of the log file
+     * @param inode      inode of the cursor, {@code 0} when there is none yet
+     */
+    public static String command(String quotedPath, long inode, long offset, int maxBytes) {
+        return "export LC_ALL=C; f=" + quotedPath + "; ino=" + inode + "; off=" + offset + "; cap=" + maxBytes + "\n"
+                + "set -- $(stat -L -c '%i %s' -- \"$f\" 2>/dev/null); [ $# -eq 2 ] || exit 3\n"
+                + "cur=$1; size=$2; old=; found=0; s=0; n=0\n"
+                + "if [ \"$ino\" != 0 ] && [ \"$cur\" != \"$ino\" ]; then\n"
+                + "  old=$(find \"${f%/*}/\" -maxdepth 1 -inum \"$ino\" -print -quit 2>/dev/null)\n"
+                + "fi\n"
+                + "if [ -n \"$old\" ]; then\n"
+                + "  found=1; s=$(stat -c %s -- \"$old\"); n=$((s > off ? s - off : 0)); [ \"$n\" -gt \"$cap\" ] && n=$cap\n"
+                + "fi\n"
+                + "if [ \"$ino\" = 0 ]; then start=$((size > cap ? size - cap : 0))\n"
+                + "elif [ \"$cur\" != \"$ino\" ] || [ \"$size\" -lt \"$off\" ]; then start=0\n"
+                + "else start=$off; fi\n"
+                + "len=$((size - start)); [ \"$len\" -gt $((cap - n)) ] && len=$((cap - n))\n"
+                + "echo \"$cur $size $found $s $n $start $len\"\n"
+                + "[ \"$n\" -gt 0 ] && tail -c +$((off + 1)) -- \"$old\" | head -c \"$n\"\n"
+                + "[ \"$len\" -gt 0 ] && tail -c +$((start + 1)) -- \"$f\" | head -c \"$len\"\n"
+                + "exit 0\n";
+    }
+
+    /**
+     * Interprets the output of {@link #command} run with the same cursor and cap.
+     */
+    public static LogFileDelta parse(byte[] output, long inode, long offset, int maxBytes) {
+        int headerEnd = indexOf(output, 0, output.length, (byte) '\n');
+        if (headerEnd < 0) {
+            throw new IllegalArgumentException("Missing header in log delta output");
+        }
+        String[] header = new String(output, 0, headerEnd, StandardCharsets.US_ASCII).trim().split(" ");
+        if (header.length != 7) {
+            throw new IllegalArgumentException("Malformed log delta header: " + String.join(" ", header));
+        }
+        long currentInode = Long.parseLong(header[0]);
+        long size = Long.parseLong(header[1]);
+        boolean oldFound = header[2].equals("1");
+        long oldSize = Long.parseLong(header[3]);
+        int oldBytes = Integer.parseInt(header[4]);
+        long start = Long.parseLong(header[5]);
+        int length = Integer.parseInt(header[6]);
+
+        // The files may have shrunk between stat and read, so take what actually arrived
+        int oldFrom = headerEnd + 1;
+        int oldTo = Math.min(oldFrom + oldBytes, output.length);
+        int curFrom = oldTo;
+        int curTo = Math.min(curFrom + length, output.length);
+
+        boolean rotated = inode != 0 && (currentInode != inode || size < offset);
+        if (oldFound && offset + (oldTo - oldFrom) < oldSize) {
+            // Still behind in the rotated file; stay on it
+            int kept = wholeLines(output, oldFrom, oldTo, maxBytes);
+            return new LogFileDelta(inode, offset + kept,
+                    Arrays.copyOfRange(output, oldFrom, oldFrom + kept), true, true);
+        }
+
+        if (inode == 0 && start > 0) {
+            // Started mid-file: skip the partial first line
+            int newline = indexOf(output, curFrom, curTo, (byte) '\n');
+            if (newline >= 0) {
+                start += newline + 1 - curFrom;
+                curFrom = newline + 1;
+            }
+        }
+        int kept = wholeLines(output, curFrom, curTo, maxBytes);
+        byte[] content = new byte[(oldTo - oldFrom) + kept];
+        System.arraycopy(output, oldFrom, content, 0, oldTo - oldFrom);
+        System.arraycopy(output, curFrom, content, oldTo - oldFrom, kept);
+        return new LogFileDelta(currentInode, start + kept, content, rotated,
+                start + (curTo - curFrom) < size);
+    }
+
+    public long getInode() {
+        return inode;
+    }
+
+    /**
+     * Offset of the next unread byte in the file identified by {@link #getInode()}.
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public boolean isRotated() {
+        return rotated;
+    }
+
+    /**
+     * Whether more data was already waiting beyond what was returned.
+     */
+    public boolean hasMore() {
+        return more;
+    }
+
+    // Length up to and including the last newline; everything if one line fills the cap
+    private static int wholeLines(byte[] data, int from, int to, int maxBytes) {
+        for (int i = to - 1; i >= from; i--) {
+            if (data[i] == '\n') {
+                return i + 1 - from;
+            }
+        }
+        return to - from >= maxBytes ? to - from : 0;
+    }
+
+    private static int indexOf(byte[] data, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,165 @@
+package net.alishahidi.mcpconductor.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * K-way merge of per-server log streams into one time-ordered view.
+ *
+ * Every stream is read newest first ({@code tac}, {@code journalctl -r}), so
+ * the merge can stop as soon as the byte budget is spent and still hold the
+ * most recent records of the whole fleet; the result is then reversed into
+ * chronological order. The priority queue holds at most one pending record
+ * per stream, and a stream is only read when its record has been taken, so
+ * memory stays bounded by the budget however long the streams are.
+ *
+ * Lines without a timestamp (stack trace frames, wrapped messages) belong to
+ * the timestamped line before them; read backwards they arrive first and are
+ * held until that line shows up.
+ */
+public final class LogMerger {
+
+    private LogMerger() {
+    }
+
+    /**
+     * Lines of one stream; {@code null} at the end. May block.
+     */
+    @FunctionalInterface
+    public interface LineSource {
+        String nextLine() throws IOException;
+    }
+
+    /**
+     * One log entry, possibly several lines, with its time ({@code null} if none could be found).
+     */
+    public record Record(String server, Instant timestamp, String text) {
+    }
+
+    /**
+     * @param records oldest first
+     * @param failed  servers whose stream failed during the merge, with the reason
+     */
+    public record Result(List<Record> records, long bytes, boolean truncated, Map<String, String> failed) {
+    }
+
+    /**
+     * Groups a newest-first line stream into records.
+     */
+    public static final class ReverseRecordReader {
+
+        private final String server;
+        private final LineSource lines;
+        private final LogTimestampParser parser;
+        private final Deque<String> continuation = new ArrayDeque<>();
+        private Instant lastTimestamp;
+        private boolean done;
+
+        public ReverseRecordReader(String server, LineSource lines, LogTimestampParser parser) {
+            this.server = server;
+            this.lines = lines;
+            this.parser = parser;
+        }
+
+        public String getServer() {
+            return server;
+        }
+
+        /**
+         * @return the next older record, or {@code null} at the end of the stream
+         */
+        public Record next() throws IOException {
+            while (!done) {
+                String line = lines.nextLine();
+                if (line == null) {
+                    done = true;
+                    break;
+                }
+                Instant timestamp = parser.parse(line);
+                if (timestamp == null) {
+                    continuation.push(line);
+                    continue;
+                }
+                lastTimestamp = timestamp;
+                return new Record(server, timestamp, join(line));
+            }
+            if (continuation.isEmpty()) {
+                return null;
+            }
+            // The entry these lines belong to is older than the window; keep them next to their neighbours
+            String first = continuation.pop();
+            return new Record(server, lastTimestamp, join(first));
+        }
+
+        private String join(String head) {
+            if (continuation.isEmpty()) {
+                return head;
+            }
+            StringBuilder text = new StringBuilder(head);
+            while (!continuation.isEmpty()) {
+                text.append('\n').append(continuation.pop());
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Takes records newest first across all readers until {@code byteBudget}
+     * would be exceeded (at least one record is always taken).
+     */
+    public static Result mergeNewestFirst(List<ReverseRecordReader> readers, long byteBudget) {
+        Comparator<Head> newestFirst = Comparator
+                .comparing((Head head) -> head.record.timestamp(), Comparator.nullsFirst(Comparator.<Instant>naturalOrder()))
+                .reversed()
+                .thenComparingInt(head -> head.index);
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(readers.size(), 1), newestFirst);
+        Map<String, String> failed = new LinkedHashMap<>();
+        for (int i = 0; i < readers.size(); i++) {
+            advance(readers.get(i), i, heads, failed);
+        }
+
+        List<Record> taken = new ArrayList<>();
+        long bytes = 0;
+        boolean truncated = false;
+        while (!heads.isEmpty()) {
+            Head head = heads.peek();
+            int size = head.record.text().getBytes(StandardCharsets.UTF_8).length + 1;
+            if (!taken.isEmpty() && bytes + size > byteBudget) {
+                truncated = true;
+                break;
+            }
+            heads.poll();
+            taken.add(head.record);
+            bytes += size;
+            advance(readers.get(head.index), head.index, heads, failed);
+        }
+
+        Collections.reverse(taken);
+        return new Result(taken, bytes, truncated, failed);
+    }
+
+    private static void advance(ReverseRecordReader reader, int index, PriorityQueue<Head> heads,
+                                Map<String, String> failed) {
+        try {
+            Record record = reader.next();
+            if (record != null) {
+                heads.add(new Head(record, index));
+            }
+        } catch (IOException e) {
+            failed.put(reader.getServer(), e.getMessage());
+        }
+    }
+
+    private record Head(Record record, int index) {
+    }
+}
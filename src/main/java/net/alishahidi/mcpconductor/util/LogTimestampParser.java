@@ -0,0 +1,201 @@
+package net.alishahidi.mcpconductor.util;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.text.ParsePosition;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the timestamp of a log line in one of the common layouts:
+ * <ul>
+ *   <li>{@code iso8601}: {@code 2025-10-18T12:00:01.250Z}, with a space instead of T, optional
+ *       fraction and offset; also journalctl's {@code short-iso} output</li>
+ *   <li>{@code clf}: nginx/Apache access logs, {@code [18/Oct/2025:12:00:01 +0000]}</li>
+ *   <li>{@code syslog}: {@code Oct 18 12:00:01} at the start of the line, in the current year</li>
+ *   <li>{@code epoch}: seconds since the epoch with optional fraction at the start of the line</li>
+ * </ul>
+ * Any other format is taken as a {@link DateTimeFormatter} pattern applied at
+ * the start of the line. {@code auto} tries the built-in layouts and keeps the
+ * first that matches, so one instance should be used per stream. Times
+ * without an offset are read as UTC.
+ */
+public final class LogTimestampParser {
+
+    private static final Pattern ISO = Pattern.compile(
+            "(\\d{4})-(\\d{2})-(\\d{2})[T ](\\d{2}):(\\d{2}):(\\d{2})(?:[.,](\\d{1,9}))?(Z|[+-]\\d{2}:?\\d{2})?");
+    private static final Pattern CLF = Pattern.compile(
+            "\\[(\\d{2})/([A-Za-z]{3})/(\\d{4}):(\\d{2}):(\\d{2}):(\\d{2}) ([+-]\\d{4})]");
+    private static final Pattern SYSLOG = Pattern.compile("^([A-Z][a-z]{2}) +(\\d{1,2}) (\\d{2}):(\\d{2}):(\\d{2})");
+    private static final Pattern EPOCH = Pattern.compile("^\\[?(\\d{10})(?:\\.(\\d{1,9}))?\\b");
+
+    private static final List<String> BUILT_IN = List.of("iso8601", "clf", "syslog", "epoch");
+    private static final Map<String, Month> MONTHS = new HashMap<>();
+
+    static {
+        for (Month month : Month.values()) {
+            MONTHS.put(month.getDisplayName(TextStyle.SHORT, Locale.ENGLISH), month);
+        }
+    }
+
+    // Timestamps sit near the start; this keeps scanning of long lines cheap
+    private static final int SEARCH_LIMIT = 128;
+
+    private final String format;
+    private final DateTimeFormatter formatter;
+    private final int currentYear;
+    private String detected;
+
+    private LogTimestampParser(String format, DateTimeFormatter formatter) {
+        this.format = format;
+        this.formatter = formatter;
+        this.currentYear = LocalDate.now(ZoneOffset.UTC).getYear();
+    }
+
+    /**
+     * @param format {@code auto} (or blank), a built-in layout name or a {@link DateTimeFormatter} pattern
+     * @throws IllegalArgumentException for an invalid pattern
+     */
+    public static LogTimestampParser of(String format) {
+        String name = format == null || format.isBlank() ? "auto" : format.trim();
+        if (name.equals("auto") || BUILT_IN.contains(name)) {
+            return new LogTimestampParser(name, null);
+        }
+        return new LogTimestampParser(name, DateTimeFormatter.ofPattern(name, Locale.ENGLISH));
+    }
+
+    /**
+     * @return the line's time, or {@code null} when it has none (a continuation line, for example)
+     */
+    public Instant parse(String line) {
+        if (formatter != null) {
+            return parseCustom(line);
+        }
+        String head = line.length() > SEARCH_LIMIT ? line.substring(0, SEARCH_LIMIT) : line;
+        if (!format.equals("auto")) {
+            return parse(format, head);
+        }
+        if (detected != null) {
+            return parse(detected, head);
+        }
+        for (String candidate : BUILT_IN) {
+            Instant time = parse(candidate, head);
+            if (time != null) {
+                detected = candidate;
+                return time;
+            }
+        }
+        return null;
+    }
+
+    private Instant parse(String layout, String head) {
+        try {
+            return switch (layout) {
+                case "iso8601" -> parseIso(head);
+                case "clf" -> parseClf(head);
+                case "syslog" -> parseSyslog(head);
+                case "epoch" -> parseEpoch(head);
+                default -> null;
+            };
+        } catch (DateTimeException e) {
+            // Looked like a timestamp but is not a valid time, e.g. month 13
+            return null;
+        }
+    }
+
+    private static Instant parseIso(String head) {
+        Matcher m = ISO.matcher(head);
+        if (!m.find()) {
+            return null;
+        }
+        LocalDateTime time = LocalDateTime.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)),
+                Integer.parseInt(m.group(3)), Integer.parseInt(m.group(4)), Integer.parseInt(m.group(5)),
+                Integer.parseInt(m.group(6)), nanos(m.group(7)));
+        return time.toInstant(offset(m.group(8)));
+    }
+
+    private static Instant parseClf(String head) {
+        Matcher m = CLF.matcher(head);
+        if (!m.find() || !MONTHS.containsKey(m.group(2))) {
+            return null;
+        }
+        LocalDateTime time = LocalDateTime.of(Integer.parseInt(m.group(3)), MONTHS.get(m.group(2)),
+                Integer.parseInt(m.group(1)), Integer.parseInt(m.group(4)), Integer.parseInt(m.group(5)),
+                Integer.parseInt(m.group(6)));
+        return time.toInstant(offset(m.group(7)));
+    }
+
+    private Instant parseSyslog(String head) {
+        Matcher m = SYSLOG.matcher(head);
+        if (!m.find() || !MONTHS.containsKey(m.group(1))) {
+            return null;
+        }
+        LocalTime clock = LocalTime.of(Integer.parseInt(m.group(3)), Integer.parseInt(m.group(4)),
+                Integer.parseInt(m.group(5)));
+        LocalDate date;
+        try {
+            date = LocalDate.of(currentYear, MONTHS.get(m.group(1)), Integer.parseInt(m.group(2)));
+        } catch (DateTimeException e) {
+            return null;
+        }
+        // No year in the line: a date ahead of today belongs to last year (December lines read in January)
+        if (date.isAfter(LocalDate.now(ZoneOffset.UTC).plusDays(1))) {
+            date = date.minusYears(1);
+        }
+        return LocalDateTime.of(date, clock).toInstant(ZoneOffset.UTC);
+    }
+
+    private static Instant parseEpoch(String head) {
+        Matcher m = EPOCH.matcher(head);
+        if (!m.find()) {
+            return null;
+        }
+        return Instant.ofEpochSecond(Long.parseLong(m.group(1)), nanos(m.group(2)));
+    }
+
+    private Instant parseCustom(String line) {
+        try {
+            TemporalAccessor parsed = formatter.parse(line, new ParsePosition(0));
+            LocalDateTime time = LocalDateTime.of(
+                    parsed.isSupported(ChronoField.YEAR) ? parsed.get(ChronoField.YEAR) : currentYear,
+                    parsed.get(ChronoField.MONTH_OF_YEAR), parsed.get(ChronoField.DAY_OF_MONTH),
+                    parsed.get(ChronoField.HOUR_OF_DAY), parsed.get(ChronoField.MINUTE_OF_HOUR),
+                    parsed.isSupported(ChronoField.SECOND_OF_MINUTE) ? parsed.get(ChronoField.SECOND_OF_MINUTE) : 0,
+                    parsed.isSupported(ChronoField.NANO_OF_SECOND) ? parsed.get(ChronoField.NANO_OF_SECOND) : 0);
+            ZoneOffset zone = parsed.isSupported(ChronoField.OFFSET_SECONDS)
+                    ? ZoneOffset.ofTotalSeconds(parsed.get(ChronoField.OFFSET_SECONDS)) : ZoneOffset.UTC;
+            return OffsetDateTime.of(time, zone).toInstant();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static int nanos(String fraction) {
+        if (fraction == null) {
+            return 0;
+        }
+        return Integer.parseInt((fraction + "000000000").substring(0, 9));
+    }
+
+    private static ZoneOffset offset(String zone) {
+        if (zone == null || zone.equals("Z")) {
+            return ZoneOffset.UTC;
+        }
+        String normalized = zone.length() == 5 ? zone.substring(0, 3) + ":" + zone.substring(3) : zone;
+        return ZoneOffset.of(normalized);
+    }
+}
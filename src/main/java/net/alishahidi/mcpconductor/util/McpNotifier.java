@@ -0,0 +1,94 @@
+package net.alishahidi.mcpconductor.util;
+
+import io.modelcontextprotocol.server.McpSyncServerExchange;
+import io.modelcontextprotocol.spec.McpSchema;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends incremental updates for a long-running tool call back to the MCP client.
+ *
+ * Progress goes out as {@code notifications/progress} when the client supplied a
+ * progress token; free-form data (log chunks, events) goes out as logging
+ * notifications under the given logger name. Without an exchange (direct service
+ * calls, tests) every method is a no-op, so callers never need to null-check.
+ */
+@Slf4j
+public class McpNotifier {
+
+    private static final McpNotifier NOOP = new McpNotifier(null, null, "noop", 0);
+
+    private final McpSyncServerExchange exchange;
+    private final String progressToken;
+    private final String logger;
+    private final long minProgressIntervalMs;
+
+    private long lastProgressAt;
+
+    private McpNotifier(McpSyncServerExchange exchange, String progressToken, String logger,
+                        long minProgressIntervalMs) {
+        this.exchange = exchange;
+        this.progressToken = progressToken;
+        this.logger = logger;
+        this.minProgressIntervalMs = minProgressIntervalMs;
+    }
+
+    public static McpNotifier of(McpSyncServerExchange exchange, String progressToken, String logger) {
+        if (exchange == null) {
+            return NOOP;
+        }
+        return new McpNotifier(exchange, progressToken, logger, 250);
+    }
+
+    public static McpNotifier noop() {
+        return NOOP;
+    }
+
+    public boolean isActive() {
+        return exchange != null;
+    }
+
+    /**
+     * Reports progress, throttled so a chatty producer cannot flood the transport.
+     * Final updates ({@code progress >= total}) are always sent.
+     */
+    public synchronized void progress(double progress, Double total, String message) {
+        if (exchange == null || progressToken == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        boolean done = total != null && progress >= total;
+        if (!done && now - lastProgressAt < minProgressIntervalMs) {
+            return;
+        }
+        lastProgressAt = now;
+        try {
+            exchange.progressNotification(
+                    new McpSchema.ProgressNotification(progressToken, progress, total, message));
+        } catch (Exception e) {
+            log.debug("Failed to send progress notification for {}: {}", logger, e.getMessage());
+        }
+    }
+
+    public void info(String data) {
+        send(McpSchema.LoggingLevel.INFO, data);
+    }
+
+    public void warn(String data) {
+        send(McpSchema.LoggingLevel.WARNING, data);
+    }
+
+    private void send(McpSchema.LoggingLevel level, String data) {
+        if (exchange == null) {
+            return;
+        }
+        try {
+            exchange.loggingNotification(McpSchema.LoggingMessageNotification.builder()
+                    .level(level)
+                    .logger(logger)
+                    .data(data)
+                    .build());
+        } catch (Exception e) {
+            log.debug("Failed to send logging notification for {}: {}", logger, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package net.alishahidi.mcpconductor.util;
+
+import java.util.Arrays;
+
+/**
+ * Time series for one metric held in fixed-size primitive ring buffers.
+ *
+ * Tier 0 keeps raw samples. Each further tier keeps one point per bucket of
+ * {@code factor} sample intervals, aligned to wall-clock multiples of the bucket
+ * width, storing the bucket average and maximum so spikes survive downsampling.
+ * A bucket is written when the first sample of the next bucket arrives. Memory
+ * is fixed at construction: three primitive arrays per tier.
+ *
+ * Reads pick the finest tier that still reaches back to the requested start.
+ */
+public class MetricSeries {
+
+    private final Tier[] tiers;
+
+    /**
+     * @param intervalMs sampling interval
+     * @param factors    bucket width of each tier in sample intervals; the first must be 1
+     * @param capacities points retained per tier
+     */
+    public MetricSeries(long intervalMs, int[] factors, int[] capacities) {
+        if (factors.length == 0 || factors.length != capacities.length || factors[0] != 1) {
+            throw new IllegalArgumentException("Tiers must start with a raw tier (factor 1), one capacity per tier");
+        }
+        this.tiers = new Tier[factors.length];
+        for (int i = 0; i < factors.length; i++) {
+            if (i > 0 && factors[i] <= factors[i - 1]) {
+                throw new IllegalArgumentException("Tier factors must increase: " + Arrays.toString(factors));
+            }
+            tiers[i] = new Tier(intervalMs * factors[i], capacities[i]);
+        }
+    }
+
+    /**
+     * Records a sample; {@code NaN} marks a missed sample.
+     */
+    public synchronized void add(long timestampMs, double value) {
+        tiers[0].append(timestampMs, value, value);
+        for (int i = 1; i < tiers.length; i++) {
+            tiers[i].accumulate(timestampMs, value);
+        }
+    }
+
+    public synchronized long oldestTimestamp() {
+        long oldest = Long.MAX_VALUE;
+        for (Tier tier : tiers) {
+            if (tier.size() > 0) {
+                oldest = Math.min(oldest, tier.oldest());
+            }
+        }
+        return oldest == Long.MAX_VALUE ? -1 : oldest;
+    }
+
+    /**
+     * Points with timestamps in {@code [fromMs, toMs]} from the finest tier that
+     * still holds everything since {@code fromMs}: its oldest point is not newer
+     * than {@code fromMs}, or it has never overwritten anything. Falls back to
+     * the coarsest tier when the window reaches past all retained history.
+     */
+    public synchronized Window read(long fromMs, long toMs) {
+        for (Tier tier : tiers) {
+            if (tier.size() > 0 && (tier.written <= tier.times.length || tier.oldest() <= fromMs)) {
+                return tier.read(fromMs, toMs);
+            }
+        }
+        return tiers[tiers.length - 1].read(fromMs, toMs);
+    }
+
+    /**
+     * Points of one tier, oldest first. {@code max} equals {@code avg} for raw samples.
+     */
+    public record Window(long resolutionMs, long[] times, double[] avg, double[] max) {
+    }
+
+    private static final class Tier {
+        private final long widthMs;
+        private final long[] times;
+        private final double[] avgs;
+        private final double[] maxes;
+        private long written;
+
+        // Bucket being filled (downsampled tiers only)
+        private long bucketStart = Long.MIN_VALUE;
+        private double sum;
+        private int count;
+        private double max = Double.NaN;
+
+        private Tier(long widthMs, int capacity) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+            }
+            this.widthMs = widthMs;
+            this.times = new long[capacity];
+            this.avgs = new double[capacity];
+            this.maxes = new double[capacity];
+        }
+
+        private void append(long time, double avg, double max) {
+            int i = index(written);
+            times[i] = time;
+            avgs[i] = avg;
+            maxes[i] = max;
+            written++;
+        }
+
+        private void accumulate(long time, double value) {
+            long start = Math.floorDiv(time, widthMs) * widthMs;
+            if (start != bucketStart) {
+                flush();
+                bucketStart = start;
+            }
+            if (!Double.isNaN(value)) {
+                sum += value;
+                count++;
+                max = Double.isNaN(max) ? value : Math.max(max, value);
+            }
+        }
+
+        private void flush() {
+            if (bucketStart != Long.MIN_VALUE) {
+                append(bucketStart, count > 0 ? sum / count : Double.NaN, max);
+            }
+            sum = 0;
+            count = 0;
+            max = Double.NaN;
+        }
+
+        private int size() {
+            return (int) Math.min(written, times.length);
+        }
+
+        private long oldest() {
+            return times[index(written - size())];
+        }
+
+        private int index(long seq) {
+            return (int) (seq % times.length);
+        }
+
+        private Window read(long fromMs, long toMs) {
+            long start = written - size();
+            while (start < written && times[index(start)] < fromMs) {
+                start++;
+            }
+            long end = start;
+            while (end < written && times[index(end)] <= toMs) {
+                end++;
+            }
+
+            int n = (int) (end - start);
+            long[] outTimes = new long[n];
+            double[] outAvg = new double[n];
+            double[] outMax = new double[n];
+            for (int k = 0; k < n; k++) {
+                int i = index(start + k);
+                outTimes[k] = times[i];
+                outAvg[k] = avgs[i];
+                outMax[k] = maxes[i];
+            }
+            return new Window(widthMs, outTimes, outAvg, outMax);
+        }
+    }
+}
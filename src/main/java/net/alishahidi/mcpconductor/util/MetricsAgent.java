@@ -0,0 +1,146 @@
+package net.alishahidi.mcpconductor.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * POSIX-shell sampling agent run on a target under one long-lived exec channel,
+ * so a sample costs no channel open and no remote login shell.
+ *
+ * The agent runs {@link HostMetricsProbe#SAMPLE_SCRIPT} every interval and writes
+ * one frame per sample:
+ * <pre>
+ * &#64;&#64; 273780.52        uptime in seconds, used for exact elapsed time
+ * cpu  ...              only lines that differ from the previous frame
+ * &#64;&#64;end
+ * </pre>
+ * Unchanged lines (totals, a quiet disk) are left out, so steady-state frames
+ * carry little more than the CPU and memory counters. {@link FrameParser}
+ * merges the deltas back into full samples.
+ *
+ * The agent's own stderr reaches the caller, so the reason it stopped can be
+ * reported; only the sample commands, which would repeat the same complaint
+ * every interval on a host missing one of their sources, are silenced.
+ *
+ * The agent exits on the first write after its channel closes (the failed write
+ * ends the loop) or when its parent process is gone. It is installed under
+ * {@code ~/.cache/mcp-conductor} by content hash, and {@link #startCommand(int)}
+ * only executes it after its SHA-256 matches {@link #SHA256}; otherwise it
+ * prints {@link #INSTALL_MARKER} and exits so the caller can upload it.
+ */
+public final class MetricsAgent {
+
+    public static final String SCRIPT = String.join("\n",
+            "#!/bin/sh",
+            "# mcp-conductor metrics agent",
+            "export LC_ALL=C",
+            "interval=${1:-10}",
+            "parent=$PPID",
+            "prev=",
+            "trap 'exit 0' HUP PIPE TERM",
+            "while kill -0 \"$parent\" 2>/dev/null; do",
+            "  cur=$({",
+            HostMetricsProbe.SAMPLE_SCRIPT,
+            "  } 2>/dev/null)",
+            "  delta=$(printf '%s\\n' \"$cur\" | PREV=\"$prev\" awk 'BEGIN { n = split(ENVIRON[\"PREV\"], p, \"\\n\");"
+                    + " for (i = 1; i <= n; i++) seen[p[i]] = 1 } !($0 in seen)')",
+            "  { printf '@@ %s\\n' \"$(cut -d ' ' -f 1 /proc/uptime)\"; [ -n \"$delta\" ] && printf '%s\\n' \"$delta\";"
+                    + " echo '@@end'; } || exit 0",
+            "  prev=$cur",
+            "  sleep \"$interval\"",
+            "done",
+            "");
+
+    public static final String SHA256 = sha256(SCRIPT);
+
+    public static final String INSTALL_MARKER = "@@install";
+
+    private static final String DIR = "$HOME/.cache/mcp-conductor";
+    private static final String PATH = DIR + "/metrics-agent-" + SHA256.substring(0, 12) + ".sh";
+
+    private MetricsAgent() {
+    }
+
+    /**
+     * Runs the installed agent if its checksum matches, else prints {@link #INSTALL_MARKER}.
+     */
+    public static String startCommand(int intervalSeconds) {
+        return "f=\"" + PATH + "\"; "
+                + "if [ \"$(sha256sum \"$f\" 2>/dev/null | cut -d ' ' -f 1)\" = \"" + SHA256 + "\" ]; then "
+                + "exec sh \"$f\" " + intervalSeconds + "; fi; "
+                + "echo " + INSTALL_MARKER;
+    }
+
+    /**
+     * Writes the script read from stdin to its install path atomically.
+     */
+    public static String installCommand() {
+        return "umask 077; mkdir -p \"" + DIR + "\" && cat > \"" + PATH + ".$$\" && mv -f \"" + PATH + ".$$\" \"" + PATH + "\"";
+    }
+
+    private static String sha256(String content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * One reassembled sample.
+     *
+     * @param output    full sample in {@link HostMetricsProbe#parse(String)} format
+     * @param elapsedMs time since the previous frame of this stream by the host's
+     *                  uptime clock, or {@code -1} for the first frame
+     */
+    public record Frame(String output, long elapsedMs) {
+    }
+
+    /**
+     * Incremental parser for one agent stream; feed it lines as they arrive.
+     */
+    public static final class FrameParser {
+
+        // First token of a sample line -> the latest version of that line
+        private final Map<String, String> lines = new LinkedHashMap<>();
+        private double uptime = Double.NaN;
+        private double previousUptime = Double.NaN;
+        private boolean inFrame;
+
+        /**
+         * @return the completed frame when {@code line} ends one, otherwise {@code null}
+         */
+        public Frame feed(String line) {
+            if (line.startsWith("@@end")) {
+                if (!inFrame) {
+                    return null;
+                }
+                inFrame = false;
+                long elapsed = Double.isNaN(previousUptime) || Double.isNaN(uptime)
+                        ? -1 : Math.round((uptime - previousUptime) * 1000);
+                previousUptime = uptime;
+                return new Frame(String.join("\n", lines.values()), elapsed);
+            }
+            if (line.startsWith("@@ ")) {
+                inFrame = true;
+                try {
+                    uptime = Double.parseDouble(line.substring(3).trim());
+                } catch (NumberFormatException e) {
+                    uptime = Double.NaN;
+                }
+                return null;
+            }
+            if (inFrame && !line.isBlank()) {
+                String trimmed = line.trim();
+                int space = trimmed.indexOf(' ');
+                lines.put(space > 0 ? trimmed.substring(0, space) : trimmed, trimmed);
+            }
+            return null;
+        }
+    }
+}
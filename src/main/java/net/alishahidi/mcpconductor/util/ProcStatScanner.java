@@ -0,0 +1,237 @@
+package net.alishahidi.mcpconductor.util;
+
+import net.alishahidi.mcpconductor.model.ProcessInfo;
+import net.alishahidi.mcpconductor.model.ProcessTable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Reads the whole process table of a host in one remote pass and selects the
+ * top processes without materializing the rest.
+ *
+ * {@link #COMMAND} concatenates every {@code /proc/[pid]/stat} through one
+ * {@code awk} and keeps only the fields needed here, about 40 bytes per
+ * process against roughly 300 for a {@code ps aux} line:
+ * <pre>
+ * H clockTicks pageSize uptimeSeconds memTotalKb
+ * pid state ppid utime stime threads starttime vsize rss comm
+ * </pre>
+ * {@code comm} is last so it may contain spaces. {@link #scan} walks the
+ * stream byte by byte into a reused line buffer, parses numbers in place and
+ * only allocates an entry when a process makes it into the bounded min-heap.
+ *
+ * CPU percent matches {@code ps}: CPU time over the process lifetime.
+ */
+public final class ProcStatScanner {
+
+    public static final String COMMAND = String.join("\n",
+            "export LC_ALL=C",
+            "printf 'H %s %s %s %s\\n' \"$(getconf CLK_TCK)\" \"$(getconf PAGESIZE)\" \"$(cut -d ' ' -f 1 /proc/uptime)\""
+                    + " \"$(awk '/^MemTotal:/ { print $2 }' /proc/meminfo)\"",
+            "cat /proc/[0-9]*/stat 2>/dev/null | awk '{ c = $0; sub(/^[0-9]+ \\(/, \"\", c); sub(/\\) [^)]*$/, \"\", c);"
+                    + " r = $0; sub(/.*\\) /, \"\", r); split(r, f, \" \");"
+                    + " print $1, f[1], f[2], f[12], f[13], f[18], f[20], f[21], f[22], c }'",
+            "exit 0");
+
+    public enum SortKey {
+        CPU, MEMORY
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferLength;
+    private int bufferPos;
+
+    private byte[] line = new byte[256];
+    private int lineLength;
+    private int cursor;
+
+    private ProcStatScanner(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * @param limit number of processes to keep; {@code <= 0} keeps all of them
+     */
+    public static ProcessTable scan(InputStream in, SortKey sortKey, int limit) throws IOException {
+        return new ProcStatScanner(in).run(sortKey, limit);
+    }
+
+    private ProcessTable run(SortKey sortKey, int limit) throws IOException {
+        long clockTicks = 100;
+        long pageSize = 4096;
+        long uptimeCentis = 0;
+        long memTotalBytes = 0;
+
+        Comparator<Candidate> order = Comparator.<Candidate>comparingDouble(c -> c.score)
+                .thenComparing(c -> -c.info.getPid());
+        PriorityQueue<Candidate> heap = new PriorityQueue<>(limit > 0 ? limit + 1 : 1024, order);
+        List<Candidate> all = new ArrayList<>();
+
+        int processes = 0;
+        long threads = 0;
+        int running = 0;
+
+        while (readLine()) {
+            if (lineLength == 0) {
+                continue;
+            }
+            cursor = 0;
+            if (line[0] == 'H') {
+                cursor = 2;
+                clockTicks = Math.max(nextLong(), 1);
+                pageSize = nextLong();
+                uptimeCentis = nextCentis();
+                memTotalBytes = nextLong() * 1024;
+                continue;
+            }
+
+            long pid = nextLong();
+            if (cursor >= lineLength) {
+                continue;
+            }
+            byte state = line[cursor];
+            cursor += 2;
+            long ppid = nextLong();
+            long cpuTicks = nextLong() + nextLong();
+            long threadCount = nextLong();
+            long startTicks = nextLong();
+            long vsize = nextLong();
+            long rssPages = nextLong();
+            if (pid < 0 || cursor > lineLength) {
+                continue;
+            }
+
+            processes++;
+            threads += threadCount;
+            if (state == 'R') {
+                running++;
+            }
+
+            // Lifetime in ticks, as ps computes it
+            long elapsedTicks = uptimeCentis * clockTicks / 100 - startTicks;
+            double cpuShare = elapsedTicks > 0 ? (double) cpuTicks / elapsedTicks : 0;
+            double score = sortKey == SortKey.CPU ? cpuShare : rssPages;
+
+            if (limit > 0 && heap.size() >= limit) {
+                Candidate weakest = heap.peek();
+                if (score < weakest.score || (score == weakest.score && pid > weakest.info.getPid())) {
+                    continue;
+                }
+            }
+
+            long rssBytes = rssPages * pageSize;
+            ProcessInfo info = ProcessInfo.builder()
+                    .pid((int) pid)
+                    .ppid((int) ppid)
+                    .state(String.valueOf((char) state))
+                    .command(new String(line, cursor, lineLength - cursor, StandardCharsets.UTF_8))
+                    .threads((int) threadCount)
+                    .cpuPercent(Math.round(cpuShare * 1000) / 10.0)
+                    .cpuSeconds(cpuTicks / clockTicks)
+                    .rssBytes(rssBytes)
+                    .memPercent(memTotalBytes > 0 ? Math.round(rssBytes * 1000.0 / memTotalBytes) / 10.0 : 0)
+                    .vsizeBytes(vsize)
+                    .elapsedSeconds(Math.max(elapsedTicks / clockTicks, 0))
+                    .build();
+            Candidate candidate = new Candidate(score, info);
+            if (limit > 0) {
+                heap.add(candidate);
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            } else {
+                all.add(candidate);
+            }
+        }
+
+        List<Candidate> selected = limit > 0 ? new ArrayList<>(heap) : all;
+        selected.sort(order.reversed());
+        List<ProcessInfo> top = new ArrayList<>(selected.size());
+        selected.forEach(candidate -> top.add(candidate.info));
+
+        return ProcessTable.builder()
+                .sortBy(sortKey.name().toLowerCase())
+                .totalProcesses(processes)
+                .totalThreads(threads)
+                .running(running)
+                .memTotalBytes(memTotalBytes)
+                .processes(top)
+                .build();
+    }
+
+    // Copies the next line (without the newline) into the reused line buffer
+    private boolean readLine() throws IOException {
+        lineLength = 0;
+        boolean any = false;
+        while (true) {
+            if (bufferPos == bufferLength) {
+                bufferLength = in.read(buffer);
+                bufferPos = 0;
+                if (bufferLength <= 0) {
+                    bufferLength = 0;
+                    return any;
+                }
+            }
+            any = true;
+            byte b = buffer[bufferPos++];
+            if (b == '\n') {
+                return true;
+            }
+            if (lineLength == line.length) {
+                byte[] grown = new byte[line.length * 2];
+                System.arraycopy(line, 0, grown, 0, lineLength);
+                line = grown;
+            }
+            line[lineLength++] = b;
+        }
+    }
+
+    // Unsigned decimal at the cursor, then skips one separator; -1 if there is none
+    private long nextLong() {
+        long value = 0;
+        boolean digits = false;
+        while (cursor < lineLength && line[cursor] >= '0' && line[cursor] <= '9') {
+            value = value * 10 + (line[cursor++] - '0');
+            digits = true;
+        }
+        cursor++;
+        return digits ? value : -1;
+    }
+
+    // Decimal with up to two fraction digits, as hundredths
+    private long nextCentis() {
+        long whole = 0;
+        while (cursor < lineLength && line[cursor] >= '0' && line[cursor] <= '9') {
+            whole = whole * 10 + (line[cursor++] - '0');
+        }
+        long fraction = 0;
+        int fractionDigits = 0;
+        if (cursor < lineLength && line[cursor] == '.') {
+            cursor++;
+            while (cursor < lineLength && line[cursor] >= '0' && line[cursor] <= '9') {
+                if (fractionDigits < 2) {
+                    fraction = fraction * 10 + (line[cursor] - '0');
+                    fractionDigits++;
+                }
+                cursor++;
+            }
+        }
+        cursor++;
+        for (; fractionDigits < 2; fractionDigits++) {
+            fraction *= 10;
+        }
+        return whole * 100 + fraction;
+    }
+
+    private record Candidate(double score, ProcessInfo info) {
+    }
+}
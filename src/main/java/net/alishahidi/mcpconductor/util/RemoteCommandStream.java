@@ -0,0 +1,135 @@
+package net.alishahidi.mcpconductor.util;
+
+import com.jcraft.jsch.ChannelExec;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A remote command running on its own exec channel with stdout and stdin
+ * exposed as streams, for commands whose output is consumed incrementally or
+ * that are fed data. Closing it closes the channel, which the remote side sees
+ * as its stdout and stdin going away. Only the first {@value #MAX_STDERR_BYTES}
+ * bytes of stderr are kept.
+ */
+@Slf4j
+public class RemoteCommandStream implements Closeable {
+
+    private static final int MAX_STDERR_BYTES = 64 * 1024;
+
+    private static final ScheduledExecutorService DEADLINES = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "remote-command-deadline");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ChannelExec channel;
+    private final InputStream stdout;
+    private final OutputStream stdin;
+    private final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+    private volatile boolean timedOut;
+    private ScheduledFuture<?> deadline;
+
+    public RemoteCommandStream(ChannelExec channel) throws IOException {
+        this.channel = channel;
+        this.stdout = channel.getInputStream();
+        this.stdin = channel.getOutputStream();
+        channel.setErrStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                synchronized (stderr) {
+                    stderr.write(b, off, Math.min(len, Math.max(MAX_STDERR_BYTES - stderr.size(), 0)));
+                }
+            }
+        }, true);
+    }
+
+    public InputStream getStdout() {
+        return stdout;
+    }
+
+    public OutputStream getStdin() {
+        return stdin;
+    }
+
+    public String getStderr() {
+        synchronized (stderr) {
+            return stderr.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Closes the channel once {@code timeoutMs} has passed, so a reader blocked
+     * on a stuck command sees end of stream. Check {@link #isTimedOut()} after
+     * reading to tell a cut-off output from a complete one.
+     */
+    public RemoteCommandStream withDeadline(long timeoutMs) {
+        deadline = DEADLINES.schedule(() -> {
+            timedOut = true;
+            channel.disconnect();
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    /**
+     * Reads stdout to its end. After a {@link #withDeadline} cut-off it returns
+     * what arrived before it instead of failing.
+     */
+    public byte[] readAllStdout() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            stdout.transferTo(out);
+        } catch (IOException e) {
+            if (!timedOut) {
+                throw e;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    public boolean isOpen() {
+        return channel.isConnected() && !channel.isClosed();
+    }
+
+    /**
+     * Waits for the command to exit.
+     *
+     * @return the exit status, or {@code -1} if it is still running after {@code timeoutMs}
+     */
+    public int waitFor(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!channel.isClosed()) {
+            if (System.currentTimeMillis() > deadline) {
+                return -1;
+            }
+            Thread.sleep(50);
+        }
+        return channel.getExitStatus();
+    }
+
+    @Override
+    public void close() {
+        if (deadline != null) {
+            deadline.cancel(false);
+        }
+        channel.disconnect();
+    }
+}
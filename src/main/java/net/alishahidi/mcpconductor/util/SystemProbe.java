@@ -0,0 +1,282 @@
+package net.alishahidi.mcpconductor.util;
+
+import net.alishahidi.mcpconductor.model.SystemInfo;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Collects the data behind {@link SystemInfo} with one remote command.
+ *
+ * {@link #COMMAND} reads the kernel interfaces directly ({@code /proc/meminfo},
+ * {@code /proc/loadavg}, {@code /proc/stat}, {@code /proc/cpuinfo},
+ * {@code /proc/uptime}, {@code /etc/os-release} and statfs of {@code /}) under
+ * {@code LC_ALL=C} and prints each source in a section headed {@code @@name}.
+ * Values stay in their raw units, so {@link #parse(String)} fills numeric
+ * fields without guessing at human-readable suffixes. A section that is
+ * missing or unreadable leaves its fields null.
+ */
+@Slf4j
+public final class SystemProbe {
+
+    public static final String COMMAND = String.join("\n",
+            "export LC_ALL=C",
+            "echo @@hostname; hostname 2>/dev/null || cat /proc/sys/kernel/hostname",
+            "echo @@uname; uname -r; uname -m",
+            "echo @@uptime; cat /proc/uptime",
+            "echo @@meminfo; grep -E '^(MemTotal|MemFree|MemAvailable|Buffers|Cached|SwapTotal|SwapFree):' /proc/meminfo",
+            "echo @@loadavg; cat /proc/loadavg",
+            "echo @@stat; head -n 1 /proc/stat",
+            "echo @@cpuinfo; nproc 2>/dev/null || grep -c '^processor' /proc/cpuinfo; grep -m 1 -E '^(model name|Model|Hardware)' /proc/cpuinfo",
+            "echo @@os; grep -E '^(PRETTY_NAME|NAME|VERSION_ID)=' /etc/os-release",
+            "echo @@statfs; stat -f -c '%S %b %f %a' /",
+            "exit 0");
+
+    private static final String SECTION_MARKER = "@@";
+
+    private SystemProbe() {
+    }
+
+    public static SystemInfo parse(String output) {
+        Map<String, List<String>> sections = sections(output);
+        SystemInfo.SystemInfoBuilder builder = SystemInfo.builder();
+
+        first(sections, "hostname").ifPresent(builder::hostname);
+
+        List<String> uname = sections.getOrDefault("uname", List.of());
+        if (!uname.isEmpty()) {
+            builder.kernelVersion(uname.get(0));
+        }
+        if (uname.size() > 1) {
+            builder.architecture(uname.get(1));
+        }
+
+        first(sections, "uptime").ifPresent(line -> {
+            Double seconds = parseDouble(line.split("\\s+")[0]);
+            if (seconds != null) {
+                builder.uptimeSeconds(seconds.longValue());
+                builder.uptime(formatUptime(seconds.longValue()));
+            }
+        });
+
+        parseMemory(sections.getOrDefault("meminfo", List.of()), builder);
+
+        first(sections, "loadavg").ifPresent(line -> {
+            builder.loadAverage(line);
+            String[] parts = line.split("\\s+");
+            if (parts.length >= 3) {
+                builder.load1(parseDouble(parts[0]));
+                builder.load5(parseDouble(parts[1]));
+                builder.load15(parseDouble(parts[2]));
+            }
+        });
+
+        first(sections, "stat").ifPresent(line -> builder.cpuUsagePercent(parseCpuUsage(line)));
+
+        for (String line : sections.getOrDefault("cpuinfo", List.of())) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                builder.cpuModel(line.substring(colon + 1).trim());
+            } else {
+                Long cores = parseLong(line);
+                if (cores != null) {
+                    builder.cpuCores(cores.intValue());
+                }
+            }
+        }
+
+        builder.operatingSystem(parseOs(sections.getOrDefault("os", List.of())));
+
+        first(sections, "statfs").ifPresent(line -> parseStatfs(line, builder));
+
+        return builder.build();
+    }
+
+    private static void parseMemory(List<String> lines, SystemInfo.SystemInfoBuilder builder) {
+        Map<String, Long> values = new HashMap<>();
+        for (String line : lines) {
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            String[] parts = line.substring(colon + 1).trim().split("\\s+");
+            Long value = parseLong(parts[0]);
+            if (value != null) {
+                // meminfo reports kB, i.e. KiB
+                values.put(line.substring(0, colon), parts.length > 1 && "kB".equals(parts[1]) ? value * 1024 : value);
+            }
+        }
+
+        Long total = values.get("MemTotal");
+        if (total == null) {
+            return;
+        }
+        Long available = values.get("MemAvailable");
+        if (available == null && values.containsKey("MemFree")) {
+            // Kernels before 3.14 have no MemAvailable; approximate it the way free(1) did
+            available = values.get("MemFree") + values.getOrDefault("Buffers", 0L) + values.getOrDefault("Cached", 0L);
+        }
+
+        builder.memTotalBytes(total);
+        builder.memAvailableBytes(available);
+        builder.swapTotalBytes(values.get("SwapTotal"));
+        builder.swapFreeBytes(values.get("SwapFree"));
+        if (available != null) {
+            long used = total - available;
+            builder.memUsedPercent(percent(used, total));
+            builder.memoryInfo(String.format(Locale.ROOT, "Total: %s, Used: %s, Available: %s",
+                    formatBytes(total), formatBytes(used), formatBytes(available)));
+        }
+    }
+
+    // Aggregate CPU time since boot: busy share of user..steal over all of them
+    private static Double parseCpuUsage(String line) {
+        String[] parts = line.split("\\s+");
+        if (parts.length < 5 || !"cpu".equals(parts[0])) {
+            return null;
+        }
+        long total = 0;
+        long idle = 0;
+        // guest and guest_nice (fields 9 and 10) are already counted in user and nice
+        for (int i = 1; i < parts.length && i <= 8; i++) {
+            Long value = parseLong(parts[i]);
+            if (value == null) {
+                return null;
+            }
+            total += value;
+            if (i == 4 || i == 5) {
+                idle += value;
+            }
+        }
+        return total > 0 ? percent(total - idle, total) : null;
+    }
+
+    private static String parseOs(List<String> lines) {
+        String name = null;
+        String version = null;
+        for (String line : lines) {
+            int eq = line.indexOf('=');
+            if (eq <= 0) {
+                continue;
+            }
+            String key = line.substring(0, eq);
+            String value = line.substring(eq + 1).replace("\"", "");
+            if ("PRETTY_NAME".equals(key)) {
+                return value;
+            } else if ("NAME".equals(key)) {
+                name = value;
+            } else if ("VERSION_ID".equals(key)) {
+                version = value;
+            }
+        }
+        if (name == null) {
+            return "Unknown";
+        }
+        return version != null ? name + " " + version : name;
+    }
+
+    // stat -f '%S %b %f %a': fundamental block size, total, free and unprivileged-available blocks
+    private static void parseStatfs(String line, SystemInfo.SystemInfoBuilder builder) {
+        String[] parts = line.split("\\s+");
+        if (parts.length < 4) {
+            return;
+        }
+        Long blockSize = parseLong(parts[0]);
+        Long blocks = parseLong(parts[1]);
+        Long free = parseLong(parts[2]);
+        Long available = parseLong(parts[3]);
+        if (blockSize == null || blocks == null || free == null || available == null) {
+            return;
+        }
+
+        long total = blocks * blockSize;
+        long used = (blocks - free) * blockSize;
+        long avail = available * blockSize;
+        // Same definition as df: used over what non-root users can reach
+        double usedPercent = used + avail > 0 ? percent(used, used + avail) : 0.0;
+
+        builder.diskTotalBytes(total);
+        builder.diskAvailableBytes(avail);
+        builder.diskUsedPercent(usedPercent);
+        builder.diskUsage(String.format(Locale.ROOT, "Size: %s, Used: %s, Available: %s, Use%%: %.0f%%",
+                formatBytes(total), formatBytes(used), formatBytes(avail), Math.ceil(usedPercent)));
+    }
+
+    private static Map<String, List<String>> sections(String output) {
+        Map<String, List<String>> sections = new HashMap<>();
+        if (output == null) {
+            return sections;
+        }
+        List<String> current = null;
+        for (String raw : output.split("\n")) {
+            String line = raw.trim();
+            if (line.startsWith(SECTION_MARKER)) {
+                current = new ArrayList<>();
+                sections.put(line.substring(SECTION_MARKER.length()), current);
+            } else if (current != null && !line.isEmpty()) {
+                current.add(line);
+            }
+        }
+        return sections;
+    }
+
+    private static Optional<String> first(Map<String, List<String>> sections, String name) {
+        List<String> lines = sections.get(name);
+        return lines == null || lines.isEmpty() ? Optional.empty() : Optional.of(lines.get(0));
+    }
+
+    private static double percent(long part, long whole) {
+        return Math.round(part * 1000.0 / whole) / 10.0;
+    }
+
+    private static Long parseLong(String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            log.debug("Unexpected probe value: {}", value);
+            return null;
+        }
+    }
+
+    private static Double parseDouble(String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            log.debug("Unexpected probe value: {}", value);
+            return null;
+        }
+    }
+
+    static String formatUptime(long seconds) {
+        long days = seconds / 86400;
+        long hours = seconds % 86400 / 3600;
+        long minutes = seconds % 3600 / 60;
+        List<String> parts = new ArrayList<>();
+        if (days > 0) {
+            parts.add(days + (days == 1 ? " day" : " days"));
+        }
+        if (hours > 0) {
+            parts.add(hours + (hours == 1 ? " hour" : " hours"));
+        }
+        if (minutes > 0 || parts.isEmpty()) {
+            parts.add(minutes + (minutes == 1 ? " minute" : " minutes"));
+        }
+        return "up " + String.join(", ", parts);
+    }
+
+    static String formatBytes(long bytes) {
+        String[] units = {"B", "KiB", "MiB", "GiB", "TiB", "PiB"};
+        double value = bytes;
+        int unit = 0;
+        while (value >= 1024 && unit < units.length - 1) {
+            value /= 1024;
+            unit++;
+        }
+        return unit == 0 ? bytes + " B" : String.format(Locale.ROOT, "%.1f %s", value, units[unit]);
+    }
+}
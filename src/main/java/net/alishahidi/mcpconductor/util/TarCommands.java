@@ -0,0 +1,122 @@
+package net.alishahidi.mcpconductor.util;
+
+import java.util.List;
+
+/**
+ * Remote commands that write a directory as a tar stream to stdout, or unpack
+ * one from stdin, optionally compressed on the host.
+ *
+ * Archives are built from a {@code find} listing fed to {@code tar -T}, so
+ * include globs select files by name and exclude globs prune whole subtrees
+ * before tar reads them. Member names are relative to the directory's parent
+ * and start with the directory's own name, like {@code tar -C parent -cf - name}.
+ *
+ * Exit code 3 means the directory could not be entered, 5 that the
+ * compressor is not installed on the host. When compressing, the command
+ * exits with tar's status unless the compressor itself failed.
+ */
+public final class TarCommands {
+
+    public enum Compression {
+        NONE("", "", null),
+        GZIP(" | gzip -c", "gzip -dc | ", "gzip"),
+        ZSTD(" | zstd -q -c", "zstd -q -dc | ", "zstd");
+
+        private final String compress;
+        private final String decompress;
+        private final String binary;
+
+        Compression(String compress, String decompress, String binary) {
+            this.compress = compress;
+            this.decompress = decompress;
+            this.binary = binary;
+        }
+
+        /**
+         * @throws IllegalArgumentException for anything but none, gzip or zstd
+         */
+        public static Compression of(String name) {
+            if (name == null || name.isBlank()) {
+                return NONE;
+            }
+            return valueOf(name.trim().toUpperCase());
+        }
+
+        public String extension() {
+            return switch (this) {
+                case NONE -> ".tar";
+                case GZIP -> ".tar.gz";
+                case ZSTD -> ".tar.zst";
+            };
+        }
+
+        private String check() {
+            return binary == null ? ""
+                    : "command -v " + binary + " >/dev/null 2>&1 || { echo '" + binary + " is not installed' >&2; exit 5; }; ";
+        }
+    }
+
+    private TarCommands() {
+    }
+
+    /**
+     * @param quotedParent   shell-quoted parent of the directory
+     * @param quotedName     shell-quoted name of the directory within its parent
+     * @param quotedIncludes shell-quoted name globs of files to include; empty for everything
+     * @param quotedExcludes shell-quoted name globs of files and directories to leave out
+     */
+    public static String create(String quotedParent, String quotedName, List<String> quotedIncludes,
+                                List<String> quotedExcludes, Compression compression) {
+        StringBuilder command = new StringBuilder("export LC_ALL=C; ")
+                .append(compression.check())
+                .append("cd -- ").append(quotedParent).append(" && [ -d ").append(quotedName).append(" ] || exit 3; ")
+                .append("find ").append(quotedName);
+        if (!quotedExcludes.isEmpty()) {
+            command.append(" \\(").append(nameTests(quotedExcludes)).append(" \\) -prune -o");
+        }
+        if (!quotedIncludes.isEmpty()) {
+            // Only matching files; tar recreates their directories on extraction
+            command.append(" ! -type d \\(").append(nameTests(quotedIncludes)).append(" \\)");
+        }
+        command.append(" -print0 | tar --null --no-recursion -T - -cf -");
+        if (compression == Compression.NONE) {
+            return command.toString();
+        }
+        // A pipeline exits with the compressor's status, so tar's goes through a file and wins if the compressor succeeded
+        return command.insert(command.indexOf("find "), "s=$(mktemp) || exit 1; { ")
+                .append("; echo $? > \"$s\"; }").append(compression.compress)
+                .append("; c=$?; t=$(cat \"$s\"); rm -f \"$s\"; [ \"$c\" -eq 0 ] || exit \"$c\"; exit \"${t:-1}\"")
+                .toString();
+    }
+
+    /**
+     * Unpacks into {@code quotedDir}, creating it if needed.
+     *
+     * @param quotedIncludes shell-quoted globs of member names to extract; empty for all
+     * @param quotedExcludes shell-quoted globs of member names to skip
+     */
+    public static String extract(String quotedDir, List<String> quotedIncludes, List<String> quotedExcludes,
+                                 Compression compression) {
+        StringBuilder command = new StringBuilder("export LC_ALL=C; ")
+                .append(compression.check())
+                .append("mkdir -p -- ").append(quotedDir).append(" && cd -- ").append(quotedDir).append(" || exit 3; ")
+                .append(compression.decompress)
+                .append("tar -xf -");
+        for (String exclude : quotedExcludes) {
+            command.append(" --exclude=").append(exclude);
+        }
+        if (!quotedIncludes.isEmpty()) {
+            command.append(" --wildcards --no-anchored --");
+            quotedIncludes.forEach(include -> command.append(' ').append(include));
+        }
+        return command.toString();
+    }
+
+    private static String nameTests(List<String> quotedGlobs) {
+        StringBuilder tests = new StringBuilder();
+        for (int i = 0; i < quotedGlobs.size(); i++) {
+            tests.append(i == 0 ? " -name " : " -o -name ").append(quotedGlobs.get(i));
+        }
+        return tests.toString();
+    }
+}
@@ -0,0 +1,245 @@
+package net.alishahidi.mcpconductor.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a unified diff (as written by {@code diff -u} or {@code git diff})
+ * into per-file patches, and builds the remote command that applies them.
+ *
+ * The diff is checked locally first: every hunk's line counts must match its
+ * header, so a truncated or hand-edited diff is rejected before anything is
+ * sent. Only edits of existing files are supported; a side of
+ * {@code /dev/null} (file creation or deletion) is rejected.
+ *
+ * The command reads all patches from stdin in one round trip and works in two
+ * phases. First, for every file, it checks the base SHA-256, copies the file
+ * to a temp file in the same directory and applies the patch to the copy with
+ * GNU {@code patch} and no fuzz, so every context line must match exactly.
+ * Only when all files patched cleanly are the temp files renamed over the
+ * originals, so a failure in the first phase leaves every file untouched.
+ * Before renaming, each original gets a hard-link backup next to it; if a
+ * rename fails, the files already replaced are renamed back from their
+ * backups. Exit code 1 means no file was changed, 2 that a rename failed and
+ * not every earlier file could be restored. It prints one line per file:
+ * <pre>
+ * ok INDEX OLD_SHA256 NEW_SHA256
+ * fail INDEX reason
+ * </pre>
+ */
+public final class UnifiedDiff {
+
+    private static final Pattern HUNK = Pattern.compile("^@@ -(\\d+)(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@.*");
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+
+    private UnifiedDiff() {
+    }
+
+    /**
+     * One file's part of the diff.
+     *
+     * @param path absolute path of the file to patch
+     * @param text the file's headers and hunks, ending with a newline
+     */
+    public record FilePatch(String path, String text, int hunks, int added, int removed) {
+    }
+
+    /**
+     * Result line of one file.
+     */
+    public record Outcome(int index, boolean ok, String oldSha256, String newSha256, String error) {
+    }
+
+    /**
+     * @throws IllegalArgumentException when the diff is malformed, targets a
+     *                                  relative path, creates or deletes a file or patches a file twice
+     */
+    public static List<FilePatch> parse(String diff) {
+        String[] lines = diff.split("\n", -1);
+        List<FilePatch> patches = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        int i = 0;
+        while (i < lines.length) {
+            if (!lines[i].startsWith("--- ")) {
+                // diff --git, index and other extended headers carry nothing needed here
+                i++;
+                continue;
+            }
+            if (i + 1 >= lines.length || !lines[i + 1].startsWith("+++ ")) {
+                throw new IllegalArgumentException("Missing +++ header after line " + (i + 1));
+            }
+            String oldName = headerPath(lines[i]);
+            String newName = headerPath(lines[i + 1]);
+            if (oldName.equals("/dev/null") || newName.equals("/dev/null")) {
+                throw new IllegalArgumentException("Creating or deleting files is not supported: " + lines[i + 1]);
+            }
+            String path = absolute(newName);
+            if (!seen.add(path)) {
+                throw new IllegalArgumentException("File appears twice in the diff: " + path);
+            }
+
+            StringBuilder text = new StringBuilder("--- ").append(path).append("\n+++ ").append(path).append('\n');
+            int hunks = 0;
+            int added = 0;
+            int removed = 0;
+            i += 2;
+            while (i < lines.length && lines[i].startsWith("@@")) {
+                Matcher m = HUNK.matcher(lines[i]);
+                if (!m.matches()) {
+                    throw new IllegalArgumentException("Malformed hunk header: " + lines[i]);
+                }
+                int oldCount = m.group(2) != null ? Integer.parseInt(m.group(2)) : 1;
+                int newCount = m.group(4) != null ? Integer.parseInt(m.group(4)) : 1;
+                text.append(lines[i]).append('\n');
+                i++;
+                while (oldCount > 0 || newCount > 0) {
+                    if (i >= lines.length || (i == lines.length - 1 && lines[i].isEmpty())) {
+                        throw new IllegalArgumentException("Hunk " + (hunks + 1) + " of " + path + " is truncated");
+                    }
+                    String line = lines[i];
+                    char kind = line.isEmpty() ? ' ' : line.charAt(0);
+                    switch (kind) {
+                        case ' ' -> {
+                            oldCount--;
+                            newCount--;
+                        }
+                        case '-' -> {
+                            oldCount--;
+                            removed++;
+                        }
+                        case '+' -> {
+                            newCount--;
+                            added++;
+                        }
+                        case '\\' -> {
+                            // "\ No newline at end of file" belongs to the line before it
+                        }
+                        default -> throw new IllegalArgumentException(
+                                "Unexpected line in hunk " + (hunks + 1) + " of " + path + ": " + line);
+                    }
+                    if (oldCount < 0 || newCount < 0) {
+                        throw new IllegalArgumentException("Hunk " + (hunks + 1) + " of " + path
+                                + " has more lines than its header states");
+                    }
+                    // Editors strip the space of empty context lines
+                    text.append(line.isEmpty() ? " " : line).append('\n');
+                    i++;
+                }
+                if (i < lines.length && lines[i].startsWith("\\")) {
+                    text.append(lines[i]).append('\n');
+                    i++;
+                }
+                hunks++;
+            }
+            if (hunks == 0) {
+                throw new IllegalArgumentException("No hunks for " + path);
+            }
+            patches.add(new FilePatch(path, text.toString(), hunks, added, removed));
+        }
+        if (patches.isEmpty()) {
+            throw new IllegalArgumentException("No file headers (--- / +++) found in the diff");
+        }
+        return patches;
+    }
+
+    /**
+     * @param quotedPaths shell-quoted paths, in patch order
+     * @param baseHashes  expected SHA-256 of each file before patching, or {@code null} to skip the check
+     * @param sizes       byte length of each patch in the stdin stream, in order
+     * @param apply       {@code false} to verify and report hashes without touching any file
+     */
+    public static String command(List<String> quotedPaths, List<String> baseHashes, List<Integer> sizes, boolean apply) {
+        StringBuilder script = new StringBuilder()
+                .append("export LC_ALL=C\n")
+                .append("command -v patch >/dev/null 2>&1 || { echo 'patch is not installed' >&2; exit 5; }\n")
+                .append("d=$(mktemp -d) || exit 6\n")
+                // Temp files are listed one per line so paths with spaces are removed intact
+                .append("trap 'while IFS= read -r x; do rm -f -- \"$x\"; done 2>/dev/null < \"$d/tmps\"; rm -rf \"$d\"' EXIT\n")
+                .append("cat > \"$d/in\"\n");
+        long offset = 1;
+        for (int i = 0; i < quotedPaths.size(); i++) {
+            String fail = "{ echo \"fail " + i + " ";
+            String hash = baseHashes.get(i) != null ? baseHashes.get(i) : "";
+            script.append("f=$(readlink -f -- ").append(quotedPaths.get(i)).append(") && [ -f \"$f\" ] || ")
+                    .append(fail).append("not a regular file\"; exit 1; }\n")
+                    .append("h=$(sha256sum < \"$f\") || ").append(fail).append("not readable\"; exit 1; }; h=${h%% *}\n")
+                    .append("[ -z '").append(hash).append("' ] || [ \"$h\" = '").append(hash).append("' ] || ")
+                    .append(fail).append("base hash mismatch, file is now $h\"; exit 1; }\n")
+                    .append("t=$(mktemp \"${f%/*}/.${f##*/}.patch.XXXXXX\") || ")
+                    .append(fail).append("cannot create a temp file next to it\"; exit 1; }; echo \"$t\" >> \"$d/tmps\"\n")
+                    .append("cp -p -- \"$f\" \"$t\" || ").append(fail).append("cannot copy\"; exit 1; }\n")
+                    .append("tail -c +").append(offset).append(" \"$d/in\" | head -c ").append(sizes.get(i))
+                    .append(" > \"$d/p\"\n")
+                    .append("out=$(patch --batch --forward --fuzz=0 --no-backup-if-mismatch -r - -s \"$t\" < \"$d/p\" 2>&1) || ")
+                    .append(fail).append("$(echo $out)\"; exit 1; }\n")
+                    .append("n=$(sha256sum < \"$t\"); echo \"ok ").append(i).append(" $h ${n%% *}\"\n")
+                    .append("f").append(i).append("=$f; t").append(i).append("=$t\n");
+            offset += sizes.get(i);
+        }
+        if (apply) {
+            // Hard links cost no copy and keep the original inode, so renaming one back restores the file exactly
+            for (int i = 0; i < quotedPaths.size(); i++) {
+                String fail = "{ echo \"fail " + i + " cannot keep a backup\"; exit 1; }\n";
+                script.append("b").append(i).append("=$(mktemp \"${f").append(i).append("%/*}/.${f").append(i)
+                        .append("##*/}.orig.XXXXXX\") || ").append(fail)
+                        .append("echo \"$b").append(i).append("\" >> \"$d/tmps\"\n")
+                        .append("ln -f -- \"$f").append(i).append("\" \"$b").append(i).append("\" || ").append(fail);
+            }
+            // Same directory, so each rename is atomic; readers see the old or the new file, never a mix
+            StringBuilder backups = new StringBuilder();
+            for (int i = 0; i < quotedPaths.size(); i++) {
+                script.append("mv -f -- \"$t").append(i).append("\" \"$f").append(i).append("\" || { r=1; ");
+                for (int j = 0; j < i; j++) {
+                    script.append("mv -f -- \"$b").append(j).append("\" \"$f").append(j).append("\" || r=2; ");
+                }
+                script.append("[ $r = 1 ] && echo \"fail ").append(i).append(" rename failed, no file was changed\" || ")
+                        .append("echo \"fail ").append(i).append(" rename failed, earlier files could not all be restored\"; ")
+                        .append("exit $r; }\n");
+                backups.append(" \"$b").append(i).append('"');
+            }
+            script.append("rm -f --").append(backups).append("\n")
+                    .append(": > \"$d/tmps\"\n");
+        }
+        return script.append("exit 0\n").toString();
+    }
+
+    public static List<Outcome> parseOutput(String output) {
+        List<Outcome> outcomes = new ArrayList<>();
+        for (String line : output.split("\n")) {
+            String[] parts = line.split(" ", 4);
+            if (parts.length >= 4 && parts[0].equals("ok")) {
+                outcomes.add(new Outcome(Integer.parseInt(parts[1]), true, parts[2], parts[3].trim(), null));
+            } else if (parts.length >= 2 && parts[0].equals("fail")) {
+                String reason = line.substring(("fail " + parts[1]).length()).trim();
+                outcomes.add(new Outcome(Integer.parseInt(parts[1]), false, null, null,
+                        reason.isEmpty() ? "patch failed" : reason));
+            }
+        }
+        return outcomes;
+    }
+
+    public static boolean isSha256(String value) {
+        return value != null && SHA256.matcher(value).matches();
+    }
+
+    private static String headerPath(String header) {
+        String name = header.substring(4);
+        int tab = name.indexOf('\t');
+        return (tab >= 0 ? name.substring(0, tab) : name).trim();
+    }
+
+    private static String absolute(String name) {
+        if (name.startsWith("/")) {
+            return name;
+        }
+        // git diff run at the filesystem root: a/etc/hosts, b/etc/hosts
+        if ((name.startsWith("a/") || name.startsWith("b/")) && name.length() > 2) {
+            return name.substring(1);
+        }
+        throw new IllegalArgumentException("Paths in the diff must be absolute: " + name);
+    }
+}
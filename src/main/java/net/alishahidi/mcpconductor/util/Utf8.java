@@ -0,0 +1,28 @@
+package net.alishahidi.mcpconductor.util;
+
+/**
+ * Byte-level UTF-8 helpers for output that is cut at a byte budget.
+ */
+public final class Utf8 {
+
+    private Utf8() {
+    }
+
+    /**
+     * Length of the longest prefix of {@code bytes[0, length)} that does not end
+     * inside a multi-byte character, so cutting there never leaves half of one.
+     * Malformed input is left as it is.
+     */
+    public static int completeLength(byte[] bytes, int length) {
+        int lead = length - 1;
+        while (lead >= 0 && length - lead < 4 && (bytes[lead] & 0xC0) == 0x80) {
+            lead--;
+        }
+        if (lead < 0) {
+            return length;
+        }
+        int first = bytes[lead] & 0xFF;
+        int needed = first >= 0xF0 ? 4 : first >= 0xE0 ? 3 : first >= 0xC0 ? 2 : 1;
+        return length - lead < needed ? lead : length;
+    }
+}
@@ -0,0 +1,309 @@
+package net.alishahidi.mcpconductor.util.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * Cursor over captured command output that walks lines and fields in place.
+ *
+ * Lines and fields are offsets into the original buffer; numbers are parsed
+ * directly from the bytes, and a {@code String} is only created when a parser
+ * asks for a text field. Fields are separated by runs of spaces and tabs unless
+ * a separator byte is given. A trailing {@code \r} is not part of the line.
+ * {@link #forEachLine} applies the same scanning to a stream in fixed chunks.
+ */
+public final class ByteScanner {
+
+    private final byte[] buffer;
+    private final int limit;
+    private int next;
+
+    private int lineStart;
+    private int lineEnd;
+    private int cursor;
+
+    private int fieldStart;
+    private int fieldEnd;
+
+    public ByteScanner(byte[] buffer, int length) {
+        this.buffer = buffer;
+        this.limit = Math.min(length, buffer.length);
+    }
+
+    /**
+     * Reads {@code in} to the end through one reused buffer and calls
+     * {@code handler} with a scanner positioned on each line. The buffer only
+     * grows when a single line does not fit.
+     *
+     * @param handler returns {@code false} to stop reading early
+     */
+    public static void forEachLine(InputStream in, Predicate<ByteScanner> handler) throws IOException {
+        byte[] chunk = new byte[64 * 1024];
+        int filled = 0;
+        while (true) {
+            int read = in.read(chunk, filled, chunk.length - filled);
+            boolean eof = read < 0;
+            if (!eof) {
+                filled += read;
+            }
+            int end = filled;
+            if (!eof) {
+                while (end > 0 && chunk[end - 1] != '\n') {
+                    end--;
+                }
+                if (end == 0) {
+                    if (filled == chunk.length) {
+                        chunk = Arrays.copyOf(chunk, chunk.length * 2);
+                    }
+                    continue;
+                }
+            }
+            ByteScanner scanner = new ByteScanner(chunk, end);
+            while (scanner.nextLine()) {
+                if (!handler.test(scanner)) {
+                    return;
+                }
+            }
+            if (eof) {
+                return;
+            }
+            System.arraycopy(chunk, end, chunk, 0, filled - end);
+            filled -= end;
+        }
+    }
+
+    /**
+     * Advances to the next line.
+     *
+     * @return {@code false} when the buffer is exhausted
+     */
+    public boolean nextLine() {
+        if (next >= limit) {
+            return false;
+        }
+        lineStart = next;
+        int end = lineStart;
+        while (end < limit && buffer[end] != '\n') {
+            end++;
+        }
+        next = end + 1;
+        if (end > lineStart && buffer[end - 1] == '\r') {
+            end--;
+        }
+        lineEnd = end;
+        cursor = lineStart;
+        fieldStart = fieldEnd = lineStart;
+        return true;
+    }
+
+    public boolean isBlankLine() {
+        for (int i = lineStart; i < lineEnd; i++) {
+            if (!isBlank(buffer[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean lineStartsWith(String prefix) {
+        return regionEquals(lineStart, Math.min(lineStart + prefix.length(), lineEnd), prefix);
+    }
+
+    /**
+     * Moves to the next blank-separated field of the current line.
+     *
+     * @return {@code false} if the line has no more fields
+     */
+    public boolean nextField() {
+        while (cursor < lineEnd && isBlank(buffer[cursor])) {
+            cursor++;
+        }
+        if (cursor >= lineEnd) {
+            fieldStart = fieldEnd = lineEnd;
+            return false;
+        }
+        fieldStart = cursor;
+        while (cursor < lineEnd && !isBlank(buffer[cursor])) {
+            cursor++;
+        }
+        fieldEnd = cursor;
+        return true;
+    }
+
+    /**
+     * Moves to the next field ending at {@code separator}; fields may be empty.
+     *
+     * @return {@code false} once the end of the line has been passed
+     */
+    public boolean nextField(byte separator) {
+        if (cursor > lineEnd) {
+            fieldStart = fieldEnd = lineEnd;
+            return false;
+        }
+        fieldStart = cursor;
+        while (cursor < lineEnd && buffer[cursor] != separator) {
+            cursor++;
+        }
+        fieldEnd = cursor;
+        cursor++;
+        return true;
+    }
+
+    /**
+     * Makes the rest of the line, without leading and trailing blanks, the
+     * current field. Used for last columns that may contain spaces.
+     */
+    public String rest() {
+        toRest();
+        return field();
+    }
+
+    /**
+     * Like {@link #rest()} without creating a {@code String}.
+     *
+     * @return {@code false} if nothing but blanks is left
+     */
+    public boolean toRest() {
+        while (cursor < lineEnd && isBlank(buffer[cursor])) {
+            cursor++;
+        }
+        int end = lineEnd;
+        while (end > cursor && isBlank(buffer[end - 1])) {
+            end--;
+        }
+        fieldStart = cursor;
+        fieldEnd = end;
+        cursor = lineEnd;
+        return fieldEnd > fieldStart;
+    }
+
+    public String field() {
+        return new String(buffer, fieldStart, fieldEnd - fieldStart, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Copies the current field's bytes into {@code target} at {@code offset}.
+     */
+    public void copyField(byte[] target, int offset) {
+        System.arraycopy(buffer, fieldStart, target, offset, fieldEnd - fieldStart);
+    }
+
+    public int fieldLength() {
+        return fieldEnd - fieldStart;
+    }
+
+    public byte fieldByte(int index) {
+        return buffer[fieldStart + index];
+    }
+
+    public boolean fieldEquals(String ascii) {
+        return fieldEnd - fieldStart == ascii.length() && regionEquals(fieldStart, fieldEnd, ascii);
+    }
+
+    /**
+     * Index of {@code ascii} inside the current field, or {@code -1}.
+     */
+    public int fieldIndexOf(String ascii) {
+        for (int i = fieldStart; i + ascii.length() <= fieldEnd; i++) {
+            if (regionEquals(i, i + ascii.length(), ascii)) {
+                return i - fieldStart;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Text of the current field between the given offsets relative to its start.
+     */
+    public String fieldSubstring(int from, int to) {
+        return new String(buffer, fieldStart + from, to - from, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Leading unsigned decimal digits of the field; {@code -1} if it does not start with one.
+     */
+    public long fieldLong() {
+        return parseLong(fieldStart, fieldEnd);
+    }
+
+    /**
+     * Decimal field with an optional fraction, such as {@code 12.5}; {@code NaN} if not numeric.
+     */
+    public double fieldDouble() {
+        long whole = 0;
+        int i = fieldStart;
+        boolean digits = false;
+        for (; i < fieldEnd && isDigit(buffer[i]); i++) {
+            whole = whole * 10 + (buffer[i] - '0');
+            digits = true;
+        }
+        double value = whole;
+        if (i < fieldEnd && buffer[i] == '.') {
+            double scale = 0.1;
+            for (i++; i < fieldEnd && isDigit(buffer[i]); i++) {
+                value += (buffer[i] - '0') * scale;
+                scale /= 10;
+                digits = true;
+            }
+        }
+        return digits ? value : Double.NaN;
+    }
+
+    /**
+     * Time field in the {@code [[dd-]hh:]mm:ss} form used by ps, as seconds; {@code -1} if malformed.
+     */
+    public long fieldDuration() {
+        long days = 0;
+        long total = 0;
+        long part = 0;
+        boolean digits = false;
+        for (int i = fieldStart; i < fieldEnd; i++) {
+            byte b = buffer[i];
+            if (isDigit(b)) {
+                part = part * 10 + (b - '0');
+                digits = true;
+            } else if (b == '-') {
+                days = part;
+                part = 0;
+            } else if (b == ':') {
+                total = (total + part) * 60;
+                part = 0;
+            } else {
+                return -1;
+            }
+        }
+        return digits ? days * 86400 + total + part : -1;
+    }
+
+    private long parseLong(int from, int to) {
+        long value = 0;
+        int i = from;
+        for (; i < to && isDigit(buffer[i]); i++) {
+            value = value * 10 + (buffer[i] - '0');
+        }
+        return i == from ? -1 : value;
+    }
+
+    private boolean regionEquals(int from, int to, String ascii) {
+        if (to - from != ascii.length()) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            if (buffer[i] != ascii.charAt(i - from)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+}
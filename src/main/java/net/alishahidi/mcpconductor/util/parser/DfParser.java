@@ -0,0 +1,72 @@
+package net.alishahidi.mcpconductor.util.parser;
+
+import net.alishahidi.mcpconductor.model.DiskUsage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code df -PT -B1}: POSIX layout keeps each filesystem on one line, sizes are
+ * in bytes, and the mount point is the rest of the line so it may contain spaces.
+ */
+public final class DfParser implements OutputParser<List<DiskUsage>> {
+
+    @Override
+    public String name() {
+        return "df";
+    }
+
+    @Override
+    public String selector() {
+        return "df";
+    }
+
+    @Override
+    public String command(String argument) {
+        return "LC_ALL=C df -PT -B1" + (argument != null ? " -- " + OutputParsers.quote(argument) : "");
+    }
+
+    @Override
+    public boolean takesPath() {
+        return true;
+    }
+
+    @Override
+    public List<DiskUsage> parse(byte[] output, int length) {
+        List<DiskUsage> disks = new ArrayList<>();
+        ByteScanner scanner = new ByteScanner(output, length);
+        while (scanner.nextLine()) {
+            if (scanner.isBlankLine() || scanner.lineStartsWith("Filesystem")) {
+                continue;
+            }
+            if (!scanner.nextField()) {
+                continue;
+            }
+            String filesystem = scanner.field();
+            scanner.nextField();
+            String type = scanner.field();
+            scanner.nextField();
+            long size = scanner.fieldLong();
+            scanner.nextField();
+            long used = scanner.fieldLong();
+            scanner.nextField();
+            long available = scanner.fieldLong();
+            scanner.nextField();
+            long percent = scanner.fieldLong();
+            String mountPoint = scanner.rest();
+            if (size < 0 || mountPoint.isEmpty()) {
+                continue;
+            }
+            disks.add(DiskUsage.builder()
+                    .filesystem(filesystem)
+                    .type(type)
+                    .sizeBytes(size)
+                    .usedBytes(Math.max(used, 0))
+                    .availableBytes(Math.max(available, 0))
+                    .usedPercent((int) Math.max(percent, 0))
+                    .mountPoint(mountPoint)
+                    .build());
+        }
+        return disks;
+    }
+}
@@ -0,0 +1,106 @@
+package net.alishahidi.mcpconductor.util.parser;
+
+import net.alishahidi.mcpconductor.model.MemoryUsage;
+
+/**
+ * {@code free -b}. Columns are located by header name, so both the current
+ * layout ({@code buff/cache}, {@code available}) and the older one
+ * ({@code buffers}, {@code cached}, no {@code available}) are understood.
+ */
+public final class FreeParser implements OutputParser<MemoryUsage> {
+
+    private static final String[] COLUMNS = {"total", "used", "free", "shared", "buff/cache", "buffers", "cached", "available"};
+    private static final int TOTAL = 0;
+    private static final int USED = 1;
+    private static final int FREE = 2;
+    private static final int SHARED = 3;
+    private static final int BUFF_CACHE = 4;
+    private static final int BUFFERS = 5;
+    private static final int CACHED = 6;
+    private static final int AVAILABLE = 7;
+
+    @Override
+    public String name() {
+        return "free";
+    }
+
+    @Override
+    public String selector() {
+        return "free";
+    }
+
+    @Override
+    public String command(String argument) {
+        return "LC_ALL=C free -b";
+    }
+
+    @Override
+    public MemoryUsage parse(byte[] output, int length) {
+        // Header position -> column, defaulting to the current procps layout
+        int[] layout = {TOTAL, USED, FREE, SHARED, BUFF_CACHE, AVAILABLE, -1, -1};
+        long[] mem = new long[COLUMNS.length];
+        long[] swap = new long[COLUMNS.length];
+        boolean memSeen = false;
+
+        ByteScanner scanner = new ByteScanner(output, length);
+        while (scanner.nextLine()) {
+            if (!scanner.nextField()) {
+                continue;
+            }
+            long[] target;
+            if (scanner.fieldEquals("total")) {
+                readHeader(scanner, layout);
+                continue;
+            } else if (scanner.fieldEquals("Mem:")) {
+                target = mem;
+                memSeen = true;
+            } else if (scanner.fieldEquals("Swap:")) {
+                target = swap;
+            } else {
+                continue;
+            }
+            for (int position = 0; position < layout.length && scanner.nextField(); position++) {
+                if (layout[position] >= 0) {
+                    target[layout[position]] = Math.max(scanner.fieldLong(), 0);
+                }
+            }
+        }
+        if (!memSeen) {
+            throw new IllegalArgumentException("No Mem: line in free output");
+        }
+
+        long buffCache = mem[BUFF_CACHE] > 0 ? mem[BUFF_CACHE] : mem[BUFFERS] + mem[CACHED];
+        long available = mem[AVAILABLE] > 0 ? mem[AVAILABLE] : mem[FREE] + buffCache;
+        return MemoryUsage.builder()
+                .totalBytes(mem[TOTAL])
+                .usedBytes(mem[USED])
+                .freeBytes(mem[FREE])
+                .sharedBytes(mem[SHARED])
+                .buffCacheBytes(buffCache)
+                .availableBytes(available)
+                .usedPercent(mem[TOTAL] > 0 ? Math.round((mem[TOTAL] - available) * 1000.0 / mem[TOTAL]) / 10.0 : 0)
+                .swapTotalBytes(swap[TOTAL])
+                .swapUsedBytes(swap[USED])
+                .swapFreeBytes(swap[FREE])
+                .build();
+    }
+
+    private static void readHeader(ByteScanner scanner, int[] layout) {
+        int position = 0;
+        do {
+            int column = -1;
+            for (int c = 0; c < COLUMNS.length; c++) {
+                if (scanner.fieldEquals(COLUMNS[c])) {
+                    column = c;
+                    break;
+                }
+            }
+            if (position < layout.length) {
+                layout[position++] = column;
+            }
+        } while (scanner.nextField());
+        for (; position < layout.length; position++) {
+            layout[position] = -1;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package net.alishahidi.mcpconductor.util.parser;
+
+import net.alishahidi.mcpconductor.exception.ValidationException;
+import net.alishahidi.mcpconductor.model.GitBranch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code git branch -a} with a tab-separated {@code --format} instead of the
+ * human layout: current marker, full ref name, short commit, upstream and
+ * upstream tracking ({@code ahead 1, behind 2} or {@code gone}). Symbolic
+ * {@code HEAD} refs of remotes are skipped.
+ */
+public final class GitBranchParser implements OutputParser<List<GitBranch>> {
+
+    static final String FORMAT = "%(HEAD)%09%(refname)%09%(objectname:short)%09%(upstream:short)%09%(upstream:track,nobracket)";
+
+    private static final String HEADS = "refs/heads/";
+    private static final String REMOTES = "refs/remotes/";
+
+    @Override
+    public String name() {
+        return "git-branch";
+    }
+
+    @Override
+    public String selector() {
+        return "git branch";
+    }
+
+    /**
+     * @param argument repository path, required
+     */
+    @Override
+    public String command(String argument) {
+        if (argument == null || argument.isBlank()) {
+            throw new ValidationException("repositoryPath", argument, "git branch needs the repository path");
+        }
+        return "cd " + OutputParsers.quote(argument) + " && LC_ALL=C git branch -a --no-color --format='" + FORMAT + "'";
+    }
+
+    @Override
+    public boolean takesPath() {
+        return true;
+    }
+
+    @Override
+    public List<GitBranch> parse(byte[] output, int length) {
+        List<GitBranch> branches = new ArrayList<>();
+        ByteScanner scanner = new ByteScanner(output, length);
+        while (scanner.nextLine()) {
+            if (!scanner.nextField((byte) '\t')) {
+                continue;
+            }
+            boolean current = scanner.fieldEquals("*");
+            if (!scanner.nextField((byte) '\t') || scanner.fieldLength() == 0) {
+                continue;
+            }
+            String ref = scanner.field();
+            boolean remote = ref.startsWith(REMOTES);
+            if (remote && ref.endsWith("/HEAD")) {
+                continue;
+            }
+            String name = remote ? ref.substring(REMOTES.length())
+                    : ref.startsWith(HEADS) ? ref.substring(HEADS.length()) : ref;
+            scanner.nextField((byte) '\t');
+            String commit = scanner.field();
+            scanner.nextField((byte) '\t');
+            String upstream = scanner.fieldLength() > 0 ? scanner.field() : null;
+
+            GitBranch.GitBranchBuilder branch = GitBranch.builder()
+                    .name(name)
+                    .current(current)
+                    .remote(remote)
+                    .commit(commit)
+                    .upstream(upstream);
+            readTracking(scanner, branch);
+            branches.add(branch.build());
+        }
+        return branches;
+    }
+
+    // "ahead 3", "behind 2", "ahead 3, behind 2" or "gone"
+    private static void readTracking(ByteScanner scanner, GitBranch.GitBranchBuilder branch) {
+        boolean ahead = false;
+        boolean behind = false;
+        while (scanner.nextField()) {
+            if (scanner.fieldEquals("gone")) {
+                branch.upstreamGone(true);
+            } else if (scanner.fieldEquals("ahead")) {
+                ahead = true;
+                behind = false;
+            } else if (scanner.fieldEquals("behind")) {
+                behind = true;
+                ahead = false;
+            } else if (ahead) {
+                branch.ahead((int) Math.max(scanner.fieldLong(), 0));
+                ahead = false;
+            } else if (behind) {
+                branch.behind((int) Math.max(scanner.fieldLong(), 0));
+                behind = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package net.alishahidi.mcpconductor.util.parser;
+
+import net.alishahidi.mcpconductor.model.FileEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code ls -la --time-style=+%s}: modification time as one epoch-seconds
+ * token, so the name is everything after it. Device files show
+ * {@code major, minor} instead of a size and are reported with size 0. The
+ * {@code total} line and the {@code .} and {@code ..} entries are skipped.
+ */
+public final class LsParser implements OutputParser<List<FileEntry>> {
+
+    private static final String LINK_ARROW = " -> ";
+
+    @Override
+    public String name() {
+        return "ls";
+    }
+
+    @Override
+    public String selector() {
+        return "ls";
+    }
+
+    @Override
+    public String command(String argument) {
+        return "LC_ALL=C ls -la --time-style=+%s" + (argument != null ? " -- " + OutputParsers.quote(argument) : "");
+    }
+
+    @Override
+    public boolean takesPath() {
+        return true;
+    }
+
+    @Override
+    public List<FileEntry> parse(byte[] output, int length) {
+        List<FileEntry> entries = new ArrayList<>();
+        ByteScanner scanner = new ByteScanner(output, length);
+        while (scanner.nextLine()) {
+            if (!scanner.nextField() || scanner.fieldLength() < 10 || scanner.fieldEquals("total")) {
+                continue;
+            }
+            FileEntry.FileType type = type(scanner.fieldByte(0));
+            String permissions = scanner.field();
+            scanner.nextField();
+            long links = scanner.fieldLong();
+            scanner.nextField();
+            String owner = scanner.field();
+            scanner.nextField();
+            String group = scanner.field();
+            scanner.nextField();
+            long size = scanner.fieldLong();
+            if (scanner.fieldByte(scanner.fieldLength() - 1) == ',') {
+                scanner.nextField();
+                size = 0;
+            }
+            scanner.nextField();
+            long modified = scanner.fieldLong();
+            String name = scanner.rest();
+            if (links < 0 || name.isEmpty() || name.equals(".") || name.equals("..")) {
+                continue;
+            }
+
+            String linkTarget = null;
+            int arrow = type == FileEntry.FileType.SYMLINK ? name.indexOf(LINK_ARROW) : -1;
+            if (arrow >= 0) {
+                linkTarget = name.substring(arrow + LINK_ARROW.length());
+                name = name.substring(0, arrow);
+            }
+            entries.add(FileEntry.builder()
+                    .name(name)
+                    .type(type)
+                    .permissions(permissions)
+                    .links((int) links)
+                    .owner(owner)
+                    .group(group)
+                    .sizeBytes(Math.max(size, 0))
+                    .modifiedEpochSeconds(modified)
+                    .linkTarget(linkTarget)
+                    .build());
+        }
+        return entries;
+    }
+
+    private static FileEntry.FileType type(byte marker) {
+        return switch (marker) {
+            case '-' -> FileEntry.FileType.FILE;
+            case 'd' -> FileEntry.FileType.DIRECTORY;
+            case 'l' -> FileEntry.FileType.SYMLINK;
+            case 'p' -> FileEntry.FileType.FIFO;
+            case 's' -> FileEntry.FileType.SOCKET;
+            case 'c' -> FileEntry.FileType.CHAR_DEVICE;
+            case 'b' -> FileEntry.FileType.BLOCK_DEVICE;
+            default -> FileEntry.FileType.UNKNOWN;
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package net.alishahidi.mcpconductor.util.parser;
+
+/**
+ * Turns the captured output of one well-known command into a typed result.
+ *
+ * Each parser owns the exact command line it understands, run under
+ * {@code LC_ALL=C} with flags chosen for stable, unambiguous columns, so the
+ * format does not depend on the remote locale or on terminal width.
+ *
+ * @param <T> result type, usually a list of Lombok models
+ */
+public interface OutputParser<T> {
+
+    /**
+     * Registry name, e.g. {@code df} or {@code git-branch}.
+     */
+    String name();
+
+    /**
+     * Program and subcommand this parser is selected for, e.g. {@code systemctl list-units}.
+     */
+    String selector();
+
+    /**
+     * Full command to run on the target.
+     *
+     * @param argument the single path or pattern the command takes, or {@code null}
+     */
+    String command(String argument);
+
+    /**
+     * Whether the argument names a file or directory on the target, so callers
+     * must check it against the path policy before running the command.
+     */
+    default boolean takesPath() {
+        return false;
+    }
+
+    T parse(byte[] output, int length);
+}
@@ -0,0 +1,92 @@
+package net.alishahidi.mcpconductor.util.parser;
+
+import net.alishahidi.mcpconductor.exception.ValidationException;
+
+import java.util.List;
+
+/**
+ * Registry of the typed command output parsers.
+ *
+ * A parser is selected by the command a caller asked for: the
+ * program (and subcommand, for {@code systemctl} and {@code git}) picks the
+ * parser, which then runs its own fixed command line. Options are therefore
+ * not accepted; the only thing passed through is one path or pattern.
+ */
+public final class OutputParsers {
+
+    public static final DfParser DF = new DfParser();
+    public static final FreeParser FREE = new FreeParser();
+    public static final PsParser PS = new PsParser();
+    public static final SystemctlUnitsParser SYSTEMCTL_UNITS = new SystemctlUnitsParser();
+    public static final GitBranchParser GIT_BRANCH = new GitBranchParser();
+    public static final LsParser LS = new LsParser();
+
+    private static final List<OutputParser<?>> ALL = List.of(DF, FREE, PS, SYSTEMCTL_UNITS, GIT_BRANCH, LS);
+
+    private OutputParsers() {
+    }
+
+    public static List<String> selectors() {
+        return ALL.stream().map(OutputParser::selector).toList();
+    }
+
+    /**
+     * Picks the parser for a command such as {@code df}, {@code systemctl list-units}
+     * or {@code ls /var/log}.
+     */
+    public static Invocation resolve(String command) {
+        if (command == null || command.isBlank()) {
+            throw new ValidationException("command", command, "Command cannot be empty");
+        }
+        String[] tokens = command.trim().split("\\s+");
+        for (OutputParser<?> parser : ALL) {
+            String[] selector = parser.selector().split(" ");
+            if (!startsWith(tokens, selector)) {
+                continue;
+            }
+            String argument = null;
+            for (int i = selector.length; i < tokens.length; i++) {
+                if (tokens[i].startsWith("-")) {
+                    throw new ValidationException("command", command,
+                            "Structured output runs '" + parser.selector() + "' with fixed options; pass only a path or pattern");
+                }
+                if (argument != null) {
+                    throw new ValidationException("command", command, "Only one path or pattern is supported");
+                }
+                argument = unquote(tokens[i]);
+            }
+            return new Invocation(parser, argument);
+        }
+        throw new ValidationException("command", command, "No structured parser for this command, supported: " + selectors());
+    }
+
+    /**
+     * Single-quotes a value for the remote shell.
+     */
+    static String quote(String value) {
+        return "'" + value.replace("'", "'\\''") + "'";
+    }
+
+    private static boolean startsWith(String[] tokens, String[] prefix) {
+        if (tokens.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (!tokens[i].equals(prefix[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String unquote(String token) {
+        if (token.length() >= 2 && (token.charAt(0) == '\'' || token.charAt(0) == '"')
+                && token.charAt(token.length() - 1) == token.charAt(0)) {
+            return token.substring(1, token.length() - 1);
+        }
+        return token;
+    }
+
+    public record Invocation(OutputParser<?> parser, String argument) {
+    }
+}
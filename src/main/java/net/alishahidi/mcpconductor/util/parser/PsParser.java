@@ -0,0 +1,80 @@
+package net.alishahidi.mcpconductor.util.parser;
+
+import net.alishahidi.mcpconductor.model.ProcessInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code ps -eo} with empty headers and the command line last, so every column
+ * but the arguments is a single token. Sizes come in KiB and are converted to bytes.
+ */
+public final class PsParser implements OutputParser<List<ProcessInfo>> {
+
+    static final String FORMAT = "pid=,ppid=,stat=,nlwp=,pcpu=,pmem=,rss=,vsz=,etimes=,time=,user:32=,args=";
+
+    @Override
+    public String name() {
+        return "ps";
+    }
+
+    @Override
+    public String selector() {
+        return "ps";
+    }
+
+    @Override
+    public String command(String argument) {
+        return "LC_ALL=C ps -eo " + FORMAT;
+    }
+
+    @Override
+    public List<ProcessInfo> parse(byte[] output, int length) {
+        List<ProcessInfo> processes = new ArrayList<>();
+        ByteScanner scanner = new ByteScanner(output, length);
+        while (scanner.nextLine()) {
+            if (!scanner.nextField()) {
+                continue;
+            }
+            long pid = scanner.fieldLong();
+            if (pid < 0) {
+                continue;
+            }
+            scanner.nextField();
+            long ppid = scanner.fieldLong();
+            scanner.nextField();
+            String state = scanner.field();
+            scanner.nextField();
+            long threads = scanner.fieldLong();
+            scanner.nextField();
+            double cpu = scanner.fieldDouble();
+            scanner.nextField();
+            double mem = scanner.fieldDouble();
+            scanner.nextField();
+            long rssKb = scanner.fieldLong();
+            scanner.nextField();
+            long vszKb = scanner.fieldLong();
+            scanner.nextField();
+            long elapsed = scanner.fieldLong();
+            scanner.nextField();
+            long cpuSeconds = scanner.fieldDuration();
+            scanner.nextField();
+            String user = scanner.field();
+            processes.add(ProcessInfo.builder()
+                    .pid((int) pid)
+                    .ppid((int) Math.max(ppid, 0))
+                    .state(state)
+                    .user(user)
+                    .command(scanner.rest())
+                    .threads((int) Math.max(threads, 0))
+                    .cpuPercent(Double.isNaN(cpu) ? 0 : cpu)
+                    .cpuSeconds(Math.max(cpuSeconds, 0))
+                    .rssBytes(Math.max(rssKb, 0) * 1024)
+                    .memPercent(Double.isNaN(mem) ? 0 : mem)
+                    .vsizeBytes(Math.max(vszKb, 0) * 1024)
+                    .elapsedSeconds(Math.max(elapsed, 0))
+                    .build());
+        }
+        return processes;
+    }
+}
@@ -0,0 +1,76 @@
+package net.alishahidi.mcpconductor.util.parser;
+
+import net.alishahidi.mcpconductor.model.ServiceInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code systemctl list-units --type=service --all --plain --no-legend}: one
+ * unit per line as {@code unit load active sub description}. The status is
+ * derived from the active state; the raw states are kept as well.
+ */
+public final class SystemctlUnitsParser implements OutputParser<List<ServiceInfo>> {
+
+    @Override
+    public String name() {
+        return "systemctl-units";
+    }
+
+    @Override
+    public String selector() {
+        return "systemctl list-units";
+    }
+
+    @Override
+    public String command(String argument) {
+        return "LC_ALL=C systemctl list-units --type=service --all --plain --no-legend --no-pager"
+                + (argument != null ? " -- " + OutputParsers.quote(argument) : "");
+    }
+
+    @Override
+    public List<ServiceInfo> parse(byte[] output, int length) {
+        List<ServiceInfo> services = new ArrayList<>();
+        ByteScanner scanner = new ByteScanner(output, length);
+        while (scanner.nextLine()) {
+            if (!scanner.nextField()) {
+                continue;
+            }
+            // Older systemd marks failed units with a bullet even without a TTY
+            if (scanner.fieldByte(0) < 0 || scanner.fieldEquals("*")) {
+                scanner.nextField();
+            }
+            String unit = scanner.field();
+            if (!scanner.nextField()) {
+                continue;
+            }
+            String load = scanner.field();
+            scanner.nextField();
+            String active = scanner.field();
+            scanner.nextField();
+            String sub = scanner.field();
+            String description = scanner.rest();
+
+            services.add(ServiceInfo.builder()
+                    .name(unit.endsWith(".service") ? unit.substring(0, unit.length() - ".service".length()) : unit)
+                    .description(description)
+                    .status(status(active))
+                    .loadState(load)
+                    .activeState(active)
+                    .subState(sub)
+                    .build());
+        }
+        return services;
+    }
+
+    private static ServiceInfo.ServiceStatus status(String active) {
+        return switch (active) {
+            case "active" -> ServiceInfo.ServiceStatus.RUNNING;
+            case "inactive" -> ServiceInfo.ServiceStatus.STOPPED;
+            case "failed" -> ServiceInfo.ServiceStatus.FAILED;
+            case "activating", "reloading" -> ServiceInfo.ServiceStatus.STARTING;
+            case "deactivating" -> ServiceInfo.ServiceStatus.STOPPING;
+            default -> ServiceInfo.ServiceStatus.UNKNOWN;
+        };
+    }
+}
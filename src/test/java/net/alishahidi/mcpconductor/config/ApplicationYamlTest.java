@@ -0,0 +1,22 @@
+package net.alishahidi.mcpconductor.config;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.io.ClassPathResource;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * The profile files are not loaded by the context test, so a broken one (such
+ * as a duplicated key) would only show up when the application starts.
+ */
+class ApplicationYamlTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"application.yml", "application-dev.yml", "application-prod.yml"})
+    void testProfileLoads(String file) {
+        assertThatCode(() -> new YamlPropertySourceLoader().load(file, new ClassPathResource(file)))
+                .doesNotThrowAnyException();
+    }
+}
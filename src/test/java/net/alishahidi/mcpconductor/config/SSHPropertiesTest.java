@@ -0,0 +1,47 @@
+package net.alishahidi.mcpconductor.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SSHPropertiesTest {
+
+    private final SSHProperties properties = new SSHProperties();
+
+    @BeforeEach
+    void setUp() {
+        server("web-2", "web", "eu");
+        server("web-1", "web", "us");
+        server("db-1", "db", "eu");
+        server("bastion");
+    }
+
+    @Test
+    void testBlankAllOrStarSelectsEveryServer() {
+        List<String> every = List.of("bastion", "db-1", "web-1", "web-2");
+
+        assertThat(properties.selectServers(null)).isEqualTo(every);
+        assertThat(properties.selectServers("  ")).isEqualTo(every);
+        assertThat(properties.selectServers(" ALL ")).isEqualTo(every);
+        assertThat(properties.selectServers("*")).isEqualTo(every);
+    }
+
+    @Test
+    void testSelectsServersCarryingAnyTagSorted() {
+        assertThat(properties.selectServers("web")).containsExactly("web-1", "web-2");
+        assertThat(properties.selectServers(" db , us ")).containsExactly("db-1", "web-1");
+        assertThat(properties.selectServers("eu,,")).containsExactly("db-1", "web-2");
+        assertThat(properties.selectServers("staging")).isEmpty();
+        assertThat(properties.selectServers(",")).isEmpty();
+    }
+
+    private void server(String name, String... tags) {
+        SSHProperties.ServerConfig config = new SSHProperties.ServerConfig();
+        config.setHost(name + ".internal");
+        config.setTags(List.of(tags));
+        properties.getServers().put(name, config);
+    }
+}
@@ -0,0 +1,232 @@
+package net.alishahidi.mcpconductor.service;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.command.ExecCreateCmd;
+import com.github.dockerjava.api.command.ExecCreateCmdResponse;
+import com.github.dockerjava.api.command.ExecStartCmd;
+import com.github.dockerjava.api.command.InspectExecCmd;
+import com.github.dockerjava.api.command.InspectExecResponse;
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.StreamType;
+import net.alishahidi.mcpconductor.exception.ValidationException;
+import net.alishahidi.mcpconductor.model.ExecFanOutResult;
+import net.alishahidi.mcpconductor.model.ExecOutputGroup;
+import net.alishahidi.mcpconductor.util.DockerClientRegistry;
+import net.alishahidi.mcpconductor.util.FanOutExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Label selectors and fan-out execs against a mocked Docker client. Each
+ * container's exec is scripted by its id: "ok-*" prints ok, "fail-*" exits 1,
+ * "hang-*" never finishes and "spam-*" floods its output without finishing;
+ * the last two run until the kill exec carrying their marker runs.
+ */
+class DockerServiceTest {
+
+    private static final String SERVER = "docker-1";
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger execIds = new AtomicInteger();
+    private final Map<String, String> execContainers = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> execCommands = new ConcurrentHashMap<>();
+    private final Map<String, List<String>> execEnvs = new ConcurrentHashMap<>();
+    private final Set<String> killedMarkers = ConcurrentHashMap.newKeySet();
+
+    private DockerClient dockerClient;
+    private DockerService dockerService;
+
+    @BeforeEach
+    void setUp() {
+        dockerClient = mock(DockerClient.class);
+        when(dockerClient.execCreateCmd(anyString())).thenAnswer(invocation -> execCreate(invocation.getArgument(0)));
+        when(dockerClient.execStartCmd(anyString())).thenAnswer(invocation -> execStart(invocation.getArgument(0)));
+        when(dockerClient.inspectExecCmd(anyString())).thenAnswer(invocation -> inspectExec(invocation.getArgument(0)));
+
+        DockerClientRegistry registry = mock(DockerClientRegistry.class);
+        when(registry.getClient(SERVER)).thenReturn(dockerClient);
+        when(registry.getStreamingClient(SERVER)).thenReturn(dockerClient);
+
+        dockerService = new DockerService(registry, new FanOutExecutor(executor));
+        ReflectionTestUtils.setField(dockerService, "maxBulkConcurrency", 16);
+        ReflectionTestUtils.setField(dockerService, "maxBulkContainers", 500);
+        ReflectionTestUtils.setField(dockerService, "defaultExecTimeoutSeconds", 60);
+        ReflectionTestUtils.setField(dockerService, "maxExecTimeoutSeconds", 600);
+        ReflectionTestUtils.setField(dockerService, "maxExecBytes", 262144L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testParseLabelSelectorKeepsValuesAndBareKeys() {
+        Map<String, String> selector = DockerService.parseLabelSelector(" app = web ,tier,, env=prod ");
+
+        assertThat(selector.keySet()).containsExactly("app", "tier", "env");
+        assertThat(selector).containsEntry("app", "web").containsEntry("tier", null).containsEntry("env", "prod");
+        assertThat(DockerService.parseLabelSelector("app=")).containsEntry("app", "");
+        assertThatThrownBy(() -> DockerService.parseLabelSelector("app=web,=prod"))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("Label key cannot be empty");
+    }
+
+    @Test
+    void testMatchesLabels() {
+        Map<String, String> labels = Map.of("app", "web", "tier", "front");
+
+        assertThat(DockerService.matchesLabels(labels, DockerService.parseLabelSelector("app=web"))).isTrue();
+        assertThat(DockerService.matchesLabels(labels, DockerService.parseLabelSelector("app=web,tier"))).isTrue();
+        assertThat(DockerService.matchesLabels(labels, DockerService.parseLabelSelector("app=db"))).isFalse();
+        assertThat(DockerService.matchesLabels(labels, DockerService.parseLabelSelector("app=web,env"))).isFalse();
+        assertThat(DockerService.matchesLabels(labels, Map.of())).isTrue();
+        assertThat(DockerService.matchesLabels(null, DockerService.parseLabelSelector("app"))).isFalse();
+    }
+
+    @Test
+    void testExecGroupsIdenticalOutputs() {
+        ExecFanOutResult result = dockerService.execInContainers(SERVER,
+                List.of("ok-1", "fail-1", "ok-2", "ok-1"), null, "echo ok", 5, 0, 0);
+
+        assertThat(result.getContainers()).isEqualTo(3);
+        assertThat(result.getSucceeded()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getTimedOut()).isZero();
+        assertThat(result.getGroups()).hasSize(2);
+
+        ExecOutputGroup ok = result.getGroups().get(0);
+        assertThat(ok.getContainerIds()).containsExactly("ok-1", "ok-2");
+        assertThat(ok.getExitCode()).isZero();
+        assertThat(ok.getStdout()).isEqualTo("ok\n");
+
+        ExecOutputGroup failed = result.getGroups().get(1);
+        assertThat(failed.getContainerIds()).containsExactly("fail-1");
+        assertThat(failed.getExitCode()).isEqualTo(1L);
+        // Output that does not end in a newline is returned as the exec wrote it
+        assertThat(failed.getStderr()).isEqualTo("boom");
+        assertThat(failed.isKilled()).isFalse();
+    }
+
+    @Test
+    void testTimedOutExecIsKilled() {
+        ExecFanOutResult result = dockerService.execInContainers(SERVER,
+                List.of("ok-1", "hang-1"), null, "sleep 600", 1, 0, 0);
+
+        assertThat(result.getSucceeded()).isEqualTo(1);
+        assertThat(result.getTimedOut()).isEqualTo(1);
+
+        ExecOutputGroup hung = result.getGroups().get(1);
+        assertThat(hung.getContainerIds()).containsExactly("hang-1");
+        assertThat(hung.isTimedOut()).isTrue();
+        assertThat(hung.isKilled()).isTrue();
+        assertThat(hung.getExitCode()).isNull();
+
+        // The kill exec targets the hung exec's own marker, in the same container
+        String hungExec = execIdFor("hang-1", "sleep 600");
+        String marker = execEnvs.get(hungExec).get(0);
+        assertThat(marker).startsWith("MCP_CONDUCTOR_EXEC=");
+        assertThat(killedMarkers).containsExactly(marker);
+        assertThat(execContainers.entrySet()).filteredOn(entry -> isKill(entry.getKey()))
+                .extracting(Map.Entry::getValue).containsExactly("hang-1");
+    }
+
+    @Test
+    void testExecStillRunningAfterOutputCapIsKilled() {
+        ExecFanOutResult result = dockerService.execInContainers(SERVER,
+                List.of("spam-1"), null, "yes", 30, 100, 0);
+
+        ExecOutputGroup spam = result.getGroups().get(0);
+        assertThat(spam.isTruncated()).isTrue();
+        assertThat(spam.isTimedOut()).isFalse();
+        assertThat(spam.isKilled()).isTrue();
+        assertThat(spam.getStdout()).hasSize(100);
+        assertThat(result.getDurationMs()).isLessThan(30_000);
+        assertThat(killedMarkers).containsExactly(execEnvs.get(execIdFor("spam-1", "yes")).get(0));
+    }
+
+    private ExecCreateCmd execCreate(String containerId) {
+        String execId = "exec-" + execIds.incrementAndGet();
+        execContainers.put(execId, containerId);
+
+        ExecCreateCmd cmd = mock(ExecCreateCmd.class, RETURNS_SELF);
+        doAnswer(invocation -> {
+            execCommands.put(execId, List.of((String[]) invocation.getRawArguments()[0]));
+            return cmd;
+        }).when(cmd).withCmd(any(String[].class));
+        doAnswer(invocation -> {
+            execEnvs.put(execId, List.copyOf(invocation.<List<String>>getArgument(0)));
+            return cmd;
+        }).when(cmd).withEnv(anyList());
+        ExecCreateCmdResponse response = mock(ExecCreateCmdResponse.class);
+        when(response.getId()).thenReturn(execId);
+        when(cmd.exec()).thenReturn(response);
+        return cmd;
+    }
+
+    private ExecStartCmd execStart(String execId) {
+        ExecStartCmd cmd = mock(ExecStartCmd.class, RETURNS_SELF);
+        when(cmd.exec(any())).thenAnswer(invocation -> {
+            ResultCallback<Frame> callback = invocation.getArgument(0);
+            String containerId = execContainers.get(execId);
+            if (isKill(execId)) {
+                List<String> command = execCommands.get(execId);
+                killedMarkers.add(command.get(command.size() - 1));
+                callback.onComplete();
+            } else if (containerId.startsWith("ok-")) {
+                callback.onNext(new Frame(StreamType.STDOUT, "ok\n".getBytes(StandardCharsets.UTF_8)));
+                callback.onComplete();
+            } else if (containerId.startsWith("spam-")) {
+                callback.onNext(new Frame(StreamType.STDOUT, "y\n".repeat(1000).getBytes(StandardCharsets.UTF_8)));
+            } else if (containerId.startsWith("fail-")) {
+                callback.onNext(new Frame(StreamType.STDERR, "boom".getBytes(StandardCharsets.UTF_8)));
+                callback.onComplete();
+            }
+            return callback;
+        });
+        return cmd;
+    }
+
+    private InspectExecCmd inspectExec(String execId) {
+        String containerId = execContainers.get(execId);
+        boolean hung = (containerId.startsWith("hang-") || containerId.startsWith("spam-")) && !isKill(execId)
+                && !killedMarkers.contains(execEnvs.get(execId).get(0));
+
+        InspectExecResponse response = mock(InspectExecResponse.class);
+        when(response.isRunning()).thenReturn(hung);
+        when(response.getExitCodeLong()).thenReturn(hung ? null : containerId.startsWith("fail-") ? 1L : 0L);
+        InspectExecCmd cmd = mock(InspectExecCmd.class);
+        when(cmd.exec()).thenReturn(response);
+        return cmd;
+    }
+
+    private boolean isKill(String execId) {
+        List<String> command = execCommands.get(execId);
+        return command != null && command.size() > 3;
+    }
+
+    private String execIdFor(String containerId, String command) {
+        return execContainers.entrySet().stream()
+                .filter(entry -> entry.getValue().equals(containerId)
+                        && execCommands.get(entry.getKey()).equals(List.of("sh", "-c", command)))
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElseThrow();
+    }
+}
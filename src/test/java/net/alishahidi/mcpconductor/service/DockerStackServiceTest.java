@@ -0,0 +1,200 @@
+package net.alishahidi.mcpconductor.service;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.command.CreateContainerCmd;
+import com.github.dockerjava.api.command.CreateContainerResponse;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.model.Network;
+import net.alishahidi.mcpconductor.exception.ValidationException;
+import net.alishahidi.mcpconductor.model.DockerContainer;
+import net.alishahidi.mcpconductor.model.ImagePullResult;
+import net.alishahidi.mcpconductor.model.StackDeployResult;
+import net.alishahidi.mcpconductor.model.StackServiceResult;
+import net.alishahidi.mcpconductor.model.StackServiceSpec;
+import net.alishahidi.mcpconductor.model.TaskOutcome;
+import net.alishahidi.mcpconductor.util.DockerClientRegistry;
+import net.alishahidi.mcpconductor.util.FanOutExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DockerStackServiceTest {
+
+    private static final String SERVER = "docker-1";
+    private static final String IMAGE_ID = "sha256:" + "ab".repeat(32);
+    private static final String NEW_IMAGE_ID = "sha256:" + "cd".repeat(32);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<DockerContainer> containers = new ArrayList<>();
+
+    private DockerClient dockerClient;
+    private DockerService dockerService;
+    private DockerStackService stackService;
+
+    @BeforeEach
+    void setUp() {
+        dockerClient = mock(DockerClient.class, RETURNS_DEEP_STUBS);
+        Network network = mock(Network.class);
+        when(network.getName()).thenReturn("shop_default");
+        when(dockerClient.listNetworksCmd().withNameFilter(anyString()).exec()).thenReturn(List.of(network));
+
+        InspectContainerResponse.ContainerState running = mock(InspectContainerResponse.ContainerState.class);
+        when(running.getRunning()).thenReturn(true);
+        when(dockerClient.inspectContainerCmd(anyString()).exec().getState()).thenReturn(running);
+
+        CreateContainerCmd create = mock(CreateContainerCmd.class, RETURNS_SELF);
+        CreateContainerResponse created = new CreateContainerResponse();
+        created.setId("new-container");
+        when(create.exec()).thenReturn(created);
+        when(dockerClient.createContainerCmd(anyString())).thenReturn(create);
+
+        DockerClientRegistry registry = mock(DockerClientRegistry.class);
+        when(registry.getClient(SERVER)).thenReturn(dockerClient);
+
+        dockerService = mock(DockerService.class);
+        when(dockerService.listContainers(SERVER, true)).thenReturn(containers);
+        when(dockerService.pullImage(eq(SERVER), anyString(), isNull(), eq(false), isNull())).thenAnswer(invocation ->
+                ImagePullResult.builder().image(invocation.getArgument(1)).imageId(NEW_IMAGE_ID).build());
+
+        stackService = new DockerStackService(registry, dockerService, new FanOutExecutor(executor));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testUnchangedReapplyPullsNothing() {
+        Map<String, StackServiceSpec> services = stack(
+                "web", service("nginx:latest", "db"),
+                "db", service("postgres"));
+        localImage("nginx:latest", IMAGE_ID);
+        localImage("postgres", IMAGE_ID);
+        deployed("web", services.get("web"), IMAGE_ID);
+        deployed("db", services.get("db"), IMAGE_ID);
+
+        StackDeployResult result = stackService.deployStack(SERVER, "shop", services, false);
+
+        assertThat(result.isUnchanged()).isTrue();
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getPulls()).isEmpty();
+        verify(dockerService, never()).pullImage(any(), any(), any(), anyBoolean(), any());
+        verify(dockerClient, never()).createContainerCmd(anyString());
+    }
+
+    @Test
+    void testOnlyImagesOfChangedServicesArePulled() {
+        Map<String, StackServiceSpec> services = stack(
+                "web", service("nginx:latest"),
+                "db", service("postgres:16"));
+        localImage("nginx:latest", IMAGE_ID);
+        when(dockerClient.inspectImageCmd("postgres:16").exec()).thenThrow(new NotFoundException("no such image"));
+        deployed("web", services.get("web"), IMAGE_ID);
+
+        StackDeployResult result = stackService.deployStack(SERVER, "shop", services, false);
+
+        assertThat(result.getPulls()).extracting(TaskOutcome::getTarget).containsExactly("postgres:16");
+        assertThat(result.getServices()).extracting(StackServiceResult::getService, StackServiceResult::getAction)
+                .containsExactlyInAnyOrder(tuple("web", "unchanged"), tuple("db", "created"));
+        verify(dockerService, never()).pullImage(any(), eq("nginx:latest"), any(), anyBoolean(), any());
+    }
+
+    @Test
+    void testValidateAcceptsDependencyChain() {
+        Map<String, StackServiceSpec> services = stack(
+                "web", service("nginx:1.25", "api"),
+                "api", service("app:2.1", "db", "cache"),
+                "db", service("postgres:16"),
+                "cache", service("redis:7"));
+
+        assertThatCode(() -> DockerStackService.validate("shop", services)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void testValidateRejectsCycles() {
+        Map<String, StackServiceSpec> services = stack(
+                "web", service("nginx:1.25", "api"),
+                "api", service("app:2.1", "worker"),
+                "worker", service("app:2.1", "api"),
+                "db", service("postgres:16"));
+
+        assertThatThrownBy(() -> DockerStackService.validate("shop", services))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("Dependency cycle");
+    }
+
+    @Test
+    void testValidateRejectsUnknownAndSelfDependencies() {
+        assertThatThrownBy(() -> DockerStackService.validate("shop", stack(
+                "web", service("nginx:1.25", "missing"))))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("Unknown or self dependency");
+        assertThatThrownBy(() -> DockerStackService.validate("shop", stack(
+                "web", service("nginx:1.25", "web"))))
+                .hasMessageContaining("Unknown or self dependency");
+        assertThatThrownBy(() -> DockerStackService.validate("bad name", stack("web", service("nginx:1.25"))))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> DockerStackService.validate("shop", stack("web", service(" "))))
+                .hasMessageContaining("Image is required");
+    }
+
+    @Test
+    void testConfigHashIgnoresMapOrderButNotContent() {
+        Map<String, String> env = new LinkedHashMap<>();
+        env.put("A", "1");
+        env.put("B", "2");
+        Map<String, String> reordered = new LinkedHashMap<>();
+        reordered.put("B", "2");
+        reordered.put("A", "1");
+        StackServiceSpec spec = StackServiceSpec.builder().image("app:2.1").environment(env).build();
+        StackServiceSpec same = StackServiceSpec.builder().image("app:2.1").environment(reordered).build();
+
+        String hash = DockerStackService.configHash(spec, IMAGE_ID);
+        assertThat(hash).hasSize(64).isEqualTo(DockerStackService.configHash(same, IMAGE_ID));
+
+        StackServiceSpec changed = StackServiceSpec.builder().image("app:2.1").environment(Map.of("A", "1", "B", "3")).build();
+        assertThat(DockerStackService.configHash(changed, IMAGE_ID)).isNotEqualTo(hash);
+        // Same tag re-pointed at a new image must recreate the container
+        assertThat(DockerStackService.configHash(spec, "sha256:" + "cd".repeat(32))).isNotEqualTo(hash);
+    }
+
+    private void localImage(String image, String imageId) {
+        when(dockerClient.inspectImageCmd(image).exec().getId()).thenReturn(imageId);
+    }
+
+    private void deployed(String name, StackServiceSpec spec, String imageId) {
+        containers.add(DockerContainer.builder()
+                .id("shop-" + name)
+                .state("running")
+                .labels(Map.of(
+                        DockerStackService.STACK_LABEL, "shop",
+                        DockerStackService.SERVICE_LABEL, name,
+                        DockerStackService.CONFIG_HASH_LABEL, DockerStackService.configHash(spec, imageId)))
+                .build());
+    }
+
+    private static StackServiceSpec service(String image, String... dependsOn) {
+        return StackServiceSpec.builder().image(image).dependsOn(List.of(dependsOn)).build();
+    }
+
+    private static Map<String, StackServiceSpec> stack(Object... namesAndSpecs) {
+        Map<String, StackServiceSpec> services = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndSpecs.length; i += 2) {
+            services.put((String) namesAndSpecs[i], (StackServiceSpec) namesAndSpecs[i + 1]);
+        }
+        return services;
+    }
+}
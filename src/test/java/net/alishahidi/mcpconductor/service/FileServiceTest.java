@@ -0,0 +1,318 @@
+package net.alishahidi.mcpconductor.service;
+
+import com.jcraft.jsch.ChannelSftp;
+import com.jcraft.jsch.SftpATTRS;
+import com.jcraft.jsch.SftpException;
+import net.alishahidi.mcpconductor.exception.FileOperationException;
+import net.alishahidi.mcpconductor.exception.ValidationException;
+import net.alishahidi.mcpconductor.model.FileEntry;
+import net.alishahidi.mcpconductor.model.FileListing;
+import net.alishahidi.mcpconductor.model.FileWriteBatchResult;
+import net.alishahidi.mcpconductor.security.PathValidator;
+import net.alishahidi.mcpconductor.util.CommandSanitizer;
+import net.alishahidi.mcpconductor.util.RemoteCommandStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Batch writes against an in-memory file system behind a mocked SFTP channel.
+ */
+class FileServiceTest {
+
+    private static final String SERVER = "web-1";
+
+    private final Map<String, byte[]> files = new HashMap<>();
+    private final Map<String, String> links = new HashMap<>();
+    private final Set<String> dirs = new HashSet<>(Set.of("/", "/etc", "/etc/app", "/etc/app/releases"));
+    private final Set<String> failingRenameTargets = new HashSet<>();
+    private boolean corruptChecksums;
+    private boolean escapeChecksums;
+    private final List<String> listed = new ArrayList<>();
+
+    private ChannelSftp sftp;
+    private FileService fileService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sftp = mock(ChannelSftp.class);
+        when(sftp.lstat(anyString())).thenAnswer(invocation -> attrs(invocation.getArgument(0), false));
+        when(sftp.stat(anyString())).thenAnswer(invocation -> attrs(invocation.getArgument(0), true));
+        when(sftp.readlink(anyString())).thenAnswer(invocation -> links.get(path(invocation.getArgument(0))));
+        doAnswer(invocation -> {
+            files.put(path(invocation.getArgument(1)), ((InputStream) invocation.getArgument(0)).readAllBytes());
+            return null;
+        }).when(sftp).put(any(InputStream.class), anyString(), anyInt());
+        doAnswer(invocation -> {
+            files.put(path(invocation.getArgument(1)), existing(invocation.getArgument(0)));
+            return null;
+        }).when(sftp).hardlink(anyString(), anyString());
+        doAnswer(invocation -> {
+            String from = path(invocation.getArgument(0));
+            String to = path(invocation.getArgument(1));
+            if (failingRenameTargets.contains(to) && from.contains(".stage-")) {
+                throw new SftpException(ChannelSftp.SSH_FX_FAILURE, "Failure");
+            }
+            files.put(to, existing(from));
+            files.remove(from);
+            return null;
+        }).when(sftp).rename(anyString(), anyString());
+        doAnswer(invocation -> {
+            if (files.remove(path(invocation.getArgument(0))) == null) {
+                throw new SftpException(ChannelSftp.SSH_FX_NO_SUCH_FILE, "No such file");
+            }
+            return null;
+        }).when(sftp).rm(anyString());
+
+        doAnswer(invocation -> {
+            list(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(sftp).ls(anyString(), any(ChannelSftp.LsEntrySelector.class));
+
+        SSHService sshService = mock(SSHService.class);
+        when(sshService.withSftp(eq(SERVER), any())).thenAnswer(invocation ->
+                invocation.<SSHService.SftpAction<?>>getArgument(1).run(sftp));
+        when(sshService.openCommandStream(eq(SERVER), anyString())).thenAnswer(invocation ->
+                checksumStream(invocation.getArgument(1)));
+
+        PathValidator pathValidator = mock(PathValidator.class);
+        when(pathValidator.isValidPath(anyString())).thenReturn(true);
+        fileService = new FileService(sshService, pathValidator, new CommandSanitizer());
+    }
+
+    @Test
+    void testWritesAllFilesAndKeepsNoStagingFiles() {
+        files.put("/etc/app/a.conf", bytes("old-a"));
+
+        FileWriteBatchResult result = fileService.writeFiles(SERVER, ordered(
+                "/etc/app/a.conf", "new-a",
+                "/etc/app/b.conf", "new-b"));
+
+        assertThat(text("/etc/app/a.conf")).isEqualTo("new-a");
+        assertThat(text("/etc/app/b.conf")).isEqualTo("new-b");
+        assertThat(result.getFiles()).extracting(entry -> entry.isCreated()).containsExactly(false, true);
+        assertThat(files.keySet()).containsExactlyInAnyOrder("/etc/app/a.conf", "/etc/app/b.conf");
+    }
+
+    @Test
+    void testChecksumMismatchRemovesStagingFiles() {
+        files.put("/etc/app/a.conf", bytes("old-a"));
+        corruptChecksums = true;
+
+        assertThatThrownBy(() -> fileService.writeFiles(SERVER, ordered(
+                "/etc/app/a.conf", "new-a",
+                "/etc/app/b.conf", "new-b")))
+                .isInstanceOf(FileOperationException.class)
+                .hasMessageContaining("Checksum mismatch");
+
+        assertThat(text("/etc/app/a.conf")).isEqualTo("old-a");
+        assertThat(files.keySet()).containsExactly("/etc/app/a.conf");
+    }
+
+    @Test
+    void testAcceptsEscapedChecksumLines() {
+        escapeChecksums = true;
+
+        fileService.writeFiles(SERVER, ordered("/etc/app/back\\slash.conf", "new"));
+
+        assertThat(text("/etc/app/back\\slash.conf")).isEqualTo("new");
+    }
+
+    @Test
+    void testRenameFailureRestoresSwappedFiles() {
+        files.put("/etc/app/a.conf", bytes("old-a"));
+        files.put("/etc/app/c.conf", bytes("old-c"));
+        failingRenameTargets.add("/etc/app/c.conf");
+
+        assertThatThrownBy(() -> fileService.writeFiles(SERVER, ordered(
+                "/etc/app/a.conf", "new-a",
+                "/etc/app/b.conf", "new-b",
+                "/etc/app/c.conf", "new-c")))
+                .isInstanceOf(FileOperationException.class)
+                .hasMessageContaining("no file was changed");
+
+        assertThat(text("/etc/app/a.conf")).isEqualTo("old-a");
+        assertThat(text("/etc/app/c.conf")).isEqualTo("old-c");
+        // b.conf was new, so rolling back removes it; no staging or backup file is left
+        assertThat(files.keySet()).containsExactlyInAnyOrder("/etc/app/a.conf", "/etc/app/c.conf");
+    }
+
+    @Test
+    void testWritesThroughSymlink() {
+        files.put("/etc/app/releases/v2.conf", bytes("old"));
+        links.put("/etc/app/current.conf", "releases/v2.conf");
+
+        fileService.writeFiles(SERVER, ordered("/etc/app/current.conf", "new"));
+
+        assertThat(text("/etc/app/releases/v2.conf")).isEqualTo("new");
+        assertThat(links).containsEntry("/etc/app/current.conf", "releases/v2.conf");
+        assertThat(files.keySet()).containsExactly("/etc/app/releases/v2.conf");
+    }
+
+    @Test
+    void testListingPagesInNameOrderAndResumesAfterTheCursor() {
+        dirs.addAll(Set.of("/srv", "/srv/app", "/srv/app/conf", "/srv/app/logs"));
+        files.put("/srv/app/z.txt", bytes("z"));
+        files.put("/srv/app/b.txt", bytes("b"));
+        files.put("/srv/app/conf/c.yml", bytes("c"));
+        files.put("/srv/app/conf/a.yml", bytes("a"));
+        files.put("/srv/app/logs/x.log", bytes("x"));
+
+        FileListing first = fileService.listFiles(SERVER, "/srv/app", null, 1, 2, null);
+        assertThat(names(first)).containsExactly("b.txt", "conf");
+
+        // Created before the cursor: later pages neither repeat nor skip an entry
+        files.put("/srv/app/a.txt", bytes("a"));
+        FileListing second = fileService.listFiles(SERVER, "/srv/app", null, 1, 2, first.getNextCursor());
+        assertThat(names(second)).containsExactly("logs", "z.txt");
+
+        FileListing third = fileService.listFiles(SERVER, "/srv/app", null, 1, 2, second.getNextCursor());
+        assertThat(names(third)).containsExactly("conf/a.yml", "conf/c.yml");
+
+        listed.clear();
+        FileListing last = fileService.listFiles(SERVER, "/srv/app", null, 1, 2, third.getNextCursor());
+        assertThat(names(last)).containsExactly("logs/x.log");
+        assertThat(last.getNextCursor()).isNull();
+        // Only the cursor's directory, its parent (for the later subdirectories) and those subdirectories are read
+        assertThat(listed).containsExactly("/srv/app/conf", "/srv/app", "/srv/app/logs");
+    }
+
+    @Test
+    void testCursorRoundTripAndListingMismatch() {
+        String key = "/srv/app\u0000null\u00001";
+        String cursor = FileService.encodeCursor("conf/a:b.yml", key);
+
+        assertThat(FileService.decodeCursor(cursor, key, 1)).isEqualTo("conf/a:b.yml");
+        assertThat(FileService.decodeCursor(null, key, 1)).isNull();
+        assertThatThrownBy(() -> FileService.decodeCursor(cursor, "/srv/other\u0000null\u00001", 1))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("does not belong");
+        // Deeper than the listing, outside the directory, or not a cursor at all
+        assertThatThrownBy(() -> FileService.decodeCursor(cursor, key, 0)).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> FileService.decodeCursor(FileService.encodeCursor("../etc/passwd", key), key, 1))
+                .isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> FileService.decodeCursor("not base64!", key, 1)).isInstanceOf(ValidationException.class);
+    }
+
+    // Directory entries in reverse name order, as a server returning them unsorted might
+    private void list(String quotedPath, ChannelSftp.LsEntrySelector selector) throws SftpException {
+        String dir = path(quotedPath);
+        if (!dirs.contains(dir)) {
+            throw new SftpException(ChannelSftp.SSH_FX_NO_SUCH_FILE, "No such file");
+        }
+        listed.add(dir);
+        Set<String> children = new TreeSet<>(Comparator.reverseOrder());
+        for (String candidate : union(files.keySet(), dirs, links.keySet())) {
+            Path parent = Path.of(candidate).getParent();
+            if (parent != null && parent.toString().equals(dir)) {
+                children.add(candidate);
+            }
+        }
+        for (String child : children) {
+            ChannelSftp.LsEntry entry = mock(ChannelSftp.LsEntry.class);
+            when(entry.getFilename()).thenReturn(Path.of(child).getFileName().toString());
+            SftpATTRS attrs = attrs(child, false);
+            when(entry.getAttrs()).thenReturn(attrs);
+            if (selector.select(entry) == ChannelSftp.LsEntrySelector.BREAK) {
+                return;
+            }
+        }
+    }
+
+    @SafeVarargs
+    private static Set<String> union(Set<String>... sets) {
+        Set<String> all = new HashSet<>();
+        for (Set<String> set : sets) {
+            all.addAll(set);
+        }
+        return all;
+    }
+
+    private static List<String> names(FileListing listing) {
+        return listing.getEntries().stream().map(FileEntry::getName).toList();
+    }
+
+    // sha256sum over the single-quoted staging paths, in command order
+    private RemoteCommandStream checksumStream(String command) throws Exception {
+        StringBuilder output = new StringBuilder();
+        Matcher quoted = Pattern.compile("'([^']*)'").matcher(command);
+        while (quoted.find()) {
+            String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(existing(quoted.group(1))));
+            output.append(escapeChecksums ? "\\" : "")
+                    .append(corruptChecksums ? hash.replace('a', 'b') : hash)
+                    .append("  ").append(quoted.group(1)).append('\n');
+        }
+        RemoteCommandStream stream = mock(RemoteCommandStream.class);
+        when(stream.withDeadline(anyLong())).thenReturn(stream);
+        when(stream.readAllStdout()).thenReturn(output.toString().getBytes(StandardCharsets.UTF_8));
+        return stream;
+    }
+
+    private SftpATTRS attrs(String quotedPath, boolean follow) throws SftpException {
+        String path = path(quotedPath);
+        while (follow && links.containsKey(path)) {
+            path = Path.of(path).resolveSibling(links.get(path)).normalize().toString();
+        }
+        SftpATTRS attrs = mock(SftpATTRS.class);
+        if (links.containsKey(path)) {
+            when(attrs.isLink()).thenReturn(true);
+        } else if (dirs.contains(path)) {
+            when(attrs.isDir()).thenReturn(true);
+        } else if (files.containsKey(path)) {
+            when(attrs.isReg()).thenReturn(true);
+            when(attrs.getPermissions()).thenReturn(0100644);
+        } else {
+            throw new SftpException(ChannelSftp.SSH_FX_NO_SUCH_FILE, "No such file");
+        }
+        return attrs;
+    }
+
+    private byte[] existing(String quotedPath) throws SftpException {
+        byte[] content = files.get(path(quotedPath));
+        if (content == null) {
+            throw new SftpException(ChannelSftp.SSH_FX_NO_SUCH_FILE, "No such file");
+        }
+        return content;
+    }
+
+    private static String path(String quotedPath) {
+        String path = quotedPath.replace("\\*", "*").replace("\\?", "?").replace("\\\\", "\\");
+        return path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    private String text(String path) {
+        return files.containsKey(path) ? new String(files.get(path), StandardCharsets.UTF_8) : null;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> ordered(String... pathsAndContent) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < pathsAndContent.length; i += 2) {
+            map.put(pathsAndContent[i], pathsAndContent[i + 1]);
+        }
+        return map;
+    }
+}
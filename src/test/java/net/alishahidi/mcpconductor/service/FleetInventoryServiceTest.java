@@ -0,0 +1,125 @@
+package net.alishahidi.mcpconductor.service;
+
+import net.alishahidi.mcpconductor.config.SSHProperties;
+import net.alishahidi.mcpconductor.exception.ValidationException;
+import net.alishahidi.mcpconductor.model.FleetInventory;
+import net.alishahidi.mcpconductor.model.FleetOutlier;
+import net.alishahidi.mcpconductor.model.SystemInfo;
+import net.alishahidi.mcpconductor.util.FanOutExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Fleet aggregation over a mocked system service: three hosts answer, one fails.
+ */
+class FleetInventoryServiceTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final SystemService systemService = mock(SystemService.class);
+
+    private FleetInventoryService inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        SSHProperties properties = new SSHProperties();
+        for (String name : List.of("web-1", "web-2", "db-1", "db-2")) {
+            SSHProperties.ServerConfig config = new SSHProperties.ServerConfig();
+            config.setTags(List.of(name.substring(0, name.indexOf('-'))));
+            properties.getServers().put(name, config);
+        }
+
+        when(systemService.getSystemInfo("web-1")).thenReturn(info("Ubuntu 24.04", "6.8.0", 4, 2.0, 40.0, 50.0));
+        when(systemService.getSystemInfo("web-2")).thenReturn(info("Ubuntu 24.04", "6.8.0", 4, 12.0, 95.0, 20.0));
+        when(systemService.getSystemInfo("db-1")).thenReturn(info("Debian 12", null, 8, 4.0, 60.0, 92.5));
+        when(systemService.getSystemInfo("db-2")).thenThrow(new IllegalStateException("connection refused"));
+
+        inventoryService = new FleetInventoryService(properties, systemService, new FanOutExecutor(executor));
+        ReflectionTestUtils.setField(inventoryService, "cacheTtlSeconds", 60);
+        ReflectionTestUtils.setField(inventoryService, "hostTimeoutSeconds", 5);
+        ReflectionTestUtils.setField(inventoryService, "maxConcurrency", 8);
+        ReflectionTestUtils.setField(inventoryService, "memThreshold", 90.0);
+        ReflectionTestUtils.setField(inventoryService, "diskThreshold", 90.0);
+        ReflectionTestUtils.setField(inventoryService, "loadPerCoreThreshold", 2.0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testAggregatesHostsIntoColumnsHistogramsAndSummaries() {
+        FleetInventory inventory = inventoryService.inventory(null, false);
+
+        assertThat(inventory.getRequested()).isEqualTo(4);
+        assertThat(inventory.getSucceeded()).isEqualTo(3);
+        assertThat(inventory.getFailed()).isEqualTo(1);
+        assertThat(inventory.getErrors()).containsOnlyKeys("db-2");
+        assertThat(inventory.getErrors().get("db-2")).contains("connection refused");
+
+        assertThat(inventory.getHosts().get("server")).containsExactly("db-1", "web-1", "web-2");
+        assertThat(inventory.getHosts().get("cpuCores")).containsExactly(8, 4, 4);
+        assertThat(inventory.getHosts().values()).allSatisfy(column -> assertThat(column).hasSize(3));
+
+        assertThat(inventory.getOperatingSystems()).containsExactly(entry("Ubuntu 24.04", 2), entry("Debian 12", 1));
+        assertThat(inventory.getKernels()).containsExactly(entry("6.8.0", 2), entry("unknown", 1));
+
+        assertThat(inventory.getMemUsedPercent().getCount()).isEqualTo(3);
+        assertThat(inventory.getMemUsedPercent().getMin()).isEqualTo(40.0);
+        assertThat(inventory.getMemUsedPercent().getMax()).isEqualTo(95.0);
+        assertThat(inventory.getLoadPerCore().getMax()).isEqualTo(3.0);
+    }
+
+    @Test
+    void testOutliersAreGroupedByMetricWorstFirst() {
+        FleetInventory inventory = inventoryService.inventory("web,db", false);
+
+        assertThat(inventory.getOutliers())
+                .extracting(FleetOutlier::getMetric, FleetOutlier::getServer, FleetOutlier::getValue)
+                .containsExactly(
+                        tuple("diskUsedPercent", "db-1", 92.5),
+                        tuple("loadPerCore", "web-2", 3.0),
+                        tuple("memUsedPercent", "web-2", 95.0));
+    }
+
+    @Test
+    void testSuccessesAreCachedAndFailuresRetried() {
+        inventoryService.inventory("web,db", false);
+        FleetInventory again = inventoryService.inventory("web,db", false);
+
+        assertThat(again.getCached()).isEqualTo(3);
+        verify(systemService, times(1)).getSystemInfo("web-1");
+        verify(systemService, times(2)).getSystemInfo("db-2");
+
+        FleetInventory refreshed = inventoryService.inventory("web", true);
+        assertThat(refreshed.getCached()).isZero();
+        verify(systemService, times(2)).getSystemInfo("web-1");
+    }
+
+    @Test
+    void testUnknownTagsAreRejected() {
+        assertThatThrownBy(() -> inventoryService.inventory("staging", false))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    private static SystemInfo info(String os, String kernel, int cores, double load1,
+                                   double memUsed, double diskUsed) {
+        return SystemInfo.builder()
+                .operatingSystem(os)
+                .kernelVersion(kernel)
+                .cpuCores(cores)
+                .load1(load1)
+                .memUsedPercent(memUsed)
+                .diskUsedPercent(diskUsed)
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package net.alishahidi.mcpconductor.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.alishahidi.mcpconductor.config.SSHProperties;
+import net.alishahidi.mcpconductor.exception.CommandExecutionException;
+import net.alishahidi.mcpconductor.model.LogFollowResult;
+import net.alishahidi.mcpconductor.security.PathValidator;
+import net.alishahidi.mcpconductor.util.CommandSanitizer;
+import net.alishahidi.mcpconductor.util.FanOutExecutor;
+import net.alishahidi.mcpconductor.util.RemoteCommandStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * log_follow against mocked command streams.
+ */
+class LogServiceTest {
+
+    private static final String SERVER = "web-1";
+
+    private final SSHService sshService = mock(SSHService.class);
+
+    @TempDir
+    Path stateDir;
+
+    private LogService logService;
+
+    @BeforeEach
+    void setUp() {
+        PathValidator pathValidator = mock(PathValidator.class);
+        when(pathValidator.isValidPath(anyString())).thenReturn(true);
+        logService = new LogService(sshService, new SSHProperties(), new CommandSanitizer(), pathValidator,
+                new ObjectMapper(), new FanOutExecutor(Executors.newVirtualThreadPerTaskExecutor()));
+        ReflectionTestUtils.setField(logService, "stateFile", stateDir.resolve("cursors.json").toString());
+        ReflectionTestUtils.setField(logService, "defaultMaxBytes", 65536);
+        ReflectionTestUtils.setField(logService, "followTimeoutSeconds", 30);
+        logService.init();
+    }
+
+    @Test
+    void testStalledFileReadFailsAtDeadline() throws Exception {
+        RemoteCommandStream stream = stream(new ByteArrayInputStream(new byte[0]));
+        when(stream.readAllStdout()).thenReturn(new byte[0]);
+        when(stream.isTimedOut()).thenReturn(true);
+        when(sshService.openCommandStream(eq(SERVER), anyString())).thenReturn(stream);
+
+        assertThatThrownBy(() -> logService.follow(SERVER, "/var/log/app.log", null, false))
+                .isInstanceOf(CommandExecutionException.class)
+                .hasMessageContaining("timed out after 30 s");
+        verify(stream).withDeadline(30_000L);
+    }
+
+    @Test
+    void testOversizedJournalEntryIsCutAtCharacterBoundary() throws Exception {
+        String entry = "{\"__CURSOR\":\"c1\",\"__REALTIME_TIMESTAMP\":\"0\",\"SYSLOG_IDENTIFIER\":\"app\","
+                + "\"MESSAGE\":\"" + "€".repeat(100) + "\"}\n";
+        RemoteCommandStream stream = stream(new ByteArrayInputStream(entry.getBytes(StandardCharsets.UTF_8)));
+        when(sshService.openCommandStream(eq(SERVER), anyString())).thenReturn(stream);
+
+        // "1970-01-01T00:00:00Z app: " is 26 bytes, leaving 14 for the 3-byte euro signs
+        LogFollowResult result = logService.follow(SERVER, "journal", 40, false);
+
+        assertThat(result.getContent()).isEqualTo("1970-01-01T00:00:00Z app: " + "€".repeat(4));
+        assertThat(result.getBytes()).isEqualTo(38);
+        assertThat(result.getCursor().getJournalCursor()).isEqualTo("c1");
+    }
+
+    @Test
+    void testJournalCutOffByDeadlineKeepsCompleteEntries() throws Exception {
+        String complete = "{\"__CURSOR\":\"c1\",\"__REALTIME_TIMESTAMP\":\"0\",\"SYSLOG_IDENTIFIER\":\"app\",\"MESSAGE\":\"up\"}\n";
+        InputStream cut = new InputStream() {
+            private final InputStream first = new ByteArrayInputStream((complete + "{\"__CURSOR\":\"c2\",\"MESS")
+                    .getBytes(StandardCharsets.UTF_8));
+
+            @Override
+            public int read() throws IOException {
+                int b = first.read();
+                if (b < 0) {
+                    throw new IOException("channel disconnected");
+                }
+                return b;
+            }
+        };
+        RemoteCommandStream stream = stream(cut);
+        when(stream.isTimedOut()).thenReturn(true);
+        when(sshService.openCommandStream(eq(SERVER), anyString())).thenReturn(stream);
+
+        LogFollowResult result = logService.follow(SERVER, "journal:app", null, false);
+
+        assertThat(result.getContent()).isEqualTo("1970-01-01T00:00:00Z app: up\n");
+        assertThat(result.isMore()).isTrue();
+        assertThat(result.getCursor().getJournalCursor()).isEqualTo("c1");
+    }
+
+    private static RemoteCommandStream stream(InputStream stdout) {
+        RemoteCommandStream stream = mock(RemoteCommandStream.class);
+        when(stream.withDeadline(anyLong())).thenReturn(stream);
+        when(stream.getStdout()).thenReturn(stdout);
+        return stream;
+    }
+}
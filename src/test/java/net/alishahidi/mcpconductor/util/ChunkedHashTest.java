@@ -0,0 +1,36 @@
+package net.alishahidi.mcpconductor.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ChunkedHashTest {
+
+    private static final String A = "a".repeat(64);
+    private static final String B = "b".repeat(64);
+    private static final String C = "c".repeat(64);
+
+    @Test
+    void testParsesHashesAndLocatesDifference() {
+        ChunkedHash reference = ChunkedHash.parse("1201 200000 1760788801 1760788801\n" + A + "\n" + A + "\n" + B + "\n" + C + "\n", 65536);
+        ChunkedHash drifted = ChunkedHash.parse("877 200100 1760790000 1760790000\n" + B + "\n" + A + "\n" + C + "\n" + C + "\n" + A + "\n", 65536);
+
+        assertThat(reference.getSha256()).isEqualTo(A);
+        assertThat(reference.getSize()).isEqualTo(200000);
+        assertThat(reference.getChunks()).containsExactly(A, B, C);
+        assertThat(reference.firstDifferentChunk(drifted)).isEqualTo(1);
+        assertThat(reference.differingChunks(drifted)).isEqualTo(2);
+        assertThat(reference.firstDifferentChunk(reference)).isEqualTo(-1);
+    }
+
+    @Test
+    void testUnchangedFileReturnsOnlyStat() {
+        String output = "1201 200000 1760788801 1760788801\n";
+
+        assertThat(ChunkedHash.parse(output, 65536)).isNull();
+        assertThat(ChunkedHash.statOf(output)).isEqualTo("1201 200000 1760788801 1760788801");
+        assertThat(ChunkedHash.command("'/etc/hosts'", 4096, "1201 200000 1760788801 1760788801"))
+                .contains("[ \"$s\" = '1201 200000 1760788801 1760788801' ] && exit 0");
+        assertThat(ChunkedHash.command("'/etc/hosts'", 4096, "1'; rm x")).doesNotContain("rm x");
+    }
+}
@@ -0,0 +1,175 @@
+package net.alishahidi.mcpconductor.util;
+
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.async.ResultCallback;
+import com.github.dockerjava.api.command.EventsCmd;
+import com.github.dockerjava.api.command.ListContainersCmd;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.Event;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The cache against a mocked daemon: a map of containers served by
+ * {@code listContainersCmd} and an event stream the test pushes into.
+ */
+class DockerContainerStateCacheTest {
+
+    private final Map<String, Container> daemon = new ConcurrentHashMap<>();
+    private final List<Collection<String>> idFilteredLists = new CopyOnWriteArrayList<>();
+    private final AtomicInteger fullLists = new AtomicInteger();
+    private final AtomicInteger failingLists = new AtomicInteger();
+    private volatile ResultCallback<Event> events;
+
+    private DockerContainerStateCache cache;
+
+    @BeforeEach
+    void setUp() {
+        DockerClient dockerClient = mock(DockerClient.class);
+
+        EventsCmd eventsCmd = mock(EventsCmd.class, RETURNS_SELF);
+        when(eventsCmd.exec(any())).thenAnswer(invocation -> {
+            events = invocation.getArgument(0);
+            return events;
+        });
+        when(dockerClient.eventsCmd()).thenReturn(eventsCmd);
+        when(dockerClient.listContainersCmd()).thenAnswer(invocation -> listCmd());
+
+        daemon.put("web", container("web", "running", 2));
+        daemon.put("db", container("db", "exited", 1));
+        cache = new DockerContainerStateCache(dockerClient, dockerClient, "docker-1", Duration.ofHours(1), Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.close();
+    }
+
+    @Test
+    void testStartsWithFullResync() {
+        cache.start();
+        waitUntil(cache::isSynced);
+
+        assertThat(cache.getContainers(true)).extracting(Container::getId).containsExactly("web", "db");
+        assertThat(cache.getContainers(false)).extracting(Container::getId).containsExactly("web");
+        assertThat(fullLists.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testEventsRefreshOnlyDirtyContainers() {
+        cache.start();
+        waitUntil(cache::isSynced);
+
+        daemon.put("db", container("db", "running", 1));
+        daemon.remove("web");
+        daemon.put("cache", container("cache", "running", 3));
+        events.onNext(event("db", "start"));
+        events.onNext(event("web", "destroy"));
+        events.onNext(event("cache", "create"));
+        events.onNext(event("db", "exec_start: sh"));
+
+        waitUntil(() -> cache.size() == 2 && cache.getContainers(false).size() == 2);
+        assertThat(cache.getContainers(false)).extracting(Container::getId).containsExactly("cache", "db");
+        // One batched, id-filtered list for the burst, and no further full resync
+        assertThat(idFilteredLists).hasSize(1);
+        assertThat(idFilteredLists.get(0)).containsExactlyInAnyOrder("db", "web", "cache");
+        assertThat(fullLists.get()).isEqualTo(1);
+    }
+
+    @Test
+    void testFailedDrainForcesResync() {
+        cache.start();
+        waitUntil(cache::isSynced);
+
+        daemon.put("db", container("db", "running", 1));
+        failingLists.set(1);
+        events.onNext(event("db", "start"));
+
+        // The refresh fails, so the cache reports itself stale and resyncs in full
+        waitUntil(() -> fullLists.get() == 2);
+        waitUntil(cache::isSynced);
+        assertThat(idFilteredLists).hasSize(1);
+        assertThat(cache.getContainers(false)).extracting(Container::getId).containsExactly("web", "db");
+    }
+
+    @Test
+    void testLostStreamReconnectsAndResyncs() {
+        cache.start();
+        waitUntil(cache::isSynced);
+        ResultCallback<Event> first = events;
+
+        daemon.remove("db");
+        first.onError(new RuntimeException("connection reset"));
+        assertThat(cache.isSynced()).isFalse();
+
+        waitUntil(() -> events != first && cache.isSynced());
+        assertThat(cache.getContainers(true)).extracting(Container::getId).containsExactly("web");
+        assertThat(fullLists.get()).isEqualTo(2);
+    }
+
+    private ListContainersCmd listCmd() {
+        List<String> idFilter = new ArrayList<>();
+        ListContainersCmd cmd = mock(ListContainersCmd.class, RETURNS_SELF);
+        doAnswer(invocation -> {
+            idFilter.addAll(invocation.getArgument(0));
+            return cmd;
+        }).when(cmd).withIdFilter(anyCollection());
+        when(cmd.exec()).thenAnswer(invocation -> {
+            if (idFilter.isEmpty()) {
+                fullLists.incrementAndGet();
+            } else {
+                idFilteredLists.add(List.copyOf(idFilter));
+            }
+            if (failingLists.getAndUpdate(n -> Math.max(n - 1, 0)) > 0) {
+                throw new RuntimeException("daemon unavailable");
+            }
+            return daemon.values().stream()
+                    .filter(container -> idFilter.isEmpty() || idFilter.contains(container.getId()))
+                    .toList();
+        });
+        return cmd;
+    }
+
+    private static Container container(String id, String state, long created) {
+        Container container = mock(Container.class);
+        when(container.getId()).thenReturn(id);
+        when(container.getState()).thenReturn(state);
+        when(container.getCreated()).thenReturn(created);
+        return container;
+    }
+
+    private static Event event(String id, String action) {
+        Event event = mock(Event.class);
+        when(event.getId()).thenReturn(id);
+        when(event.getAction()).thenReturn(action);
+        return event;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 5s").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package net.alishahidi.mcpconductor.util;
+
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.StreamType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DockerExecCollectorTest {
+
+    @Test
+    void testKeepsFramesUnchanged() {
+        DockerExecCollector collector = new DockerExecCollector(1024);
+
+        collector.onNext(frame(StreamType.STDOUT, "line\r\n"));
+        collector.onNext(frame(StreamType.STDOUT, "no newline"));
+        collector.onNext(frame(StreamType.STDERR, "warn"));
+        collector.onComplete();
+
+        assertThat(collector.getStdout()).isEqualTo("line\r\nno newline");
+        assertThat(collector.getStderr()).isEqualTo("warn");
+        assertThat(collector.getStdoutBytes()).isEqualTo(16);
+        assertThat(collector.isTruncated()).isFalse();
+    }
+
+    @Test
+    void testMultiByteCharacterSplitAcrossFrames() {
+        DockerExecCollector collector = new DockerExecCollector(1024);
+        byte[] bytes = "héllo".getBytes(StandardCharsets.UTF_8);
+
+        collector.onNext(new Frame(StreamType.STDOUT, Arrays.copyOfRange(bytes, 0, 2)));
+        collector.onNext(new Frame(StreamType.STDOUT, Arrays.copyOfRange(bytes, 2, bytes.length)));
+
+        assertThat(collector.getStdout()).isEqualTo("héllo");
+    }
+
+    @Test
+    void testCapCutsAtCharacterBoundaryAndCloses() throws InterruptedException {
+        DockerExecCollector collector = new DockerExecCollector(8);
+
+        collector.onNext(frame(StreamType.STDERR, "err\n"));
+        // "ab€" is 5 bytes; only 4 fit, which would split the 3-byte euro sign
+        collector.onNext(frame(StreamType.STDOUT, "ab€"));
+        collector.onNext(frame(StreamType.STDOUT, "ignored"));
+
+        assertThat(collector.isTruncated()).isTrue();
+        assertThat(collector.getStdout()).isEqualTo("ab");
+        assertThat(collector.getStderr()).isEqualTo("err\n");
+        assertThat(collector.awaitCompletion(0, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void testCompleteLength() {
+        byte[] euro = "a€".getBytes(StandardCharsets.UTF_8);
+        byte[] emoji = "😀".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(Utf8.completeLength(euro, 4)).isEqualTo(4);
+        assertThat(Utf8.completeLength(euro, 3)).isEqualTo(1);
+        assertThat(Utf8.completeLength(euro, 2)).isEqualTo(1);
+        assertThat(Utf8.completeLength(euro, 1)).isEqualTo(1);
+        assertThat(Utf8.completeLength(emoji, 3)).isZero();
+        assertThat(Utf8.completeLength(emoji, 4)).isEqualTo(4);
+        assertThat(Utf8.completeLength(new byte[0], 0)).isZero();
+    }
+
+    private static Frame frame(StreamType type, String text) {
+        return new Frame(type, text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,82 @@
+package net.alishahidi.mcpconductor.util;
+
+import com.github.dockerjava.api.model.Frame;
+import com.github.dockerjava.api.model.StreamType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DockerLogCollectorTest {
+
+    @Test
+    void testDemultiplexesStdoutAndStderr() {
+        DockerLogCollector collector = new DockerLogCollector(null, 1024, null);
+
+        collector.onNext(frame(StreamType.STDOUT, "out one\nout two\n"));
+        collector.onNext(frame(StreamType.STDERR, "err one\n"));
+        collector.finish();
+
+        assertThat(collector.getStdout()).isEqualTo("out one\nout two\n");
+        assertThat(collector.getStderr()).isEqualTo("err one\n");
+        assertThat(collector.getLinesMatched()).isEqualTo(3);
+    }
+
+    @Test
+    void testMultiByteCharacterSplitAcrossFrames() {
+        DockerLogCollector collector = new DockerLogCollector(null, 1024, null);
+        byte[] bytes = "héllo wörld\n".getBytes(StandardCharsets.UTF_8);
+
+        // Split inside the two-byte 'é'
+        collector.onNext(new Frame(StreamType.STDOUT, Arrays.copyOfRange(bytes, 0, 2)));
+        collector.onNext(new Frame(StreamType.STDOUT, Arrays.copyOfRange(bytes, 2, bytes.length)));
+        collector.finish();
+
+        assertThat(collector.getStdout()).isEqualTo("héllo wörld\n");
+    }
+
+    @Test
+    void testRegexFilterKeepsOnlyMatchingLines() {
+        DockerLogCollector collector = new DockerLogCollector(Pattern.compile("ERROR"), 1024, null);
+
+        collector.onNext(frame(StreamType.STDOUT, "INFO started\nERROR boom\nINFO done\n"));
+        collector.finish();
+
+        assertThat(collector.getStdout()).isEqualTo("ERROR boom\n");
+        assertThat(collector.getLinesScanned()).isEqualTo(3);
+        assertThat(collector.getLinesMatched()).isEqualTo(1);
+    }
+
+    @Test
+    void testByteCapTruncatesOutput() {
+        DockerLogCollector collector = new DockerLogCollector(null, 10, null);
+
+        collector.onNext(frame(StreamType.STDOUT, "12345\n67890\nabcde\n"));
+        collector.finish();
+
+        assertThat(collector.getStdout()).isEqualTo("12345\n");
+        assertThat(collector.isTruncated()).isTrue();
+    }
+
+    @Test
+    void testTrailingPartialLineIsFlushedOnFinish() {
+        List<String> chunks = new ArrayList<>();
+        DockerLogCollector collector = new DockerLogCollector(null, 1024,
+                (stream, text) -> chunks.add(stream + ":" + text));
+
+        collector.onNext(frame(StreamType.STDOUT, "complete\npartial"));
+        collector.finish();
+
+        assertThat(collector.getStdout()).isEqualTo("complete\npartial\n");
+        assertThat(String.join("", chunks)).contains("complete").contains("partial");
+    }
+
+    private Frame frame(StreamType type, String text) {
+        return new Frame(type, text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,58 @@
+package net.alishahidi.mcpconductor.util;
+
+import net.alishahidi.mcpconductor.model.MetricSummary;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DoubleRingBufferTest {
+
+    @Test
+    void testOverwritesOldestValuesWhenFull() {
+        DoubleRingBuffer buffer = new DoubleRingBuffer(3);
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(i);
+        }
+
+        assertThat(buffer.size()).isEqualTo(3);
+        assertThat(buffer.written()).isEqualTo(5);
+        assertThat(buffer.snapshot()).containsExactly(3, 4, 5);
+        assertThat(buffer.latest()).isEqualTo(5);
+    }
+
+    @Test
+    void testSnapshotSinceSequence() {
+        DoubleRingBuffer buffer = new DoubleRingBuffer(4);
+        buffer.add(1);
+        buffer.add(2);
+        long mark = buffer.written();
+        buffer.add(3);
+        buffer.add(4);
+
+        assertThat(buffer.snapshotSince(mark)).containsExactly(3, 4);
+        assertThat(buffer.snapshotSince(buffer.written())).isEmpty();
+    }
+
+    @Test
+    void testSummarizeIgnoresNaN() {
+        MetricSummary summary = DoubleRingBuffer.summarize(new double[]{Double.NaN, 10, 20, 30, 40});
+
+        assertThat(summary.getCount()).isEqualTo(4);
+        assertThat(summary.getMin()).isEqualTo(10);
+        assertThat(summary.getAvg()).isEqualTo(25);
+        assertThat(summary.getMax()).isEqualTo(40);
+        assertThat(summary.getLast()).isEqualTo(40);
+    }
+
+    @Test
+    void testPercentileNearestRank() {
+        double[] sorted = new double[100];
+        for (int i = 0; i < 100; i++) {
+            sorted[i] = i + 1;
+        }
+
+        assertThat(DoubleRingBuffer.percentile(sorted, 95)).isEqualTo(95);
+        assertThat(DoubleRingBuffer.percentile(sorted, 100)).isEqualTo(100);
+        assertThat(DoubleRingBuffer.summarize(new double[]{Double.NaN})).isNull();
+    }
+}
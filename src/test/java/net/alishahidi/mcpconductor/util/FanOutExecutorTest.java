@@ -0,0 +1,95 @@
+package net.alishahidi.mcpconductor.util;
+
+import net.alishahidi.mcpconductor.model.TaskOutcome;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FanOutExecutorTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final FanOutExecutor fanOut = new FanOutExecutor(executor);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testOutcomesKeepTargetOrderAndIsolateFailures() {
+        List<TaskOutcome<String>> outcomes = fanOut.runAll(List.of("a", "b", "c"), 0, null, target -> {
+            if (target.equals("b")) {
+                throw new IllegalStateException("boom");
+            }
+            return target.toUpperCase();
+        });
+
+        assertThat(outcomes).extracting(TaskOutcome::getTarget).containsExactly("a", "b", "c");
+        assertThat(outcomes.get(0).getResult()).isEqualTo("A");
+        assertThat(outcomes.get(1).isSuccess()).isFalse();
+        assertThat(outcomes.get(1).getError()).isEqualTo("boom");
+        assertThat(outcomes.get(2).isSuccess()).isTrue();
+    }
+
+    @Test
+    void testConcurrencyLimit() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        fanOut.runAll(List.of("1", "2", "3", "4", "5", "6"), 2, null, target -> {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            return target;
+        });
+
+        assertThat(peak.get()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void testTimeoutMarksOutcome() {
+        List<TaskOutcome<String>> outcomes = fanOut.runAll(List.of("slow"), 1, Duration.ofMillis(50), target -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return target;
+        });
+
+        assertThat(outcomes.get(0).isSuccess()).isFalse();
+        assertThat(outcomes.get(0).isTimedOut()).isTrue();
+    }
+
+    @Test
+    void testStartAllReturnsBeforeTasksFinish() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<List<TaskOutcome<String>>> outcomes = fanOut.startAll(List.of("a", "b"), 1, null, target -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return target;
+        });
+
+        assertThat(outcomes).isNotDone();
+        release.countDown();
+        assertThat(outcomes.get(5, TimeUnit.SECONDS)).extracting(TaskOutcome::getResult).containsExactly("a", "b");
+    }
+}
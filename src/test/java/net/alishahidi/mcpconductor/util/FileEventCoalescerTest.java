@@ -0,0 +1,55 @@
+package net.alishahidi.mcpconductor.util;
+
+import net.alishahidi.mcpconductor.util.FileWatchCommand.Event;
+import net.alishahidi.mcpconductor.util.FileWatchCommand.Kind;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FileEventCoalescerTest {
+
+    @Test
+    void testBurstIsReportedOnceAfterQuietPeriod() {
+        FileEventCoalescer coalescer = new FileEventCoalescer(500, 5000);
+        coalescer.add(new Event(Kind.CREATED, "/etc/app/app.conf", false), 1000);
+        coalescer.add(new Event(Kind.MODIFIED, "/etc/app/app.conf", false), 1200);
+        coalescer.add(new Event(Kind.MODIFIED, "/etc/app/app.conf", false), 1400);
+
+        assertThat(coalescer.drain(1800)).isEmpty();
+
+        List<FileEventCoalescer.Change> changes = coalescer.drain(1900);
+        assertThat(changes).containsExactly(
+                new FileEventCoalescer.Change(Kind.CREATED, "/etc/app/app.conf", false, 3, 1000, 1400));
+        assertThat(coalescer.size()).isZero();
+    }
+
+    @Test
+    void testNetEffect() {
+        FileEventCoalescer coalescer = new FileEventCoalescer(100, 1000);
+        coalescer.add(new Event(Kind.CREATED, "/tmp/app.conf.swp", false), 0);
+        coalescer.add(new Event(Kind.DELETED, "/tmp/app.conf.swp", false), 10);
+        coalescer.add(new Event(Kind.DELETED, "/etc/app/app.conf", false), 20);
+        coalescer.add(new Event(Kind.CREATED, "/etc/app/app.conf", false), 30);
+        coalescer.add(new Event(Kind.MODIFIED, "/var/run/deploy.lock", false), 40);
+        coalescer.add(new Event(Kind.DELETED, "/var/run/deploy.lock", false), 50);
+
+        assertThat(coalescer.drain(200)).extracting(FileEventCoalescer.Change::path, FileEventCoalescer.Change::kind)
+                .containsExactly(tuple("/etc/app/app.conf", Kind.MODIFIED), tuple("/var/run/deploy.lock", Kind.DELETED));
+    }
+
+    @Test
+    void testContinuousWritesAreReportedAfterMaxDelay() {
+        FileEventCoalescer coalescer = new FileEventCoalescer(500, 2000);
+        for (long t = 0; t <= 2000; t += 100) {
+            coalescer.add(new Event(Kind.MODIFIED, "/var/log/app.log", false), t);
+            if (t < 2000) {
+                assertThat(coalescer.drain(t)).isEmpty();
+            }
+        }
+
+        assertThat(coalescer.drain(2000)).singleElement()
+                .satisfies(change -> assertThat(change.count()).isEqualTo(21));
+    }
+}
@@ -0,0 +1,153 @@
+package net.alishahidi.mcpconductor.util;
+
+import net.alishahidi.mcpconductor.model.DiskUsageNode;
+import net.alishahidi.mcpconductor.model.FileMatch;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FileIndexTest {
+
+    private static final FileIndex.Query ALL = new FileIndex.Query(null, null, -1, -1, -1, -1, null, null);
+
+    @Test
+    void testBuildsTreeFromFindOutput() throws IOException {
+        FileIndex index = sample();
+
+        assertThat(index.size()).isEqualTo(8);
+        assertThat(index.mtime(0)).isEqualTo(1700000000L);
+        assertThat(index.resolve("/srv/app/logs/app.log")).isPositive();
+        assertThat(index.resolve("/srv/app/logs/missing.log")).isEqualTo(-1);
+        assertThat(index.resolve("/etc")).isEqualTo(-1);
+        assertThat(index.path(index.resolve("/srv/app/data/my file.bin"))).isEqualTo("/srv/app/data/my file.bin");
+        assertThat(index.directoryPaths()).containsOnlyKeys("", "logs", "logs/old", "data");
+    }
+
+    @Test
+    void testUsageTreeTotalsAndOmitsSmallChildren() throws IOException {
+        FileIndex index = sample();
+
+        DiskUsageNode tree = index.usageTree(0, 2, 1);
+        assertThat(tree.getSizeBytes()).isEqualTo(4096 * 4 + 1000 + 500 + 50000 + 20);
+        assertThat(tree.getFiles()).isEqualTo(4);
+        assertThat(tree.getDirectories()).isEqualTo(3);
+        assertThat(tree.getChildren()).hasSize(1);
+        DiskUsageNode data = tree.getChildren().get(0);
+        assertThat(data.getPath()).isEqualTo("/srv/app/data");
+        assertThat(data.getSizeBytes()).isEqualTo(4096 + 50000);
+        assertThat(tree.getOmittedChildren()).isEqualTo(2);
+        assertThat(tree.getOmittedBytes()).isEqualTo(4096 * 2 + 1000 + 500 + 20);
+    }
+
+    @Test
+    void testFindFiltersAndSorts() throws IOException {
+        FileIndex index = sample();
+
+        FileIndex.Matches logs = index.find(0, new FileIndex.Query(FileIndex.globToPattern("*.log*"),
+                'f', -1, -1, -1, -1, null, "size"), 10);
+        assertThat(logs.matched()).isEqualTo(2);
+        assertThat(logs.entries()).extracting(FileMatch::getPath)
+                .containsExactly("/srv/app/logs/app.log", "/srv/app/logs/old/app.log.1");
+
+        FileIndex.Matches recent = index.find(0, new FileIndex.Query(null, 'f', 100, -1,
+                1700000200L, -1, "deploy", "mtime"), 1);
+        assertThat(recent.matched()).isEqualTo(2);
+        assertThat(recent.entries()).hasSize(1);
+        FileMatch newest = recent.entries().get(0);
+        assertThat(newest.getPath()).isEqualTo("/srv/app/data/my file.bin");
+        assertThat(newest.getType()).isEqualTo("file");
+        assertThat(newest.getOwner()).isEqualTo("deploy");
+
+        FileIndex.Matches below = index.find(index.resolve("/srv/app/logs"), ALL, 100);
+        assertThat(below.matched()).isEqualTo(3);
+    }
+
+    @Test
+    void testMergeGraftsFragmentBelowDirectory() throws IOException {
+        FileIndex index = new FileIndex("/srv", 100);
+        index.readEntries(stream(
+                "d 0 4096 1700000000.0 root srv",
+                "d 1 4096 1700000000.0 root www",
+                "f 1 10 1700000000.0 root README"), 0, 0);
+        FileIndex fragment = new FileIndex("/srv/www", 100);
+        fragment.readEntries(stream(
+                "d 1 4096 1700000000.0 www site",
+                "f 2 300 1700000000.0 www index.html",
+                "f 1 7 1700000000.0 www robots.txt"), 0, 0);
+
+        index.merge(fragment, index.resolve("/srv/www"));
+        assertThat(index.size()).isEqualTo(6);
+        assertThat(index.resolve("/srv/www/site/index.html")).isPositive();
+        assertThat(index.usageTree(0, 0, 10).getSizeBytes()).isEqualTo(4096 * 3 + 10 + 300 + 7);
+
+        FileIndex full = new FileIndex("/srv", 3);
+        assertThatThrownBy(() -> full.merge(fragment, 0)).isInstanceOf(IllegalStateException.class);
+        FileIndex tiny = new FileIndex("/srv", 2);
+        assertThatThrownBy(() -> tiny.readEntries(stream(
+                "f 1 1 1700000000.0 root a",
+                "f 1 1 1700000000.0 root b"), 0, 0)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void testApplyListingsAddsUpdatesAndRemoves() throws IOException {
+        FileIndex index = sample();
+        int root = index.resolve("/srv/app");
+        int logs = index.resolve("/srv/app/logs");
+
+        // find /srv/app /srv/app/logs -maxdepth 1, read one level down
+        FileIndex listing = new FileIndex("/srv/app", 100);
+        listing.readEntries(stream(
+                "d 0 4096 1700001000.0 root app",
+                "d 1 4096 1700000000.0 deploy logs",
+                "d 1 4096 1700000400.0 deploy data",
+                "d 1 4096 1700001000.0 deploy cache",
+                "d 0 4096 1700002000.0 deploy logs",
+                "f 1 2500 1700002000.0 deploy app.log",
+                "f 1 0 1700002000.0 deploy error.log"), 0, 1);
+
+        assertThat(index.applyListings(listing, List.of(root, logs))).isEqualTo(2);
+        assertThat(index.resolve("/srv/app/VERSION")).isEqualTo(-1);
+        assertThat(index.resolve("/srv/app/cache")).isPositive();
+        assertThat(index.resolve("/srv/app/logs/old")).isEqualTo(-1);
+        assertThat(index.resolve("/srv/app/logs/old/app.log.1")).isEqualTo(-1);
+        assertThat(index.resolve("/srv/app/data/my file.bin")).isPositive();
+        assertThat(index.mtime(index.resolve("/srv/app/logs"))).isEqualTo(1700002000L);
+
+        FileIndex.Matches logFiles = index.find(index.resolve("/srv/app/logs"), ALL, 10);
+        assertThat(logFiles.entries()).extracting(FileMatch::getSizeBytes).containsExactlyInAnyOrder(2500L, 0L);
+        assertThat(index.directoryPaths()).containsOnlyKeys("", "logs", "data", "cache");
+    }
+
+    @Test
+    void testGlobToPattern() {
+        assertThat(FileIndex.globToPattern("*.log").matcher("app.log").matches()).isTrue();
+        assertThat(FileIndex.globToPattern("*.log").matcher("app.log.1").matches()).isFalse();
+        assertThat(FileIndex.globToPattern("core.?").matcher("core.7").matches()).isTrue();
+        assertThat(FileIndex.globToPattern("[ab]*.txt").matcher("b-1.txt").matches()).isTrue();
+        assertThat(FileIndex.globToPattern("[ab]*.txt").matcher("c-1.txt").matches()).isFalse();
+        assertThat(FileIndex.globToPattern("a+b(1).txt").matcher("a+b(1).txt").matches()).isTrue();
+    }
+
+    private static FileIndex sample() throws IOException {
+        FileIndex index = new FileIndex("/srv/app", 100);
+        index.readEntries(stream(
+                "d 0 4096 1700000000.5 root app",
+                "f 1 20 1700000000.0 root VERSION",
+                "d 1 4096 1700000000.0 deploy logs",
+                "f 2 1000 1700000300.0 deploy app.log",
+                "d 2 4096 1700000000.0 deploy old",
+                "f 3 500 1699990000.0 deploy app.log.1",
+                "d 1 4096 1700000400.0 deploy data",
+                "f 2 50000 1700000400.0 deploy my file.bin"), 0, 0);
+        return index;
+    }
+
+    private static ByteArrayInputStream stream(String... lines) {
+        return new ByteArrayInputStream((String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
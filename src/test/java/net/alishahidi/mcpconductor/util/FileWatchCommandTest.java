@@ -0,0 +1,46 @@
+package net.alishahidi.mcpconductor.util;
+
+import net.alishahidi.mcpconductor.util.FileWatchCommand.Event;
+import net.alishahidi.mcpconductor.util.FileWatchCommand.Kind;
+import net.alishahidi.mcpconductor.util.FileWatchCommand.Mode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class FileWatchCommandTest {
+
+    @Test
+    void testParseInotifyEvents() {
+        assertThat(FileWatchCommand.parse("CREATE /etc/app/new file.conf"))
+                .isEqualTo(new Event(Kind.CREATED, "/etc/app/new file.conf", false));
+        assertThat(FileWatchCommand.parse("CLOSE_WRITE,CLOSE /etc/app/app.conf"))
+                .isEqualTo(new Event(Kind.MODIFIED, "/etc/app/app.conf", false));
+        assertThat(FileWatchCommand.parse("MOVED_TO /etc/app/app.conf").kind()).isEqualTo(Kind.CREATED);
+        assertThat(FileWatchCommand.parse("DELETE,ISDIR /etc/app/old.d"))
+                .isEqualTo(new Event(Kind.DELETED, "/etc/app/old.d", true));
+        assertThat(FileWatchCommand.parse("MOVED_FROM /var/run/deploy.lock").kind()).isEqualTo(Kind.DELETED);
+        assertThat(FileWatchCommand.parse("IGNORED /etc/app/")).isNull();
+        assertThat(FileWatchCommand.parse(FileWatchCommand.POLL_MARKER)).isNull();
+    }
+
+    @Test
+    void testCommandModes() {
+        List<String> paths = List.of("'/etc/app'", "'/var/run/deploy.lock'");
+
+        String inotify = FileWatchCommand.command(paths, true, Mode.INOTIFY, 2);
+        assertThat(inotify).contains("exit 5", "exec inotifywait -m -q -r -e " + FileWatchCommand.INOTIFY_EVENTS,
+                "-- '/etc/app' '/var/run/deploy.lock'").doesNotContain(FileWatchCommand.POLL_MARKER);
+
+        String poll = FileWatchCommand.command(paths, false, Mode.POLL, 3);
+        assertThat(poll).contains("find '/etc/app' '/var/run/deploy.lock' -maxdepth 1", "while sleep 3")
+                .doesNotContain("inotifywait");
+
+        String auto = FileWatchCommand.command(paths, true, Mode.AUTO, 2);
+        assertThat(auto.indexOf("inotifywait -m")).isLessThan(auto.indexOf(FileWatchCommand.POLL_MARKER));
+        assertThat(auto).doesNotContain("-maxdepth");
+        assertThat(Mode.of(null)).isEqualTo(Mode.AUTO);
+        assertThatThrownBy(() -> Mode.of("fanotify")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
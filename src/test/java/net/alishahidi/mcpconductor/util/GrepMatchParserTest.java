@@ -0,0 +1,72 @@
+package net.alishahidi.mcpconductor.util;
+
+import net.alishahidi.mcpconductor.model.FileSearchMatch;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class GrepMatchParserTest {
+
+    @Test
+    void testMatchesWithoutContext() {
+        GrepMatchParser parser = new GrepMatchParser("web-1", 0);
+        List<FileSearchMatch> matches = feed(parser,
+                "/etc/app/a:b.conf\u000012:listen 8080",
+                "/etc/app/c.conf\u00003:listen 9090-tls");
+
+        assertThat(matches).extracting(FileSearchMatch::getPath).containsExactly("/etc/app/a:b.conf", "/etc/app/c.conf");
+        assertThat(matches.get(0).getLine()).isEqualTo(12);
+        assertThat(matches.get(1).getText()).isEqualTo("listen 9090-tls");
+        assertThat(matches.get(0).getServer()).isEqualTo("web-1");
+        assertThat(matches.get(0).getBefore()).isNull();
+        assertThat(parser.getFiles()).isEqualTo(2);
+    }
+
+    @Test
+    void testContextIsSplitBetweenNeighbouringMatches() {
+        GrepMatchParser parser = new GrepMatchParser("web-1", 1);
+        List<FileSearchMatch> matches = feed(parser,
+                "/srv/x.log\u00001-a",
+                "/srv/x.log\u00002:foo one",
+                "/srv/x.log\u00003-b",
+                "/srv/x.log\u00004-c",
+                "/srv/x.log\u00005:foo two",
+                "--",
+                "/srv/x.log\u00009-d",
+                "/srv/x.log\u000010:foo three");
+
+        assertThat(matches).hasSize(3);
+        assertThat(matches.get(0).getBefore()).containsExactly("a");
+        assertThat(matches.get(0).getAfter()).containsExactly("b");
+        assertThat(matches.get(1).getBefore()).containsExactly("c");
+        assertThat(matches.get(1).getAfter()).isEmpty();
+        assertThat(matches.get(2).getBefore()).containsExactly("d");
+        assertThat(parser.getFiles()).isEqualTo(1);
+    }
+
+    @Test
+    void testIgnoresForeignOutputAndClipsLongLines() {
+        GrepMatchParser parser = new GrepMatchParser("web-1", 0);
+        List<FileSearchMatch> matches = feed(parser,
+                "grep: warning: recursive search of stdin",
+                "/srv/broken\u0000notanumber",
+                "/srv/min.js\u00001:" + "x".repeat(5000));
+
+        assertThat(matches).hasSize(1);
+        assertThat(matches.get(0).getText()).hasSize(GrepMatchParser.MAX_TEXT_CHARS + 3);
+    }
+
+    private static List<FileSearchMatch> feed(GrepMatchParser parser, String... lines) {
+        List<FileSearchMatch> matches = new ArrayList<>();
+        for (String line : lines) {
+            FileSearchMatch match = parser.accept(line);
+            if (match != null) {
+                matches.add(match);
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,39 @@
+package net.alishahidi.mcpconductor.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class HostMetricsProbeTest {
+
+    @Test
+    void testProbeDerivesRatesFromCounterDeltas() {
+        Map<String, Double> first = HostMetricsProbe.parse(String.join("\n",
+                "cpu  100 0 100 700 100 0 0 0 0 0",
+                "net 1000 500"));
+        Map<String, Double> second = HostMetricsProbe.parse(String.join("\n",
+                "cpu  150 0 150 800 100 0 0 0 0 0",
+                "MemTotal:        1000 kB",
+                "MemAvailable:     250 kB",
+                "SwapTotal:          0 kB",
+                "SwapFree:           0 kB",
+                "load 1.50 0.80 0.70 1/78 3993",
+                "fs 4096 1000 400 300",
+                "net 21000 1500"));
+
+        Map<String, Double> metrics = HostMetricsProbe.derive(first, second, 10_000);
+
+        assertThat(metrics.get(HostMetricsProbe.CPU_BUSY)).isEqualTo(50.0);
+        assertThat(metrics.get(HostMetricsProbe.CPU_IOWAIT)).isEqualTo(0.0);
+        assertThat(metrics.get(HostMetricsProbe.MEM_USED)).isEqualTo(75.0);
+        assertThat(metrics.get(HostMetricsProbe.SWAP_USED)).isEqualTo(0.0);
+        assertThat(metrics.get(HostMetricsProbe.LOAD_1)).isEqualTo(1.5);
+        assertThat(metrics.get(HostMetricsProbe.DISK_USED)).isEqualTo(66.67);
+        assertThat(metrics.get(HostMetricsProbe.NET_RX)).isEqualTo(2000.0);
+        assertThat(metrics.get(HostMetricsProbe.NET_TX)).isEqualTo(100.0);
+        // No previous sample: gauges only
+        assertThat(HostMetricsProbe.derive(null, second, 0)).doesNotContainKey(HostMetricsProbe.CPU_BUSY);
+    }
+}
@@ -0,0 +1,75 @@
+package net.alishahidi.mcpconductor.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.model.PullResponseItem;
+import net.alishahidi.mcpconductor.model.ImagePullProgress;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ImagePullTrackerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void testAggregatesLayerProgress() throws Exception {
+        ImagePullTracker tracker = new ImagePullTracker();
+        tracker.onNext(item("{\"status\":\"Pulling from library/nginx\",\"id\":\"1.25\"}"));
+        tracker.onNext(item("{\"status\":\"Already exists\",\"id\":\"aaa\"}"));
+        tracker.onNext(item("{\"status\":\"Downloading\",\"id\":\"bbb\",\"progressDetail\":{\"current\":400,\"total\":1000}}"));
+        tracker.onNext(item("{\"status\":\"Downloading\",\"id\":\"ccc\",\"progressDetail\":{\"current\":100,\"total\":500}}"));
+
+        ImagePullProgress progress = tracker.snapshot();
+        assertThat(progress.getLayers()).isEqualTo(3);
+        assertThat(progress.getLayersReused()).isEqualTo(1);
+        assertThat(progress.getLayersDone()).isEqualTo(1);
+        assertThat(progress.getCurrentBytes()).isEqualTo(500);
+        assertThat(progress.getTotalBytes()).isEqualTo(1500);
+
+        tracker.onNext(item("{\"status\":\"Pull complete\",\"id\":\"bbb\"}"));
+        assertThat(tracker.snapshot().getCurrentBytes()).isEqualTo(1100);
+        assertThat(tracker.snapshot().getLayersDone()).isEqualTo(2);
+    }
+
+    @Test
+    void testLateListenerReceivesCurrentState() throws Exception {
+        ImagePullTracker tracker = new ImagePullTracker();
+        tracker.onNext(item("{\"status\":\"Downloading\",\"id\":\"bbb\",\"progressDetail\":{\"current\":250,\"total\":1000}}"));
+
+        List<ImagePullProgress> received = new ArrayList<>();
+        tracker.addListener(received::add);
+        tracker.onNext(item("{\"status\":\"Downloading\",\"id\":\"bbb\",\"progressDetail\":{\"current\":750,\"total\":1000}}"));
+
+        assertThat(received).extracting(ImagePullProgress::getCurrentBytes).containsExactly(250L, 750L);
+    }
+
+    @Test
+    void testReportsErrorDetailAndFinalStatus() throws Exception {
+        ImagePullTracker pulled = new ImagePullTracker();
+        pulled.onNext(item("{\"status\":\"Pull complete\",\"id\":\"bbb\"}"));
+        pulled.onNext(item("{\"status\":\"Status: Downloaded newer image for nginx:1.25\"}"));
+        assertThat(pulled.failure()).isNull();
+
+        ImagePullTracker denied = new ImagePullTracker();
+        denied.onNext(item("{\"status\":\"Pulling fs layer\",\"id\":\"bbb\"}"));
+        denied.onNext(item("{\"errorDetail\":{\"message\":\"unauthorized: authentication required\"},"
+                + "\"error\":\"unauthorized\"}"));
+        assertThat(denied.failure()).isEqualTo("unauthorized: authentication required");
+
+        ImagePullTracker bare = new ImagePullTracker();
+        bare.onNext(item("{\"error\":\"unauthorized\"}"));
+        assertThat(bare.failure()).isEqualTo("the daemon reported an error without details");
+
+        ImagePullTracker cut = new ImagePullTracker();
+        cut.onNext(item("{\"status\":\"Downloading\",\"id\":\"bbb\"}"));
+        assertThat(cut.failure()).contains("Downloading");
+        assertThat(new ImagePullTracker().failure()).isNotNull();
+    }
+
+    private PullResponseItem item(String json) throws Exception {
+        return mapper.readValue(json, PullResponseItem.class);
+    }
+}
@@ -0,0 +1,96 @@
+package net.alishahidi.mcpconductor.util;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ImageTarFanOutTest {
+
+    private static final String LAYER_A = "a".repeat(64);
+    private static final String LAYER_B = "b".repeat(64);
+
+    @Test
+    void testEachSinkGetsItsOwnCopyWithSkippedBlobs() throws Exception {
+        byte[] source = imageTar();
+        ByteArrayOutputStream full = new ByteArrayOutputStream();
+        ByteArrayOutputStream partial = new ByteArrayOutputStream();
+
+        ImageTarFanOut fanOut = new ImageTarFanOut();
+        ImageTarFanOut.Sink fullSink = fanOut.addSink("full", full, false, Set.of());
+        ImageTarFanOut.Sink partialSink = fanOut.addSink("partial", partial, true, Set.of(LAYER_A));
+
+        long read = fanOut.pump(new ByteArrayInputStream(source));
+
+        assertThat(read).isEqualTo(source.length);
+        assertThat(entryNames(new ByteArrayInputStream(full.toByteArray())))
+                .containsExactly("blobs/sha256/" + LAYER_A, "blobs/sha256/" + LAYER_B, "manifest.json");
+        assertThat(entryNames(new GZIPInputStream(new ByteArrayInputStream(partial.toByteArray()))))
+                .containsExactly("blobs/sha256/" + LAYER_B, "manifest.json");
+        assertThat(fullSink.getBlobsSent()).isEqualTo(2);
+        assertThat(partialSink.getBlobsSkipped()).isEqualTo(1);
+        assertThat(partialSink.getBytesSent()).isEqualTo(partial.size());
+    }
+
+    @Test
+    void testFailedSinkDoesNotStopOthers() throws Exception {
+        ByteArrayOutputStream healthy = new ByteArrayOutputStream();
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Pipe closed");
+            }
+        };
+
+        ImageTarFanOut fanOut = new ImageTarFanOut();
+        ImageTarFanOut.Sink brokenSink = fanOut.addSink("broken", broken, false, Set.of());
+        fanOut.addSink("healthy", healthy, false, Set.of());
+        fanOut.pump(new ByteArrayInputStream(imageTar()));
+
+        assertThat(brokenSink.failed()).isTrue();
+        assertThat(entryNames(new ByteArrayInputStream(healthy.toByteArray()))).hasSize(3);
+    }
+
+    private byte[] imageTar() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(bytes)) {
+            addEntry(tar, "blobs/sha256/" + LAYER_A, "layer a ".repeat(20_000));
+            addEntry(tar, "blobs/sha256/" + LAYER_B, "layer b");
+            addEntry(tar, "manifest.json", "[]");
+        }
+        return bytes.toByteArray();
+    }
+
+    private void addEntry(TarArchiveOutputStream tar, String name, String content) throws IOException {
+        byte[] data = content.getBytes(StandardCharsets.UTF_8);
+        TarArchiveEntry entry = new TarArchiveEntry(name);
+        entry.setSize(data.length);
+        tar.putArchiveEntry(entry);
+        tar.write(data);
+        tar.closeArchiveEntry();
+    }
+
+    private List<String> entryNames(InputStream in) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (TarArchiveInputStream tar = new TarArchiveInputStream(in)) {
+            TarArchiveEntry entry;
+            while ((entry = tar.getNextEntry()) != null) {
+                names.add(entry.getName());
+            }
+        }
+        return names;
+    }
+}
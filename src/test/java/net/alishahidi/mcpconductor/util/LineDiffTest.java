@@ -0,0 +1,58 @@
+package net.alishahidi.mcpconductor.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LineDiffTest {
+
+    @Test
+    void testUnifiedHunksWithContext() {
+        List<String> before = List.of("user nginx;", "worker_processes 2;", "pid /run/nginx.pid;",
+                "events {", "    worker_connections 768;", "}");
+        List<String> after = List.of("user nginx;", "worker_processes auto;", "pid /run/nginx.pid;",
+                "events {", "    worker_connections 768;", "    multi_accept on;", "}");
+
+        String diff = LineDiff.unified(before, after, 0, 1, "edge-1:/etc/nginx/nginx.conf", "edge-7:/etc/nginx/nginx.conf");
+
+        assertThat(diff).isEqualTo("""
+                --- edge-1:/etc/nginx/nginx.conf
+                +++ edge-7:/etc/nginx/nginx.conf
+                @@ -1,3 +1,3 @@
+                 user nginx;
+                -worker_processes 2;
+                +worker_processes auto;
+                 pid /run/nginx.pid;
+                @@ -5,2 +5,3 @@
+                     worker_connections 768;
+                +    multi_accept on;
+                 }
+                """);
+    }
+
+    @Test
+    void testLineOffsetAndPureInsertion() {
+        String diff = LineDiff.unified(List.of("a"), List.of("a", "b"), 40, 0, "x", "y");
+
+        assertThat(diff).isEqualTo("--- x\n+++ y\n@@ -41,0 +42,1 @@\n+b\n");
+        assertThat(LineDiff.unified(List.of("a", "b"), List.of("a", "b"), 0, 3, "x", "y")).isEmpty();
+    }
+
+    @Test
+    void testManyEditsStillProduceValidDiff() {
+        List<String> before = new ArrayList<>();
+        List<String> after = new ArrayList<>();
+        for (int i = 0; i < LineDiff.MAX_EDITS + 10; i++) {
+            before.add("old " + i);
+            after.add("new " + i);
+        }
+
+        String diff = LineDiff.unified(before, after, 0, 3, "x", "y");
+
+        assertThat(diff).startsWith("--- x\n+++ y\n@@ -1," + before.size() + " +1," + after.size() + " @@\n-old 0\n");
+        assertThat(diff).endsWith("+new " + (after.size() - 1) + "\n");
+    }
+}
@@ -0,0 +1,47 @@
+package net.alishahidi.mcpconductor.util;
+
+import net.alishahidi.mcpconductor.model.LogCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LogCursorStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testCursorsSurviveReload() {
+        Path file = dir.resolve("state/log-cursors.json");
+        LogCursorStore store = new LogCursorStore(file, new ObjectMapper());
+        store.put(LogCursor.builder().server("web-1").source("/var/log/app.log").inode(77).offset(1200).build());
+        store.put(LogCursor.builder().server("web-1").source("journal:nginx.service").journalCursor("s=abc;i=9").build());
+        store.put(LogCursor.builder().server("web-1").source("/var/log/app.log").inode(77).offset(1500).build());
+
+        LogCursorStore reloaded = new LogCursorStore(file, new ObjectMapper());
+        assertThat(reloaded.list()).hasSize(2);
+        assertThat(reloaded.get("web-1", "/var/log/app.log").getOffset()).isEqualTo(1500);
+        assertThat(reloaded.get("web-1", "journal:nginx.service").getJournalCursor()).isEqualTo("s=abc;i=9");
+        assertThat(reloaded.get("web-2", "/var/log/app.log")).isNull();
+
+        assertThat(reloaded.remove("web-1", "/var/log/app.log")).isTrue();
+        assertThat(new LogCursorStore(file, new ObjectMapper()).list()).hasSize(1);
+    }
+
+    @Test
+    void testUnreadableFileStartsEmpty() throws IOException {
+        Path file = dir.resolve("log-cursors.json");
+        Files.writeString(file, "{not json");
+
+        LogCursorStore store = new LogCursorStore(file, new ObjectMapper());
+        assertThat(store.list()).isEmpty();
+        store.put(LogCursor.builder().server("db").source("journal").journalCursor("s=1").build());
+        assertThat(new LogCursorStore(file, new ObjectMapper()).get("db", "journal")).isNotNull();
+    }
+}
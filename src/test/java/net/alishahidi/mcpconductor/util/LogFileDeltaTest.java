@@ -0,0 +1,86 @@
+package net.alishahidi.mcpconductor.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LogFileDeltaTest {
+
+    @Test
+    void testFirstReadStartsAtLineBoundary() {
+        // 20-byte file, cap 8: bytes 12..19 are "3\nline4\n" after the header
+        LogFileDelta delta = parse("77 20 0 0 0 12 8\n3\nline4\n", 0, 0, 8);
+
+        assertThat(text(delta)).isEqualTo("line4\n");
+        assertThat(delta.getInode()).isEqualTo(77);
+        assertThat(delta.getOffset()).isEqualTo(20);
+        assertThat(delta.isRotated()).isFalse();
+        assertThat(delta.hasMore()).isFalse();
+    }
+
+    @Test
+    void testPartialLastLineWaitsForNewline() {
+        LogFileDelta delta = parse("77 30 0 0 0 20 10\nline5\npart", 77, 20, 100);
+
+        assertThat(text(delta)).isEqualTo("line5\n");
+        assertThat(delta.getOffset()).isEqualTo(26);
+        assertThat(delta.hasMore()).isFalse();
+    }
+
+    @Test
+    void testCapLeavesRestForNextCall() {
+        LogFileDelta delta = parse("77 100 0 0 0 20 10\nab\ncd\nefgh", 77, 20, 10);
+
+        assertThat(text(delta)).isEqualTo("ab\ncd\n");
+        assertThat(delta.getOffset()).isEqualTo(26);
+        assertThat(delta.hasMore()).isTrue();
+
+        LogFileDelta longLine = parse("77 100 0 0 0 20 4\nabcd", 77, 20, 4);
+        assertThat(text(longLine)).isEqualTo("abcd");
+        assertThat(longLine.getOffset()).isEqualTo(24);
+    }
+
+    @Test
+    void testRotationReadsRestOfOldFileFirst() {
+        // Cursor at 10 of inode 77, which was renamed and is 16 bytes long; new file 88 has 6 bytes
+        LogFileDelta delta = parse("88 6 1 16 6 0 6\nold-1\nnew-1\n", 77, 10, 100);
+
+        assertThat(text(delta)).isEqualTo("old-1\nnew-1\n");
+        assertThat(delta.isRotated()).isTrue();
+        assertThat(delta.getInode()).isEqualTo(88);
+        assertThat(delta.getOffset()).isEqualTo(6);
+
+        // Cap hit inside the old file: the cursor stays on it
+        LogFileDelta capped = parse("88 6 1 16 4 0 0\nold-", 77, 10, 4);
+        assertThat(capped.getInode()).isEqualTo(77);
+        assertThat(capped.getOffset()).isEqualTo(14);
+        assertThat(capped.hasMore()).isTrue();
+    }
+
+    @Test
+    void testTruncatedFileIsReadFromStart() {
+        LogFileDelta delta = parse("77 4 0 0 0 0 4\nnew\n", 77, 500, 100);
+
+        assertThat(delta.isRotated()).isTrue();
+        assertThat(text(delta)).isEqualTo("new\n");
+        assertThat(delta.getOffset()).isEqualTo(4);
+    }
+
+    @Test
+    void testCommandQuotesPathAndCarriesCursor() {
+        String command = LogFileDelta.command("'/var/log/app.log'", 77, 20, 4096);
+
+        assertThat(command).startsWith("export LC_ALL=C; f='/var/log/app.log'; ino=77; off=20; cap=4096\n");
+        assertThatThrownBy(() -> parse("garbage", 0, 0, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static LogFileDelta parse(String output, long inode, long offset, int cap) {
+        return LogFileDelta.parse(output.getBytes(StandardCharsets.UTF_8), inode, offset, cap);
+    }
+
+    private static String text(LogFileDelta delta) {
+        return new String(delta.getContent(), StandardCharsets.UTF_8);
+    }
+}
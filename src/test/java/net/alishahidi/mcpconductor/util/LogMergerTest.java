@@ -0,0 +1,70 @@
+package net.alishahidi.mcpconductor.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LogMergerTest {
+
+    @Test
+    void testMergesNewestFirstStreamsIntoTimeline() {
+        LogMerger.Result result = LogMerger.mergeNewestFirst(List.of(
+                reader("web-1", "2025-10-18T12:00:05Z c", "2025-10-18T12:00:03Z b", "2025-10-18T12:00:01Z a"),
+                reader("web-2", "2025-10-18T12:00:04Z y", "2025-10-18T12:00:02Z x")), 1_000);
+
+        assertThat(result.records()).extracting(LogMerger.Record::server)
+                .containsExactly("web-1", "web-2", "web-1", "web-2", "web-1");
+        assertThat(result.records().get(4).text()).isEqualTo("2025-10-18T12:00:05Z c");
+        assertThat(result.truncated()).isFalse();
+        assertThat(result.failed()).isEmpty();
+    }
+
+    @Test
+    void testBudgetKeepsNewestEntries() {
+        LogMerger.Result result = LogMerger.mergeNewestFirst(List.of(
+                reader("web-1", "2025-10-18T12:00:05Z c", "2025-10-18T12:00:01Z a"),
+                reader("web-2", "2025-10-18T12:00:04Z y", "2025-10-18T12:00:02Z x")), 50);
+
+        assertThat(result.records()).extracting(LogMerger.Record::text)
+                .containsExactly("2025-10-18T12:00:04Z y", "2025-10-18T12:00:05Z c");
+        assertThat(result.bytes()).isEqualTo(46);
+        assertThat(result.truncated()).isTrue();
+    }
+
+    @Test
+    void testContinuationLinesStayWithTheirEntry() {
+        LogMerger.Result result = LogMerger.mergeNewestFirst(List.of(
+                reader("app-1", "2025-10-18T12:00:09Z done",
+                        "\tat Worker.run(Worker.java:7)",
+                        "2025-10-18T12:00:08Z ERROR failed",
+                        "2025-10-18T12:00:07Z start")), 1_000);
+
+        assertThat(result.records()).extracting(LogMerger.Record::text).containsExactly(
+                "2025-10-18T12:00:07Z start",
+                "2025-10-18T12:00:08Z ERROR failed\n\tat Worker.run(Worker.java:7)",
+                "2025-10-18T12:00:09Z done");
+    }
+
+    @Test
+    void testFailedStreamIsReportedAndOthersMerged() {
+        LogMerger.LineSource broken = () -> {
+            throw new IOException("connection reset");
+        };
+        LogMerger.Result result = LogMerger.mergeNewestFirst(List.of(
+                new LogMerger.ReverseRecordReader("db-1", broken, LogTimestampParser.of("auto")),
+                reader("web-1", "2025-10-18T12:00:01Z a")), 1_000);
+
+        assertThat(result.records()).hasSize(1);
+        assertThat(result.failed()).containsEntry("db-1", "connection reset");
+    }
+
+    private static LogMerger.ReverseRecordReader reader(String server, String... newestFirst) {
+        Iterator<String> lines = List.of(newestFirst).iterator();
+        return new LogMerger.ReverseRecordReader(server, () -> lines.hasNext() ? lines.next() : null,
+                LogTimestampParser.of("auto"));
+    }
+}
@@ -0,0 +1,45 @@
+package net.alishahidi.mcpconductor.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LogTimestampParserTest {
+
+    @Test
+    void testBuiltInLayouts() {
+        assertThat(LogTimestampParser.of("iso8601").parse("2025-10-18T12:00:01.250+02:00 INFO started"))
+                .isEqualTo(Instant.parse("2025-10-18T10:00:01.250Z"));
+        assertThat(LogTimestampParser.of("iso8601").parse("2025-10-18 12:00:01,5 WARN slow"))
+                .isEqualTo(Instant.parse("2025-10-18T12:00:01.500Z"));
+        assertThat(LogTimestampParser.of("clf")
+                .parse("10.0.0.7 - - [18/Oct/2025:12:00:01 +0000] \"GET / HTTP/1.1\" 200 612"))
+                .isEqualTo(Instant.parse("2025-10-18T12:00:01Z"));
+        assertThat(LogTimestampParser.of("epoch").parse("1760788801.5 job done"))
+                .isEqualTo(Instant.parse("2025-10-18T12:00:01.500Z"));
+        assertThat(LogTimestampParser.of("syslog").parse("Jan  2 03:04:05 web-1 sshd[811]: Accepted"))
+                .isNotNull();
+    }
+
+    @Test
+    void testAutoKeepsFirstMatchingLayout() {
+        LogTimestampParser parser = LogTimestampParser.of(null);
+
+        assertThat(parser.parse("2025-10-18T12:00:01Z first")).isEqualTo(Instant.parse("2025-10-18T12:00:01Z"));
+        // A CLF line no longer matches once ISO was detected
+        assertThat(parser.parse("[18/Oct/2025:12:00:01 +0000] other")).isNull();
+        assertThat(parser.parse("\tat com.example.Service.run(Service.java:42)")).isNull();
+    }
+
+    @Test
+    void testCustomPattern() {
+        LogTimestampParser parser = LogTimestampParser.of("dd.MM.yyyy HH:mm:ss");
+
+        assertThat(parser.parse("18.10.2025 12:00:01 queue drained")).isEqualTo(Instant.parse("2025-10-18T12:00:01Z"));
+        assertThat(parser.parse("queue drained")).isNull();
+        assertThatThrownBy(() -> LogTimestampParser.of("yyyy-{{"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,51 @@
+package net.alishahidi.mcpconductor.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MetricSeriesTest {
+
+    private static final long INTERVAL = 10_000;
+
+    @Test
+    void testDownsampledTierKeepsAverageAndMax() {
+        MetricSeries series = new MetricSeries(INTERVAL, new int[]{1, 6}, new int[]{6, 10});
+        // Two full minutes of samples, plus the first sample of the third minute to close the second bucket
+        for (int i = 0; i < 13; i++) {
+            series.add(i * INTERVAL, i == 8 ? 100 : i < 6 ? 1 : 3);
+        }
+
+        // Raw tier only reaches back one minute, so a two-minute window reads the minute tier
+        MetricSeries.Window window = series.read(0, 13 * INTERVAL);
+        assertThat(window.resolutionMs()).isEqualTo(60_000);
+        assertThat(window.times()).containsExactly(0, 60_000);
+        assertThat(window.avg()[0]).isEqualTo(1.0);
+        assertThat(window.avg()[1]).isCloseTo((3 * 5 + 100) / 6.0, within(1e-9));
+        assertThat(window.max()[1]).isEqualTo(100);
+    }
+
+    @Test
+    void testRecentWindowReadsRawTier() {
+        MetricSeries series = new MetricSeries(INTERVAL, new int[]{1, 6}, new int[]{6, 10});
+        for (int i = 0; i < 20; i++) {
+            series.add(i * INTERVAL, i);
+        }
+
+        MetricSeries.Window window = series.read(16 * INTERVAL, 19 * INTERVAL);
+        assertThat(window.resolutionMs()).isEqualTo(INTERVAL);
+        assertThat(window.avg()).containsExactly(16, 17, 18, 19);
+        assertThat(series.oldestTimestamp()).isZero();
+    }
+
+    @Test
+    void testMissedSamplesAreGaps() {
+        MetricSeries series = new MetricSeries(INTERVAL, new int[]{1, 6}, new int[]{12, 10});
+        for (int i = 0; i < 7; i++) {
+            series.add(i * INTERVAL, i % 2 == 0 ? Double.NaN : 4);
+        }
+
+        assertThat(series.read(0, 6 * INTERVAL).avg()).hasSize(7);
+        assertThat(Double.isNaN(series.read(0, 0).avg()[0])).isTrue();
+    }
+}
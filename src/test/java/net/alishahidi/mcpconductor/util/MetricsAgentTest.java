@@ -0,0 +1,58 @@
+package net.alishahidi.mcpconductor.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MetricsAgentTest {
+
+    @Test
+    void testFrameParserMergesDeltaFrames() {
+        MetricsAgent.FrameParser parser = new MetricsAgent.FrameParser();
+
+        assertThat(parser.feed("@@ 100.00")).isNull();
+        parser.feed("cpu  100 0 100 700 100 0 0 0 0 0");
+        parser.feed("MemTotal:        1000 kB");
+        parser.feed("MemAvailable:     500 kB");
+        parser.feed("load 0.50 0.40 0.30 1/78 3993");
+        MetricsAgent.Frame first = parser.feed("@@end");
+        assertThat(first.elapsedMs()).isEqualTo(-1);
+
+        // Second frame only carries what changed
+        parser.feed("@@ 110.00");
+        parser.feed("cpu  150 0 150 800 100 0 0 0 0 0");
+        parser.feed("MemAvailable:     250 kB");
+        MetricsAgent.Frame second = parser.feed("@@end");
+
+        assertThat(second.elapsedMs()).isEqualTo(10_000);
+        Map<String, Double> metrics = HostMetricsProbe.derive(
+                HostMetricsProbe.parse(first.output()), HostMetricsProbe.parse(second.output()), second.elapsedMs());
+        assertThat(metrics.get(HostMetricsProbe.CPU_BUSY)).isEqualTo(50.0);
+        assertThat(metrics.get(HostMetricsProbe.MEM_USED)).isEqualTo(75.0);
+        assertThat(metrics.get(HostMetricsProbe.LOAD_1)).isEqualTo(0.5);
+    }
+
+    @Test
+    void testIgnoresOutputOutsideFrames() {
+        MetricsAgent.FrameParser parser = new MetricsAgent.FrameParser();
+
+        assertThat(parser.feed("motd noise")).isNull();
+        assertThat(parser.feed("@@end")).isNull();
+        parser.feed("@@ 5.00");
+        assertThat(parser.feed("@@end").output()).isEmpty();
+    }
+
+    @Test
+    void testStartCommandVerifiesChecksumBeforeRunning() {
+        String command = MetricsAgent.startCommand(10);
+
+        assertThat(MetricsAgent.SHA256).hasSize(64);
+        assertThat(command).contains("sha256sum").contains(MetricsAgent.SHA256);
+        assertThat(command.indexOf("sha256sum")).isLessThan(command.indexOf("exec sh"));
+        // The agent's stderr carries the reason it exited
+        assertThat(command.substring(command.indexOf("exec sh"))).doesNotContain("2>");
+        assertThat(MetricsAgent.installCommand()).contains(MetricsAgent.SHA256.substring(0, 12)).contains("mv -f");
+    }
+}
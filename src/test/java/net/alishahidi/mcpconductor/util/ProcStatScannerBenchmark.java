@@ -0,0 +1,53 @@
+package net.alishahidi.mcpconductor.util;
+
+import net.alishahidi.mcpconductor.model.ProcessTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scan cost of a 20k-process table from {@link ProcStatScannerTest#fixture(int)},
+ * selecting the top 25 or keeping every process (limit 0).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcStatScannerBenchmark {
+
+    @Param({"20000"})
+    private int processes;
+
+    @Param({"25", "0"})
+    private int limit;
+
+    @Param({"CPU", "MEMORY"})
+    private ProcStatScanner.SortKey sortKey;
+
+    private byte[] output;
+
+    @Setup
+    public void setUp() {
+        output = ProcStatScannerTest.fixture(processes).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ProcessTable scan() throws IOException {
+        return ProcStatScanner.scan(new ByteArrayInputStream(output), sortKey, limit);
+    }
+}
@@ -0,0 +1,91 @@
+package net.alishahidi.mcpconductor.util;
+
+import net.alishahidi.mcpconductor.model.ProcessInfo;
+import net.alishahidi.mcpconductor.model.ProcessTable;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ProcStatScannerTest {
+
+    private static final String HEADER = "H 100 4096 1000.50 8000000\n";
+
+    @Test
+    void testParsesFieldsAndCommandsWithSpaces() throws IOException {
+        String output = HEADER
+                + "1 S 0 300 200 1 100 170000000 2500 systemd\n"
+                + "4242 R 1 40000 10000 12 50050 900000000 250000 Web Content\n";
+
+        ProcessTable table = scan(output, ProcStatScanner.SortKey.CPU, 10);
+
+        assertThat(table.getTotalProcesses()).isEqualTo(2);
+        assertThat(table.getTotalThreads()).isEqualTo(13);
+        assertThat(table.getRunning()).isEqualTo(1);
+        ProcessInfo top = table.getProcesses().get(0);
+        assertThat(top.getPid()).isEqualTo(4242);
+        assertThat(top.getCommand()).isEqualTo("Web Content");
+        // 50000 ticks of CPU over 100050 - 50050 = 50000 ticks alive
+        assertThat(top.getCpuPercent()).isEqualTo(100.0);
+        assertThat(top.getCpuSeconds()).isEqualTo(500);
+        assertThat(top.getElapsedSeconds()).isEqualTo(500);
+        assertThat(top.getRssBytes()).isEqualTo(250000L * 4096);
+        assertThat(top.getMemPercent()).isEqualTo(12.5);
+    }
+
+    @Test
+    void testTopNMatchesFullSortOnLargeTable() throws IOException {
+        String fixture = fixture(20_000);
+
+        ProcessTable all = scan(fixture, ProcStatScanner.SortKey.MEMORY, 0);
+        ProcessTable top = scan(fixture, ProcStatScanner.SortKey.MEMORY, 25);
+
+        assertThat(all.getTotalProcesses()).isEqualTo(20_000);
+        assertThat(all.getProcesses()).hasSize(20_000);
+        assertThat(top.getTotalProcesses()).isEqualTo(20_000);
+        assertThat(pids(top.getProcesses())).containsExactlyElementsOf(pids(all.getProcesses().subList(0, 25)));
+
+        ProcessTable byCpu = scan(fixture, ProcStatScanner.SortKey.CPU, 5);
+        List<ProcessInfo> processes = byCpu.getProcesses();
+        for (int i = 1; i < processes.size(); i++) {
+            assertThat(processes.get(i - 1).getCpuPercent()).isGreaterThanOrEqualTo(processes.get(i).getCpuPercent());
+        }
+    }
+
+    @Test
+    void testSkipsTruncatedLines() throws IOException {
+        ProcessTable table = scan(HEADER + "77 S 1 5\n\n12 S 1 1 1 1 10 1000 10 ok\n", ProcStatScanner.SortKey.CPU, 5);
+
+        assertThat(table.getTotalProcesses()).isEqualTo(1);
+        assertThat(table.getProcesses().get(0).getCommand()).isEqualTo("ok");
+    }
+
+    // Synthetic table shaped like a busy Kubernetes node: mostly idle workers, a few heavy daemons
+    static String fixture(int processes) {
+        Random random = new Random(42);
+        StringBuilder out = new StringBuilder(HEADER);
+        for (int pid = 1; pid <= processes; pid++) {
+            long start = random.nextInt(90_000);
+            long cpu = (long) ((100_050 - start) * random.nextDouble() * (random.nextInt(50) == 0 ? 4 : 0.05));
+            out.append(pid).append(pid % 97 == 0 ? " R " : " S ").append(pid / 2).append(' ')
+                    .append(cpu / 2).append(' ').append(cpu - cpu / 2).append(' ')
+                    .append(1 + random.nextInt(64)).append(' ').append(start).append(' ')
+                    .append(random.nextInt(1 << 30)).append(' ').append(random.nextInt(500_000)).append(' ')
+                    .append(pid % 3 == 0 ? "kworker/" + pid % 8 + ":1" : "containerd-shim").append('\n');
+        }
+        return out.toString();
+    }
+
+    private static ProcessTable scan(String output, ProcStatScanner.SortKey sortKey, int limit) throws IOException {
+        return ProcStatScanner.scan(new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8)), sortKey, limit);
+    }
+
+    private static List<Integer> pids(List<ProcessInfo> processes) {
+        return processes.stream().map(ProcessInfo::getPid).toList();
+    }
+}
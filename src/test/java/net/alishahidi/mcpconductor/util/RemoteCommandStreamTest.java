@@ -0,0 +1,51 @@
+package net.alishahidi.mcpconductor.util;
+
+import com.jcraft.jsch.ChannelExec;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RemoteCommandStreamTest {
+
+    @Test
+    void testDeadlineUnblocksStuckRead() throws Exception {
+        PipedOutputStream remote = new PipedOutputStream();
+        ChannelExec channel = mock(ChannelExec.class);
+        when(channel.getInputStream()).thenReturn(new PipedInputStream(remote));
+        when(channel.getOutputStream()).thenReturn(new ByteArrayOutputStream());
+        // Like JSch, disconnecting ends the stdout pipe
+        doAnswer(invocation -> {
+            remote.close();
+            return null;
+        }).when(channel).disconnect();
+        remote.write("partial".getBytes());
+
+        long start = System.currentTimeMillis();
+        try (RemoteCommandStream stream = new RemoteCommandStream(channel).withDeadline(200)) {
+            byte[] output = stream.readAllStdout();
+
+            assertThat(new String(output)).isEqualTo("partial");
+            assertThat(stream.isTimedOut()).isTrue();
+        }
+        assertThat(System.currentTimeMillis() - start).isLessThan(5_000);
+    }
+
+    @Test
+    void testCompletedCommandIsNotTimedOut() throws Exception {
+        PipedOutputStream remote = new PipedOutputStream();
+        ChannelExec channel = mock(ChannelExec.class);
+        when(channel.getInputStream()).thenReturn(new PipedInputStream(remote));
+        remote.write("done\n".getBytes());
+        remote.close();
+
+        try (RemoteCommandStream stream = new RemoteCommandStream(channel).withDeadline(10_000)) {
+            assertThat(new String(stream.readAllStdout())).isEqualTo("done\n");
+            assertThat(stream.isTimedOut()).isFalse();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package net.alishahidi.mcpconductor.util;
+
+import net.alishahidi.mcpconductor.model.SystemInfo;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The composite probe against the eight commands getSystemInfo used to run,
+ * each started as its own local {@code sh -c} the way each used to open its
+ * own exec channel. Process start-up stands in for the channel round trip,
+ * so over SSH the gap only grows with latency. Needs a Linux host for
+ * {@code /proc}; {@link #parse()} measures the recorded probe output alone.
+ *
+ * Both command paths also report {@link Transfer} counters next to their
+ * timings: the output bytes read and the commands started per iteration.
+ * Dividing each by {@code invocations} gives the bytes and round trips of
+ * one system info call, which is what would cross the SSH connection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SystemProbeBenchmark {
+
+    private static final List<String> LEGACY_COMMANDS = List.of(
+            "hostname", "cat /etc/os-release", "uname -r", "uptime -p", "nproc", "free -h", "df -h /",
+            "cat /proc/loadavg");
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Transfer {
+        public long bytes;
+        public long commands;
+        public long invocations;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            commands = 0;
+            invocations = 0;
+        }
+    }
+
+    @Benchmark
+    public SystemInfo probe(Transfer transfer) throws IOException, InterruptedException {
+        transfer.invocations++;
+        return SystemProbe.parse(run(SystemProbe.COMMAND, transfer));
+    }
+
+    @Benchmark
+    public int legacyCommands(Transfer transfer) throws IOException, InterruptedException {
+        transfer.invocations++;
+        int length = 0;
+        for (String command : LEGACY_COMMANDS) {
+            length += run(command, transfer).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public SystemInfo parse() {
+        return SystemProbe.parse(SystemProbeTest.OUTPUT);
+    }
+
+    private static String run(String command, Transfer transfer) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder("/bin/sh", "-c", command)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        byte[] output = process.getInputStream().readAllBytes();
+        process.waitFor();
+        transfer.bytes += output.length;
+        transfer.commands++;
+        return new String(output, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,95 @@
+package net.alishahidi.mcpconductor.util;
+
+import net.alishahidi.mcpconductor.model.SystemInfo;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SystemProbeTest {
+
+    static final String OUTPUT = String.join("\n",
+            "@@hostname",
+            "web-01",
+            "@@uname",
+            "6.1.0-18-amd64",
+            "x86_64",
+            "@@uptime",
+            "273780.52 1043211.40",
+            "@@meminfo",
+            "MemTotal:        8000000 kB",
+            "MemFree:         1000000 kB",
+            "MemAvailable:    6000000 kB",
+            "Buffers:          200000 kB",
+            "Cached:          3000000 kB",
+            "SwapTotal:       2097148 kB",
+            "SwapFree:        2097148 kB",
+            "@@loadavg",
+            "0.38 0.80 0.71 1/78 3993",
+            "@@stat",
+            "cpu  600 0 200 1100 100 0 0 0 0 0",
+            "@@cpuinfo",
+            "4",
+            "model name\t: Intel(R) Xeon(R) Processor @ 2.10GHz",
+            "@@os",
+            "PRETTY_NAME=\"Debian GNU/Linux 12 (bookworm)\"",
+            "NAME=\"Debian GNU/Linux\"",
+            "VERSION_ID=\"12\"",
+            "@@statfs",
+            "4096 1000 400 300",
+            "");
+
+    @Test
+    void testParsesTypedFields() {
+        SystemInfo info = SystemProbe.parse(OUTPUT);
+
+        assertThat(info.getHostname()).isEqualTo("web-01");
+        assertThat(info.getKernelVersion()).isEqualTo("6.1.0-18-amd64");
+        assertThat(info.getArchitecture()).isEqualTo("x86_64");
+        assertThat(info.getOperatingSystem()).isEqualTo("Debian GNU/Linux 12 (bookworm)");
+        assertThat(info.getUptimeSeconds()).isEqualTo(273780L);
+        assertThat(info.getUptime()).isEqualTo("up 3 days, 4 hours, 3 minutes");
+
+        assertThat(info.getCpuCores()).isEqualTo(4);
+        assertThat(info.getCpuModel()).isEqualTo("Intel(R) Xeon(R) Processor @ 2.10GHz");
+        assertThat(info.getCpuUsagePercent()).isEqualTo(40.0);
+        assertThat(info.getLoad1()).isEqualTo(0.38);
+        assertThat(info.getLoad15()).isEqualTo(0.71);
+
+        assertThat(info.getMemTotalBytes()).isEqualTo(8_000_000L * 1024);
+        assertThat(info.getMemAvailableBytes()).isEqualTo(6_000_000L * 1024);
+        assertThat(info.getMemUsedPercent()).isEqualTo(25.0);
+        assertThat(info.getSwapTotalBytes()).isEqualTo(2_097_148L * 1024);
+
+        assertThat(info.getDiskTotalBytes()).isEqualTo(4_096_000L);
+        assertThat(info.getDiskAvailableBytes()).isEqualTo(1_228_800L);
+        assertThat(info.getDiskUsedPercent()).isEqualTo(66.7);
+        assertThat(info.getDiskUsage()).endsWith("Use%: 67%");
+    }
+
+    @Test
+    void testMissingSectionsLeaveFieldsEmpty() {
+        String output = String.join("\n",
+                "@@hostname",
+                "db-02",
+                "@@meminfo",
+                "MemTotal:        1000 kB",
+                "MemFree:          100 kB",
+                "Buffers:          100 kB",
+                "Cached:           300 kB",
+                "@@os",
+                "NAME=\"Alpine Linux\"",
+                "VERSION_ID=3.19.1",
+                "@@statfs");
+
+        SystemInfo info = SystemProbe.parse(output);
+
+        assertThat(info.getHostname()).isEqualTo("db-02");
+        assertThat(info.getOperatingSystem()).isEqualTo("Alpine Linux 3.19.1");
+        // Old kernels without MemAvailable fall back to free + buffers + cache
+        assertThat(info.getMemAvailableBytes()).isEqualTo(500L * 1024);
+        assertThat(info.getMemUsedPercent()).isEqualTo(50.0);
+        assertThat(info.getLoad1()).isNull();
+        assertThat(info.getCpuCores()).isNull();
+        assertThat(info.getDiskTotalBytes()).isNull();
+    }
+}
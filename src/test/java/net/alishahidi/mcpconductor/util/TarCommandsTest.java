@@ -0,0 +1,72 @@
+package net.alishahidi.mcpconductor.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class TarCommandsTest {
+
+    @Test
+    void testCreateWithFilters() {
+        String command = TarCommands.create("'/etc'", "'nginx'", List.of("'*.conf'"), List.of("'*.bak'", "'cache'"),
+                TarCommands.Compression.GZIP);
+
+        assertThat(command).contains(
+                "command -v gzip",
+                "cd -- '/etc' && [ -d 'nginx' ] || exit 3",
+                "find 'nginx' \\( -name '*.bak' -o -name 'cache' \\) -prune -o ! -type d \\( -name '*.conf' \\) -print0",
+                "s=$(mktemp) || exit 1; { find 'nginx'",
+                "tar --null --no-recursion -T - -cf -; echo $? > \"$s\"; } | gzip -c; c=$?");
+    }
+
+    @Test
+    void testCompressedCreateExitsWithTarStatus(@TempDir Path dir) throws Exception {
+        assumeTrue(Files.isExecutable(Path.of("/bin/sh")) && Files.isExecutable(Path.of("/usr/bin/gzip")));
+        Files.createDirectories(dir.resolve("app"));
+        Files.writeString(dir.resolve("app/a.conf"), "a");
+        // A tar that still writes some output but reports a fatal error
+        Path bin = Files.createDirectories(dir.resolve("bin"));
+        Files.writeString(bin.resolve("tar"), "#!/bin/sh\ncat >/dev/null; echo partial; echo 'tar: fatal' >&2; exit 2\n");
+        bin.resolve("tar").toFile().setExecutable(true);
+        String command = TarCommands.create("'" + dir + "'", "'app'", List.of(), List.of(), TarCommands.Compression.GZIP);
+
+        assertThat(run(command, null)).isZero();
+        assertThat(run(command, bin)).isEqualTo(2);
+    }
+
+    @Test
+    void testCreateWithoutFilters() {
+        String command = TarCommands.create("'/srv'", "'app'", List.of(), List.of(), TarCommands.Compression.NONE);
+
+        assertThat(command).isEqualTo("export LC_ALL=C; cd -- '/srv' && [ -d 'app' ] || exit 3; "
+                + "find 'app' -print0 | tar --null --no-recursion -T - -cf -");
+    }
+
+    @Test
+    void testExtract() {
+        String command = TarCommands.extract("'/srv/releases'", List.of("'*.jar'"), List.of("'*.log'"),
+                TarCommands.Compression.ZSTD);
+
+        assertThat(command).contains("command -v zstd", "mkdir -p -- '/srv/releases' && cd -- '/srv/releases' || exit 3",
+                "zstd -q -dc | tar -xf - --exclude='*.log' --wildcards --no-anchored -- '*.jar'");
+        assertThat(TarCommands.Compression.of(null)).isEqualTo(TarCommands.Compression.NONE);
+        assertThat(TarCommands.Compression.of("zstd").extension()).isEqualTo(".tar.zst");
+        assertThatThrownBy(() -> TarCommands.Compression.of("lz4")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static int run(String command, Path binOverride) throws Exception {
+        ProcessBuilder builder = new ProcessBuilder("/bin/sh", "-c", command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD);
+        if (binOverride != null) {
+            builder.environment().put("PATH", binOverride + ":" + builder.environment().get("PATH"));
+        }
+        return builder.start().waitFor();
+    }
+}
@@ -0,0 +1,124 @@
+package net.alishahidi.mcpconductor.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class UnifiedDiffTest {
+
+    @Test
+    void testSplitsGitDiffPerFile() {
+        List<UnifiedDiff.FilePatch> patches = UnifiedDiff.parse("""
+                diff --git a/etc/app/app.conf b/etc/app/app.conf
+                index 3b18e51..a8f4c2d 100644
+                --- a/etc/app/app.conf
+                +++ b/etc/app/app.conf
+                @@ -1,3 +1,3 @@
+                 port=8080
+                -workers=2
+                +workers=8
+
+                --- /etc/hosts\t2025-10-18 12:00:00
+                +++ /etc/hosts\t2025-10-18 12:05:00
+                @@ -4 +4,2 @@
+                 10.0.0.5 db
+                +10.0.0.6 cache
+                \\ No newline at end of file
+                """);
+
+        assertThat(patches).extracting(UnifiedDiff.FilePatch::path).containsExactly("/etc/app/app.conf", "/etc/hosts");
+        UnifiedDiff.FilePatch first = patches.get(0);
+        assertThat(first.hunks()).isEqualTo(1);
+        assertThat(first.added()).isEqualTo(1);
+        assertThat(first.removed()).isEqualTo(1);
+        // Blank context line restored and headers rewritten to the absolute path
+        assertThat(first.text()).isEqualTo("--- /etc/app/app.conf\n+++ /etc/app/app.conf\n"
+                + "@@ -1,3 +1,3 @@\n port=8080\n-workers=2\n+workers=8\n \n");
+        assertThat(patches.get(1).text()).endsWith("+10.0.0.6 cache\n\\ No newline at end of file\n");
+    }
+
+    @Test
+    void testRejectsInvalidDiffs() {
+        assertThatThrownBy(() -> UnifiedDiff.parse("--- /etc/a\n+++ /etc/a\n@@ -1,3 +1,3 @@\n a\n-b\n+c\n"))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("truncated");
+        assertThatThrownBy(() -> UnifiedDiff.parse("--- /dev/null\n+++ /etc/new\n@@ -0,0 +1 @@\n+x\n"))
+                .hasMessageContaining("not supported");
+        assertThatThrownBy(() -> UnifiedDiff.parse("--- etc/a\n+++ etc/a\n@@ -1 +1 @@\n-a\n+b\n"))
+                .hasMessageContaining("absolute");
+        assertThatThrownBy(() -> UnifiedDiff.parse("--- /etc/a\n+++ /etc/a\n@@ -1 +1 @@\n-a\n+b\n"
+                + "--- /etc/a\n+++ /etc/a\n@@ -5 +5 @@\n-c\n+d\n"))
+                .hasMessageContaining("twice");
+        assertThatThrownBy(() -> UnifiedDiff.parse("just text\n")).hasMessageContaining("No file headers");
+    }
+
+    @Test
+    void testCommandAndOutput() {
+        String command = UnifiedDiff.command(List.of("'/etc/a'", "'/etc/b c'"), Arrays.asList("ab".repeat(32), null),
+                List.of(40, 25), true);
+
+        assertThat(command).contains("tail -c +1 \"$d/in\" | head -c 40", "tail -c +41 \"$d/in\" | head -c 25",
+                "[ \"$h\" = '" + "ab".repeat(32) + "' ]", "mv -f -- \"$t1\" \"$f1\"");
+        assertThat(UnifiedDiff.command(List.of("'/etc/a'"), Arrays.asList((String) null), List.of(40), false))
+                .doesNotContain("mv -f");
+
+        List<UnifiedDiff.Outcome> outcomes = UnifiedDiff.parseOutput("ok 0 aaa bbb\nfail 1 base hash mismatch, file is now ccc\n");
+        assertThat(outcomes.get(0).ok()).isTrue();
+        assertThat(outcomes.get(0).newSha256()).isEqualTo("bbb");
+        assertThat(outcomes.get(1).ok()).isFalse();
+        assertThat(outcomes.get(1).error()).isEqualTo("base hash mismatch, file is now ccc");
+    }
+
+    @Test
+    void testFailedRenameRestoresEarlierFiles(@TempDir Path dir) throws Exception {
+        assumeTrue(Files.isExecutable(Path.of("/bin/sh")) && Files.isExecutable(Path.of("/usr/bin/patch")));
+        Path a = Files.writeString(dir.resolve("a.conf"), "workers=2\n");
+        Path b = Files.writeString(dir.resolve("b.conf"), "port=80\n");
+        String patchA = "--- " + a + "\n+++ " + a + "\n@@ -1 +1 @@\n-workers=2\n+workers=8\n";
+        String patchB = "--- " + b + "\n+++ " + b + "\n@@ -1 +1 @@\n-port=80\n+port=8080\n";
+        // An mv that cannot replace b.conf, as when its directory entry is immutable
+        Path bin = Files.createDirectories(dir.resolve("bin"));
+        Files.writeString(bin.resolve("mv"), "#!/bin/sh\ncase \"$4\" in */b.conf) exit 1;; esac\nexec /bin/mv \"$@\"\n");
+        bin.resolve("mv").toFile().setExecutable(true);
+        String command = UnifiedDiff.command(List.of("'" + a + "'", "'" + b + "'"), Arrays.asList(null, null),
+                List.of(patchA.length(), patchB.length()), true);
+
+        assertThat(run(command, patchA + patchB, bin)).startsWith("1\n").contains("fail 1 rename failed, no file was changed");
+        assertThat(Files.readString(a)).isEqualTo("workers=2\n");
+        assertThat(Files.readString(b)).isEqualTo("port=80\n");
+        assertThat(names(dir)).containsExactlyInAnyOrder("a.conf", "b.conf", "bin");
+
+        assertThat(run(command, patchA + patchB, null)).startsWith("0\n").contains("ok 1 ");
+        assertThat(Files.readString(a)).isEqualTo("workers=8\n");
+        assertThat(Files.readString(b)).isEqualTo("port=8080\n");
+        assertThat(names(dir)).containsExactlyInAnyOrder("a.conf", "b.conf", "bin");
+    }
+
+    private static String run(String command, String stdin, Path binOverride) throws Exception {
+        ProcessBuilder builder = new ProcessBuilder("/bin/sh", "-c", command)
+                .redirectError(ProcessBuilder.Redirect.DISCARD);
+        if (binOverride != null) {
+            builder.environment().put("PATH", binOverride + ":" + builder.environment().get("PATH"));
+        }
+        Process process = builder.start();
+        try (OutputStream in = process.getOutputStream()) {
+            in.write(stdin.getBytes(StandardCharsets.UTF_8));
+        }
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        return process.waitFor() + "\n" + output;
+    }
+
+    private static List<String> names(Path dir) throws Exception {
+        try (var entries = Files.list(dir)) {
+            return entries.map(path -> path.getFileName().toString()).toList();
+        }
+    }
+}
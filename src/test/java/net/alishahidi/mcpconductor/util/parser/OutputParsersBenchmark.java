@@ -0,0 +1,58 @@
+package net.alishahidi.mcpconductor.util.parser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse cost of each structured-output parser over its recorded fixture in
+ * {@code src/test/resources/parser}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutputParsersBenchmark {
+
+    private static final Map<String, OutputParser<?>> PARSERS = Map.of(
+            "df.txt", OutputParsers.DF,
+            "free.txt", OutputParsers.FREE,
+            "ps.txt", OutputParsers.PS,
+            "systemctl-list-units.txt", OutputParsers.SYSTEMCTL_UNITS,
+            "git-branch.txt", OutputParsers.GIT_BRANCH,
+            "ls.txt", OutputParsers.LS);
+
+    @Param({"df.txt", "free.txt", "ps.txt", "systemctl-list-units.txt", "git-branch.txt", "ls.txt"})
+    private String fixture;
+
+    private OutputParser<?> parser;
+    private byte[] output;
+
+    @Setup
+    public void setUp() throws IOException {
+        parser = PARSERS.get(fixture);
+        try (InputStream in = OutputParsersBenchmark.class.getResourceAsStream("/parser/" + fixture)) {
+            output = in.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    public Object parse() {
+        return parser.parse(output, output.length);
+    }
+}
@@ -0,0 +1,154 @@
+package net.alishahidi.mcpconductor.util.parser;
+
+import net.alishahidi.mcpconductor.exception.ValidationException;
+import net.alishahidi.mcpconductor.model.DiskUsage;
+import net.alishahidi.mcpconductor.model.FileEntry;
+import net.alishahidi.mcpconductor.model.GitBranch;
+import net.alishahidi.mcpconductor.model.MemoryUsage;
+import net.alishahidi.mcpconductor.model.ProcessInfo;
+import net.alishahidi.mcpconductor.model.ServiceInfo;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OutputParsersTest {
+
+    @Test
+    void testDfKeepsMountPointsWithSpaces() throws IOException {
+        List<DiskUsage> disks = parse(OutputParsers.DF, "df.txt");
+
+        assertThat(disks).hasSize(6);
+        DiskUsage root = disks.get(2);
+        assertThat(root.getFilesystem()).isEqualTo("/dev/vda1");
+        assertThat(root.getType()).isEqualTo("ext4");
+        assertThat(root.getSizeBytes()).isEqualTo(270553174016L);
+        assertThat(root.getAvailableBytes()).isEqualTo(85704355840L);
+        assertThat(root.getUsedPercent()).isEqualTo(5);
+        assertThat(root.getMountPoint()).isEqualTo("/");
+        assertThat(disks.get(5).getMountPoint()).isEqualTo("/mnt/backup share");
+    }
+
+    @Test
+    void testFreeReadsCurrentAndLegacyLayouts() throws IOException {
+        MemoryUsage memory = parse(OutputParsers.FREE, "free.txt");
+
+        assertThat(memory.getTotalBytes()).isEqualTo(6305947648L);
+        assertThat(memory.getAvailableBytes()).isEqualTo(5801492480L);
+        assertThat(memory.getBuffCacheBytes()).isEqualTo(353255424L);
+        assertThat(memory.getSwapUsedBytes()).isEqualTo(268435456L);
+        assertThat(memory.getUsedPercent()).isEqualTo(8.0);
+
+        String legacy = String.join("\n",
+                "             total       used       free     shared    buffers     cached",
+                "Mem:          1000        900        100          5         50        250",
+                "-/+ buffers/cache:        600        400",
+                "Swap:          200         20        180",
+                "");
+        MemoryUsage old = OutputParsers.FREE.parse(legacy.getBytes(StandardCharsets.UTF_8), legacy.length());
+        assertThat(old.getBuffCacheBytes()).isEqualTo(300);
+        assertThat(old.getAvailableBytes()).isEqualTo(400);
+        assertThat(old.getSwapFreeBytes()).isEqualTo(180);
+    }
+
+    @Test
+    void testPsParsesTimesAndFullCommandLines() throws IOException {
+        List<ProcessInfo> processes = parse(OutputParsers.PS, "ps.txt");
+
+        assertThat(processes).hasSize(9);
+        ProcessInfo java = processes.stream().filter(p -> p.getPid() == 2210).findFirst().orElseThrow();
+        assertThat(java.getUser()).isEqualTo("deploy");
+        assertThat(java.getState()).isEqualTo("Ssl");
+        assertThat(java.getThreads()).isEqualTo(47);
+        assertThat(java.getCpuPercent()).isEqualTo(12.6);
+        assertThat(java.getRssBytes()).isEqualTo(1203348L * 1024);
+        assertThat(java.getElapsedSeconds()).isEqualTo(172997);
+        assertThat(java.getCpuSeconds()).isEqualTo(86400 + 3600 + 24 * 60 + 5);
+        assertThat(java.getCommand()).endsWith("orders-service.jar --spring.profiles.active=prod");
+        assertThat(processes.get(3).getCommand()).isEqualTo("sshd: /usr/sbin/sshd -D [listener] 0 of 10-100 startups");
+    }
+
+    @Test
+    void testSystemctlUnitsMapStates() throws IOException {
+        List<ServiceInfo> services = parse(OutputParsers.SYSTEMCTL_UNITS, "systemctl-list-units.txt");
+
+        assertThat(services).hasSize(10);
+        ServiceInfo nginx = services.stream().filter(s -> s.getName().equals("nginx")).findFirst().orElseThrow();
+        assertThat(nginx.getStatus()).isEqualTo(ServiceInfo.ServiceStatus.FAILED);
+        assertThat(nginx.getDescription()).isEqualTo("A high performance web server and a reverse proxy server");
+        ServiceInfo snapd = services.get(6);
+        assertThat(snapd.getLoadState()).isEqualTo("not-found");
+        assertThat(snapd.getStatus()).isEqualTo(ServiceInfo.ServiceStatus.STOPPED);
+        assertThat(services.get(0).getStatus()).isEqualTo(ServiceInfo.ServiceStatus.RUNNING);
+
+        String bulleted = "● nginx.service loaded failed failed nginx\n";
+        List<ServiceInfo> old = OutputParsers.SYSTEMCTL_UNITS.parse(
+                bulleted.getBytes(StandardCharsets.UTF_8), bulleted.getBytes(StandardCharsets.UTF_8).length);
+        assertThat(old.get(0).getName()).isEqualTo("nginx");
+    }
+
+    @Test
+    void testGitBranchTracking() throws IOException {
+        List<GitBranch> branches = parse(OutputParsers.GIT_BRANCH, "git-branch.txt");
+
+        assertThat(branches).extracting(GitBranch::getName).containsExactly(
+                "feature/login", "hotfix", "main", "origin/feature/login", "origin/main", "origin/release/1.2");
+        GitBranch feature = branches.get(0);
+        assertThat(feature.getUpstream()).isEqualTo("origin/feature/login");
+        assertThat(feature.getAhead()).isEqualTo(1);
+        assertThat(feature.getBehind()).isEqualTo(1);
+        assertThat(branches.get(1).isUpstreamGone()).isTrue();
+        assertThat(branches.get(2).isCurrent()).isTrue();
+        assertThat(branches.get(3).isRemote()).isTrue();
+        assertThat(branches.get(3).getUpstream()).isNull();
+    }
+
+    @Test
+    void testLsTypesLinksAndDevices() throws IOException {
+        List<FileEntry> entries = parse(OutputParsers.LS, "ls.txt");
+
+        assertThat(entries).extracting(FileEntry::getName).containsExactly(
+                "app.log", "conf.d", "hosts", "my notes.txt", "pipe", "/dev/null");
+        FileEntry log = entries.get(0);
+        assertThat(log.getType()).isEqualTo(FileEntry.FileType.FILE);
+        assertThat(log.getPermissions()).isEqualTo("-rwsr-xr-x");
+        assertThat(log.getSizeBytes()).isEqualTo(1234);
+        assertThat(log.getModifiedEpochSeconds()).isEqualTo(1792358981L);
+        assertThat(entries.get(1).getType()).isEqualTo(FileEntry.FileType.DIRECTORY);
+        assertThat(entries.get(2).getLinkTarget()).isEqualTo("/etc/hosts");
+        assertThat(entries.get(4).getType()).isEqualTo(FileEntry.FileType.FIFO);
+        FileEntry device = entries.get(5);
+        assertThat(device.getType()).isEqualTo(FileEntry.FileType.CHAR_DEVICE);
+        assertThat(device.getSizeBytes()).isZero();
+        assertThat(device.getModifiedEpochSeconds()).isEqualTo(1792328343L);
+    }
+
+    @Test
+    void testResolveSelectsParserAndRejectsOptions() {
+        OutputParsers.Invocation units = OutputParsers.resolve("systemctl list-units 'nginx*'");
+        assertThat(units.parser()).isSameAs(OutputParsers.SYSTEMCTL_UNITS);
+        assertThat(units.argument()).isEqualTo("nginx*");
+        assertThat(units.parser().command(units.argument())).startsWith("LC_ALL=C systemctl").endsWith("-- 'nginx*'");
+
+        OutputParsers.Invocation ls = OutputParsers.resolve("ls /srv/it's");
+        assertThat(ls.parser().command(ls.argument())).endsWith("-- '/srv/it'\\''s'");
+        assertThat(ls.parser().takesPath()).isTrue();
+        assertThat(units.parser().takesPath()).isFalse();
+
+        assertThatThrownBy(() -> OutputParsers.resolve("ls -R /")).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> OutputParsers.resolve("systemctl restart nginx")).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> OutputParsers.resolve("git branch")
+                .parser().command(null)).isInstanceOf(ValidationException.class);
+    }
+
+    private static <T> T parse(OutputParser<T> parser, String fixture) throws IOException {
+        try (InputStream in = OutputParsersTest.class.getResourceAsStream("/parser/" + fixture)) {
+            byte[] output = in.readAllBytes();
+            return parser.parse(output, output.length);
+        }
+    }
+}